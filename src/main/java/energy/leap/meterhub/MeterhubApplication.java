@@ -1,9 +1,12 @@
 package energy.leap.meterhub;
 
+import energy.leap.meterhub.config.MeterhubProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
 @SpringBootApplication
+@EnableConfigurationProperties(MeterhubProperties.class)
 public class MeterhubApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,173 @@
+package energy.leap.meterhub.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "meterhub")
+public class MeterhubProperties {
+
+    private Ingest ingest = new Ingest();
+
+    private Persistence persistence = new Persistence();
+
+    private Report report = new Report();
+
+    private Cache cache = new Cache();
+
+    public enum IngestMode {
+        // Whole feed is parsed into memory, normalized and then mapped to hourly readings
+        BUFFERED,
+        // Interval readings are aggregated into hourly readings while the feed is being parsed
+        FUSED
+    }
+
+    public enum PersistMode {
+        // Feeds are saved by any of the persist stage workers
+        POOLED,
+        // Feeds are routed by meter to the partition owning it, which saves them on a single thread
+        PARTITIONED,
+        // Feeds of many meters are buffered and saved together in one transaction
+        WRITE_BEHIND
+    }
+
+    public enum WriteBehindAcknowledgement {
+        // Jobs succeed once their readings have been committed
+        DURABLE,
+        // Jobs succeed once their readings have been buffered, they are lost when the application stops unexpectedly
+        BUFFERED
+    }
+
+    @Getter
+    @Setter
+    public static class Ingest {
+        private IngestMode mode = IngestMode.FUSED;
+        // Number of locks meter writes are spread over, meters sharing a lock are written one after the other
+        private int lockStripes = 64;
+        private Async async = new Async();
+    }
+
+    @Getter
+    @Setter
+    public static class Async {
+        // Uploaded feeds waiting to be parsed, further uploads are rejected until one is taken
+        private Stage parse = new Stage(2, 100);
+        // Parsed feeds waiting to be normalized, a full queue holds up parsing
+        private Stage normalize = new Stage(1, 8);
+        // Normalized feeds waiting to be saved, a full queue holds up normalizing
+        private Stage persist = new Stage(2, 8);
+        private PersistMode persistMode = PersistMode.POOLED;
+        // Used instead of the persist stage in PARTITIONED mode
+        private Partitions partitions = new Partitions();
+        // Used instead of the persist stage in WRITE_BEHIND mode
+        private WriteBehind writeBehind = new WriteBehind();
+        // Sent to rejected clients as Retry-After
+        private Duration retryAfter = Duration.ofSeconds(5);
+        // How long a job can be looked up after it has been submitted or finished
+        private Duration jobRetention = Duration.ofHours(1);
+    }
+
+    @Getter
+    @Setter
+    public static class Persistence {
+        // Number of hourly readings sent to the database in one JDBC batch
+        private int batchSize = 1000;
+        // Number of hourly readings of a bulk upload kept in memory and loaded into the database together
+        private int bulkChunkSize = 50000;
+        private Partitioning partitioning = new Partitioning();
+    }
+
+    @Getter
+    @Setter
+    public static class Partitioning {
+        // Monthly partitions of hourly_reading are created ahead of time, which needs hourly_reading to be created as
+        // table partitioned by range of hour_index on PostgreSQL
+        private boolean enabled = false;
+        // Number of months after the current one that get a partition
+        private int monthsAhead = 3;
+        // Readings of months before the current month minus this many months are removed, kept forever when not set
+        private Integer retentionMonths;
+        // Time between two runs of partition creation and retention, the first one runs on startup
+        private Duration maintenanceInterval = Duration.ofHours(1);
+    }
+
+    @Getter
+    @Setter
+    public static class Report {
+        // Number of hourly reports returned when the request does not ask for a limit
+        private int pageSize = 1000;
+        private int maxPageSize = 10000;
+        // Number of meters returned by the top meters report when the request does not ask for a count
+        private int topCount = 10;
+        private int maxTopCount = 1000;
+        private Batch batch = new Batch();
+    }
+
+    @Getter
+    @Setter
+    public static class Batch {
+        // Number of meters read with one query, fewer when hourly reports are asked for since all their hours are read
+        private int chunkSize = 500;
+        private int hourlyChunkSize = 20;
+        // Threads reading chunks for all batch requests, chunks of one request are read this many at a time
+        private int threadCount = 4;
+        // Chunks waiting for a thread, requests read their chunks themselves while it is full
+        private int queueCapacity = 16;
+        // Number of meters one request can ask for
+        private int maxMeterCount = 100000;
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+        // Number of total reading, total cost and data version results kept in each cache
+        private long maximumSize = 10000;
+        // Number of hours kept over all cached hourly report pages
+        private long maximumHourlyReports = 1000000;
+        // Backstop for results cached while an ingest was running, ingests invalidate their meters on commit. Also how
+        // long the meter list is kept before meters stored by other instances are listed.
+        private Duration timeToLive = Duration.ofMinutes(10);
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Stage {
+        // Number of threads of the stage
+        private int workerCount = 1;
+        // Number of feeds waiting for a thread of the stage
+        private int queueCapacity = 8;
+    }
+
+    @Getter
+    @Setter
+    public static class Partitions {
+        // Number of partitions, each with one thread writing the meters it owns
+        private int count = 4;
+        // Number of feeds waiting for the partition, a full queue holds up normalizing
+        private int queueCapacity = 8;
+        // Number of queued feeds of one meter written in one transaction
+        private int maxCoalescedBatches = 16;
+    }
+
+    @Getter
+    @Setter
+    public static class WriteBehind {
+        private WriteBehindAcknowledgement acknowledgement = WriteBehindAcknowledgement.DURABLE;
+        // Buffered feeds are flushed after this time at the latest, even when they do not fill a batch
+        private Duration maxDelay = Duration.ofSeconds(1);
+        // Number of hourly readings flushed together, adapted between these so that a flush takes about the target time
+        private int minBatchSize = 1000;
+        private int maxBatchSize = 50000;
+        private Duration targetFlushTime = Duration.ofMillis(500);
+        // Number of hourly readings buffered at most, a full buffer holds up normalizing
+        private int capacity = 200000;
+    }
+}
@@ -1,9 +1,12 @@
 package energy.leap.meterhub.data.entity;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import lombok.*;
+import org.hibernate.annotations.Generated;
+import org.hibernate.annotations.GenerationTime;
 
 @Entity
 @Table(name = "ENERGY_METER")
@@ -18,5 +21,20 @@ public class EnergyMeter {
     @Id
     private String id;
     private String title;
+    // Bumped by every ingest of the meter, reports of the same version are the same
+    private Long dataVersion;
+    private Long dataModifiedEpochAsMilli;
+    // Assigned by the database when the meter is inserted, hourly readings refer to the meter by this key
+    @EqualsAndHashCode.Exclude
+    @Generated(GenerationTime.INSERT)
+    @Column(unique = true, insertable = false, updatable = false, columnDefinition = "INTEGER GENERATED BY DEFAULT AS IDENTITY")
+    private Integer meterKey;
 
+    public EnergyMeter(String id, String title) {
+        this(id, title, 0L, null, null);
+    }
+
+    public EnergyMeter(String id, String title, Long dataVersion, Long dataModifiedEpochAsMilli) {
+        this(id, title, dataVersion, dataModifiedEpochAsMilli, null);
+    }
 }
@@ -0,0 +1,29 @@
+package energy.leap.meterhub.data.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+// Sums of the hourly readings of the members of a group, kept up to date by the ingest transaction
+@Entity
+@Table(name = "GROUP_HOURLY_READING")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class GroupHourlyReading {
+
+    @EmbeddedId
+    private GroupHourlyReadingKey id;
+    private Long readingAsWh;
+    @Column(precision = 38, scale = 5)
+    private BigDecimal cost;
+    // Members with a reading of the hour
+    private Integer meterCount;
+}
@@ -0,0 +1,22 @@
+package energy.leap.meterhub.data.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class GroupHourlyReadingKey implements Serializable {
+    @Column
+    private Integer groupKey;
+    // Hours since the epoch, like the hour index of hourly readings
+    @Column
+    private Integer hourIndex;
+}
@@ -6,6 +6,8 @@ import lombok.*;
 import java.math.BigDecimal;
 
 @Entity
+// Primary key columns are ordered by name, so reading a meter's hours in order needs its own index
+@Table(indexes = @Index(name = "idx_hourly_reading_meter_hour", columnList = "meterKey, hourIndex"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -14,8 +16,8 @@ import java.math.BigDecimal;
 @ToString
 public class HourlyReading {
 
-    public HourlyReading (String meterId, Long hourStartEpochAsSec, BigDecimal pricePerKwh, Long readingAsWh) {
-        this.id = new HourlyReadingKey(meterId, hourStartEpochAsSec);
+    public HourlyReading (Integer meterKey, Long hourStartEpochAsSec, BigDecimal pricePerKwh, Long readingAsWh) {
+        this.id = HourlyReadingKey.of(meterKey, hourStartEpochAsSec);
         this.pricePerKwh = pricePerKwh;
         this.readingAsWh = readingAsWh;
     }
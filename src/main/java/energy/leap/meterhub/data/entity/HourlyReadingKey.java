@@ -5,6 +5,9 @@ import jakarta.persistence.Embeddable;
 import lombok.*;
 
 import java.io.Serializable;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
 
 @Embeddable
 @Getter
@@ -14,10 +17,43 @@ import java.io.Serializable;
 @ToString
 @EqualsAndHashCode
 public class HourlyReadingKey implements Serializable {
+
+    public static final long SECONDS_PER_HOUR = 3600L;
+
+    // Integer key of the meter in ENERGY_METER, 4 bytes per row instead of the external id of the meter
     @Column
-    private String meterId;
-    // hourId corresponds to start time of an hour and used together with
-    // meterId to serve as a unique identifier per hourly reading
+    private Integer meterKey;
+    // Hours since the epoch, an int lasts until the year 246953
     @Column
-    private Long hourStartEpochAsSec;
+    private Integer hourIndex;
+
+    public static HourlyReadingKey of(Integer meterKey, long hourStartEpochAsSec) {
+        return new HourlyReadingKey(meterKey, toHourIndex(hourStartEpochAsSec));
+    }
+
+    public static int toHourIndex(long hourStartEpochAsSec) {
+        if (hourStartEpochAsSec % SECONDS_PER_HOUR != 0) {
+            throw new IllegalArgumentException(String.format("%d is not the start of an hour", hourStartEpochAsSec));
+        }
+        return Math.toIntExact(hourStartEpochAsSec / SECONDS_PER_HOUR);
+    }
+
+    // Index of the first hour starting at or after the given epoch second, clamped to the range of hour indexes
+    public static int hourIndexAtOrAfter(long epochAsSec) {
+        long hourIndex = Math.floorDiv(epochAsSec, SECONDS_PER_HOUR) + (Math.floorMod(epochAsSec, SECONDS_PER_HOUR) == 0 ? 0 : 1);
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, hourIndex));
+    }
+
+    // Months start and end in UTC
+    public static int toHourIndex(YearMonth month) {
+        return toHourIndex(month.atDay(1).atStartOfDay(ZoneOffset.UTC).toEpochSecond());
+    }
+
+    public static YearMonth toMonth(int hourIndex) {
+        return YearMonth.from(Instant.ofEpochSecond(hourIndex * SECONDS_PER_HOUR).atOffset(ZoneOffset.UTC));
+    }
+
+    public long getHourStartEpochAsSec() {
+        return hourIndex * SECONDS_PER_HOUR;
+    }
 }
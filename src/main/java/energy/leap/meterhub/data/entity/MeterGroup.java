@@ -0,0 +1,36 @@
+package energy.leap.meterhub.data.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+import org.hibernate.annotations.Generated;
+import org.hibernate.annotations.GenerationTime;
+
+// Groups form a tree under the fleet, which is the only group without a parent and holds every meter
+@Entity
+@Table(name = "METER_GROUP")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class MeterGroup {
+    public static final String ROOT_ID = "fleet";
+
+    @Id
+    private String id;
+    private String title;
+    private String parentId;
+    // Assigned by the database when the group is inserted, members and hourly readings refer to the group by this key
+    @EqualsAndHashCode.Exclude
+    @Generated(GenerationTime.INSERT)
+    @Column(unique = true, insertable = false, updatable = false, columnDefinition = "INTEGER GENERATED BY DEFAULT AS IDENTITY")
+    private Integer groupKey;
+
+    public MeterGroup(String id, String title, String parentId) {
+        this(id, title, parentId, null);
+    }
+}
@@ -0,0 +1,25 @@
+package energy.leap.meterhub.data.entity;
+
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.*;
+
+// A meter is assigned to at most one group and is a member of that group and of every group above it except the
+// fleet, so the groups of a meter are found without walking the tree
+@Entity
+@Table(name = "METER_GROUP_MEMBER", indexes = @Index(name = "idx_meter_group_member_meter", columnList = "meterKey"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class MeterGroupMember {
+
+    @EmbeddedId
+    private MeterGroupMemberKey id;
+    // Set for the group the meter is assigned to, not for the groups above it
+    private Boolean assigned;
+}
@@ -0,0 +1,21 @@
+package energy.leap.meterhub.data.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class MeterGroupMemberKey implements Serializable {
+    @Column
+    private Integer groupKey;
+    @Column
+    private Integer meterKey;
+}
@@ -0,0 +1,26 @@
+package energy.leap.meterhub.data.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+// Sums of the hourly readings of a meter over a day or a month, kept up to date by the ingest transaction
+@Entity
+@Table(name = "METER_ROLLUP",
+        indexes = @Index(name = "idx_meter_rollup_meter_bucket", columnList = "meterKey, granularity, bucketHourIndex"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class MeterRollup {
+
+    @EmbeddedId
+    private MeterRollupKey id;
+    private Long readingAsWh;
+    // Exact sum of price * reading / 1000 of each hour, like the total cost of a meter
+    @Column(precision = 38, scale = 5)
+    private BigDecimal cost;
+}
@@ -0,0 +1,27 @@
+package energy.leap.meterhub.data.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.*;
+
+import java.io.Serializable;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class MeterRollupKey implements Serializable {
+    @Column
+    private Integer meterKey;
+    @Column(length = 5)
+    @Enumerated(EnumType.STRING)
+    private RollupGranularity granularity;
+    // Index of the first hour of the day or month
+    @Column
+    private Integer bucketHourIndex;
+}
@@ -0,0 +1,31 @@
+package energy.leap.meterhub.data.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+// Running totals of the hourly readings of a meter, kept up to date by the ingest transaction
+@Entity
+@Table(name = "METER_TOTALS")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class MeterTotals {
+
+    @Id
+    private String meterId;
+    private Long totalReadingAsWh;
+    // Exact sum of price * reading / 1000 of each hour, prices have 2 decimals so 5 decimals are enough
+    @Column(precision = 38, scale = 5)
+    private BigDecimal totalCost;
+    private Long hourCount;
+    private Long firstHourStartEpochAsSec;
+    private Long lastHourStartEpochAsSec;
+}
@@ -0,0 +1,19 @@
+package energy.leap.meterhub.data.entity;
+
+// Periods hourly readings are summed up over, in UTC. Buckets are identified by the index of their first hour.
+public enum RollupGranularity {
+    DAY {
+        @Override
+        public int getBucketHourIndex(int hourIndex) {
+            return Math.floorDiv(hourIndex, 24) * 24;
+        }
+    },
+    MONTH {
+        @Override
+        public int getBucketHourIndex(int hourIndex) {
+            return HourlyReadingKey.toHourIndex(HourlyReadingKey.toMonth(hourIndex));
+        }
+    };
+
+    public abstract int getBucketHourIndex(int hourIndex);
+}
@@ -0,0 +1,13 @@
+package energy.leap.meterhub.data.projection;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+// Stored values of a day or month rollup of a meter
+@Value
+public class BucketedReportValue {
+    Long bucketStartEpochAsSec;
+    Long readingAsWh;
+    BigDecimal cost;
+}
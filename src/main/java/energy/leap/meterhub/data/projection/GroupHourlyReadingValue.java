@@ -0,0 +1,14 @@
+package energy.leap.meterhub.data.projection;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+// Sums of an hour as aggregated over the stored hourly readings of the members of a group
+@Value
+public class GroupHourlyReadingValue {
+    Integer hourIndex;
+    Long readingAsWh;
+    BigDecimal priceTimesReading;
+    Long meterCount;
+}
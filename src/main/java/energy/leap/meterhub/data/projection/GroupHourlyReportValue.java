@@ -0,0 +1,14 @@
+package energy.leap.meterhub.data.projection;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+// Stored sums of an hour of a group
+@Value
+public class GroupHourlyReportValue {
+    Long hourStartEpochAsSec;
+    Long readingAsWh;
+    BigDecimal cost;
+    Integer meterCount;
+}
@@ -0,0 +1,13 @@
+package energy.leap.meterhub.data.projection;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+// Stored values of an hour, read without hydrating HourlyReading entities
+@Value
+public class HourlyReadingValue {
+    Long hourStartEpochAsSec;
+    BigDecimal pricePerKwh;
+    Long readingAsWh;
+}
@@ -0,0 +1,13 @@
+package energy.leap.meterhub.data.projection;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+// Hourly report of a meter
+@Value
+public class HourlyReportValue {
+    Long hourStartEpochAsSec;
+    Long readingAsWh;
+    BigDecimal cost;
+}
@@ -0,0 +1,14 @@
+package energy.leap.meterhub.data.projection;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+// Hourly report of one of the meters read together
+@Value
+public class MeterHourlyReportValue {
+    String meterId;
+    Long hourStartEpochAsSec;
+    Long readingAsWh;
+    BigDecimal cost;
+}
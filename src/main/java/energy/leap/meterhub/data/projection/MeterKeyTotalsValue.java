@@ -0,0 +1,13 @@
+package energy.leap.meterhub.data.projection;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+// Sums of a meter over part of a range, read for all meters at once by their keys
+@Value
+public class MeterKeyTotalsValue {
+    Integer meterKey;
+    Long totalReadingAsWh;
+    BigDecimal totalCost;
+}
@@ -0,0 +1,13 @@
+package energy.leap.meterhub.data.projection;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+// Totals of a meter as aggregated over its stored hourly readings of a range of hours
+@Value
+public class MeterRangeTotalsValue {
+    String meterId;
+    Long totalReadingAsWh;
+    BigDecimal totalPriceTimesReading;
+}
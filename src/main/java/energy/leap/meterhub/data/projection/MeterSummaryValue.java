@@ -0,0 +1,17 @@
+package energy.leap.meterhub.data.projection;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+// Totals of a meter over a range of its hourly readings along with the hour of its highest reading
+@Value
+public class MeterSummaryValue {
+    Long totalReadingAsWh;
+    BigDecimal totalPriceTimesReading;
+    Long hourCount;
+    Long firstHourStartEpochAsSec;
+    Long lastHourStartEpochAsSec;
+    Long peakHourStartEpochAsSec;
+    Long peakReadingAsWh;
+}
@@ -0,0 +1,15 @@
+package energy.leap.meterhub.data.projection;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+// Totals of a meter as aggregated over its stored hourly readings
+@Value
+public class MeterTotalsValue {
+    Long totalReadingAsWh;
+    BigDecimal totalPriceTimesReading;
+    Long hourCount;
+    Long firstHourStartEpochAsSec;
+    Long lastHourStartEpochAsSec;
+}
@@ -0,0 +1,22 @@
+package energy.leap.meterhub.data.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+// Custom repositories use PostgreSQL specific SQL where it is available and portable SQL otherwise
+final class DatabaseProducts {
+
+    private DatabaseProducts() {
+    }
+
+    static boolean isPostgreSql(JdbcTemplate jdbcTemplate) {
+        try {
+            String productName = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                    metaData -> JdbcUtils.commonDatabaseName(metaData.getDatabaseProductName()));
+            return "PostgreSQL".equalsIgnoreCase(productName);
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Database type can not be detected", e);
+        }
+    }
+}
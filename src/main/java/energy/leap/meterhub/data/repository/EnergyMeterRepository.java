@@ -1,7 +1,35 @@
 package energy.leap.meterhub.data.repository;
 
 import energy.leap.meterhub.data.entity.EnergyMeter;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface EnergyMeterRepository extends JpaRepository<EnergyMeter, String> {
-}
\ No newline at end of file
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface EnergyMeterRepository extends JpaRepository<EnergyMeter, String>, EnergyMeterRepositoryCustom {
+    // Incremented in the database, the row stays locked until commit so concurrent ingests do not lose a version
+    @Modifying
+    @Query("UPDATE EnergyMeter em SET em.dataVersion = COALESCE(em.dataVersion, 0) + 1, " +
+            "em.dataModifiedEpochAsMilli = :modifiedEpochAsMilli WHERE em.id = :meterId")
+    int incrementDataVersion(@Param("meterId") String meterId, @Param("modifiedEpochAsMilli") Long modifiedEpochAsMilli);
+
+    @Query("SELECT em.meterKey FROM EnergyMeter em WHERE em.id = :meterId")
+    Integer findMeterKey(@Param("meterId") String meterId);
+
+    // Waits for ingests of the meter, which keep its row locked from incrementDataVersion until they commit
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT em FROM EnergyMeter em WHERE em.id = :meterId")
+    Optional<EnergyMeter> findForUpdate(@Param("meterId") String meterId);
+
+    List<EnergyMeter> findByMeterKeyIn(Collection<Integer> meterKeys);
+
+    @Modifying
+    @Query("UPDATE EnergyMeter em SET em.title = :title WHERE em.id = :meterId")
+    int updateTitle(@Param("meterId") String meterId, @Param("title") String title);
+}
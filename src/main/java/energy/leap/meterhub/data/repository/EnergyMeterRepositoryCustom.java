@@ -0,0 +1,8 @@
+package energy.leap.meterhub.data.repository;
+
+public interface EnergyMeterRepositoryCustom {
+    // Returns 0 when the meter already exists, in one round trip instead of a lookup followed by an insert.
+    // The existence check and the insert are one atomic statement, so concurrent inserts of the same meter by several
+    // instances do not fail. The key of the meter is assigned by the database.
+    int insertIfAbsent(String meterId, String title);
+}
@@ -0,0 +1,38 @@
+package energy.leap.meterhub.data.repository;
+
+import jakarta.transaction.Transactional;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@RequiredArgsConstructor
+public class EnergyMeterRepositoryCustomImpl implements EnergyMeterRepositoryCustom {
+
+    private static final String POSTGRESQL_INSERT_IF_ABSENT_SQL =
+            "INSERT INTO energy_meter (id, title, data_version) VALUES (?, ?, 0) " +
+            "ON CONFLICT (id) DO NOTHING";
+
+    private static final String MERGE_INSERT_IF_ABSENT_SQL =
+            "MERGE INTO energy_meter em " +
+            "USING (VALUES (CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)))) AS meter (id, title) " +
+            "ON em.id = meter.id " +
+            "WHEN NOT MATCHED THEN INSERT (id, title, data_version) VALUES (meter.id, meter.title, 0)";
+
+    @NonNull
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgreSql;
+
+    private boolean isPostgreSql() {
+        if (postgreSql == null) {
+            postgreSql = DatabaseProducts.isPostgreSql(jdbcTemplate);
+        }
+        return postgreSql;
+    }
+
+    @Override
+    @Transactional
+    public int insertIfAbsent(String meterId, String title) {
+        return jdbcTemplate.update(isPostgreSql() ? POSTGRESQL_INSERT_IF_ABSENT_SQL : MERGE_INSERT_IF_ABSENT_SQL, meterId, title);
+    }
+}
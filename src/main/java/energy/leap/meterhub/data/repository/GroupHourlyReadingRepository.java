@@ -0,0 +1,47 @@
+package energy.leap.meterhub.data.repository;
+
+import energy.leap.meterhub.data.entity.GroupHourlyReading;
+import energy.leap.meterhub.data.entity.GroupHourlyReadingKey;
+import energy.leap.meterhub.data.entity.HourlyReadingKey;
+import energy.leap.meterhub.data.projection.GroupHourlyReadingValue;
+import energy.leap.meterhub.data.projection.GroupHourlyReportValue;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface GroupHourlyReadingRepository extends JpaRepository<GroupHourlyReading, GroupHourlyReadingKey>, GroupHourlyReadingRepositoryCustom {
+    // Range scan over the (group_key, hour_index) primary key, however many meters the group holds
+    @Query("SELECT new energy.leap.meterhub.data.projection.GroupHourlyReportValue(ghr.id.hourIndex * 3600L, ghr.readingAsWh, ghr.cost, ghr.meterCount) " +
+            "FROM GroupHourlyReading ghr JOIN MeterGroup mg ON mg.groupKey = ghr.id.groupKey " +
+            "WHERE mg.id = :groupId AND ghr.id.hourIndex >= :fromHourIndex AND ghr.id.hourIndex < :toHourIndex " +
+            "ORDER BY ghr.id.hourIndex")
+    List<GroupHourlyReportValue> findReportsOfGroupBetweenHourIndexes(@Param("groupId") String groupId,
+                                                                      @Param("fromHourIndex") Integer fromHourIndex,
+                                                                      @Param("toHourIndex") Integer toHourIndex);
+
+    // Hours starting in [fromHour, toHour) given as epoch seconds
+    default List<GroupHourlyReportValue> findReportsOfGroupBetween(String groupId, Long fromHour, Long toHour) {
+        return findReportsOfGroupBetweenHourIndexes(groupId, HourlyReadingKey.hourIndexAtOrAfter(fromHour),
+                HourlyReadingKey.hourIndexAtOrAfter(toHour));
+    }
+
+    boolean existsByIdGroupKey(Integer groupKey);
+
+    // Sums of the readings of all meters, for the fleet
+    @Query("SELECT new energy.leap.meterhub.data.projection.GroupHourlyReadingValue(hr.id.hourIndex, SUM(hr.readingAsWh), " +
+            "SUM(hr.readingAsWh * hr.pricePerKwh), COUNT(hr)) FROM HourlyReading hr GROUP BY hr.id.hourIndex")
+    List<GroupHourlyReadingValue> aggregateAllMeters();
+
+    // Hours left without any member reading once meters have left the groups
+    @Modifying
+    @Query("DELETE FROM GroupHourlyReading ghr WHERE ghr.id.groupKey IN :groupKeys AND ghr.meterCount = 0")
+    int deleteEmptyOfGroups(@Param("groupKeys") Collection<Integer> groupKeys);
+
+    @Modifying
+    @Query("DELETE FROM GroupHourlyReading ghr WHERE ghr.id.hourIndex < :hourIndex")
+    int deleteBefore(@Param("hourIndex") Integer hourIndex);
+}
@@ -0,0 +1,12 @@
+package energy.leap.meterhub.data.repository;
+
+import energy.leap.meterhub.data.entity.GroupHourlyReading;
+
+import java.util.List;
+
+public interface GroupHourlyReadingRepositoryCustom {
+    // Adds the readings, costs and meter counts to the stored ones of the same group and hour, hours not stored yet
+    // are inserted. The sums are made by the database, so writers of different meters of a group do not overwrite
+    // each other.
+    void addAll(List<GroupHourlyReading> deltas);
+}
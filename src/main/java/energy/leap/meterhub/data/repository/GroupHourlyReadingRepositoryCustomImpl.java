@@ -0,0 +1,72 @@
+package energy.leap.meterhub.data.repository;
+
+import energy.leap.meterhub.config.MeterhubProperties;
+import energy.leap.meterhub.data.entity.GroupHourlyReading;
+import jakarta.transaction.Transactional;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class GroupHourlyReadingRepositoryCustomImpl implements GroupHourlyReadingRepositoryCustom {
+
+    private static final String POSTGRESQL_ADD_SQL =
+            "INSERT INTO group_hourly_reading (group_key, hour_index, reading_as_wh, cost, meter_count) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (group_key, hour_index) " +
+            "DO UPDATE SET reading_as_wh = group_hourly_reading.reading_as_wh + EXCLUDED.reading_as_wh, " +
+            "cost = group_hourly_reading.cost + EXCLUDED.cost, " +
+            "meter_count = group_hourly_reading.meter_count + EXCLUDED.meter_count";
+
+    private static final String MERGE_ADD_SQL =
+            "MERGE INTO group_hourly_reading ghr " +
+            "USING (VALUES (CAST(? AS INTEGER), CAST(? AS INTEGER), CAST(? AS BIGINT), CAST(? AS NUMERIC(38, 5)), CAST(? AS INTEGER))) " +
+            "AS delta (group_key, hour_index, reading_as_wh, cost, meter_count) " +
+            "ON ghr.group_key = delta.group_key AND ghr.hour_index = delta.hour_index " +
+            "WHEN MATCHED THEN UPDATE SET reading_as_wh = ghr.reading_as_wh + delta.reading_as_wh, " +
+            "cost = ghr.cost + delta.cost, meter_count = ghr.meter_count + delta.meter_count " +
+            "WHEN NOT MATCHED THEN INSERT (group_key, hour_index, reading_as_wh, cost, meter_count) " +
+            "VALUES (delta.group_key, delta.hour_index, delta.reading_as_wh, delta.cost, delta.meter_count)";
+
+    // Rows of a group are shared by all writers of its meters, taking their locks in the same order keeps two
+    // writers from waiting on each other
+    private static final Comparator<GroupHourlyReading> LOCK_ORDER =
+            Comparator.comparing((GroupHourlyReading delta) -> delta.getId().getGroupKey())
+                    .thenComparing(delta -> delta.getId().getHourIndex());
+
+    @NonNull
+    private final JdbcTemplate jdbcTemplate;
+
+    @NonNull
+    private final MeterhubProperties meterhubProperties;
+
+    private volatile Boolean postgreSql;
+
+    private boolean isPostgreSql() {
+        if (postgreSql == null) {
+            postgreSql = DatabaseProducts.isPostgreSql(jdbcTemplate);
+        }
+        return postgreSql;
+    }
+
+    @Override
+    @Transactional
+    public void addAll(List<GroupHourlyReading> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<GroupHourlyReading> orderedDeltas = deltas.stream().sorted(LOCK_ORDER).toList();
+        jdbcTemplate.batchUpdate(isPostgreSql() ? POSTGRESQL_ADD_SQL : MERGE_ADD_SQL,
+                orderedDeltas, meterhubProperties.getPersistence().getBatchSize(),
+                (statement, delta) -> {
+                    statement.setInt(1, delta.getId().getGroupKey());
+                    statement.setInt(2, delta.getId().getHourIndex());
+                    statement.setLong(3, delta.getReadingAsWh());
+                    statement.setBigDecimal(4, delta.getCost());
+                    statement.setInt(5, delta.getMeterCount());
+                });
+    }
+}
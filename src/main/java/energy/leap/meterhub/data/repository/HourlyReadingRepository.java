@@ -2,18 +2,132 @@ package energy.leap.meterhub.data.repository;
 
 import energy.leap.meterhub.data.entity.HourlyReading;
 import energy.leap.meterhub.data.entity.HourlyReadingKey;
+import energy.leap.meterhub.data.projection.HourlyReadingValue;
+import energy.leap.meterhub.data.projection.HourlyReportValue;
+import energy.leap.meterhub.data.projection.MeterHourlyReportValue;
+import energy.leap.meterhub.data.projection.MeterKeyTotalsValue;
+import energy.leap.meterhub.data.projection.MeterRangeTotalsValue;
+import energy.leap.meterhub.data.projection.MeterSummaryValue;
+import energy.leap.meterhub.data.projection.MeterTotalsValue;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface HourlyReadingRepository extends JpaRepository<HourlyReading, HourlyReadingKey> {
-    List<HourlyReading> findByIdMeterId(String meterId);
+public interface HourlyReadingRepository extends JpaRepository<HourlyReading, HourlyReadingKey>, HourlyReadingRepositoryCustom {
+    // Rows only hold the integer key of their meter, queries of a meter join its external id
+    String OF_METER = "FROM HourlyReading hr JOIN EnergyMeter em ON em.meterKey = hr.id.meterKey WHERE em.id=:meterId ";
 
-    @Query("SELECT SUM(hr.readingAsWh) FROM HourlyReading hr WHERE hr.id.meterId=:meterId")
+    @Query("SELECT hr " + OF_METER)
+    List<HourlyReading> findByMeterId(@Param("meterId") String meterId);
+
+    // Cost is computed by the database. A product has the sum of the scales of its factors, so the price with two
+    // decimals times the reading in kWh gives an exact cost with five, the scale of the stored costs.
+    String HOURLY_COST = "hr.pricePerKwh * hr.readingAsWh * 0.001BD";
+
+    String HOURLY_REPORT_SELECT =
+            "SELECT new energy.leap.meterhub.data.projection.HourlyReportValue(hr.id.hourIndex * 3600L, hr.readingAsWh, " +
+            HOURLY_COST + ") " + OF_METER +
+            "AND hr.id.hourIndex >= :fromHourIndex AND hr.id.hourIndex < :toHourIndex " +
+            "ORDER BY hr.id.hourIndex";
+
+    // Range scan over the (meter_key, hour_index) index, only the requested page is read
+    @Query(HOURLY_REPORT_SELECT)
+    List<HourlyReportValue> findReportsOfMeterBetweenHourIndexes(@Param("meterId") String meterId,
+                                                                 @Param("fromHourIndex") Integer fromHourIndex,
+                                                                 @Param("toHourIndex") Integer toHourIndex,
+                                                                 Pageable pageable);
+
+    // Hours starting in [fromHour, toHour) given as epoch seconds
+    default List<HourlyReportValue> findReportsOfMeterBetween(String meterId, Long fromHour, Long toHour, Pageable pageable) {
+        return findReportsOfMeterBetweenHourIndexes(meterId, HourlyReadingKey.hourIndexAtOrAfter(fromHour), HourlyReadingKey.hourIndexAtOrAfter(toHour), pageable);
+    }
+
+    // Rows are fetched from a cursor in chunks of the fetch size, as projections they are not kept in the persistence
+    // context, so the stream has to be consumed and closed within a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(HOURLY_REPORT_SELECT)
+    Stream<HourlyReportValue> streamReportsOfMeterBetweenHourIndexes(@Param("meterId") String meterId,
+                                                                     @Param("fromHourIndex") Integer fromHourIndex,
+                                                                     @Param("toHourIndex") Integer toHourIndex);
+
+    default Stream<HourlyReportValue> streamReportsOfMeterBetween(String meterId, Long fromHour, Long toHour) {
+        return streamReportsOfMeterBetweenHourIndexes(meterId, HourlyReadingKey.hourIndexAtOrAfter(fromHour), HourlyReadingKey.hourIndexAtOrAfter(toHour));
+    }
+
+    @Query("SELECT SUM(hr.readingAsWh) " + OF_METER)
     Long getTotalReadingAsWhOfMeter(@Param("meterId") String meterId);
 
-    @Query("SELECT SUM(hr.readingAsWh * hr.pricePerKwh / 1000) FROM HourlyReading hr WHERE hr.id.meterId=:meterId")
+    @Query("SELECT SUM(hr.readingAsWh * hr.pricePerKwh / 1000) " + OF_METER)
     Double getTotalCostOfMeter(@Param("meterId") String meterId);
+
+    @Query("SELECT new energy.leap.meterhub.data.projection.HourlyReadingValue(hr.id.hourIndex * 3600L, hr.pricePerKwh, hr.readingAsWh) " +
+            OF_METER + "AND hr.id.hourIndex >= :fromHourIndex AND hr.id.hourIndex < :toHourIndex")
+    List<HourlyReadingValue> findValuesOfMeterBetweenHourIndexes(@Param("meterId") String meterId,
+                                                                 @Param("fromHourIndex") Integer fromHourIndex,
+                                                                 @Param("toHourIndex") Integer toHourIndex);
+
+    // Hours starting in [fromHour, toHour] given as epoch seconds
+    default List<HourlyReadingValue> findValuesOfMeterBetween(String meterId, Long fromHour, Long toHour) {
+        return findValuesOfMeterBetweenHourIndexes(meterId, HourlyReadingKey.hourIndexAtOrAfter(fromHour),
+                HourlyReadingKey.hourIndexAtOrAfter(Math.addExact(toHour, 1L)));
+    }
+
+    @Query("SELECT new energy.leap.meterhub.data.projection.MeterTotalsValue(SUM(hr.readingAsWh), SUM(hr.readingAsWh * hr.pricePerKwh), " +
+            "COUNT(hr), MIN(hr.id.hourIndex) * 3600L, MAX(hr.id.hourIndex) * 3600L) " + OF_METER)
+    MeterTotalsValue aggregateTotalsOfMeter(@Param("meterId") String meterId);
+
+    // Hours starting in [fromHour, toHour) given as epoch seconds
+    default MeterSummaryValue findSummaryOfMeterBetween(String meterId, Long fromHour, Long toHour) {
+        return findSummaryOfMeterBetweenHourIndexes(meterId, HourlyReadingKey.hourIndexAtOrAfter(fromHour),
+                HourlyReadingKey.hourIndexAtOrAfter(toHour));
+    }
+
+    // Meters of a batch report are read together, with their external ids since they are asked for by those
+    String OF_METERS = "FROM HourlyReading hr JOIN EnergyMeter em ON em.meterKey = hr.id.meterKey WHERE em.id IN :meterIds " +
+            "AND hr.id.hourIndex >= :fromHourIndex AND hr.id.hourIndex < :toHourIndex ";
+
+    @Query("SELECT new energy.leap.meterhub.data.projection.MeterRangeTotalsValue(em.id, SUM(hr.readingAsWh), " +
+            "SUM(hr.readingAsWh * hr.pricePerKwh)) " + OF_METERS + "GROUP BY em.id")
+    List<MeterRangeTotalsValue> aggregateTotalsOfMetersBetweenHourIndexes(@Param("meterIds") Collection<String> meterIds,
+                                                                         @Param("fromHourIndex") Integer fromHourIndex,
+                                                                         @Param("toHourIndex") Integer toHourIndex);
+
+    // Hours starting in [fromHour, toHour) given as epoch seconds
+    default List<MeterRangeTotalsValue> aggregateTotalsOfMetersBetween(Collection<String> meterIds, Long fromHour, Long toHour) {
+        return aggregateTotalsOfMetersBetweenHourIndexes(meterIds, HourlyReadingKey.hourIndexAtOrAfter(fromHour),
+                HourlyReadingKey.hourIndexAtOrAfter(toHour));
+    }
+
+    @Query("SELECT new energy.leap.meterhub.data.projection.MeterHourlyReportValue(em.id, hr.id.hourIndex * 3600L, hr.readingAsWh, " +
+            HOURLY_COST + ") " + OF_METERS + "ORDER BY em.id, hr.id.hourIndex")
+    List<MeterHourlyReportValue> findReportsOfMetersBetweenHourIndexes(@Param("meterIds") Collection<String> meterIds,
+                                                                       @Param("fromHourIndex") Integer fromHourIndex,
+                                                                       @Param("toHourIndex") Integer toHourIndex);
+
+    default List<MeterHourlyReportValue> findReportsOfMetersBetween(Collection<String> meterIds, Long fromHour, Long toHour) {
+        return findReportsOfMetersBetweenHourIndexes(meterIds, HourlyReadingKey.hourIndexAtOrAfter(fromHour),
+                HourlyReadingKey.hourIndexAtOrAfter(toHour));
+    }
+
+    // Range scan over the primary key, which starts with hour_index, so only the hours of the range are read
+    @Query("SELECT new energy.leap.meterhub.data.projection.MeterKeyTotalsValue(hr.id.meterKey, SUM(hr.readingAsWh), " +
+            "SUM(hr.pricePerKwh * hr.readingAsWh * 0.001BD)) FROM HourlyReading hr " +
+            "WHERE hr.id.hourIndex >= :fromHourIndex AND hr.id.hourIndex < :toHourIndex GROUP BY hr.id.meterKey")
+    List<MeterKeyTotalsValue> aggregateTotalsOfAllMetersBetweenHourIndexes(@Param("fromHourIndex") Integer fromHourIndex,
+                                                                          @Param("toHourIndex") Integer toHourIndex);
+
+    // Readings of partitions that were dropped before are already gone, so on a partitioned table only the default
+    // partition is left to be searched
+    @Modifying
+    @Query("DELETE FROM HourlyReading hr WHERE hr.id.hourIndex < :hourIndex")
+    int deleteReadingsBefore(@Param("hourIndex") Integer hourIndex);
 }
@@ -0,0 +1,37 @@
+package energy.leap.meterhub.data.repository;
+
+import energy.leap.meterhub.data.entity.HourlyReading;
+import energy.leap.meterhub.data.projection.MeterSummaryValue;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+public interface HourlyReadingRepositoryCustom {
+    // Inserts readings or overwrites existing readings of the same meter and hour, without loading them first
+    void upsertAll(List<HourlyReading> readings);
+
+    // Same as upsertAll for a large chunk of readings, returns the number of readings loaded. On PostgreSQL readings
+    // are copied into a staging table and merged with a single statement, nothing else can run on the connection
+    // while they are copied.
+    long bulkLoad(List<HourlyReading> readings);
+
+    // Totals and peak hour of the readings of a meter in [fromHourIndex, toHourIndex) read with a single range scan,
+    // null when there are none
+    MeterSummaryValue findSummaryOfMeterBetweenHourIndexes(String meterId, int fromHourIndex, int toHourIndex);
+
+    // Whether hourly_reading is partitioned by range of hour_index, which is only supported on PostgreSQL.
+    // The partition operations below can only be used when it is.
+    boolean isPartitioned();
+
+    Set<YearMonth> findMonthlyPartitions();
+
+    // Months from the first to the last reading kept in the default partition, which takes readings of months
+    // without partition
+    List<YearMonth> findMonthsOfDefaultPartition();
+
+    // Readings of the month are moved out of the default partition into the new partition
+    void createMonthlyPartition(YearMonth month);
+
+    void dropMonthlyPartition(YearMonth month);
+}
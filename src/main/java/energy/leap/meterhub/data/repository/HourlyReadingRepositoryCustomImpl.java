@@ -0,0 +1,270 @@
+package energy.leap.meterhub.data.repository;
+
+import energy.leap.meterhub.config.MeterhubProperties;
+import energy.leap.meterhub.data.entity.HourlyReading;
+import energy.leap.meterhub.data.entity.HourlyReadingKey;
+import energy.leap.meterhub.data.projection.MeterSummaryValue;
+import jakarta.transaction.Transactional;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@RequiredArgsConstructor
+public class HourlyReadingRepositoryCustomImpl implements HourlyReadingRepositoryCustom {
+
+    private static final String POSTGRESQL_UPSERT_SQL =
+            "INSERT INTO hourly_reading (meter_key, hour_index, price_per_kwh, reading_as_wh) " +
+            "VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (meter_key, hour_index) " +
+            "DO UPDATE SET price_per_kwh = EXCLUDED.price_per_kwh, reading_as_wh = EXCLUDED.reading_as_wh";
+
+    private static final String MERGE_UPSERT_SQL =
+            "MERGE INTO hourly_reading (meter_key, hour_index, price_per_kwh, reading_as_wh) " +
+            "KEY (meter_key, hour_index) " +
+            "VALUES (?, ?, ?, ?)";
+
+    // Staging rows are numbered in load order, so the last row of an hour wins like it does for upsertAll
+    private static final String POSTGRESQL_CREATE_STAGING_SQL =
+            "CREATE TEMPORARY TABLE hourly_reading_staging (" +
+            "meter_key INTEGER, hour_index INTEGER, price_per_kwh NUMERIC(38, 2), reading_as_wh BIGINT, " +
+            "load_order BIGSERIAL) ON COMMIT DROP";
+
+    private static final String POSTGRESQL_COPY_STAGING_SQL =
+            "COPY hourly_reading_staging (meter_key, hour_index, price_per_kwh, reading_as_wh) " +
+            "FROM STDIN WITH (FORMAT csv)";
+
+    private static final String POSTGRESQL_MERGE_STAGING_SQL =
+            "INSERT INTO hourly_reading (meter_key, hour_index, price_per_kwh, reading_as_wh) " +
+            "SELECT DISTINCT ON (meter_key, hour_index) meter_key, hour_index, price_per_kwh, reading_as_wh " +
+            "FROM hourly_reading_staging " +
+            "ORDER BY meter_key, hour_index, load_order DESC " +
+            "ON CONFLICT (meter_key, hour_index) " +
+            "DO UPDATE SET price_per_kwh = EXCLUDED.price_per_kwh, reading_as_wh = EXCLUDED.reading_as_wh";
+
+    private static final String POSTGRESQL_DROP_STAGING_SQL = "DROP TABLE hourly_reading_staging";
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    // Aggregates are taken over the whole range as window functions next to the rank of each hour by its reading,
+    // so the row of the peak hour carries the totals and the range is only scanned once
+    private static final String SUMMARY_SQL =
+            "SELECT total_reading_as_wh, total_price_times_reading, hour_count, first_hour_index, last_hour_index, " +
+            "hour_index, reading_as_wh FROM (" +
+            "SELECT hr.hour_index, hr.reading_as_wh, " +
+            "SUM(hr.reading_as_wh) OVER () AS total_reading_as_wh, " +
+            "SUM(hr.reading_as_wh * hr.price_per_kwh) OVER () AS total_price_times_reading, " +
+            "COUNT(*) OVER () AS hour_count, " +
+            "MIN(hr.hour_index) OVER () AS first_hour_index, " +
+            "MAX(hr.hour_index) OVER () AS last_hour_index, " +
+            "ROW_NUMBER() OVER (ORDER BY hr.reading_as_wh DESC, hr.hour_index) AS peak_rank " +
+            "FROM hourly_reading hr JOIN energy_meter em ON em.meter_key = hr.meter_key " +
+            "WHERE em.id = ? AND hr.hour_index >= ? AND hr.hour_index < ?) ranked " +
+            "WHERE peak_rank = 1";
+
+    private static final String POSTGRESQL_IS_PARTITIONED_SQL =
+            "SELECT COUNT(*) FROM pg_partitioned_table WHERE partrelid = to_regclass('hourly_reading')";
+
+    private static final String POSTGRESQL_PARTITIONS_SQL =
+            "SELECT child.relname FROM pg_inherits JOIN pg_class child ON child.oid = pg_inherits.inhrelid " +
+            "WHERE pg_inherits.inhparent = to_regclass('hourly_reading')";
+
+    private static final String DEFAULT_PARTITION = "hourly_reading_default";
+
+    // Monthly partitions are named after their month, hourly_reading_p202304 holds the hours of April 2023
+    private static final String MONTHLY_PARTITION_PREFIX = "hourly_reading_p";
+
+    private static final DateTimeFormatter MONTHLY_PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile(MONTHLY_PARTITION_PREFIX + "(\\d{6})");
+
+    @NonNull
+    private final JdbcTemplate jdbcTemplate;
+
+    @NonNull
+    private final MeterhubProperties meterhubProperties;
+
+    private volatile Boolean postgreSql;
+
+    private boolean isPostgreSql() {
+        if (postgreSql == null) {
+            postgreSql = DatabaseProducts.isPostgreSql(jdbcTemplate);
+        }
+        return postgreSql;
+    }
+
+    @Override
+    @Transactional
+    public void upsertAll(List<HourlyReading> readings) {
+        if (readings.isEmpty()) {
+            return;
+        }
+        // Statements are sent in JDBC batches, for PostgreSQL add reWriteBatchedInserts=true to the
+        // connection url to have the driver turn each batch into multi row inserts
+        jdbcTemplate.batchUpdate(isPostgreSql() ? POSTGRESQL_UPSERT_SQL : MERGE_UPSERT_SQL,
+                readings, meterhubProperties.getPersistence().getBatchSize(),
+                (statement, reading) -> {
+                    statement.setInt(1, reading.getId().getMeterKey());
+                    statement.setInt(2, reading.getId().getHourIndex());
+                    statement.setBigDecimal(3, reading.getPricePerKwh());
+                    statement.setLong(4, reading.getReadingAsWh());
+                });
+    }
+
+    @Override
+    @Transactional
+    public long bulkLoad(List<HourlyReading> readings) {
+        if (readings.isEmpty()) {
+            return 0;
+        }
+        if (isPostgreSql()) {
+            jdbcTemplate.execute((Connection connection) -> copyAndMerge(connection, readings));
+        } else {
+            // No COPY outside PostgreSQL, readings are upserted in batches instead
+            upsertAll(readings);
+        }
+        return readings.size();
+    }
+
+    // The staging table is dropped after the merge, so that the next load of the transaction starts with an empty one
+    private Void copyAndMerge(Connection connection, List<HourlyReading> readings) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(POSTGRESQL_CREATE_STAGING_SQL);
+        }
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(POSTGRESQL_COPY_STAGING_SQL);
+        try {
+            StringBuilder rows = new StringBuilder(COPY_BUFFER_SIZE + 1024);
+            for (HourlyReading reading : readings) {
+                appendCsvRow(rows, reading);
+                if (rows.length() >= COPY_BUFFER_SIZE) {
+                    writeToCopy(copyIn, rows);
+                }
+            }
+            writeToCopy(copyIn, rows);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(POSTGRESQL_MERGE_STAGING_SQL);
+            statement.execute(POSTGRESQL_DROP_STAGING_SQL);
+        }
+        return null;
+    }
+
+    private static void writeToCopy(CopyIn copyIn, StringBuilder rows) throws SQLException {
+        byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        rows.setLength(0);
+    }
+
+    private static void appendCsvRow(StringBuilder rows, HourlyReading reading) {
+        rows.append(reading.getId().getMeterKey())
+                .append(',').append(reading.getId().getHourIndex())
+                .append(',').append(reading.getPricePerKwh().toPlainString())
+                .append(',').append(reading.getReadingAsWh())
+                .append('\n');
+    }
+
+    @Override
+    public MeterSummaryValue findSummaryOfMeterBetweenHourIndexes(String meterId, int fromHourIndex, int toHourIndex) {
+        return jdbcTemplate.query(SUMMARY_SQL,
+                resultSet -> resultSet.next()
+                        ? new MeterSummaryValue(resultSet.getLong(1), resultSet.getBigDecimal(2), resultSet.getLong(3),
+                                resultSet.getInt(4) * 3600L, resultSet.getInt(5) * 3600L, resultSet.getInt(6) * 3600L,
+                                resultSet.getLong(7))
+                        : null,
+                meterId, fromHourIndex, toHourIndex);
+    }
+
+    private List<String> findPartitions() {
+        return jdbcTemplate.queryForList(POSTGRESQL_PARTITIONS_SQL, String.class);
+    }
+
+    private static String getMonthlyPartition(YearMonth month) {
+        return MONTHLY_PARTITION_PREFIX + month.format(MONTHLY_PARTITION_SUFFIX);
+    }
+
+    @Override
+    public boolean isPartitioned() {
+        if (!isPostgreSql()) {
+            return false;
+        }
+        Long count = jdbcTemplate.queryForObject(POSTGRESQL_IS_PARTITIONED_SQL, Long.class);
+        return count != null && count > 0;
+    }
+
+    @Override
+    public Set<YearMonth> findMonthlyPartitions() {
+        Set<YearMonth> months = new TreeSet<>();
+        for (String partition : findPartitions()) {
+            Matcher matcher = MONTHLY_PARTITION.matcher(partition);
+            if (matcher.matches()) {
+                months.add(YearMonth.parse(matcher.group(1), MONTHLY_PARTITION_SUFFIX));
+            }
+        }
+        return months;
+    }
+
+    @Override
+    public List<YearMonth> findMonthsOfDefaultPartition() {
+        List<YearMonth> months = new ArrayList<>();
+        if (!findPartitions().contains(DEFAULT_PARTITION)) {
+            return months;
+        }
+        // Both come from the primary key index, which starts with hour_index
+        Integer[] hourIndexes = jdbcTemplate.query("SELECT MIN(hour_index), MAX(hour_index) FROM " + DEFAULT_PARTITION,
+                resultSet -> resultSet.next()
+                        ? new Integer[]{resultSet.getObject(1, Integer.class), resultSet.getObject(2, Integer.class)}
+                        : null);
+        if (hourIndexes == null || hourIndexes[0] == null) {
+            return months;
+        }
+        YearMonth lastMonth = HourlyReadingKey.toMonth(hourIndexes[1]);
+        for (YearMonth month = HourlyReadingKey.toMonth(hourIndexes[0]); !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        return months;
+    }
+
+    @Override
+    @Transactional
+    public void createMonthlyPartition(YearMonth month) {
+        String partition = getMonthlyPartition(month);
+        int fromHourIndex = HourlyReadingKey.toHourIndex(month);
+        int toHourIndex = HourlyReadingKey.toHourIndex(month.plusMonths(1));
+        // Attaching checks that the default partition has no readings of the month, so they are moved first
+        jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE hourly_reading INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        if (findPartitions().contains(DEFAULT_PARTITION)) {
+            jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION + " WHERE hour_index >= ? AND hour_index < ? " +
+                            "RETURNING meter_key, hour_index, price_per_kwh, reading_as_wh) " +
+                            "INSERT INTO " + partition + " (meter_key, hour_index, price_per_kwh, reading_as_wh) " +
+                            "SELECT meter_key, hour_index, price_per_kwh, reading_as_wh FROM moved",
+                    fromHourIndex, toHourIndex);
+        }
+        jdbcTemplate.execute("ALTER TABLE hourly_reading ATTACH PARTITION " + partition +
+                " FOR VALUES FROM (" + fromHourIndex + ") TO (" + toHourIndex + ")");
+    }
+
+    @Override
+    @Transactional
+    public void dropMonthlyPartition(YearMonth month) {
+        jdbcTemplate.execute("DROP TABLE " + getMonthlyPartition(month));
+    }
+}
@@ -0,0 +1,11 @@
+package energy.leap.meterhub.data.repository;
+
+import energy.leap.meterhub.data.entity.MeterGroupMember;
+import energy.leap.meterhub.data.entity.MeterGroupMemberKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface MeterGroupMemberRepository extends JpaRepository<MeterGroupMember, MeterGroupMemberKey> {
+    List<MeterGroupMember> findByIdMeterKey(Integer meterKey);
+}
@@ -0,0 +1,31 @@
+package energy.leap.meterhub.data.repository;
+
+import energy.leap.meterhub.data.entity.MeterGroup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface MeterGroupRepository extends JpaRepository<MeterGroup, String> {
+    // Returns 0 when the group already exists, the key of the group is assigned by the database
+    @Modifying
+    @Query(value = "INSERT INTO meter_group (id, title, parent_id) " +
+            "SELECT :groupId, CAST(:title AS VARCHAR(255)), CAST(:parentId AS VARCHAR(255)) " +
+            "WHERE NOT EXISTS (SELECT 1 FROM meter_group WHERE id = :groupId)",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("groupId") String groupId, @Param("title") String title, @Param("parentId") String parentId);
+
+    @Query("SELECT mg.groupKey FROM MeterGroup mg WHERE mg.id = :groupId")
+    Integer findGroupKey(@Param("groupId") String groupId);
+
+    // The fleet and the groups the meter is a member of
+    @Query("SELECT mg.groupKey FROM MeterGroup mg WHERE mg.parentId IS NULL " +
+            "OR mg.groupKey IN (SELECT mgm.id.groupKey FROM MeterGroupMember mgm WHERE mgm.id.meterKey = :meterKey)")
+    List<Integer> findGroupKeysOfMeter(@Param("meterKey") Integer meterKey);
+
+    @Query("SELECT em.id FROM EnergyMeter em JOIN MeterGroupMember mgm ON mgm.id.meterKey = em.meterKey " +
+            "JOIN MeterGroup mg ON mg.groupKey = mgm.id.groupKey WHERE mg.id = :groupId AND mgm.assigned = true ORDER BY em.id")
+    List<String> findAssignedMeterIds(@Param("groupId") String groupId);
+}
@@ -0,0 +1,61 @@
+package energy.leap.meterhub.data.repository;
+
+import energy.leap.meterhub.data.entity.HourlyReadingKey;
+import energy.leap.meterhub.data.entity.MeterRollup;
+import energy.leap.meterhub.data.entity.MeterRollupKey;
+import energy.leap.meterhub.data.entity.RollupGranularity;
+import energy.leap.meterhub.data.projection.BucketedReportValue;
+import energy.leap.meterhub.data.projection.MeterKeyTotalsValue;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface MeterRollupRepository extends JpaRepository<MeterRollup, MeterRollupKey> {
+    // Rollups of both granularities starting in [fromHourIndex, toHourIndex]
+    @Query("SELECT mr FROM MeterRollup mr WHERE mr.id.meterKey = :meterKey " +
+            "AND mr.id.bucketHourIndex >= :fromHourIndex AND mr.id.bucketHourIndex <= :toHourIndex")
+    List<MeterRollup> findOfMeterBetween(@Param("meterKey") Integer meterKey,
+                                         @Param("fromHourIndex") Integer fromHourIndex,
+                                         @Param("toHourIndex") Integer toHourIndex);
+
+    // Range scan over the (meter_key, granularity, bucket_hour_index) index
+    @Query("SELECT new energy.leap.meterhub.data.projection.BucketedReportValue(mr.id.bucketHourIndex * 3600L, mr.readingAsWh, mr.cost) " +
+            "FROM MeterRollup mr JOIN EnergyMeter em ON em.meterKey = mr.id.meterKey " +
+            "WHERE em.id = :meterId AND mr.id.granularity = :granularity " +
+            "AND mr.id.bucketHourIndex >= :fromHourIndex AND mr.id.bucketHourIndex < :toHourIndex " +
+            "ORDER BY mr.id.bucketHourIndex")
+    List<BucketedReportValue> findReportsOfMeterBetweenHourIndexes(@Param("meterId") String meterId,
+                                                                   @Param("granularity") RollupGranularity granularity,
+                                                                   @Param("fromHourIndex") Integer fromHourIndex,
+                                                                   @Param("toHourIndex") Integer toHourIndex);
+
+    // Buckets starting in [fromBucket, toBucket) given as epoch seconds
+    default List<BucketedReportValue> findReportsOfMeterBetween(String meterId, RollupGranularity granularity,
+                                                                Long fromBucket, Long toBucket) {
+        return findReportsOfMeterBetweenHourIndexes(meterId, granularity, HourlyReadingKey.hourIndexAtOrAfter(fromBucket),
+                HourlyReadingKey.hourIndexAtOrAfter(toBucket));
+    }
+
+    // Buckets of all meters starting in [fromHourIndex, toHourIndex), read over the primary key which starts with the bucket
+    @Query("SELECT new energy.leap.meterhub.data.projection.MeterKeyTotalsValue(mr.id.meterKey, SUM(mr.readingAsWh), SUM(mr.cost)) " +
+            "FROM MeterRollup mr WHERE mr.id.granularity = :granularity " +
+            "AND mr.id.bucketHourIndex >= :fromHourIndex AND mr.id.bucketHourIndex < :toHourIndex GROUP BY mr.id.meterKey")
+    List<MeterKeyTotalsValue> aggregateTotalsOfAllMetersBetweenHourIndexes(@Param("granularity") RollupGranularity granularity,
+                                                                          @Param("fromHourIndex") Integer fromHourIndex,
+                                                                          @Param("toHourIndex") Integer toHourIndex);
+
+    @Query("SELECT em.id FROM EnergyMeter em WHERE NOT EXISTS (SELECT mr FROM MeterRollup mr WHERE mr.id.meterKey = em.meterKey)")
+    List<String> findMeterIdsWithoutRollups();
+
+    @Modifying
+    @Query("DELETE FROM MeterRollup mr WHERE mr.id.meterKey = :meterKey")
+    int deleteOfMeter(@Param("meterKey") Integer meterKey);
+
+    // Only called with the first hour of a month, which is also the first hour of its days
+    @Modifying
+    @Query("DELETE FROM MeterRollup mr WHERE mr.id.bucketHourIndex < :hourIndex")
+    int deleteBefore(@Param("hourIndex") Integer hourIndex);
+}
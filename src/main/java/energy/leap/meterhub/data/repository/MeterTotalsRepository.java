@@ -0,0 +1,24 @@
+package energy.leap.meterhub.data.repository;
+
+import energy.leap.meterhub.data.entity.MeterTotals;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface MeterTotalsRepository extends JpaRepository<MeterTotals, String>, MeterTotalsRepositoryCustom {
+    // Concurrent uploads of the same meter wait for each other instead of losing an update, as long as the row exists
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT mt FROM MeterTotals mt WHERE mt.meterId=:meterId")
+    Optional<MeterTotals> findForUpdate(@Param("meterId") String meterId);
+
+    @Query("SELECT mt.meterId FROM MeterTotals mt WHERE mt.firstHourStartEpochAsSec < :hourStartEpochAsSec")
+    List<String> findMeterIdsWithHoursBefore(@Param("hourStartEpochAsSec") Long hourStartEpochAsSec);
+
+    @Query("SELECT em.id FROM EnergyMeter em WHERE NOT EXISTS (SELECT mt FROM MeterTotals mt WHERE mt.meterId = em.id)")
+    List<String> findMeterIdsWithoutTotals();
+}
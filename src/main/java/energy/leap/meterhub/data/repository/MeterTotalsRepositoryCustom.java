@@ -0,0 +1,7 @@
+package energy.leap.meterhub.data.repository;
+
+public interface MeterTotalsRepositoryCustom {
+    // Inserts empty totals without first and last hour for a meter that has none yet, so that there is always a row
+    // to lock, also for the first ingest of a meter. Returns 0 when the meter already has totals.
+    int insertIfAbsent(String meterId);
+}
@@ -0,0 +1,38 @@
+package energy.leap.meterhub.data.repository;
+
+import jakarta.transaction.Transactional;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@RequiredArgsConstructor
+public class MeterTotalsRepositoryCustomImpl implements MeterTotalsRepositoryCustom {
+
+    private static final String POSTGRESQL_INSERT_IF_ABSENT_SQL =
+            "INSERT INTO meter_totals (meter_id, total_reading_as_wh, total_cost, hour_count) VALUES (?, 0, 0, 0) " +
+            "ON CONFLICT (meter_id) DO NOTHING";
+
+    private static final String MERGE_INSERT_IF_ABSENT_SQL =
+            "MERGE INTO meter_totals mt " +
+            "USING (VALUES (CAST(? AS VARCHAR(255)))) AS meter (id) " +
+            "ON mt.meter_id = meter.id " +
+            "WHEN NOT MATCHED THEN INSERT (meter_id, total_reading_as_wh, total_cost, hour_count) VALUES (meter.id, 0, 0, 0)";
+
+    @NonNull
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean postgreSql;
+
+    private boolean isPostgreSql() {
+        if (postgreSql == null) {
+            postgreSql = DatabaseProducts.isPostgreSql(jdbcTemplate);
+        }
+        return postgreSql;
+    }
+
+    @Override
+    @Transactional
+    public int insertIfAbsent(String meterId) {
+        return jdbcTemplate.update(isPostgreSql() ? POSTGRESQL_INSERT_IF_ABSENT_SQL : MERGE_INSERT_IF_ABSENT_SQL, meterId);
+    }
+}
@@ -0,0 +1,22 @@
+package energy.leap.meterhub.service;
+
+import energy.leap.meterhub.service.dto.IngestJobDto;
+import energy.leap.meterhub.service.dto.IngestPartitionStatisticsDto;
+import energy.leap.meterhub.service.dto.IngestStageStatisticsDto;
+import energy.leap.meterhub.service.dto.WriteBehindStatisticsDto;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+
+public interface IngestJobService {
+    // Copies the feed and queues it for processing in the background, throws IngestQueueFullException when the queue is full
+    IngestJobDto submitBatchReading(InputStream batchReadingXmlStream);
+    IngestJobDto getJob(String jobId);
+    // Queue depth and utilization of each stage of the pipeline processing submitted feeds
+    List<IngestStageStatisticsDto> getStageStatistics();
+    // Lag and throughput of each partition saving feeds in PARTITIONED mode, empty otherwise
+    List<IngestPartitionStatisticsDto> getPartitionStatistics();
+    // Buffered feeds and flush batch size in WRITE_BEHIND mode, empty otherwise
+    Optional<WriteBehindStatisticsDto> getWriteBehindStatistics();
+}
@@ -1,5 +1,13 @@
 package energy.leap.meterhub.service;
 
+import energy.leap.meterhub.service.dto.BulkLoadReportDto;
+import org.springframework.core.io.InputStreamSource;
+
+import java.io.InputStream;
+import java.util.List;
+
 public interface MeterBatchReadingProcessorService {
     void processBatchReading(String batchReadingXmlContent);
+    void processBatchReading(InputStream batchReadingXmlStream);
+    BulkLoadReportDto processBatchReadings(List<? extends InputStreamSource> batchReadingXmlSources);
 }
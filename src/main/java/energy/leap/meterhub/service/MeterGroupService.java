@@ -0,0 +1,20 @@
+package energy.leap.meterhub.service;
+
+import energy.leap.meterhub.service.dto.GroupHourlyReportDto;
+import energy.leap.meterhub.service.dto.MeterGroupDto;
+
+import java.util.List;
+
+public interface MeterGroupService {
+    List<MeterGroupDto> getGroups();
+    // Groups without parent are put right under the fleet
+    MeterGroupDto createGroup(String groupId, String title, String parentId);
+    // A meter already assigned to another group is moved, the hours of the groups it leaves and joins are updated
+    void assignMeter(String groupId, String meterId);
+    void unassignMeter(String groupId, String meterId);
+    // Meters assigned to the group itself, not to the groups below it
+    List<String> getAssignedMeterIds(String groupId);
+    // Sums of the hours in [fromHour, toHour) of all meters of the group and the groups below it, ordered by hour.
+    // Either bound may be null.
+    List<GroupHourlyReportDto> getHourlyReportsForGroup(String groupId, Long fromHour, Long toHour);
+}
@@ -1,13 +1,42 @@
 package energy.leap.meterhub.service;
 
+import energy.leap.meterhub.service.dto.BucketedReportDto;
+import energy.leap.meterhub.service.dto.CacheStatisticsDto;
 import energy.leap.meterhub.service.dto.EnergyMeterDto;
 import energy.leap.meterhub.service.dto.HourlyReportDto;
+import energy.leap.meterhub.service.dto.HourlyReportPageDto;
+import energy.leap.meterhub.service.dto.MeterBatchReportDto;
+import energy.leap.meterhub.service.dto.MeterBatchReportRequestDto;
+import energy.leap.meterhub.service.dto.MeterDataVersionDto;
+import energy.leap.meterhub.service.dto.MeterSummaryDto;
+import energy.leap.meterhub.service.dto.TopMeterDto;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface MeterReadingReportService {
     List<EnergyMeterDto> getEnergyMeters();
-    List<HourlyReportDto> getHourlyReportsForMeter(String meterId);
+    // Hours in [fromHour, toHour) ordered by hour, either bound may be null. Continuation token of the previous page
+    // is passed to get the next one, page size falls back to the configured one when null.
+    HourlyReportPageDto getHourlyReportsForMeter(String meterId, Long fromHour, Long toHour, String continuationToken, Integer pageSize);
+    // Hours in [fromHour, toHour) ordered by hour are handed to the consumer one by one as they are read from the database
+    void streamHourlyReportsForMeter(String meterId, Long fromHour, Long toHour, Consumer<HourlyReportDto> consumer);
+    // Sums of days or months starting in [from, to) ordered by start, either bound may be null. Granularity is day or month.
+    List<BucketedReportDto> getBucketedReportsForMeter(String meterId, String granularity, Long from, Long to);
+    // Throws when the request cannot be served, called before a streamed response is started
+    void checkBatchReportRequest(MeterBatchReportRequestDto request);
+    // Totals, and hourly reports when asked, of the requested meters in the order of the request. Meters without
+    // readings in the range are left out.
+    void streamBatchReports(MeterBatchReportRequestDto request, Consumer<MeterBatchReportDto> consumer);
+    // Totals, hour count, first, last and peak hour of the hours in [fromHour, toHour), either bound may be null
+    MeterSummaryDto getSummaryForMeter(String meterId, Long fromHour, Long toHour);
+    // Meters with the highest reading or cost over the hours in [fromHour, toHour), highest first. Ranking is reading or cost.
+    List<TopMeterDto> getTopMeters(Long fromHour, Long toHour, String ranking, Integer count);
     Long getTotalReadingAsWhForMeter(String meterId);
     Double getTotalCostForMeter(String meterId);
+    // Empty for meters that have never been uploaded
+    Optional<MeterDataVersionDto> getDataVersionOfMeter(String meterId);
+    // Hit, miss and eviction counts of the caches in front of the reports above
+    List<CacheStatisticsDto> getCacheStatistics();
 }
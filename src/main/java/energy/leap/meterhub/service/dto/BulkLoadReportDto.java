@@ -0,0 +1,11 @@
+package energy.leap.meterhub.service.dto;
+
+import lombok.Value;
+
+@Value
+public class BulkLoadReportDto {
+    Integer feedCount;
+    Long hourlyReadingCount;
+    Long elapsedMillis;
+    Long hourlyReadingsPerSecond;
+}
@@ -0,0 +1,12 @@
+package energy.leap.meterhub.service.dto;
+
+import lombok.Value;
+
+@Value
+public class CacheStatisticsDto {
+    String name;
+    Long size;
+    Long hitCount;
+    Long missCount;
+    Long evictionCount;
+}
@@ -0,0 +1,13 @@
+package energy.leap.meterhub.service.dto;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+@Value
+public class GroupHourlyReportDto {
+    Long hourStartEpochAsSec;
+    Long readingAsWh;
+    BigDecimal cost;
+    Integer meterCount;
+}
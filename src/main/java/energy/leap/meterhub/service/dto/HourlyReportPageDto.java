@@ -0,0 +1,12 @@
+package energy.leap.meterhub.service.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class HourlyReportPageDto {
+    List<HourlyReportDto> hourlyReports;
+    // Null when there are no more hourly reports in the requested range
+    String continuationToken;
+}
@@ -0,0 +1,14 @@
+package energy.leap.meterhub.service.dto;
+
+import lombok.Value;
+
+@Value
+public class IngestJobDto {
+    String id;
+    IngestJobStatus status;
+    Long submittedEpochAsMilli;
+    Long startedEpochAsMilli;
+    Long finishedEpochAsMilli;
+    // Why the feed has been rejected, null unless the job failed
+    String error;
+}
@@ -0,0 +1,8 @@
+package energy.leap.meterhub.service.dto;
+
+public enum IngestJobStatus {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED
+}
@@ -0,0 +1,18 @@
+package energy.leap.meterhub.service.dto;
+
+import lombok.Value;
+
+@Value
+public class IngestPartitionStatisticsDto {
+    Integer partition;
+    Integer queueDepth;
+    // Time the oldest waiting feed has been queued, grows while the partition falls behind
+    Long oldestQueuedMillis;
+    // Time the feeds of the last write waited before they were written
+    Long lastWriteLagMillis;
+    Long writtenBatchCount;
+    // Transactions written, fewer than the batches when batches of a meter were written together
+    Long writeCount;
+    // Batches written per second since the partition has been started
+    Double batchesPerSecond;
+}
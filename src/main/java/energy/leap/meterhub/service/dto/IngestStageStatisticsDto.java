@@ -0,0 +1,17 @@
+package energy.leap.meterhub.service.dto;
+
+import lombok.Value;
+
+@Value
+public class IngestStageStatisticsDto {
+    String name;
+    Integer workerCount;
+    Integer activeWorkerCount;
+    Integer queueDepth;
+    Integer queueCapacity;
+    Long completedCount;
+    // Time spent by the workers on feeds, sampled twice it gives the utilization over the interval
+    Long busyMillis;
+    // Share of the worker time spent on feeds since the stage has been started
+    Double utilization;
+}
@@ -0,0 +1,15 @@
+package energy.leap.meterhub.service.dto;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Value
+public class MeterBatchReportDto {
+    String meterId;
+    Long totalReadingAsWh;
+    BigDecimal totalCost;
+    // Null unless hourly reports were asked for
+    List<HourlyReportDto> hourlyReports;
+}
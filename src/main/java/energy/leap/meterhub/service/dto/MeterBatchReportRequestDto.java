@@ -0,0 +1,19 @@
+package energy.leap.meterhub.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Request body of the batch report
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MeterBatchReportRequestDto {
+    private List<String> meterIds;
+    // Hours in [from, to) as epoch seconds, either bound may be null
+    private Long from;
+    private Long to;
+    private boolean hourly;
+}
@@ -0,0 +1,9 @@
+package energy.leap.meterhub.service.dto;
+
+import lombok.Value;
+
+@Value
+public class MeterDataVersionDto {
+    Long dataVersion;
+    Long dataModifiedEpochAsMilli;
+}
@@ -0,0 +1,10 @@
+package energy.leap.meterhub.service.dto;
+
+import lombok.Value;
+
+@Value
+public class MeterGroupDto {
+    String id;
+    String title;
+    String parentId;
+}
@@ -0,0 +1,18 @@
+package energy.leap.meterhub.service.dto;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+@Value
+public class MeterSummaryDto {
+    Long totalReadingAsWh;
+    BigDecimal totalCost;
+    Long hourCount;
+    // Hours are null when there are no readings in the range
+    Long firstHourStartEpochAsSec;
+    Long lastHourStartEpochAsSec;
+    // Earliest of the hours with the highest reading
+    Long peakHourStartEpochAsSec;
+    Long peakReadingAsWh;
+}
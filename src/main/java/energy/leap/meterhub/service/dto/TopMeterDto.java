@@ -0,0 +1,12 @@
+package energy.leap.meterhub.service.dto;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+@Value
+public class TopMeterDto {
+    String meterId;
+    Long totalReadingAsWh;
+    BigDecimal totalCost;
+}
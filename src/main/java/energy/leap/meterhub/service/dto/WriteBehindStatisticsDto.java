@@ -0,0 +1,17 @@
+package energy.leap.meterhub.service.dto;
+
+import lombok.Value;
+
+@Value
+public class WriteBehindStatisticsDto {
+    Integer bufferedBatchCount;
+    Long bufferedRowCount;
+    // Time the oldest buffered feed has been waiting to be flushed
+    Long oldestBufferedMillis;
+    // Hourly readings flushed together at the moment, adapted to the time flushes take
+    Integer batchSize;
+    Long flushCount;
+    Long flushedBatchCount;
+    Long flushedRowCount;
+    Long lastFlushMillis;
+}
@@ -0,0 +1,7 @@
+package energy.leap.meterhub.service.exception;
+
+public class IllegalMeterGroupRequestException extends RuntimeException {
+    public IllegalMeterGroupRequestException(String message) {
+        super(message);
+    }
+}
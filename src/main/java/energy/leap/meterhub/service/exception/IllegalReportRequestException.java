@@ -0,0 +1,7 @@
+package energy.leap.meterhub.service.exception;
+
+public class IllegalReportRequestException extends RuntimeException {
+    public IllegalReportRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package energy.leap.meterhub.service.exception;
+
+public class IngestJobNotFoundException extends RuntimeException {
+    public IngestJobNotFoundException(String message) {
+        super(message);
+    }
+}
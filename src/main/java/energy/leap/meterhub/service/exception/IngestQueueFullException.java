@@ -0,0 +1,15 @@
+package energy.leap.meterhub.service.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class IngestQueueFullException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public IngestQueueFullException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
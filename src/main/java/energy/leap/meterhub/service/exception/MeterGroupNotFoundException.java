@@ -0,0 +1,7 @@
+package energy.leap.meterhub.service.exception;
+
+public class MeterGroupNotFoundException extends RuntimeException {
+    public MeterGroupNotFoundException(String message) {
+        super(message);
+    }
+}
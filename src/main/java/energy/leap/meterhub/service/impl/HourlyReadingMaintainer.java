@@ -0,0 +1,105 @@
+package energy.leap.meterhub.service.impl;
+
+import energy.leap.meterhub.config.MeterhubProperties;
+import energy.leap.meterhub.data.repository.HourlyReadingRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Creates monthly partitions of hourly readings ahead of the data coming in and removes readings past retention,
+// on startup and then after every maintenance interval
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HourlyReadingMaintainer implements ApplicationRunner {
+
+    @NonNull
+    private final HourlyReadingRepository hourlyReadingRepository;
+
+    @NonNull
+    private final MeterBatchReadingWriter meterBatchReadingWriter;
+
+    @NonNull
+    private final MeterWriteLocks meterWriteLocks;
+
+    @NonNull
+    private final MeterhubProperties meterhubProperties;
+
+    private ScheduledExecutorService executor;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        MeterhubProperties.Partitioning partitioning = meterhubProperties.getPersistence().getPartitioning();
+        if (!partitioning.isEnabled() && partitioning.getRetentionMonths() == null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("hourly-reading-maintenance-"));
+        executor.scheduleWithFixedDelay(this::maintain, 0, partitioning.getMaintenanceInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void maintain() {
+        try {
+            maintain(YearMonth.now(ZoneOffset.UTC));
+        } catch (RuntimeException e) {
+            log.error("Maintenance of hourly readings failed : ", e);
+        }
+    }
+
+    void maintain(YearMonth currentMonth) {
+        MeterhubProperties.Partitioning partitioning = meterhubProperties.getPersistence().getPartitioning();
+        YearMonth firstRetainedMonth = null;
+        if (partitioning.getRetentionMonths() != null) {
+            firstRetainedMonth = currentMonth.minusMonths(partitioning.getRetentionMonths());
+            YearMonth month = firstRetainedMonth;
+            meterWriteLocks.callWithBulkLock(() -> {
+                meterBatchReadingWriter.deleteReadingsBefore(month);
+                return null;
+            });
+        }
+        if (partitioning.isEnabled()) {
+            createPartitions(currentMonth, currentMonth.plusMonths(partitioning.getMonthsAhead()), firstRetainedMonth);
+        }
+    }
+
+    // Months from the current to the last one get a partition, as well as other months with readings in the default
+    // partition, except for months past retention
+    private void createPartitions(YearMonth currentMonth, YearMonth lastMonth, YearMonth firstRetainedMonth) {
+        if (!hourlyReadingRepository.isPartitioned()) {
+            log.warn("Partitioning is enabled but hourly_reading is not a partitioned table, no partitions are created");
+            return;
+        }
+        Set<YearMonth> months = new TreeSet<>(hourlyReadingRepository.findMonthsOfDefaultPartition());
+        for (YearMonth month = currentMonth; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        months.removeAll(hourlyReadingRepository.findMonthlyPartitions());
+        if (firstRetainedMonth != null) {
+            months.removeIf(month -> month.isBefore(firstRetainedMonth));
+        }
+        // One transaction per month, each of them locks hourly_reading only for a short time
+        for (YearMonth month : months) {
+            hourlyReadingRepository.createMonthlyPartition(month);
+            log.info("Created partition of hourly readings for {}", month);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package energy.leap.meterhub.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import energy.leap.meterhub.config.MeterhubProperties;
+import energy.leap.meterhub.service.IngestJobService;
+import energy.leap.meterhub.service.dto.IngestJobDto;
+import energy.leap.meterhub.service.dto.IngestJobStatus;
+import energy.leap.meterhub.service.dto.IngestPartitionStatisticsDto;
+import energy.leap.meterhub.service.dto.IngestStageStatisticsDto;
+import energy.leap.meterhub.service.dto.WriteBehindStatisticsDto;
+import energy.leap.meterhub.service.exception.IngestJobNotFoundException;
+import energy.leap.meterhub.service.exception.IngestQueueFullException;
+import energy.leap.meterhub.service.impl.parser.XmlMeterBatchReading;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+// Feeds are copied to temporary files so that the request can return before they are processed. They go through
+// parse, normalize and persist stages with their own threads, so parsing a feed overlaps with saving the one before.
+// Queues between the stages are bounded, a slow stage holds up the ones before it until uploads get pushed back.
+// In PARTITIONED mode feeds are saved by the partition owning their meter instead of the persist stage,
+// in WRITE_BEHIND mode they are buffered and saved together with feeds of other meters.
+// Feeds of the same meter are saved in the order they were submitted in every mode, later feeds overwrite the hours
+// of earlier ones. Feeds are handed over to be saved in submission order, the persist stage workers then wait for
+// the earlier feeds of their meter, partitions and the write-behind buffer keep the order they are given.
+@Component
+@Slf4j
+public class IngestJobServiceImpl implements IngestJobService {
+
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofMinutes(1);
+
+    private final MeterBatchReadingProcessorServiceImpl meterBatchReadingProcessorService;
+
+    private final MeterhubProperties.Async properties;
+
+    private final IngestStage parseStage;
+
+    private final IngestStage normalizeStage;
+
+    private final IngestStage persistStage;
+
+    private final IngestSequencer sequencer = new IngestSequencer();
+
+    // Only used in POOLED mode
+    private final MeterTurns persistTurns = new MeterTurns();
+
+    // Only created in PARTITIONED mode
+    private final IngestPartitions<PersistTask> persistPartitions;
+
+    // Only created in WRITE_BEHIND mode
+    private final WriteBehindBuffer<PersistTask> writeBehindBuffer;
+
+    private final Cache<String, IngestJob> jobs;
+
+    public IngestJobServiceImpl(MeterBatchReadingProcessorServiceImpl meterBatchReadingProcessorService,
+                                MeterhubProperties meterhubProperties) {
+        this.meterBatchReadingProcessorService = meterBatchReadingProcessorService;
+        this.properties = meterhubProperties.getIngest().getAsync();
+        this.parseStage = new IngestStage("parse", properties.getParse());
+        this.normalizeStage = new IngestStage("normalize", properties.getNormalize());
+        this.persistStage = new IngestStage("persist", properties.getPersist());
+        this.persistPartitions = properties.getPersistMode() == MeterhubProperties.PersistMode.PARTITIONED
+                ? new IngestPartitions<>(properties.getPartitions(), task -> task.normalizedReading().getId(),
+                        this::persistOwned)
+                : null;
+        this.writeBehindBuffer = properties.getPersistMode() == MeterhubProperties.PersistMode.WRITE_BEHIND
+                ? new WriteBehindBuffer<>(properties.getWriteBehind(), task -> task.normalizedReading().getIntervalReadings().size(),
+                        this::flushWriteBehind)
+                : null;
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getJobRetention())
+                .build();
+    }
+
+    private IngestQueueFullException queueFull() {
+        return new IngestQueueFullException(String.format("Ingest queue is full, %d feeds are waiting", properties.getParse().getQueueCapacity()),
+                properties.getRetryAfter());
+    }
+
+    private static Path copyToTemporaryFile(InputStream batchReadingXmlStream) {
+        Path feedFile = null;
+        try {
+            feedFile = Files.createTempFile("meterhub-ingest-", ".xml");
+            Files.copy(batchReadingXmlStream, feedFile, StandardCopyOption.REPLACE_EXISTING);
+            return feedFile;
+        } catch (IOException e) {
+            deleteTemporaryFile(feedFile);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteTemporaryFile(Path feedFile) {
+        if (feedFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(feedFile);
+        } catch (IOException e) {
+            log.warn("Temporary feed file {} can not be deleted", feedFile, e);
+        }
+    }
+
+    @Override
+    public IngestJobDto submitBatchReading(InputStream batchReadingXmlStream) {
+        // Checked before copying so that a full queue does not cost a copy, the executor still has the final say
+        if (parseStage.isFull()) {
+            throw queueFull();
+        }
+        Path feedFile = copyToTemporaryFile(batchReadingXmlStream);
+        IngestJob job = new IngestJob(UUID.randomUUID().toString(), sequencer.next(), System.currentTimeMillis());
+        jobs.put(job.getId(), job);
+        try {
+            parseStage.offer(() -> parse(job, feedFile));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.getId());
+            deleteTemporaryFile(feedFile);
+            sequencer.skip(job.getSequence());
+            throw queueFull();
+        }
+        log.info("Ingest job {} queued", job.getId());
+        return job.toDto();
+    }
+
+    private void finish(IngestJob job, Exception e) {
+        if (e == null) {
+            job.finish(System.currentTimeMillis(), IngestJobStatus.SUCCEEDED, null);
+            log.info("Ingest job {} succeeded", job.getId());
+        } else {
+            job.finish(System.currentTimeMillis(), IngestJobStatus.FAILED, e.getMessage());
+            log.error("Ingest job {} failed : ", job.getId(), e);
+        }
+        // Finished jobs are kept for the retention period from the time they finished
+        jobs.put(job.getId(), job);
+    }
+
+    // Returns false when the job failed to be handed over
+    private boolean handOver(IngestJob job, HandOver handOver) {
+        try {
+            handOver.run();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(job, e);
+        } catch (RejectedExecutionException e) {
+            finish(job, e);
+        }
+        return false;
+    }
+
+    // Jobs failing before they reach the sequencer let the jobs submitted after them through
+    private void failBeforeSequenced(IngestJob job, Exception e) {
+        finish(job, e);
+        sequencer.skip(job.getSequence());
+    }
+
+    private void parse(IngestJob job, Path feedFile) {
+        job.start(System.currentTimeMillis());
+        XmlMeterBatchReading batchReading;
+        try (InputStream batchReadingXmlStream = Files.newInputStream(feedFile)) {
+            batchReading = parseStage.measure(() -> meterBatchReadingProcessorService.parseBatchReading(batchReadingXmlStream));
+        } catch (IOException | RuntimeException e) {
+            failBeforeSequenced(job, e);
+            return;
+        } finally {
+            deleteTemporaryFile(feedFile);
+        }
+        if (!handOver(job, () -> normalizeStage.put(() -> normalize(job, batchReading)))) {
+            sequencer.skip(job.getSequence());
+        }
+    }
+
+    private void normalize(IngestJob job, XmlMeterBatchReading batchReading) {
+        XmlMeterBatchReading normalizedReading;
+        try {
+            normalizedReading = normalizeStage.measure(() -> meterBatchReadingProcessorService.normalizeBatchReading(batchReading));
+        } catch (RuntimeException e) {
+            failBeforeSequenced(job, e);
+            return;
+        }
+        sequencer.handOver(job.getSequence(), () -> handOverToPersist(job, normalizedReading));
+    }
+
+    private void handOverToPersist(IngestJob job, XmlMeterBatchReading normalizedReading) {
+        if (persistPartitions != null) {
+            handOver(job, () -> persistPartitions.put(new PersistTask(job, normalizedReading)));
+        } else if (writeBehindBuffer != null) {
+            handOver(job, () -> bufferWriteBehind(job, normalizedReading));
+        } else {
+            persistTurns.queue(normalizedReading.getId(), job.getSequence());
+            if (!handOver(job, () -> persistStage.put(() -> persist(job, normalizedReading)))) {
+                persistTurns.done(normalizedReading.getId(), job.getSequence());
+            }
+        }
+    }
+
+    private void persist(IngestJob job, XmlMeterBatchReading normalizedReading) {
+        try {
+            persistTurns.awaitTurn(normalizedReading.getId(), job.getSequence());
+            persistStage.measure(() -> {
+                meterBatchReadingProcessorService.saveBatchReading(normalizedReading);
+                return null;
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(job, e);
+            return;
+        } catch (RuntimeException e) {
+            finish(job, e);
+            return;
+        } finally {
+            persistTurns.done(normalizedReading.getId(), job.getSequence());
+        }
+        finish(job, null);
+    }
+
+    // Partitions own their meters, so they save them without the lock of the meter
+    private void persistOwned(List<PersistTask> tasks) {
+        persistAll(tasks, true, meterBatchReadingProcessorService::saveOwnedBatchReadings);
+    }
+
+    // Feeds of one meter are saved together, when that fails they are saved one by one so only invalid feeds fail
+    private void persistAll(List<PersistTask> tasks, boolean finishSucceeded, Consumer<List<XmlMeterBatchReading>> save) {
+        try {
+            save.accept(tasks.stream().map(PersistTask::normalizedReading).toList());
+        } catch (RuntimeException e) {
+            if (tasks.size() == 1) {
+                finish(tasks.get(0).job(), e);
+            } else {
+                tasks.forEach(task -> persistAll(List.of(task), finishSucceeded, save));
+            }
+            return;
+        }
+        if (finishSucceeded) {
+            tasks.forEach(task -> finish(task.job(), null));
+        }
+    }
+
+    private boolean isDurable() {
+        return properties.getWriteBehind().getAcknowledgement() == MeterhubProperties.WriteBehindAcknowledgement.DURABLE;
+    }
+
+    private void bufferWriteBehind(IngestJob job, XmlMeterBatchReading normalizedReading) throws InterruptedException {
+        writeBehindBuffer.put(new PersistTask(job, normalizedReading));
+        if (!isDurable()) {
+            finish(job, null);
+        }
+    }
+
+    // Jobs of a failed flush are saved meter by meter, so that only the jobs with invalid feeds fail.
+    // Acknowledged jobs are only finished again when their feeds turn out to be lost.
+    private void flushWriteBehind(List<PersistTask> tasks) {
+        try {
+            meterBatchReadingProcessorService.saveBatchReadingsOfMeters(tasks.stream().map(PersistTask::normalizedReading).toList());
+        } catch (RuntimeException e) {
+            log.warn("Write-behind flush of {} feeds failed, saving them by meter : {}", tasks.size(), e.getMessage());
+            tasks.stream()
+                    .collect(Collectors.groupingBy(task -> task.normalizedReading().getId(), LinkedHashMap::new, Collectors.toList()))
+                    .values()
+                    .forEach(tasksOfMeter -> persistAll(tasksOfMeter, isDurable(), meterBatchReadingProcessorService::saveBatchReadings));
+            return;
+        }
+        if (isDurable()) {
+            tasks.forEach(task -> finish(task.job(), null));
+        }
+    }
+
+    @Override
+    public IngestJobDto getJob(String jobId) {
+        IngestJob job = jobs.getIfPresent(jobId);
+        if (job == null) {
+            throw new IngestJobNotFoundException(String.format("Ingest job not found : %s", jobId));
+        }
+        return job.toDto();
+    }
+
+    @Override
+    public List<IngestStageStatisticsDto> getStageStatistics() {
+        return List.of(parseStage.getStatistics(), normalizeStage.getStatistics(), persistStage.getStatistics());
+    }
+
+    @Override
+    public List<IngestPartitionStatisticsDto> getPartitionStatistics() {
+        return persistPartitions == null ? List.of() : persistPartitions.getStatistics();
+    }
+
+    @Override
+    public Optional<WriteBehindStatisticsDto> getWriteBehindStatistics() {
+        return Optional.ofNullable(writeBehindBuffer).map(WriteBehindBuffer::getStatistics);
+    }
+
+    // Queued feeds are still processed, the database is closed only after this bean
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (IngestStage stage : List.of(parseStage, normalizeStage, persistStage)) {
+            if (!stage.shutdown(SHUTDOWN_TIMEOUT)) {
+                log.warn("Ingest workers did not finish in time, {} feeds are dropped", stage.shutdownNow());
+            }
+        }
+        if (persistPartitions != null && !persistPartitions.shutdown(SHUTDOWN_TIMEOUT)) {
+            log.warn("Ingest partitions did not finish in time, {} feeds are dropped", persistPartitions.shutdownNow());
+        }
+        if (writeBehindBuffer != null && !writeBehindBuffer.shutdown(SHUTDOWN_TIMEOUT)) {
+            log.warn("Write-behind buffer did not flush in time, {} feeds are dropped", writeBehindBuffer.shutdownNow());
+        }
+    }
+
+    private interface HandOver {
+        void run() throws InterruptedException;
+    }
+
+    private record PersistTask(IngestJob job, XmlMeterBatchReading normalizedReading) {
+    }
+
+    private static class IngestJob {
+        private final String id;
+        private final long sequence;
+        private final long submittedEpochAsMilli;
+        private IngestJobStatus status = IngestJobStatus.QUEUED;
+        private Long startedEpochAsMilli;
+        private Long finishedEpochAsMilli;
+        private String error;
+
+        IngestJob(String id, long sequence, long submittedEpochAsMilli) {
+            this.id = id;
+            this.sequence = sequence;
+            this.submittedEpochAsMilli = submittedEpochAsMilli;
+        }
+
+        String getId() {
+            return id;
+        }
+
+        long getSequence() {
+            return sequence;
+        }
+
+        synchronized void start(long epochAsMilli) {
+            status = IngestJobStatus.RUNNING;
+            startedEpochAsMilli = epochAsMilli;
+        }
+
+        synchronized void finish(long epochAsMilli, IngestJobStatus finishedStatus, String finishedError) {
+            status = finishedStatus;
+            finishedEpochAsMilli = epochAsMilli;
+            error = finishedError;
+        }
+
+        synchronized IngestJobDto toDto() {
+            return new IngestJobDto(id, status, submittedEpochAsMilli, startedEpochAsMilli, finishedEpochAsMilli, error);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package energy.leap.meterhub.service.impl;
+
+import energy.leap.meterhub.config.MeterhubProperties;
+import energy.leap.meterhub.service.dto.IngestPartitionStatisticsDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Items are routed by the hash of their meter id to one of a fixed number of partitions, each written by a single
+// thread. A partition owns its meters, so writes of a meter never wait for another writer, and items of the same
+// meter waiting next to each other in its queue are handed to the writer together.
+@Slf4j
+class IngestPartitions<T> {
+
+    private static final long POLL_MILLIS = 100;
+
+    private final Function<T, String> meterIdOf;
+
+    private final Consumer<List<T>> writer;
+
+    private final int maxCoalescedItems;
+
+    private final List<Partition> partitions = new ArrayList<>();
+
+    private final long startNanos = System.nanoTime();
+
+    private volatile boolean running = true;
+
+    IngestPartitions(MeterhubProperties.Partitions properties, Function<T, String> meterIdOf, Consumer<List<T>> writer) {
+        this.meterIdOf = meterIdOf;
+        this.writer = writer;
+        this.maxCoalescedItems = properties.getMaxCoalescedBatches();
+        ThreadFactory threadFactory = new CustomizableThreadFactory("ingest-partition-");
+        for (int i = 0; i < properties.getCount(); i++) {
+            Partition partition = new Partition(i, properties.getQueueCapacity());
+            partition.thread = threadFactory.newThread(partition::run);
+            partitions.add(partition);
+        }
+        partitions.forEach(partition -> partition.thread.start());
+    }
+
+    // Waits for room in the partition of the meter, so a slow partition holds up the stage handing items over
+    void put(T item) throws InterruptedException {
+        if (!running) {
+            throw new RejectedExecutionException("Ingest partitions are shut down");
+        }
+        Partition partition = partitions.get(Math.floorMod(meterIdOf.apply(item).hashCode(), partitions.size()));
+        partition.queue.put(new QueuedItem<>(item, System.nanoTime()));
+    }
+
+    // Queued items are still written, partitions stop once their queues are empty
+    boolean shutdown(Duration timeout) throws InterruptedException {
+        running = false;
+        long deadlineNanos = System.nanoTime() + timeout.toNanos();
+        for (Partition partition : partitions) {
+            partition.thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime())));
+        }
+        return partitions.stream().noneMatch(partition -> partition.thread.isAlive());
+    }
+
+    int shutdownNow() {
+        int dropped = 0;
+        for (Partition partition : partitions) {
+            dropped += partition.queue.size();
+            partition.queue.clear();
+            partition.thread.interrupt();
+        }
+        return dropped;
+    }
+
+    List<IngestPartitionStatisticsDto> getStatistics() {
+        double elapsedSeconds = Math.max(1, System.nanoTime() - startNanos) / 1e9;
+        return partitions.stream().map(partition -> partition.getStatistics(elapsedSeconds)).toList();
+    }
+
+    private record QueuedItem<T>(T item, long queuedNanos) {
+    }
+
+    private class Partition {
+        private final int index;
+        private final BlockingQueue<QueuedItem<T>> queue;
+        private final LongAdder writtenItemCount = new LongAdder();
+        private final LongAdder writeCount = new LongAdder();
+        private volatile long lastWriteLagNanos;
+        private Thread thread;
+
+        Partition(int index, int queueCapacity) {
+            this.index = index;
+            this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        }
+
+        void run() {
+            while (running || !queue.isEmpty()) {
+                QueuedItem<T> first;
+                try {
+                    first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (first != null) {
+                    write(first);
+                }
+            }
+        }
+
+        private void write(QueuedItem<T> first) {
+            // Only this thread takes from the queue, so the head can be checked before it is taken
+            String meterId = meterIdOf.apply(first.item());
+            List<T> items = new ArrayList<>();
+            items.add(first.item());
+            QueuedItem<T> next;
+            while (items.size() < maxCoalescedItems && (next = queue.peek()) != null && meterIdOf.apply(next.item()).equals(meterId)) {
+                items.add(queue.poll().item());
+            }
+            lastWriteLagNanos = System.nanoTime() - first.queuedNanos();
+            try {
+                writer.accept(items);
+            } catch (RuntimeException e) {
+                log.error("Ingest partition {} failed to write meter {} : ", index, meterId, e);
+            }
+            writtenItemCount.add(items.size());
+            writeCount.increment();
+        }
+
+        IngestPartitionStatisticsDto getStatistics(double elapsedSeconds) {
+            QueuedItem<T> head = queue.peek();
+            long oldestQueuedMillis = head == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - head.queuedNanos());
+            long written = writtenItemCount.sum();
+            return new IngestPartitionStatisticsDto(index, queue.size(), oldestQueuedMillis,
+                    TimeUnit.NANOSECONDS.toMillis(lastWriteLagNanos), written, writeCount.sum(), written / elapsedSeconds);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package energy.leap.meterhub.service.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Feeds are numbered when they are submitted and handed over to be saved in that order. They are parsed and
+// normalized by several workers, so a feed can be ready before one submitted earlier, it then waits here until every
+// earlier feed has been handed over or has failed. The meter of a feed is only known once it is parsed, which is why
+// all feeds are kept in order and not only the feeds of one meter. Waiting feeds are held in memory, there are at most
+// as many as the parse stage has taken in.
+class IngestSequencer {
+
+    private final AtomicLong nextSubmitted = new AtomicLong();
+
+    // Guarded by this
+    private long nextHandedOver;
+
+    private final Map<Long, Runnable> waiting = new HashMap<>();
+
+    long next() {
+        return nextSubmitted.getAndIncrement();
+    }
+
+    // Hand overs are run by the thread whose feed was the last one missing, one after the other, so a hand over
+    // waiting for room in the next stage holds up the ones after it
+    synchronized void handOver(long sequence, Runnable handOver) {
+        waiting.put(sequence, handOver);
+        for (Runnable next = waiting.remove(nextHandedOver); next != null; next = waiting.remove(nextHandedOver)) {
+            nextHandedOver++;
+            next.run();
+        }
+    }
+
+    // Feeds that failed before they could be handed over no longer hold up the ones after them
+    void skip(long sequence) {
+        handOver(sequence, () -> {
+        });
+    }
+}
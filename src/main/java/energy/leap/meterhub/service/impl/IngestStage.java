@@ -0,0 +1,86 @@
+package energy.leap.meterhub.service.impl;
+
+import energy.leap.meterhub.config.MeterhubProperties;
+import energy.leap.meterhub.service.dto.IngestStageStatisticsDto;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// One stage of the ingest pipeline, a thread pool with its own bounded queue. Feeds enter the pipeline with offer,
+// which fails when the queue is full, and are handed to the next stage with put, which waits for room instead
+// so that a slow stage holds up the stages before it.
+class IngestStage {
+
+    private final String name;
+
+    private final int queueCapacity;
+
+    private final ThreadPoolExecutor executor;
+
+    private final long startNanos = System.nanoTime();
+
+    private final LongAdder busyNanos = new LongAdder();
+
+    private final LongAdder completedCount = new LongAdder();
+
+    IngestStage(String name, MeterhubProperties.Stage properties) {
+        this.name = name;
+        this.queueCapacity = properties.getQueueCapacity();
+        this.executor = new ThreadPoolExecutor(properties.getWorkerCount(), properties.getWorkerCount(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                new CustomizableThreadFactory("ingest-" + name + "-"), new ThreadPoolExecutor.AbortPolicy());
+        // Tasks put straight into the queue are only taken by threads that are already running
+        executor.prestartAllCoreThreads();
+    }
+
+    // Only the work of the stage is measured, not the wait for room in the next stage
+    <T> T measure(Supplier<T> work) {
+        long workStartNanos = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            busyNanos.add(System.nanoTime() - workStartNanos);
+            completedCount.increment();
+        }
+    }
+
+    boolean isFull() {
+        return executor.getQueue().remainingCapacity() == 0;
+    }
+
+    void offer(Runnable task) {
+        executor.execute(task);
+    }
+
+    void put(Runnable task) throws InterruptedException {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException(String.format("Ingest stage %s is shut down", name));
+        }
+        executor.getQueue().put(task);
+    }
+
+    // Stages are shut down in pipeline order, so feeds still in an earlier stage can be handed over
+    boolean shutdown(Duration timeout) throws InterruptedException {
+        executor.shutdown();
+        return executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    int shutdownNow() {
+        return executor.shutdownNow().size();
+    }
+
+    IngestStageStatisticsDto getStatistics() {
+        int workerCount = executor.getCorePoolSize();
+        long elapsedNanos = Math.max(1, System.nanoTime() - startNanos);
+        long busy = busyNanos.sum();
+        return new IngestStageStatisticsDto(name, workerCount, executor.getActiveCount(), executor.getQueue().size(),
+                queueCapacity, completedCount.sum(), TimeUnit.NANOSECONDS.toMillis(busy),
+                Math.min(1.0, (double) busy / ((double) elapsedNanos * workerCount)));
+    }
+}
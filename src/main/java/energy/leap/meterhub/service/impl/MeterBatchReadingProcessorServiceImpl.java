@@ -1,46 +1,155 @@
 package energy.leap.meterhub.service.impl;
 
-import energy.leap.meterhub.data.entity.EnergyMeter;
-import energy.leap.meterhub.data.repository.EnergyMeterRepository;
-import energy.leap.meterhub.data.repository.HourlyReadingRepository;
+import energy.leap.meterhub.config.MeterhubProperties;
 import energy.leap.meterhub.service.MeterBatchReadingProcessorService;
-import energy.leap.meterhub.service.impl.mapper.XmlMeterBatchReadingMapper;
+import energy.leap.meterhub.service.dto.BulkLoadReportDto;
+import energy.leap.meterhub.service.impl.parser.XmlHourlyReadingAggregator;
+import energy.leap.meterhub.service.impl.parser.XmlIntervalReading;
+import energy.leap.meterhub.service.impl.parser.XmlIntervalReadingListener;
 import energy.leap.meterhub.service.impl.parser.XmlMeterBatchReading;
-import energy.leap.meterhub.service.impl.parser.XmlMeterBatchReadingNormalizer;
-import energy.leap.meterhub.service.impl.parser.XmlMeterBatchReadingParser;
-import jakarta.transaction.Transactional;
+import energy.leap.meterhub.service.impl.parser.XmlMeterBatchReadingSweepNormalizer;
+import energy.leap.meterhub.service.impl.parser.XmlMeterBatchReadingStreamParser;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.stereotype.Component;
 
-import java.util.Optional;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
 @Component
 @RequiredArgsConstructor
+@Slf4j
 public class MeterBatchReadingProcessorServiceImpl implements MeterBatchReadingProcessorService {
     @NonNull
-    private final EnergyMeterRepository energyMeterRepository;
+    private final MeterBatchReadingWriter meterBatchReadingWriter;
+
+    @NonNull
+    private final MeterhubProperties meterhubProperties;
 
     @NonNull
-    private final HourlyReadingRepository hourlyReadingRepository;
+    private final MeterWriteLocks meterWriteLocks;
 
-    @Transactional
-    private void saveReading(XmlMeterBatchReading normalizedReading) {
-        EnergyMeter meter;
-        Optional<EnergyMeter> meterFound = energyMeterRepository.findById(normalizedReading.getId());
-        meter = meterFound.orElseGet(() -> new EnergyMeter(normalizedReading.getId(), normalizedReading.getTitle()));
-        energyMeterRepository.save(meter);
-        hourlyReadingRepository.saveAll(XmlMeterBatchReadingMapper.convertReadingsToHourlyReadings(normalizedReading));
+    // Locked before the transaction starts, so uploads waiting for the same meter do not hold connections
+    private void save(XmlMeterBatchReading normalizedReading) {
+        meterWriteLocks.runWithMeterLock(normalizedReading.getId(), () -> meterBatchReadingWriter.save(normalizedReading));
     }
 
-    @Override
-    public void processBatchReading(String batchReadingXmlContent) {
-        // Parse
-        XmlMeterBatchReadingParser parser = new XmlMeterBatchReadingParser();
-        XmlMeterBatchReading batchReading = parser.parseReadingFile(batchReadingXmlContent);
+    private void normalizeAndSave(XmlMeterBatchReading batchReading) {
         // Normalize
-        XmlMeterBatchReadingNormalizer normalizer = new XmlMeterBatchReadingNormalizer();
+        XmlMeterBatchReadingSweepNormalizer normalizer = new XmlMeterBatchReadingSweepNormalizer();
         XmlMeterBatchReading normalizedReading = normalizer.normalize(batchReading);
         // Save
-        saveReading(normalizedReading);
+        save(normalizedReading);
+    }
+
+    private XmlMeterBatchReading aggregate(Function<XmlIntervalReadingListener, XmlMeterBatchReading> parse) {
+        // Parse, normalize and aggregate in one pass, only hours still missing some readings are kept in memory
+        List<XmlIntervalReading> hourReadings = new ArrayList<>();
+        XmlHourlyReadingAggregator aggregator =
+                new XmlHourlyReadingAggregator((batchReading, hourReading) -> hourReadings.add(hourReading));
+        XmlMeterBatchReading batchReading = parse.apply(aggregator);
+        aggregator.finish();
+        // Price and unit may come after the readings in the feed, so hourly readings are mapped at the end
+        hourReadings.sort(Comparator.comparingLong(XmlIntervalReading::getStartEpochAsSec));
+        batchReading.setIntervalReadings(hourReadings);
+        return batchReading;
+    }
+
+    private void aggregateAndSave(Function<XmlIntervalReadingListener, XmlMeterBatchReading> parse) {
+        XmlMeterBatchReading normalizedReading = aggregate(parse);
+        // Save
+        save(normalizedReading);
+    }
+
+    private boolean isFused() {
+        return meterhubProperties.getIngest().getMode() == MeterhubProperties.IngestMode.FUSED;
+    }
+
+    @Override
+    public void processBatchReading(String batchReadingXmlContent) {
+        XmlMeterBatchReadingStreamParser parser = new XmlMeterBatchReadingStreamParser();
+        if (isFused()) {
+            aggregateAndSave(listener -> parser.parseReadingFile(batchReadingXmlContent, listener));
+        } else {
+            // Parse
+            normalizeAndSave(parser.parseReadingFile(batchReadingXmlContent));
+        }
+    }
+
+    @Override
+    public void processBatchReading(InputStream batchReadingXmlStream) {
+        saveBatchReading(normalizeBatchReading(parseBatchReading(batchReadingXmlStream)));
+    }
+
+    // Stages of processBatchReading, run by the ingest pipeline on their own threads
+
+    public XmlMeterBatchReading parseBatchReading(InputStream batchReadingXmlStream) {
+        // Parse straight from the stream, encoding is taken from the XML declaration
+        XmlMeterBatchReadingStreamParser parser = new XmlMeterBatchReadingStreamParser();
+        if (isFused()) {
+            // Already normalized and aggregated into hours
+            return aggregate(listener -> parser.parseReadingStream(batchReadingXmlStream, listener));
+        }
+        return parser.parseReadingStream(batchReadingXmlStream);
+    }
+
+    public XmlMeterBatchReading normalizeBatchReading(XmlMeterBatchReading batchReading) {
+        if (isFused()) {
+            return batchReading;
+        }
+        return new XmlMeterBatchReadingSweepNormalizer().normalize(batchReading);
+    }
+
+    public void saveBatchReading(XmlMeterBatchReading normalizedReading) {
+        save(normalizedReading);
+    }
+
+    // Feeds of one meter, written together
+    public void saveBatchReadings(List<XmlMeterBatchReading> normalizedReadings) {
+        meterWriteLocks.runWithMeterLock(normalizedReadings.get(0).getId(), () -> meterBatchReadingWriter.saveAll(normalizedReadings));
+    }
+
+    // Feeds of one meter, written together by the ingest partition owning the meter without taking the lock of the meter
+    public void saveOwnedBatchReadings(List<XmlMeterBatchReading> normalizedReadings) {
+        meterBatchReadingWriter.saveAllOfOwnedMeter(normalizedReadings);
+    }
+
+    // Feeds of many meters, written together by the write-behind buffer
+    public void saveBatchReadingsOfMeters(List<XmlMeterBatchReading> normalizedReadings) {
+        meterWriteLocks.callWithBulkLock(() -> {
+            meterBatchReadingWriter.saveAllMeters(normalizedReadings);
+            return null;
+        });
+    }
+
+    private XmlMeterBatchReading aggregate(InputStreamSource batchReadingXmlSource) {
+        XmlMeterBatchReadingStreamParser parser = new XmlMeterBatchReadingStreamParser();
+        try (InputStream batchReadingXmlStream = batchReadingXmlSource.getInputStream()) {
+            return aggregate(listener -> parser.parseReadingStream(batchReadingXmlStream, listener));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public BulkLoadReportDto processBatchReadings(List<? extends InputStreamSource> batchReadingXmlSources) {
+        // Feeds are parsed one at a time while their hourly readings are being loaded, all in one transaction
+        long startNanos = System.nanoTime();
+        long loaded = meterWriteLocks.callWithBulkLock(
+                () -> meterBatchReadingWriter.bulkSave(batchReadingXmlSources.stream().map(this::aggregate)));
+        long elapsedMillis = Math.max(1, Duration.ofNanos(System.nanoTime() - startNanos).toMillis());
+        BulkLoadReportDto report = new BulkLoadReportDto(batchReadingXmlSources.size(), loaded, elapsedMillis,
+                loaded * 1000 / elapsedMillis);
+        log.info("Bulk loaded {} hourly readings of {} feeds in {} ms ({} readings/s)",
+                loaded, report.getFeedCount(), elapsedMillis, report.getHourlyReadingsPerSecond());
+        return report;
     }
 }
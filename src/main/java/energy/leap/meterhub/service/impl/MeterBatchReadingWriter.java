@@ -0,0 +1,366 @@
+package energy.leap.meterhub.service.impl;
+
+import energy.leap.meterhub.config.MeterhubProperties;
+import energy.leap.meterhub.data.entity.GroupHourlyReading;
+import energy.leap.meterhub.data.entity.GroupHourlyReadingKey;
+import energy.leap.meterhub.data.entity.HourlyReading;
+import energy.leap.meterhub.data.entity.HourlyReadingKey;
+import energy.leap.meterhub.data.entity.MeterGroup;
+import energy.leap.meterhub.data.entity.MeterRollup;
+import energy.leap.meterhub.data.entity.MeterRollupKey;
+import energy.leap.meterhub.data.entity.MeterTotals;
+import energy.leap.meterhub.data.entity.RollupGranularity;
+import energy.leap.meterhub.data.projection.HourlyReadingValue;
+import energy.leap.meterhub.data.projection.MeterTotalsValue;
+import energy.leap.meterhub.data.repository.EnergyMeterRepository;
+import energy.leap.meterhub.data.repository.GroupHourlyReadingRepository;
+import energy.leap.meterhub.data.repository.HourlyReadingRepository;
+import energy.leap.meterhub.data.repository.MeterGroupRepository;
+import energy.leap.meterhub.data.repository.MeterRollupRepository;
+import energy.leap.meterhub.data.repository.MeterTotalsRepository;
+import energy.leap.meterhub.service.impl.mapper.XmlMeterBatchReadingMapper;
+import energy.leap.meterhub.service.impl.parser.XmlMeterBatchReading;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+// Kept apart from the processor service so that saving a normalized reading runs in one transaction,
+// a transactional method called from within the same bean would not go through the transaction proxy
+@Component
+@RequiredArgsConstructor
+public class MeterBatchReadingWriter {
+    @NonNull
+    private final EnergyMeterRepository energyMeterRepository;
+
+    @NonNull
+    private final HourlyReadingRepository hourlyReadingRepository;
+
+    @NonNull
+    private final MeterTotalsRepository meterTotalsRepository;
+
+    @NonNull
+    private final MeterRollupRepository meterRollupRepository;
+
+    @NonNull
+    private final MeterGroupRepository meterGroupRepository;
+
+    @NonNull
+    private final GroupHourlyReadingRepository groupHourlyReadingRepository;
+
+    @NonNull
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    @NonNull
+    private final MeterWriteLocks meterWriteLocks;
+
+    @NonNull
+    private final MeterRegistry meterRegistry;
+
+    @NonNull
+    private final MeterhubProperties meterhubProperties;
+
+    @NonNull
+    private final EntityManager entityManager;
+
+    static BigDecimal getCost(BigDecimal pricePerKwh, long readingAsWh) {
+        return pricePerKwh.multiply(BigDecimal.valueOf(readingAsWh)).movePointLeft(3);
+    }
+
+    // Known meters with an unchanged title are not written, only their data version. Returns the key of the meter.
+    private Integer saveMeter(XmlMeterBatchReading normalizedReading) {
+        Integer meterKey = meterRegistry.register(normalizedReading.getId(), normalizedReading.getTitle());
+        energyMeterRepository.incrementDataVersion(normalizedReading.getId(), System.currentTimeMillis());
+        return meterKey;
+    }
+
+    // Adds the difference between the new readings and the readings they overwrite to the totals of the meter and to
+    // its day and month rollups, has to be called before the new readings are written. The differences of the hours
+    // of the groups of the meter are gathered to be added once for all meters of the transaction.
+    private void addToTotals(String meterId, List<HourlyReading> readings, Map<GroupHourlyReadingKey, GroupHourlyReading> groupDeltas) {
+        if (readings.isEmpty()) {
+            return;
+        }
+        long fromHour = readings.stream().mapToLong(reading -> reading.getId().getHourStartEpochAsSec()).min().orElseThrow();
+        long toHour = readings.stream().mapToLong(reading -> reading.getId().getHourStartEpochAsSec()).max().orElseThrow();
+        // The totals are locked before the overwritten readings are read, so that another writer of the meter can not
+        // change them in between. A new meter gets empty totals first, which leaves a row to lock.
+        meterTotalsRepository.insertIfAbsent(meterId);
+        MeterTotals totals = meterTotalsRepository.findForUpdate(meterId).orElseThrow();
+        Map<Long, HourlyReadingValue> overwrittenValues = new HashMap<>();
+        for (HourlyReadingValue value : hourlyReadingRepository.findValuesOfMeterBetween(meterId, fromHour, toHour)) {
+            overwrittenValues.put(value.getHourStartEpochAsSec(), value);
+        }
+        long totalReadingAsWh = totals.getTotalReadingAsWh();
+        BigDecimal totalCost = totals.getTotalCost();
+        long hourCount = totals.getHourCount();
+        Map<MeterRollupKey, MeterRollup> rollupDeltas = new HashMap<>();
+        List<Integer> groupKeys = meterGroupRepository.findGroupKeysOfMeter(readings.get(0).getId().getMeterKey());
+        for (HourlyReading reading : readings) {
+            long readingAsWh = reading.getReadingAsWh();
+            BigDecimal cost = getCost(reading.getPricePerKwh(), reading.getReadingAsWh());
+            HourlyReadingValue overwrittenValue = overwrittenValues.get(reading.getId().getHourStartEpochAsSec());
+            int meterCount = 0;
+            if (overwrittenValue == null) {
+                hourCount++;
+                meterCount = 1;
+            } else {
+                readingAsWh -= overwrittenValue.getReadingAsWh();
+                cost = cost.subtract(getCost(overwrittenValue.getPricePerKwh(), overwrittenValue.getReadingAsWh()));
+            }
+            totalReadingAsWh += readingAsWh;
+            totalCost = totalCost.add(cost);
+            addToRollups(rollupDeltas, reading.getId(), readingAsWh, cost);
+            MeterGroupWriter.addToGroups(groupDeltas, groupKeys, reading.getId().getHourIndex(), readingAsWh, cost, meterCount);
+        }
+        applyRollupDeltas(readings.get(0).getId().getMeterKey(), rollupDeltas.values());
+        totals.setTotalReadingAsWh(totalReadingAsWh);
+        totals.setTotalCost(totalCost);
+        totals.setHourCount(hourCount);
+        totals.setFirstHourStartEpochAsSec(totals.getFirstHourStartEpochAsSec() == null
+                ? fromHour : Math.min(totals.getFirstHourStartEpochAsSec(), fromHour));
+        totals.setLastHourStartEpochAsSec(totals.getLastHourStartEpochAsSec() == null
+                ? toHour : Math.max(totals.getLastHourStartEpochAsSec(), toHour));
+        meterTotalsRepository.save(totals);
+    }
+
+    private static void addToRollups(Map<MeterRollupKey, MeterRollup> rollups, HourlyReadingKey hour, long readingAsWh, BigDecimal cost) {
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            MeterRollupKey key = new MeterRollupKey(hour.getMeterKey(), granularity, granularity.getBucketHourIndex(hour.getHourIndex()));
+            MeterRollup rollup = rollups.computeIfAbsent(key, k -> new MeterRollup(k, 0L, BigDecimal.ZERO));
+            rollup.setReadingAsWh(rollup.getReadingAsWh() + readingAsWh);
+            rollup.setCost(rollup.getCost().add(cost));
+        }
+    }
+
+    // Adds the differences to the stored day and month rollups of the meter. Has to be called holding the totals of
+    // the meter for update, which keeps other writers of the meter from changing its rollups at the same time.
+    private void applyRollupDeltas(Integer meterKey, Collection<MeterRollup> deltas) {
+        int fromHourIndex = deltas.stream().mapToInt(delta -> delta.getId().getBucketHourIndex()).min().orElseThrow();
+        int toHourIndex = deltas.stream().mapToInt(delta -> delta.getId().getBucketHourIndex()).max().orElseThrow();
+        Map<MeterRollupKey, MeterRollup> rollups = new HashMap<>();
+        for (MeterRollup rollup : meterRollupRepository.findOfMeterBetween(meterKey, fromHourIndex, toHourIndex)) {
+            rollups.put(rollup.getId(), rollup);
+        }
+        List<MeterRollup> changedRollups = new ArrayList<>();
+        for (MeterRollup delta : deltas) {
+            MeterRollup rollup = rollups.get(delta.getId());
+            if (rollup == null) {
+                changedRollups.add(delta);
+            } else {
+                rollup.setReadingAsWh(rollup.getReadingAsWh() + delta.getReadingAsWh());
+                rollup.setCost(rollup.getCost().add(delta.getCost()));
+                changedRollups.add(rollup);
+            }
+        }
+        meterRollupRepository.saveAll(changedRollups);
+    }
+
+    // Rollups of the meter are built again from its stored readings
+    private void recomputeRollups(String meterId) {
+        Integer meterKey = energyMeterRepository.findMeterKey(meterId);
+        meterRollupRepository.deleteOfMeter(meterKey);
+        Map<MeterRollupKey, MeterRollup> rollups = new HashMap<>();
+        for (HourlyReadingValue value : hourlyReadingRepository.findValuesOfMeterBetweenHourIndexes(meterId, Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+            addToRollups(rollups, HourlyReadingKey.of(meterKey, value.getHourStartEpochAsSec()), value.getReadingAsWh(),
+                    getCost(value.getPricePerKwh(), value.getReadingAsWh()));
+        }
+        meterRollupRepository.saveAll(rollups.values());
+    }
+
+    // Returns false when the meter has no readings, its totals are left as they are then
+    private boolean recomputeTotals(String meterId) {
+        MeterTotalsValue value = hourlyReadingRepository.aggregateTotalsOfMeter(meterId);
+        if (value == null || value.getHourCount() == 0) {
+            return false;
+        }
+        meterTotalsRepository.save(new MeterTotals(meterId, value.getTotalReadingAsWh(),
+                value.getTotalPriceTimesReading().movePointLeft(3), value.getHourCount(),
+                value.getFirstHourStartEpochAsSec(), value.getLastHourStartEpochAsSec()));
+        return true;
+    }
+
+    @Transactional
+    public void save(XmlMeterBatchReading normalizedReading) {
+        saveAll(List.of(normalizedReading));
+    }
+
+    // Locks and saves the meter of the feeds and adds their readings to its totals, the readings are returned to be
+    // written. Later feeds overwrite the same hours of earlier ones. Meters owned by an ingest partition are not locked,
+    // saving the meter locks its row, which keeps the other writers of the meter waiting until commit.
+    private List<HourlyReading> prepareReadingsOfMeter(String meterId, List<XmlMeterBatchReading> normalizedReadings,
+                                                       Map<GroupHourlyReadingKey, GroupHourlyReading> groupDeltas, boolean lockMeter) {
+        if (lockMeter) {
+            meterWriteLocks.lockMeterUntilCompletion(meterId);
+        }
+        Integer meterKey = saveMeter(normalizedReadings.get(normalizedReadings.size() - 1));
+        Map<Integer, HourlyReading> readingsByHour = new TreeMap<>();
+        for (XmlMeterBatchReading normalizedReading : normalizedReadings) {
+            for (HourlyReading reading : XmlMeterBatchReadingMapper.convertReadingsToHourlyReadings(normalizedReading, meterKey)) {
+                readingsByHour.put(reading.getId().getHourIndex(), reading);
+            }
+        }
+        List<HourlyReading> readings = new ArrayList<>(readingsByHour.values());
+        addToTotals(meterId, readings, groupDeltas);
+        return readings;
+    }
+
+    // Batches of one meter are written in one transaction
+    @Transactional
+    public void saveAll(List<XmlMeterBatchReading> normalizedReadings) {
+        saveAll(normalizedReadings, true);
+    }
+
+    // Batches of a meter written by the ingest partition owning it, which is the only thread writing it in that mode
+    // besides group assignments, bulk loads and retention. A stripe lock would also hold up meters of other partitions
+    // sharing the stripe.
+    @Transactional
+    public void saveAllOfOwnedMeter(List<XmlMeterBatchReading> normalizedReadings) {
+        saveAll(normalizedReadings, false);
+    }
+
+    private void saveAll(List<XmlMeterBatchReading> normalizedReadings, boolean lockMeter) {
+        String meterId = normalizedReadings.get(0).getId();
+        for (XmlMeterBatchReading normalizedReading : normalizedReadings) {
+            if (!normalizedReading.getId().equals(meterId)) {
+                throw new IllegalArgumentException(String.format("Readings of meter %s can not be saved with meter %s",
+                        normalizedReading.getId(), meterId));
+            }
+        }
+        Map<GroupHourlyReadingKey, GroupHourlyReading> groupDeltas = new HashMap<>();
+        List<HourlyReading> readings = prepareReadingsOfMeter(meterId, normalizedReadings, groupDeltas, lockMeter);
+        // New readings overwrite existing readings of the same hour
+        hourlyReadingRepository.upsertAll(readings);
+        // Hours of the groups are shared with the writers of all other meters of the groups, the fleet with every writer.
+        // They are added last, so their rows are only held until the commit right after.
+        groupHourlyReadingRepository.addAll(new ArrayList<>(groupDeltas.values()));
+        applicationEventPublisher.publishEvent(new MeterReadingsSavedEvent(Set.of(meterId)));
+    }
+
+    // Batches of many meters are written in one transaction with all their readings upserted together,
+    // the caller has to make sure no other writer locking several meters runs at the same time
+    @Transactional
+    public void saveAllMeters(List<XmlMeterBatchReading> normalizedReadings) {
+        Map<String, List<XmlMeterBatchReading>> readingsByMeter = new LinkedHashMap<>();
+        for (XmlMeterBatchReading normalizedReading : normalizedReadings) {
+            readingsByMeter.computeIfAbsent(normalizedReading.getId(), meterId -> new ArrayList<>()).add(normalizedReading);
+        }
+        List<HourlyReading> readings = new ArrayList<>();
+        // Meters of a group add to the same hours, which are summed up before they are written
+        Map<GroupHourlyReadingKey, GroupHourlyReading> groupDeltas = new HashMap<>();
+        readingsByMeter.forEach((meterId, readingsOfMeter) -> readings.addAll(prepareReadingsOfMeter(meterId, readingsOfMeter, groupDeltas, true)));
+        hourlyReadingRepository.upsertAll(readings);
+        groupHourlyReadingRepository.addAll(new ArrayList<>(groupDeltas.values()));
+        applicationEventPublisher.publishEvent(new MeterReadingsSavedEvent(readingsByMeter.keySet()));
+    }
+
+    // Readings are pulled from the stream and loaded in chunks of whole feeds, so only a chunk of them and of the
+    // totals and rollups they change is expected to be in memory. Meters of a chunk are saved and the differences to the readings it overwrites are added to their
+    // totals, rollups and groups before its readings are loaded, the database can not be queried while they are copied.
+    // Later chunks read the overwritten readings of earlier ones, differences of the groups are added once at the end.
+    @Transactional
+    public long bulkSave(Stream<XmlMeterBatchReading> normalizedReadings) {
+        Set<String> meterIds = new LinkedHashSet<>();
+        Map<GroupHourlyReadingKey, GroupHourlyReading> groupDeltas = new HashMap<>();
+        int chunkSize = meterhubProperties.getPersistence().getBulkChunkSize();
+        Map<String, List<XmlMeterBatchReading>> chunk = new LinkedHashMap<>();
+        int chunkReadingCount = 0;
+        long loaded = 0;
+        for (Iterator<XmlMeterBatchReading> iterator = normalizedReadings.iterator(); iterator.hasNext(); ) {
+            XmlMeterBatchReading normalizedReading = iterator.next();
+            chunk.computeIfAbsent(normalizedReading.getId(), meterId -> new ArrayList<>()).add(normalizedReading);
+            chunkReadingCount += normalizedReading.getIntervalReadings().size();
+            if (chunkReadingCount >= chunkSize || !iterator.hasNext()) {
+                List<HourlyReading> readings = new ArrayList<>();
+                chunk.forEach((meterId, readingsOfMeter) -> readings.addAll(prepareReadingsOfMeter(meterId, readingsOfMeter, groupDeltas, true)));
+                loaded += hourlyReadingRepository.bulkLoad(readings);
+                // Totals and rollups of the chunk are written and let go, so that the persistence context does not
+                // grow with every meter and each query of the next chunk does not check them all for changes
+                entityManager.flush();
+                entityManager.clear();
+                meterIds.addAll(chunk.keySet());
+                chunk = new LinkedHashMap<>();
+                chunkReadingCount = 0;
+            }
+        }
+        groupHourlyReadingRepository.addAll(new ArrayList<>(groupDeltas.values()));
+        applicationEventPublisher.publishEvent(new MeterReadingsSavedEvent(meterIds));
+        return loaded;
+    }
+
+    // Meters saved before totals were maintained get theirs from their stored readings
+    @Transactional
+    public void recomputeMissingTotals() {
+        meterTotalsRepository.findMeterIdsWithoutTotals().forEach(this::recomputeTotals);
+    }
+
+    // Meters saved before rollups were maintained get theirs from their stored readings
+    @Transactional
+    public void recomputeMissingRollups() {
+        meterRollupRepository.findMeterIdsWithoutRollups().forEach(this::recomputeRollups);
+    }
+
+    // The fleet is created on first start and gets the hours of the readings stored before groups were maintained
+    @Transactional
+    public void initializeFleetGroup() {
+        meterGroupRepository.insertIfAbsent(MeterGroup.ROOT_ID, "Fleet", null);
+        Integer rootKey = meterGroupRepository.findGroupKey(MeterGroup.ROOT_ID);
+        if (!groupHourlyReadingRepository.existsByIdGroupKey(rootKey)) {
+            groupHourlyReadingRepository.saveAll(groupHourlyReadingRepository.aggregateAllMeters().stream()
+                    .map(value -> new GroupHourlyReading(new GroupHourlyReadingKey(rootKey, value.getHourIndex()), value.getReadingAsWh(),
+                            value.getPriceTimesReading().movePointLeft(3), Math.toIntExact(value.getMeterCount())))
+                    .toList());
+        }
+    }
+
+    // Readings of hours before the month are removed, on a partitioned table by dropping the partitions of earlier
+    // months. Meters losing readings get their totals recomputed and a new data version. The caller has to make sure
+    // no other writer locking several meters runs at the same time. The rows of the meters are locked as well, since
+    // ingest partitions write their meters without the lock.
+    @Transactional
+    public void deleteReadingsBefore(YearMonth month) {
+        int hourIndex = HourlyReadingKey.toHourIndex(month);
+        List<String> meterIds = meterTotalsRepository.findMeterIdsWithHoursBefore(hourIndex * HourlyReadingKey.SECONDS_PER_HOUR);
+        for (String meterId : meterIds) {
+            meterWriteLocks.lockMeterUntilCompletion(meterId);
+            energyMeterRepository.findForUpdate(meterId);
+        }
+        if (hourlyReadingRepository.isPartitioned()) {
+            for (YearMonth partitionMonth : hourlyReadingRepository.findMonthlyPartitions()) {
+                if (partitionMonth.isBefore(month)) {
+                    hourlyReadingRepository.dropMonthlyPartition(partitionMonth);
+                }
+            }
+        }
+        hourlyReadingRepository.deleteReadingsBefore(hourIndex);
+        meterRollupRepository.deleteBefore(hourIndex);
+        groupHourlyReadingRepository.deleteBefore(hourIndex);
+        if (meterIds.isEmpty()) {
+            return;
+        }
+        long modifiedEpochAsMilli = System.currentTimeMillis();
+        for (String meterId : meterIds) {
+            if (!recomputeTotals(meterId)) {
+                meterTotalsRepository.deleteById(meterId);
+            }
+            energyMeterRepository.incrementDataVersion(meterId, modifiedEpochAsMilli);
+        }
+        applicationEventPublisher.publishEvent(new MeterReadingsSavedEvent(new LinkedHashSet<>(meterIds)));
+    }
+}
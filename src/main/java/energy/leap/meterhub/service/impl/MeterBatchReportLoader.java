@@ -0,0 +1,136 @@
+package energy.leap.meterhub.service.impl;
+
+import energy.leap.meterhub.config.MeterhubProperties;
+import energy.leap.meterhub.data.entity.MeterTotals;
+import energy.leap.meterhub.data.projection.MeterHourlyReportValue;
+import energy.leap.meterhub.data.projection.MeterRangeTotalsValue;
+import energy.leap.meterhub.data.repository.HourlyReadingRepository;
+import energy.leap.meterhub.data.repository.MeterTotalsRepository;
+import energy.leap.meterhub.service.dto.HourlyReportDto;
+import energy.leap.meterhub.service.dto.MeterBatchReportDto;
+import energy.leap.meterhub.service.impl.mapper.ReportMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Reads the reports of many meters in chunks, each with one query per kind of report. Chunks of a request are read
+// in parallel on a pool shared by all requests and handed over in the order of the request, at most as many of them
+// are kept in memory as there are threads.
+@Component
+public class MeterBatchReportLoader {
+
+    private final HourlyReadingRepository hourlyReadingRepository;
+
+    private final MeterTotalsRepository meterTotalsRepository;
+
+    private final ReportMapper reportMapper;
+
+    private final int chunkSize;
+
+    private final int hourlyChunkSize;
+
+    private final int parallelism;
+
+    private final ThreadPoolExecutor executor;
+
+    public MeterBatchReportLoader(HourlyReadingRepository hourlyReadingRepository, MeterTotalsRepository meterTotalsRepository,
+                                  ReportMapper reportMapper, MeterhubProperties meterhubProperties) {
+        this.hourlyReadingRepository = hourlyReadingRepository;
+        this.meterTotalsRepository = meterTotalsRepository;
+        this.reportMapper = reportMapper;
+        MeterhubProperties.Batch properties = meterhubProperties.getReport().getBatch();
+        this.chunkSize = properties.getChunkSize();
+        this.hourlyChunkSize = properties.getHourlyChunkSize();
+        this.parallelism = properties.getThreadCount();
+        // A request finding the queue full reads the chunk on its own thread, which holds it up instead of failing
+        this.executor = new ThreadPoolExecutor(properties.getThreadCount(), properties.getThreadCount(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                new CustomizableThreadFactory("report-batch-"), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Meters without readings, or without readings in the range, are left out
+    public void load(List<String> meterIds, Long fromHour, Long toHour, boolean hourly, Consumer<MeterBatchReportDto> consumer) {
+        int size = hourly ? hourlyChunkSize : chunkSize;
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < meterIds.size(); from += size) {
+            chunks.add(meterIds.subList(from, Math.min(meterIds.size(), from + size)));
+        }
+        Deque<Future<List<MeterBatchReportDto>>> loading = new ArrayDeque<>();
+        int next = 0;
+        try {
+            while (next < chunks.size() || !loading.isEmpty()) {
+                while (next < chunks.size() && loading.size() < parallelism) {
+                    List<String> chunk = chunks.get(next++);
+                    loading.add(executor.submit(() -> loadChunk(chunk, fromHour, toHour, hourly)));
+                }
+                await(loading.poll()).forEach(consumer);
+            }
+        } finally {
+            // Left when the consumer or a chunk failed
+            loading.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading batch report", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Batch report could not be read", e.getCause());
+        }
+    }
+
+    private List<MeterBatchReportDto> loadChunk(List<String> meterIds, Long fromHour, Long toHour, boolean hourly) {
+        long from = fromHour == null ? Long.MIN_VALUE : fromHour;
+        long to = toHour == null ? Long.MAX_VALUE : toHour;
+        Map<String, MeterTotals> totalsByMeter = new HashMap<>();
+        if (fromHour == null && toHour == null) {
+            // Running totals cover all hours
+            meterTotalsRepository.findAllById(meterIds).forEach(totals -> totalsByMeter.put(totals.getMeterId(), totals));
+        } else {
+            for (MeterRangeTotalsValue value : hourlyReadingRepository.aggregateTotalsOfMetersBetween(meterIds, from, to)) {
+                totalsByMeter.put(value.getMeterId(), new MeterTotals(value.getMeterId(), value.getTotalReadingAsWh(),
+                        value.getTotalPriceTimesReading().movePointLeft(3), null, null, null));
+            }
+        }
+        Map<String, List<HourlyReportDto>> hourlyReportsByMeter = new HashMap<>();
+        if (hourly) {
+            for (MeterHourlyReportValue value : hourlyReadingRepository.findReportsOfMetersBetween(meterIds, from, to)) {
+                hourlyReportsByMeter.computeIfAbsent(value.getMeterId(), meterId -> new ArrayList<>())
+                        .add(reportMapper.mapToHourlyReportDto(value));
+            }
+        }
+        List<MeterBatchReportDto> reports = new ArrayList<>();
+        for (String meterId : meterIds) {
+            MeterTotals totals = totalsByMeter.get(meterId);
+            if (totals != null) {
+                reports.add(new MeterBatchReportDto(meterId, totals.getTotalReadingAsWh(), totals.getTotalCost(),
+                        hourly ? hourlyReportsByMeter.getOrDefault(meterId, List.of()) : null));
+            }
+        }
+        return reports;
+    }
+}
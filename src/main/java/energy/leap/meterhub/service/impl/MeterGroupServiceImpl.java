@@ -0,0 +1,91 @@
+package energy.leap.meterhub.service.impl;
+
+import energy.leap.meterhub.data.entity.MeterGroup;
+import energy.leap.meterhub.data.repository.GroupHourlyReadingRepository;
+import energy.leap.meterhub.data.repository.MeterGroupRepository;
+import energy.leap.meterhub.service.MeterGroupService;
+import energy.leap.meterhub.service.dto.GroupHourlyReportDto;
+import energy.leap.meterhub.service.dto.MeterGroupDto;
+import energy.leap.meterhub.service.exception.IllegalMeterGroupRequestException;
+import energy.leap.meterhub.service.exception.MeterGroupNotFoundException;
+import energy.leap.meterhub.service.impl.mapper.ReportMapper;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class MeterGroupServiceImpl implements MeterGroupService {
+
+    @NonNull
+    private final MeterGroupRepository meterGroupRepository;
+
+    @NonNull
+    private final GroupHourlyReadingRepository groupHourlyReadingRepository;
+
+    @NonNull
+    private final MeterGroupWriter meterGroupWriter;
+
+    @NonNull
+    private final MeterWriteLocks meterWriteLocks;
+
+    @NonNull
+    private final ReportMapper reportMapper;
+
+    private static MeterGroupDto mapToMeterGroupDto(MeterGroup group) {
+        return new MeterGroupDto(group.getId(), group.getTitle(), group.getParentId());
+    }
+
+    private void checkGroupExists(String groupId) {
+        if (!meterGroupRepository.existsById(groupId)) {
+            throw new MeterGroupNotFoundException(String.format("Group not found : %s", groupId));
+        }
+    }
+
+    @Override
+    public List<MeterGroupDto> getGroups() {
+        return meterGroupRepository.findAll(Sort.by("id")).stream()
+                .map(MeterGroupServiceImpl::mapToMeterGroupDto)
+                .toList();
+    }
+
+    // The parent of a group never changes, so the groups above a meter stay the ones it was assigned under
+    @Override
+    public MeterGroupDto createGroup(String groupId, String title, String parentId) {
+        String parent = parentId == null ? MeterGroup.ROOT_ID : parentId;
+        checkGroupExists(parent);
+        if (meterGroupRepository.existsById(groupId)) {
+            throw new IllegalMeterGroupRequestException(String.format("Group already exists : %s", groupId));
+        }
+        return mapToMeterGroupDto(meterGroupRepository.save(new MeterGroup(groupId, title, parent)));
+    }
+
+    // Locked before the transaction starts like uploads of the meter
+    @Override
+    public void assignMeter(String groupId, String meterId) {
+        meterWriteLocks.runWithMeterLock(meterId, () -> meterGroupWriter.assignMeter(meterId, groupId));
+    }
+
+    @Override
+    public void unassignMeter(String groupId, String meterId) {
+        meterWriteLocks.runWithMeterLock(meterId, () -> meterGroupWriter.unassignMeter(meterId, groupId));
+    }
+
+    @Override
+    public List<String> getAssignedMeterIds(String groupId) {
+        checkGroupExists(groupId);
+        return meterGroupRepository.findAssignedMeterIds(groupId);
+    }
+
+    // Read from the hours of the group, which cost the same for a group of one meter and one of thousands
+    @Override
+    public List<GroupHourlyReportDto> getHourlyReportsForGroup(String groupId, Long fromHour, Long toHour) {
+        checkGroupExists(groupId);
+        return groupHourlyReadingRepository.findReportsOfGroupBetween(groupId,
+                        fromHour == null ? Long.MIN_VALUE : fromHour, toHour == null ? Long.MAX_VALUE : toHour)
+                .stream().map(reportMapper::mapToGroupHourlyReportDto).toList();
+    }
+}
@@ -0,0 +1,133 @@
+package energy.leap.meterhub.service.impl;
+
+import energy.leap.meterhub.data.entity.EnergyMeter;
+import energy.leap.meterhub.data.entity.GroupHourlyReading;
+import energy.leap.meterhub.data.entity.GroupHourlyReadingKey;
+import energy.leap.meterhub.data.entity.HourlyReadingKey;
+import energy.leap.meterhub.data.entity.MeterGroup;
+import energy.leap.meterhub.data.entity.MeterGroupMember;
+import energy.leap.meterhub.data.entity.MeterGroupMemberKey;
+import energy.leap.meterhub.data.projection.HourlyReadingValue;
+import energy.leap.meterhub.data.repository.EnergyMeterRepository;
+import energy.leap.meterhub.data.repository.GroupHourlyReadingRepository;
+import energy.leap.meterhub.data.repository.HourlyReadingRepository;
+import energy.leap.meterhub.data.repository.MeterGroupMemberRepository;
+import energy.leap.meterhub.data.repository.MeterGroupRepository;
+import energy.leap.meterhub.service.exception.IllegalMeterGroupRequestException;
+import energy.leap.meterhub.service.exception.MeterGroupNotFoundException;
+import energy.leap.meterhub.service.exception.MeterNotFoundException;
+import jakarta.transaction.Transactional;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Moves meters between groups in one transaction, so the hours of the groups always match their members
+@Component
+@RequiredArgsConstructor
+public class MeterGroupWriter {
+    @NonNull
+    private final EnergyMeterRepository energyMeterRepository;
+
+    @NonNull
+    private final HourlyReadingRepository hourlyReadingRepository;
+
+    @NonNull
+    private final MeterGroupRepository meterGroupRepository;
+
+    @NonNull
+    private final MeterGroupMemberRepository meterGroupMemberRepository;
+
+    @NonNull
+    private final GroupHourlyReadingRepository groupHourlyReadingRepository;
+
+    @NonNull
+    private final MeterWriteLocks meterWriteLocks;
+
+    static void addToGroups(Map<GroupHourlyReadingKey, GroupHourlyReading> groupDeltas, List<Integer> groupKeys, int hourIndex,
+                            long readingAsWh, BigDecimal cost, int meterCount) {
+        for (Integer groupKey : groupKeys) {
+            GroupHourlyReading delta = groupDeltas.computeIfAbsent(new GroupHourlyReadingKey(groupKey, hourIndex),
+                    key -> new GroupHourlyReading(key, 0L, BigDecimal.ZERO, 0));
+            delta.setReadingAsWh(delta.getReadingAsWh() + readingAsWh);
+            delta.setCost(delta.getCost().add(cost));
+            delta.setMeterCount(delta.getMeterCount() + meterCount);
+        }
+    }
+
+    private MeterGroup findGroup(String groupId) {
+        return meterGroupRepository.findById(groupId)
+                .orElseThrow(() -> new MeterGroupNotFoundException(String.format("Group not found : %s", groupId)));
+    }
+
+    // Locks the meter so that no upload changes its readings while its groups change. The row of the meter is locked
+    // as well, ingest partitions and other instances write the meter without taking its lock here.
+    private Integer lockMeter(String meterId) {
+        meterWriteLocks.lockMeterUntilCompletion(meterId);
+        return energyMeterRepository.findForUpdate(meterId)
+                .map(EnergyMeter::getMeterKey)
+                .orElseThrow(() -> new MeterNotFoundException(String.format("Group assignment requested for non-existing meter : %s", meterId)));
+    }
+
+    // Assigning a meter to the fleet takes it out of all other groups
+    @Transactional
+    public void assignMeter(String meterId, String groupId) {
+        Integer meterKey = lockMeter(meterId);
+        List<Integer> groupKeys = new ArrayList<>();
+        for (MeterGroup group = findGroup(groupId); group.getParentId() != null; group = findGroup(group.getParentId())) {
+            groupKeys.add(group.getGroupKey());
+        }
+        moveMeter(meterId, meterKey, groupKeys);
+    }
+
+    @Transactional
+    public void unassignMeter(String meterId, String groupId) {
+        Integer meterKey = lockMeter(meterId);
+        Integer groupKey = findGroup(groupId).getGroupKey();
+        boolean assigned = meterGroupMemberRepository.findByIdMeterKey(meterKey).stream()
+                .anyMatch(member -> member.getAssigned() && member.getId().getGroupKey().equals(groupKey));
+        if (!assigned) {
+            throw new IllegalMeterGroupRequestException(String.format("Meter %s is not assigned to group %s", meterId, groupId));
+        }
+        moveMeter(meterId, meterKey, List.of());
+    }
+
+    // Group keys are the groups the meter is a member of afterwards starting with the one it is assigned to. The stored
+    // readings of the meter are added to the groups it joins and subtracted from the groups it leaves.
+    private void moveMeter(String meterId, Integer meterKey, List<Integer> groupKeys) {
+        List<Integer> leftGroupKeys = new ArrayList<>();
+        List<Integer> joinedGroupKeys = new ArrayList<>(groupKeys);
+        List<MeterGroupMember> leftMembers = new ArrayList<>();
+        for (MeterGroupMember member : meterGroupMemberRepository.findByIdMeterKey(meterKey)) {
+            if (!joinedGroupKeys.remove(member.getId().getGroupKey())) {
+                leftGroupKeys.add(member.getId().getGroupKey());
+                leftMembers.add(member);
+            }
+        }
+        meterGroupMemberRepository.deleteAll(leftMembers);
+        List<MeterGroupMember> members = new ArrayList<>();
+        for (int i = 0; i < groupKeys.size(); i++) {
+            members.add(new MeterGroupMember(new MeterGroupMemberKey(groupKeys.get(i), meterKey), i == 0));
+        }
+        meterGroupMemberRepository.saveAll(members);
+        if (leftGroupKeys.isEmpty() && joinedGroupKeys.isEmpty()) {
+            return;
+        }
+        Map<GroupHourlyReadingKey, GroupHourlyReading> groupDeltas = new HashMap<>();
+        for (HourlyReadingValue value : hourlyReadingRepository.findValuesOfMeterBetweenHourIndexes(meterId, Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+            int hourIndex = HourlyReadingKey.toHourIndex(value.getHourStartEpochAsSec());
+            BigDecimal cost = MeterBatchReadingWriter.getCost(value.getPricePerKwh(), value.getReadingAsWh());
+            addToGroups(groupDeltas, joinedGroupKeys, hourIndex, value.getReadingAsWh(), cost, 1);
+            addToGroups(groupDeltas, leftGroupKeys, hourIndex, -value.getReadingAsWh(), cost.negate(), -1);
+        }
+        groupHourlyReadingRepository.addAll(new ArrayList<>(groupDeltas.values()));
+        if (!leftGroupKeys.isEmpty()) {
+            groupHourlyReadingRepository.deleteEmptyOfGroups(leftGroupKeys);
+        }
+    }
+}
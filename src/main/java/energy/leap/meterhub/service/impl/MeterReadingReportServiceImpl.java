@@ -1,19 +1,46 @@
 package energy.leap.meterhub.service.impl;
 
+import energy.leap.meterhub.config.MeterhubProperties;
+import energy.leap.meterhub.data.entity.HourlyReadingKey;
+import energy.leap.meterhub.data.entity.MeterTotals;
+import energy.leap.meterhub.data.entity.RollupGranularity;
+import energy.leap.meterhub.data.projection.HourlyReportValue;
+import energy.leap.meterhub.data.projection.MeterSummaryValue;
 import energy.leap.meterhub.data.repository.EnergyMeterRepository;
 import energy.leap.meterhub.data.repository.HourlyReadingRepository;
+import energy.leap.meterhub.data.repository.MeterRollupRepository;
+import energy.leap.meterhub.data.repository.MeterTotalsRepository;
 import energy.leap.meterhub.service.MeterReadingReportService;
+import energy.leap.meterhub.service.dto.BucketedReportDto;
+import energy.leap.meterhub.service.dto.CacheStatisticsDto;
 import energy.leap.meterhub.service.dto.EnergyMeterDto;
 import energy.leap.meterhub.service.dto.HourlyReportDto;
+import energy.leap.meterhub.service.dto.HourlyReportPageDto;
+import energy.leap.meterhub.service.dto.MeterBatchReportDto;
+import energy.leap.meterhub.service.dto.MeterBatchReportRequestDto;
+import energy.leap.meterhub.service.dto.MeterDataVersionDto;
+import energy.leap.meterhub.service.dto.MeterSummaryDto;
+import energy.leap.meterhub.service.dto.TopMeterDto;
+import energy.leap.meterhub.service.exception.IllegalReportRequestException;
 import energy.leap.meterhub.service.exception.MeterNotFoundException;
-import energy.leap.meterhub.service.impl.mapper.EnergyMeterMapper;
-import energy.leap.meterhub.service.impl.mapper.HourlyReadingMapper;
+import energy.leap.meterhub.service.impl.mapper.ReportMapper;
+import jakarta.transaction.Transactional;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Component
 @RequiredArgsConstructor
@@ -26,38 +53,179 @@ public class MeterReadingReportServiceImpl implements MeterReadingReportService
     private final HourlyReadingRepository hourlyReadingRepository;
 
     @NonNull
-    private final EnergyMeterMapper energyMeterMapper;
+    private final MeterTotalsRepository meterTotalsRepository;
 
     @NonNull
-    private final HourlyReadingMapper hourlyReadingMapper;
+    private final MeterRollupRepository meterRollupRepository;
+
+    @NonNull
+    private final MeterRegistry meterRegistry;
+
+    @NonNull
+    private final MeterhubProperties meterhubProperties;
+
+    @NonNull
+    private final MeterReportCache meterReportCache;
+
+    @NonNull
+    private final MeterBatchReportLoader meterBatchReportLoader;
+
+    @NonNull
+    private final ReportMapper reportMapper;
+
+    @NonNull
+    private final TopMetersLoader topMetersLoader;
 
     @Override
     public List<EnergyMeterDto> getEnergyMeters() {
-        return energyMeterRepository
-                .findAll()
-                .stream()
-                .map(energyMeterMapper::mapToEnergyMeterServiceDto)
-                .toList();
+        return meterRegistry.getEnergyMeters();
+    }
+
+    private static String encodeContinuationToken(long nextFromHour) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Long.toString(nextFromHour).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static long decodeContinuationToken(String continuationToken) {
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(continuationToken), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalReportRequestException(String.format("Invalid continuation token : %s", continuationToken));
+        }
+    }
+
+    @Override
+    public HourlyReportPageDto getHourlyReportsForMeter(String meterId, Long fromHour, Long toHour, String continuationToken, Integer pageSize) {
+        return meterReportCache.getHourlyReports(meterId, fromHour, toHour, continuationToken, pageSize,
+                () -> loadHourlyReportsForMeter(meterId, fromHour, toHour, continuationToken, pageSize));
+    }
+
+    private HourlyReportPageDto loadHourlyReportsForMeter(String meterId, Long fromHour, Long toHour, String continuationToken, Integer pageSize) {
+        long from = fromHour == null ? Long.MIN_VALUE : fromHour;
+        long to = toHour == null ? Long.MAX_VALUE : toHour;
+        // Callers asking for neither a page size nor a next page get the whole series, as before paging existed
+        if (continuationToken == null && pageSize == null) {
+            return new HourlyReportPageDto(hourlyReadingRepository.findReportsOfMeterBetween(meterId, from, to, Pageable.unpaged())
+                    .stream().map(reportMapper::mapToHourlyReportDto).toList(), null);
+        }
+        if (continuationToken != null) {
+            from = Math.max(from, decodeContinuationToken(continuationToken));
+        }
+        int size = pageSize == null ? meterhubProperties.getReport().getPageSize() : pageSize;
+        if (size < 1 || size > meterhubProperties.getReport().getMaxPageSize()) {
+            throw new IllegalReportRequestException(String.format("Page size should be between 1 and %d : %d",
+                    meterhubProperties.getReport().getMaxPageSize(), size));
+        }
+        // One more row than asked tells whether there is a next page
+        List<HourlyReportDto> reports = hourlyReadingRepository.findReportsOfMeterBetween(meterId, from, to, PageRequest.of(0, size + 1))
+                .stream().map(reportMapper::mapToHourlyReportDto).toList();
+        String nextContinuationToken = null;
+        if (reports.size() > size) {
+            reports = reports.subList(0, size);
+            nextContinuationToken = encodeContinuationToken(reports.get(size - 1).getHourStartEpochAsSec() + 1);
+        }
+        return new HourlyReportPageDto(reports, nextContinuationToken);
+    }
+
+    @Override
+    @Transactional
+    public void streamHourlyReportsForMeter(String meterId, Long fromHour, Long toHour, Consumer<HourlyReportDto> consumer) {
+        long from = fromHour == null ? Long.MIN_VALUE : fromHour;
+        long to = toHour == null ? Long.MAX_VALUE : toHour;
+        try (Stream<HourlyReportValue> values = hourlyReadingRepository.streamReportsOfMeterBetween(meterId, from, to)) {
+            values.map(reportMapper::mapToHourlyReportDto).forEach(consumer);
+        }
+    }
+
+    // Read from the rollups, a month takes one row instead of the rows of all its hours
+    @Override
+    public List<BucketedReportDto> getBucketedReportsForMeter(String meterId, String granularity, Long from, Long to) {
+        RollupGranularity rollupGranularity;
+        try {
+            rollupGranularity = RollupGranularity.valueOf(granularity.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalReportRequestException(String.format("Granularity should be day or month : %s", granularity));
+        }
+        return meterRollupRepository.findReportsOfMeterBetween(meterId, rollupGranularity,
+                        from == null ? Long.MIN_VALUE : from, to == null ? Long.MAX_VALUE : to)
+                .stream().map(reportMapper::mapToBucketedReportDto).toList();
+    }
+
+    @Override
+    public void checkBatchReportRequest(MeterBatchReportRequestDto request) {
+        int maxMeterCount = meterhubProperties.getReport().getBatch().getMaxMeterCount();
+        if (request.getMeterIds() == null || request.getMeterIds().isEmpty() || request.getMeterIds().size() > maxMeterCount) {
+            throw new IllegalReportRequestException(String.format("Batch report should be requested for 1 to %d meters", maxMeterCount));
+        }
+    }
+
+    @Override
+    public void streamBatchReports(MeterBatchReportRequestDto request, Consumer<MeterBatchReportDto> consumer) {
+        checkBatchReportRequest(request);
+        List<String> meterIds = new ArrayList<>(new LinkedHashSet<>(request.getMeterIds()));
+        meterBatchReportLoader.load(meterIds, request.getFrom(), request.getTo(), request.isHourly(), consumer);
     }
 
     @Override
-    public List<HourlyReportDto> getHourlyReportsForMeter(String meterId) {
-        return hourlyReadingRepository
-                .findByIdMeterId(meterId)
-                .stream()
-                .map(hourlyReadingMapper::mapToHourlyReportDto)
-                .toList();
+    public MeterSummaryDto getSummaryForMeter(String meterId, Long fromHour, Long toHour) {
+        return meterReportCache.getSummary(meterId, fromHour, toHour, () -> loadSummaryForMeter(meterId, fromHour, toHour));
+    }
+
+    private MeterSummaryDto loadSummaryForMeter(String meterId, Long fromHour, Long toHour) {
+        MeterSummaryValue value = hourlyReadingRepository.findSummaryOfMeterBetween(meterId,
+                fromHour == null ? Long.MIN_VALUE : fromHour, toHour == null ? Long.MAX_VALUE : toHour);
+        if (value != null) {
+            return new MeterSummaryDto(value.getTotalReadingAsWh(), value.getTotalPriceTimesReading().movePointLeft(3),
+                    value.getHourCount(), value.getFirstHourStartEpochAsSec(), value.getLastHourStartEpochAsSec(),
+                    value.getPeakHourStartEpochAsSec(), value.getPeakReadingAsWh());
+        }
+        // No readings in the range, which is only an error when the meter is unknown
+        if (!energyMeterRepository.existsById(meterId)) {
+            throw new MeterNotFoundException(String.format("Summary requested for non-existing meter : %s", meterId));
+        }
+        return new MeterSummaryDto(0L, BigDecimal.ZERO, 0L, null, null, null, null);
+    }
+
+    @Override
+    public List<TopMeterDto> getTopMeters(Long fromHour, Long toHour, String ranking, Integer count) {
+        boolean byCost;
+        if ("cost".equalsIgnoreCase(ranking)) {
+            byCost = true;
+        } else if ("reading".equalsIgnoreCase(ranking)) {
+            byCost = false;
+        } else {
+            throw new IllegalReportRequestException(String.format("Ranking should be reading or cost : %s", ranking));
+        }
+        int size = count == null ? meterhubProperties.getReport().getTopCount() : count;
+        int maxTopCount = meterhubProperties.getReport().getMaxTopCount();
+        if (size < 1 || size > maxTopCount) {
+            throw new IllegalReportRequestException(String.format("Count should be between 1 and %d : %d", maxTopCount, size));
+        }
+        return topMetersLoader.load(HourlyReadingKey.hourIndexAtOrAfter(fromHour), HourlyReadingKey.hourIndexAtOrAfter(toHour), size, byCost);
     }
 
     @Override
     public Long getTotalReadingAsWhForMeter(String meterId) {
-        return Optional.ofNullable(hourlyReadingRepository.getTotalReadingAsWhOfMeter(meterId))
-                .orElseThrow(() -> new MeterNotFoundException(String.format("Total reading requested for non-existing meter : %s", meterId)));
+        return meterReportCache.getTotalReading(meterId, id -> meterTotalsRepository.findById(id)
+                .map(MeterTotals::getTotalReadingAsWh)
+                .orElseThrow(() -> new MeterNotFoundException(String.format("Total reading requested for non-existing meter : %s", id))));
     }
 
     @Override
     public Double getTotalCostForMeter(String meterId) {
-        return Optional.ofNullable(hourlyReadingRepository.getTotalCostOfMeter(meterId))
-                .orElseThrow(() -> new MeterNotFoundException(String.format("Total cost requested for non-existing meter : %s", meterId)));
+        return meterReportCache.getTotalCost(meterId, id -> meterTotalsRepository.findById(id)
+                .map(totals -> totals.getTotalCost().doubleValue())
+                .orElseThrow(() -> new MeterNotFoundException(String.format("Total cost requested for non-existing meter : %s", id))));
+    }
+
+    @Override
+    public Optional<MeterDataVersionDto> getDataVersionOfMeter(String meterId) {
+        return Optional.ofNullable(meterReportCache.getDataVersion(meterId, id -> energyMeterRepository.findById(id)
+                .map(meter -> new MeterDataVersionDto(meter.getDataVersion(), meter.getDataModifiedEpochAsMilli()))
+                .orElse(null)));
+    }
+
+    @Override
+    public List<CacheStatisticsDto> getCacheStatistics() {
+        return meterReportCache.getStatistics();
     }
 }
@@ -0,0 +1,11 @@
+package energy.leap.meterhub.service.impl;
+
+import lombok.Value;
+
+import java.util.Set;
+
+// Published by the writer within the transaction that saves or removes readings of the meters
+@Value
+public class MeterReadingsSavedEvent {
+    Set<String> meterIds;
+}
@@ -0,0 +1,109 @@
+package energy.leap.meterhub.service.impl;
+
+import energy.leap.meterhub.config.MeterhubProperties;
+import energy.leap.meterhub.data.entity.EnergyMeter;
+import energy.leap.meterhub.data.repository.EnergyMeterRepository;
+import energy.leap.meterhub.service.dto.EnergyMeterDto;
+import energy.leap.meterhub.service.impl.mapper.EnergyMeterMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Meters known to be stored, loaded at startup so that ingests only go to the database for new meters and
+// changed titles. Other instances store meters too, so the registry is not the list of meters. The list is read from
+// the database and kept until this instance stores a meter or changes a title, or until the time to live of cached
+// reports has passed, after which meters stored by other instances are listed as well.
+@Component
+@RequiredArgsConstructor
+public class MeterRegistry {
+
+    @NonNull
+    private final EnergyMeterRepository energyMeterRepository;
+
+    @NonNull
+    private final EnergyMeterMapper energyMeterMapper;
+
+    @NonNull
+    private final MeterhubProperties meterhubProperties;
+
+    private final ConcurrentMap<String, RegisteredMeter> meters = new ConcurrentHashMap<>();
+
+    // A list read while a meter is stored is kept under the old generation, where it is never served
+    private final AtomicLong listGeneration = new AtomicLong();
+
+    private volatile MeterList meterList;
+
+    @PostConstruct
+    public void load() {
+        meters.clear();
+        for (EnergyMeter meter : energyMeterRepository.findAll()) {
+            meters.put(meter.getId(), new RegisteredMeter(energyMeterMapper.mapToEnergyMeterServiceDto(meter), meter.getMeterKey()));
+        }
+        listGeneration.incrementAndGet();
+    }
+
+    public List<EnergyMeterDto> getEnergyMeters() {
+        long generation = listGeneration.get();
+        MeterList list = meterList;
+        if (list == null || list.generation() != generation
+                || System.nanoTime() - list.readAtNanos() > meterhubProperties.getCache().getTimeToLive().toNanos()) {
+            list = new MeterList(energyMeterRepository.findAll(Sort.by("id")).stream()
+                    .map(energyMeterMapper::mapToEnergyMeterServiceDto)
+                    .toList(), generation, System.nanoTime());
+            meterList = list;
+        }
+        return list.meters();
+    }
+
+    // Has to be called holding the lock of the meter or by the partition owning it, the registry only changes once the
+    // transaction commits.
+    // Returns the key of the meter, which never changes once the meter is stored.
+    public Integer register(String meterId, String title) {
+        RegisteredMeter known = meters.get(meterId);
+        if (known != null && Objects.equals(known.meter().getTitle(), title)) {
+            return known.meterKey();
+        }
+        Integer meterKey;
+        if (known != null) {
+            energyMeterRepository.updateTitle(meterId, title);
+            meterKey = known.meterKey();
+        } else {
+            // Nothing is inserted for a meter saved by another instance since the registry was loaded, even when that
+            // instance saves it at the same time, its title is updated instead
+            if (energyMeterRepository.insertIfAbsent(meterId, title) == 0) {
+                energyMeterRepository.updateTitle(meterId, title);
+            }
+            meterKey = energyMeterRepository.findMeterKey(meterId);
+        }
+        RegisteredMeter meter = new RegisteredMeter(new EnergyMeterDto(meterId, title), meterKey);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    meters.put(meterId, meter);
+                    listGeneration.incrementAndGet();
+                }
+            });
+        } else {
+            meters.put(meterId, meter);
+            listGeneration.incrementAndGet();
+        }
+        return meterKey;
+    }
+
+    private record RegisteredMeter(EnergyMeterDto meter, Integer meterKey) {
+    }
+
+    private record MeterList(List<EnergyMeterDto> meters, long generation, long readAtNanos) {
+    }
+}
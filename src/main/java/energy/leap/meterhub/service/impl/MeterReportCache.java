@@ -0,0 +1,158 @@
+package energy.leap.meterhub.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import energy.leap.meterhub.config.MeterhubProperties;
+import energy.leap.meterhub.service.dto.CacheStatisticsDto;
+import energy.leap.meterhub.service.dto.HourlyReportPageDto;
+import energy.leap.meterhub.service.dto.MeterDataVersionDto;
+import energy.leap.meterhub.service.dto.MeterSummaryDto;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Report results are only changed by ingests, which invalidate the results of their meters once committed.
+// Results are cached under the generation of their meter, which an ingest moves on, so older results are no longer
+// found without scanning the caches for them and a load still running while the ingest commits is stored under the
+// old generation where it is never served. Unreachable results are dropped by size or age.
+@Component
+public class MeterReportCache {
+
+    private final Cache<GenerationKey, Long> totalReadings;
+
+    private final Cache<GenerationKey, Double> totalCosts;
+
+    private final Cache<HourlyReportKey, HourlyReportPageDto> hourlyReports;
+
+    private final Cache<SummaryKey, MeterSummaryDto> summaries;
+
+    private final Cache<GenerationKey, MeterDataVersionDto> dataVersions;
+
+    // One entry per meter ingested since startup
+    private final ConcurrentMap<String, Long> generations = new ConcurrentHashMap<>();
+
+    public MeterReportCache(MeterhubProperties meterhubProperties) {
+        MeterhubProperties.Cache properties = meterhubProperties.getCache();
+        totalReadings = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build();
+        totalCosts = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build();
+        // Pages differ a lot in size, so they are bounded by the number of hours they hold
+        hourlyReports = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaximumHourlyReports())
+                .<HourlyReportKey, HourlyReportPageDto>weigher((key, page) -> Math.max(1, page.getHourlyReports().size()))
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build();
+        summaries = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build();
+        dataVersions = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build();
+    }
+
+    private long getGeneration(String meterId) {
+        return generations.getOrDefault(meterId, 0L);
+    }
+
+    public Long getTotalReading(String meterId, Function<String, Long> loader) {
+        return totalReadings.get(new GenerationKey(meterId, getGeneration(meterId)), key -> loader.apply(meterId));
+    }
+
+    public Double getTotalCost(String meterId, Function<String, Double> loader) {
+        return totalCosts.get(new GenerationKey(meterId, getGeneration(meterId)), key -> loader.apply(meterId));
+    }
+
+    public HourlyReportPageDto getHourlyReports(String meterId, Long fromHour, Long toHour, String continuationToken, Integer pageSize,
+                                                Supplier<HourlyReportPageDto> loader) {
+        return hourlyReports.get(new HourlyReportKey(meterId, getGeneration(meterId), fromHour, toHour, continuationToken, pageSize),
+                key -> loader.get());
+    }
+
+    public MeterSummaryDto getSummary(String meterId, Long fromHour, Long toHour, Supplier<MeterSummaryDto> loader) {
+        return summaries.get(new SummaryKey(meterId, getGeneration(meterId), fromHour, toHour), key -> loader.get());
+    }
+
+    // Versions of unknown meters are not cached, the loader returns null for them
+    public MeterDataVersionDto getDataVersion(String meterId, Function<String, MeterDataVersionDto> loader) {
+        return dataVersions.get(new GenerationKey(meterId, getGeneration(meterId)), key -> loader.apply(meterId));
+    }
+
+    // Runs without a transaction as well, so that readings saved outside of one are not served stale.
+    // Results of one key per meter are dropped right away, pages and summaries of the old generation age out.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMeterReadingsSaved(MeterReadingsSavedEvent event) {
+        for (String meterId : event.getMeterIds()) {
+            GenerationKey previous = new GenerationKey(meterId, getGeneration(meterId));
+            generations.merge(meterId, 1L, Long::sum);
+            totalReadings.invalidate(previous);
+            totalCosts.invalidate(previous);
+            dataVersions.invalidate(previous);
+        }
+    }
+
+    public void invalidateAll() {
+        totalReadings.invalidateAll();
+        totalCosts.invalidateAll();
+        hourlyReports.invalidateAll();
+        summaries.invalidateAll();
+        dataVersions.invalidateAll();
+    }
+
+    public List<CacheStatisticsDto> getStatistics() {
+        return List.of(getStatistics("total_readings", totalReadings),
+                getStatistics("total_costs", totalCosts),
+                getStatistics("hourly_reports", hourlyReports),
+                getStatistics("summaries", summaries),
+                getStatistics("data_versions", dataVersions));
+    }
+
+    private static CacheStatisticsDto getStatistics(String name, Cache<?, ?> cache) {
+        // Evictions are done by pending maintenance, which is run first so that they are counted
+        cache.cleanUp();
+        CacheStats stats = cache.stats();
+        return new CacheStatisticsDto(name, cache.estimatedSize(), stats.hitCount(), stats.missCount(), stats.evictionCount());
+    }
+
+    @Value
+    private static class GenerationKey {
+        String meterId;
+        long generation;
+    }
+
+    @Value
+    private static class HourlyReportKey {
+        String meterId;
+        long generation;
+        Long fromHour;
+        Long toHour;
+        String continuationToken;
+        Integer pageSize;
+    }
+
+    @Value
+    private static class SummaryKey {
+        String meterId;
+        long generation;
+        Long fromHour;
+        Long toHour;
+    }
+}
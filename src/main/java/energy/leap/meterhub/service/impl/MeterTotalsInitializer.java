@@ -0,0 +1,22 @@
+package energy.leap.meterhub.service.impl;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class MeterTotalsInitializer implements ApplicationRunner {
+
+    @NonNull
+    private final MeterBatchReadingWriter meterBatchReadingWriter;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        meterBatchReadingWriter.recomputeMissingTotals();
+        meterBatchReadingWriter.recomputeMissingRollups();
+        meterBatchReadingWriter.initializeFleetGroup();
+    }
+}
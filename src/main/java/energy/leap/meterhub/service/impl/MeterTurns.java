@@ -0,0 +1,34 @@
+package energy.leap.meterhub.service.impl;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+// Feeds of a meter saved by a pool of workers are saved in the order they were queued, a worker taking a feed waits
+// until the feeds of the same meter queued before it are done. Workers take feeds in queue order, so the feeds waited
+// for are always with another worker already and never wait for the feed after them.
+class MeterTurns {
+
+    private final Map<String, Deque<Long>> queued = new HashMap<>();
+
+    synchronized void queue(String meterId, long sequence) {
+        queued.computeIfAbsent(meterId, id -> new ArrayDeque<>()).addLast(sequence);
+    }
+
+    synchronized void awaitTurn(String meterId, long sequence) throws InterruptedException {
+        while (queued.get(meterId).peekFirst() != sequence) {
+            wait();
+        }
+    }
+
+    // Also called for feeds that were never saved, so that they do not hold up the feeds after them
+    synchronized void done(String meterId, long sequence) {
+        Deque<Long> sequences = queued.get(meterId);
+        sequences.remove(sequence);
+        if (sequences.isEmpty()) {
+            queued.remove(meterId);
+        }
+        notifyAll();
+    }
+}
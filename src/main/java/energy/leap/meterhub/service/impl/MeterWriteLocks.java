@@ -0,0 +1,66 @@
+package energy.leap.meterhub.service.impl;
+
+import energy.leap.meterhub.config.MeterhubProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Writes of a meter are serialized on one of a fixed number of locks picked by the hash of its id, so uploads of
+// the same meter can not both insert it or its totals while uploads of other meters mostly run in parallel.
+// Locks are reentrant, a meter locked around its transaction can be locked again inside of it.
+@Component
+public class MeterWriteLocks {
+
+    private final ReentrantLock[] stripes;
+
+    // Bulk loads and grouped flushes lock their meters one after the other, two of them at a time could deadlock
+    private final ReentrantLock bulkLock = new ReentrantLock();
+
+    public MeterWriteLocks(MeterhubProperties meterhubProperties) {
+        stripes = new ReentrantLock[meterhubProperties.getIngest().getLockStripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    private ReentrantLock getLock(String meterId) {
+        return stripes[Math.floorMod(meterId.hashCode(), stripes.length)];
+    }
+
+    public void runWithMeterLock(String meterId, Runnable work) {
+        ReentrantLock lock = getLock(meterId);
+        lock.lock();
+        try {
+            work.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public <T> T callWithBulkLock(Supplier<T> work) {
+        bulkLock.lock();
+        try {
+            return work.get();
+        } finally {
+            bulkLock.unlock();
+        }
+    }
+
+    // Keeps the meter locked until the current transaction has been committed or rolled back
+    public void lockMeterUntilCompletion(String meterId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException(String.format("No transaction to lock meter %s for", meterId));
+        }
+        ReentrantLock lock = getLock(meterId);
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+}
@@ -0,0 +1,125 @@
+package energy.leap.meterhub.service.impl;
+
+import energy.leap.meterhub.data.entity.EnergyMeter;
+import energy.leap.meterhub.data.entity.HourlyReadingKey;
+import energy.leap.meterhub.data.entity.RollupGranularity;
+import energy.leap.meterhub.data.projection.MeterKeyTotalsValue;
+import energy.leap.meterhub.data.repository.EnergyMeterRepository;
+import energy.leap.meterhub.data.repository.HourlyReadingRepository;
+import energy.leap.meterhub.data.repository.MeterRollupRepository;
+import energy.leap.meterhub.service.dto.TopMeterDto;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+// Ranks all meters over a range of hours. Whole months and days of the range are read from the rollups and only the
+// hours before the first and after the last whole day from the hourly readings, so a range costs at most a few days
+// of hourly rows and one rollup row per meter and bucket. Sums of the meters are ranked keeping the best ones in a
+// bounded heap.
+@Component
+@RequiredArgsConstructor
+public class TopMetersLoader {
+
+    @NonNull
+    private final HourlyReadingRepository hourlyReadingRepository;
+
+    @NonNull
+    private final MeterRollupRepository meterRollupRepository;
+
+    @NonNull
+    private final EnergyMeterRepository energyMeterRepository;
+
+    // Hours in [fromHourIndex, toHourIndex), meters without readings in the range are left out. Meters ranked
+    // the same are ordered by key, which is the order they were first stored in.
+    public List<TopMeterDto> load(int fromHourIndex, int toHourIndex, int count, boolean byCost) {
+        Map<Integer, MeterSum> sums = new HashMap<>();
+        int firstDay = (int) Math.min(toHourIndex, Math.floorDiv(fromHourIndex + 23L, 24L) * 24L);
+        int lastDay = RollupGranularity.DAY.getBucketHourIndex(toHourIndex);
+        if (firstDay >= lastDay) {
+            addHours(sums, fromHourIndex, toHourIndex);
+        } else {
+            addHours(sums, fromHourIndex, firstDay);
+            int firstMonth = RollupGranularity.MONTH.getBucketHourIndex(firstDay);
+            if (firstMonth < firstDay) {
+                firstMonth = HourlyReadingKey.toHourIndex(HourlyReadingKey.toMonth(firstDay).plusMonths(1));
+            }
+            int lastMonth = RollupGranularity.MONTH.getBucketHourIndex(lastDay);
+            if (firstMonth < lastMonth) {
+                addBuckets(sums, RollupGranularity.DAY, firstDay, firstMonth);
+                addBuckets(sums, RollupGranularity.MONTH, firstMonth, lastMonth);
+                addBuckets(sums, RollupGranularity.DAY, lastMonth, lastDay);
+            } else {
+                addBuckets(sums, RollupGranularity.DAY, firstDay, lastDay);
+            }
+            addHours(sums, lastDay, toHourIndex);
+        }
+        List<MeterSum> top = selectTop(sums.values(), count, byCost);
+        if (top.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, String> meterIds = new HashMap<>();
+        for (EnergyMeter meter : energyMeterRepository.findByMeterKeyIn(top.stream().map(MeterSum::getMeterKey).toList())) {
+            meterIds.put(meter.getMeterKey(), meter.getId());
+        }
+        return top.stream()
+                .map(sum -> new TopMeterDto(meterIds.get(sum.getMeterKey()), sum.getReadingAsWh(), sum.getCost()))
+                .toList();
+    }
+
+    private void addHours(Map<Integer, MeterSum> sums, int fromHourIndex, int toHourIndex) {
+        if (fromHourIndex < toHourIndex) {
+            add(sums, hourlyReadingRepository.aggregateTotalsOfAllMetersBetweenHourIndexes(fromHourIndex, toHourIndex));
+        }
+    }
+
+    private void addBuckets(Map<Integer, MeterSum> sums, RollupGranularity granularity, int fromHourIndex, int toHourIndex) {
+        if (fromHourIndex < toHourIndex) {
+            add(sums, meterRollupRepository.aggregateTotalsOfAllMetersBetweenHourIndexes(granularity, fromHourIndex, toHourIndex));
+        }
+    }
+
+    private static void add(Map<Integer, MeterSum> sums, List<MeterKeyTotalsValue> values) {
+        for (MeterKeyTotalsValue value : values) {
+            sums.computeIfAbsent(value.getMeterKey(), MeterSum::new).add(value.getTotalReadingAsWh(), value.getTotalCost());
+        }
+    }
+
+    // The heap holds the best count sums seen so far with the worst of them on top, which is dropped for a better one
+    private static List<MeterSum> selectTop(Iterable<MeterSum> sums, int count, boolean byCost) {
+        Comparator<MeterSum> byValue = byCost
+                ? Comparator.comparing(MeterSum::getCost) : Comparator.comparing(MeterSum::getReadingAsWh);
+        Comparator<MeterSum> ranking = byValue.reversed().thenComparing(MeterSum::getMeterKey);
+        PriorityQueue<MeterSum> heap = new PriorityQueue<>(count + 1, ranking.reversed());
+        for (MeterSum sum : sums) {
+            heap.add(sum);
+            if (heap.size() > count) {
+                heap.poll();
+            }
+        }
+        List<MeterSum> top = new ArrayList<>(heap);
+        top.sort(ranking);
+        return top;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class MeterSum {
+        private final Integer meterKey;
+        private Long readingAsWh = 0L;
+        private BigDecimal cost = BigDecimal.ZERO;
+
+        void add(Long readingAsWh, BigDecimal cost) {
+            this.readingAsWh += readingAsWh;
+            this.cost = this.cost.add(cost);
+        }
+    }
+}
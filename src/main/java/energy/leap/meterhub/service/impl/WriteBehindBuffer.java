@@ -0,0 +1,210 @@
+package energy.leap.meterhub.service.impl;
+
+import energy.leap.meterhub.config.MeterhubProperties;
+import energy.leap.meterhub.service.dto.WriteBehindStatisticsDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+// Items of many uploads are gathered and flushed together by a single thread once they hold a batch of rows or the
+// oldest of them has waited for the maximum delay. The batch size is doubled while flushes of full batches are fast
+// and halved when a flush takes longer than the target, so it follows what the database can take.
+@Slf4j
+class WriteBehindBuffer<T> {
+
+    private final ToIntFunction<T> rowCountOf;
+
+    private final Consumer<List<T>> flusher;
+
+    private final long maxDelayNanos;
+
+    private final int minBatchSize;
+
+    private final int maxBatchSize;
+
+    private final long targetFlushNanos;
+
+    private final int capacity;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition flushNeeded = lock.newCondition();
+
+    private final Condition notFull = lock.newCondition();
+
+    private final Deque<BufferedItem<T>> items = new ArrayDeque<>();
+
+    private final Thread thread;
+
+    // Guarded by lock
+    private long bufferedRowCount;
+
+    private boolean running = true;
+
+    // Only changed by the flushing thread
+    private volatile int batchSize;
+
+    private volatile long flushCount;
+
+    private volatile long flushedItemCount;
+
+    private volatile long flushedRowCount;
+
+    private volatile long lastFlushMillis;
+
+    WriteBehindBuffer(MeterhubProperties.WriteBehind properties, ToIntFunction<T> rowCountOf, Consumer<List<T>> flusher) {
+        this.rowCountOf = rowCountOf;
+        this.flusher = flusher;
+        this.maxDelayNanos = properties.getMaxDelay().toNanos();
+        this.minBatchSize = properties.getMinBatchSize();
+        this.maxBatchSize = properties.getMaxBatchSize();
+        this.targetFlushNanos = properties.getTargetFlushTime().toNanos();
+        this.capacity = properties.getCapacity();
+        this.batchSize = minBatchSize;
+        this.thread = new CustomizableThreadFactory("ingest-write-behind-").newThread(this::run);
+        thread.start();
+    }
+
+    // Waits while the buffer is full, an item larger than the whole buffer is still taken once the buffer is empty
+    void put(T item) throws InterruptedException {
+        int rowCount = rowCountOf.applyAsInt(item);
+        lock.lockInterruptibly();
+        try {
+            while (running && bufferedRowCount > 0 && bufferedRowCount + rowCount > capacity) {
+                notFull.await();
+            }
+            if (!running) {
+                throw new RejectedExecutionException("Write-behind buffer is shut down");
+            }
+            items.addLast(new BufferedItem<>(item, rowCount, System.nanoTime()));
+            bufferedRowCount += rowCount;
+            if (bufferedRowCount >= batchSize || items.size() == 1) {
+                flushNeeded.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            List<T> batch;
+            try {
+                batch = takeBatch();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batch == null) {
+                return;
+            }
+            flush(batch);
+        }
+    }
+
+    // Returns null once the buffer is shut down and empty
+    private List<T> takeBatch() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                if (items.isEmpty()) {
+                    if (!running) {
+                        return null;
+                    }
+                    flushNeeded.await();
+                    continue;
+                }
+                long waitNanos = items.peekFirst().bufferedNanos() + maxDelayNanos - System.nanoTime();
+                if (!running || bufferedRowCount >= batchSize || waitNanos <= 0) {
+                    break;
+                }
+                flushNeeded.awaitNanos(waitNanos);
+            }
+            List<T> batch = new ArrayList<>();
+            long batchRowCount = 0;
+            while (!items.isEmpty() && (batch.isEmpty() || batchRowCount + items.peekFirst().rowCount() <= batchSize)) {
+                BufferedItem<T> item = items.pollFirst();
+                batch.add(item.item());
+                batchRowCount += item.rowCount();
+            }
+            bufferedRowCount -= batchRowCount;
+            notFull.signalAll();
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flush(List<T> batch) {
+        long rowCount = batch.stream().mapToLong(rowCountOf::applyAsInt).sum();
+        long startNanos = System.nanoTime();
+        try {
+            flusher.accept(batch);
+        } catch (RuntimeException e) {
+            log.error("Write-behind flush of {} items failed : ", batch.size(), e);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        if (elapsedNanos > targetFlushNanos) {
+            batchSize = Math.max(minBatchSize, batchSize / 2);
+        } else if (elapsedNanos < targetFlushNanos / 2 && rowCount >= batchSize) {
+            batchSize = (int) Math.min(maxBatchSize, 2L * batchSize);
+        }
+        flushCount++;
+        flushedItemCount += batch.size();
+        flushedRowCount += rowCount;
+        lastFlushMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    // Buffered items are still flushed before the thread stops
+    boolean shutdown(Duration timeout) throws InterruptedException {
+        lock.lock();
+        try {
+            running = false;
+            flushNeeded.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        thread.join(Math.max(1, timeout.toMillis()));
+        return !thread.isAlive();
+    }
+
+    int shutdownNow() {
+        lock.lock();
+        try {
+            int dropped = items.size();
+            items.clear();
+            bufferedRowCount = 0;
+            thread.interrupt();
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    WriteBehindStatisticsDto getStatistics() {
+        lock.lock();
+        try {
+            long oldestBufferedMillis = items.isEmpty()
+                    ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - items.peekFirst().bufferedNanos());
+            return new WriteBehindStatisticsDto(items.size(), bufferedRowCount, oldestBufferedMillis, batchSize,
+                    flushCount, flushedItemCount, flushedRowCount, lastFlushMillis);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record BufferedItem<T>(T item, int rowCount, long bufferedNanos) {
+    }
+}
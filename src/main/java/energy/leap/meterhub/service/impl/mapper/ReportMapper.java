@@ -0,0 +1,21 @@
+package energy.leap.meterhub.service.impl.mapper;
+
+import energy.leap.meterhub.data.projection.BucketedReportValue;
+import energy.leap.meterhub.data.projection.GroupHourlyReportValue;
+import energy.leap.meterhub.data.projection.HourlyReportValue;
+import energy.leap.meterhub.data.projection.MeterHourlyReportValue;
+import energy.leap.meterhub.service.dto.BucketedReportDto;
+import energy.leap.meterhub.service.dto.GroupHourlyReportDto;
+import energy.leap.meterhub.service.dto.HourlyReportDto;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface ReportMapper {
+    HourlyReportDto mapToHourlyReportDto(HourlyReportValue value);
+
+    HourlyReportDto mapToHourlyReportDto(MeterHourlyReportValue value);
+
+    BucketedReportDto mapToBucketedReportDto(BucketedReportValue value);
+
+    GroupHourlyReportDto mapToGroupHourlyReportDto(GroupHourlyReportValue value);
+}
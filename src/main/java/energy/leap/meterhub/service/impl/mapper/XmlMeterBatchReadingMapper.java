@@ -14,7 +14,8 @@ public class XmlMeterBatchReadingMapper {
         throw new IllegalStateException("Utility class");
     }
 
-    public static List<HourlyReading> convertReadingsToHourlyReadings(XmlMeterBatchReading batchReading) {
+    // Readings refer to their meter by its key, batchReading has to be normalized to whole hours
+    public static List<HourlyReading> convertReadingsToHourlyReadings(XmlMeterBatchReading batchReading, Integer meterKey) {
         List<HourlyReading> readings = new ArrayList<>();
         for (XmlIntervalReading intervalReading : batchReading.getIntervalReadings()) {
             Long readingAsWh =
@@ -22,7 +23,7 @@ public class XmlMeterBatchReadingMapper {
                             ? intervalReading.getReading()
                             : intervalReading.getReading() * 1000;
             HourlyReading hourlyReading =
-                    new HourlyReading(batchReading.getId(),
+                    new HourlyReading(meterKey,
                             intervalReading.getStartEpochAsSec(),
                             batchReading.getPricePerKwh(),
                             readingAsWh
@@ -0,0 +1,106 @@
+package energy.leap.meterhub.service.impl.parser;
+
+import energy.leap.meterhub.service.exception.IllegalMeterBatchReadingContentException;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static energy.leap.meterhub.service.impl.parser.XmlMeterBatchReadingSweepNormalizer.SECONDS_PER_HOUR;
+import static energy.leap.meterhub.service.impl.parser.XmlMeterBatchReadingSweepNormalizer.getHourStart;
+
+// Aggregates streamed interval readings into hourly readings. Readings are kept only while their hour is open,
+// an hour is validated and passed to the hourly reading listener as soon as its readings cover the whole hour.
+// Rejections are the same as XmlMeterBatchReadingSweepNormalizer except that a reading arriving for an already
+// completed hour is rejected, and the first error is found in file order rather than over the whole feed.
+// Errors are kept until finish is called, so XML errors found later by the parser still take precedence.
+@RequiredArgsConstructor
+public class XmlHourlyReadingAggregator implements XmlIntervalReadingListener {
+
+    @NonNull
+    private final XmlIntervalReadingListener hourlyReadingListener;
+
+    private final XmlMeterBatchReadingSweepNormalizer normalizer = new XmlMeterBatchReadingSweepNormalizer();
+    private final Map<Long, OpenHour> openHours = new LinkedHashMap<>();
+    private final Set<Long> completedHours = new HashSet<>();
+    private IllegalMeterBatchReadingContentException error;
+    private XmlMeterBatchReading lastBatchReading;
+
+    private static class OpenHour {
+        private final List<XmlIntervalReading> readings = new ArrayList<>();
+        private long coveredSeconds;
+    }
+
+    public int getOpenHourCount() {
+        return openHours.size();
+    }
+
+    @Override
+    public void onIntervalReading(XmlMeterBatchReading batchReading, XmlIntervalReading intervalReading) {
+        if (error != null) {
+            return;
+        }
+        lastBatchReading = batchReading;
+        try {
+            aggregate(batchReading, intervalReading);
+        } catch (IllegalMeterBatchReadingContentException e) {
+            error = e;
+            openHours.clear();
+        }
+    }
+
+    private void aggregate(XmlMeterBatchReading batchReading, XmlIntervalReading intervalReading) {
+        long start = intervalReading.getStartEpochAsSec();
+        long duration = intervalReading.getDurationAsSec();
+        if (duration < 0) {
+            throw new IllegalMeterBatchReadingContentException(intervalReading + " has negative duration");
+        }
+        long hourStart = getHourStart(start);
+        if (start + duration > hourStart + SECONDS_PER_HOUR) {
+            throw new IllegalMeterBatchReadingContentException(intervalReading + " overflows hour");
+        }
+        if (completedHours.contains(hourStart)) {
+            throw new IllegalMeterBatchReadingContentException(intervalReading + " overlaps with completed hour " + hourStart);
+        }
+        OpenHour hour = openHours.computeIfAbsent(hourStart, h -> new OpenHour());
+        hour.readings.add(intervalReading);
+        hour.coveredSeconds += duration;
+        // Less coverage can never make a complete hour, more than an hour can only be an overlap
+        if (hour.coveredSeconds >= SECONDS_PER_HOUR) {
+            openHours.remove(hourStart);
+            completedHours.add(hourStart);
+            emit(batchReading, hour.readings);
+        }
+    }
+
+    private void emit(XmlMeterBatchReading batchReading, List<XmlIntervalReading> readings) {
+        XmlMeterBatchReading normalizedReading = normalizer.normalize(
+                new XmlMeterBatchReading(batchReading.getId(), batchReading.getTitle(),
+                        batchReading.getPricePerKwh(), batchReading.getReadingUnit(), readings));
+        for (XmlIntervalReading hourReading : normalizedReading.getIntervalReadings()) {
+            hourlyReadingListener.onIntervalReading(batchReading, hourReading);
+        }
+    }
+
+    // To be called once the feed is parsed, hours still open are incomplete and reported as such
+    public void finish() {
+        if (error == null && !openHours.isEmpty()) {
+            List<XmlIntervalReading> remainingReadings = new ArrayList<>();
+            openHours.values().forEach(hour -> remainingReadings.addAll(hour.readings));
+            openHours.clear();
+            try {
+                emit(lastBatchReading, remainingReadings);
+            } catch (IllegalMeterBatchReadingContentException e) {
+                error = e;
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package energy.leap.meterhub.service.impl.parser;
+
+@FunctionalInterface
+public interface XmlIntervalReadingListener {
+    // batchReading carries the feed level values (id, title, price, unit) parsed so far,
+    // its interval reading list is never filled while readings are streamed to a listener
+    void onIntervalReading(XmlMeterBatchReading batchReading, XmlIntervalReading intervalReading);
+}
@@ -0,0 +1,431 @@
+package energy.leap.meterhub.service.impl.parser;
+
+import energy.leap.meterhub.service.exception.IllegalMeterBatchReadingXmlException;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+
+// Single pass StAX counterpart of XmlMeterBatchReadingParser. It applies the same rules with the same messages,
+// but never holds more than one interval reading at a time when readings are handed over to a listener.
+// Content errors are kept until the end of the document so that a malformed document is still reported
+// as a parsing error, as the DOM based parser does.
+public class XmlMeterBatchReadingStreamParser {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // DOCTYPE declarations are rejected while parsing,
+        // below settings make sure nothing would be resolved even if one slips through
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        return factory;
+    }
+
+    private static final XmlIntervalReadingListener COLLECTING_LISTENER =
+            (batchReading, intervalReading) -> batchReading.getIntervalReadings().add(intervalReading);
+
+    public XmlMeterBatchReading parseReadingFile(String xmlContent) {
+        return parseReadingFile(xmlContent, COLLECTING_LISTENER);
+    }
+
+    // Same as parseReadingStream with a listener, for content already in memory
+    public XmlMeterBatchReading parseReadingFile(String xmlContent, XmlIntervalReadingListener listener) {
+        try {
+            return parse(XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(xmlContent)), listener);
+        } catch (XMLStreamException e) {
+            throw new IllegalMeterBatchReadingXmlException("Parsing error", e);
+        }
+    }
+
+    public XmlMeterBatchReading parseReadingStream(InputStream xmlStream) {
+        return parseReadingStream(xmlStream, COLLECTING_LISTENER);
+    }
+
+    // Encoding is taken from the XML declaration (UTF-8 if there is none), the stream is not closed.
+    // Returned batch reading holds feed level values only, interval readings are passed to the listener
+    // in document order as soon as they are complete.
+    public XmlMeterBatchReading parseReadingStream(InputStream xmlStream, XmlIntervalReadingListener listener) {
+        try {
+            return parse(XML_INPUT_FACTORY.createXMLStreamReader(xmlStream), listener);
+        } catch (XMLStreamException e) {
+            throw new IllegalMeterBatchReadingXmlException("Parsing error", e);
+        }
+    }
+
+    private XmlMeterBatchReading parse(XMLStreamReader reader, XmlIntervalReadingListener listener) throws XMLStreamException {
+        ParseState state = new ParseState(listener);
+        try {
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.DTD -> throw new XMLStreamException("DOCTYPE is disallowed");
+                    case XMLStreamConstants.START_ELEMENT -> startElement(state, reader);
+                    case XMLStreamConstants.END_ELEMENT -> endElement(state);
+                    default -> {
+                        // Text outside of the nodes we are interested in is ignored
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return state.finish();
+    }
+
+    private static String tagName(XMLStreamReader reader) {
+        // Same as Element.getTagName() of the non namespace aware DOM parser
+        String prefix = reader.getPrefix();
+        return prefix == null || prefix.isEmpty() ? reader.getLocalName() : prefix + ":" + reader.getLocalName();
+    }
+
+    private static String readText(XMLStreamReader reader) throws XMLStreamException {
+        // Same as Node.getTextContent(), consumes the element including its end tag
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT -> depth++;
+                case XMLStreamConstants.END_ELEMENT -> depth--;
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE -> text.append(reader.getText());
+                default -> {
+                    // Comments and processing instructions are not part of the text content
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    private void startElement(ParseState state, XMLStreamReader reader) throws XMLStreamException {
+        String name = tagName(reader);
+        if (state.depth == 0 && !name.equals("feed")) {
+            state.rootError = new IllegalMeterBatchReadingXmlException("Invalid root node name : '" + name + "'");
+        }
+        if (state.rootError != null) {
+            return;
+        }
+        if (parseLeafNode(state, reader, name)) {
+            return;
+        }
+        state.depth++;
+        switch (name) {
+            case "entry" -> {
+                state.entryCount++;
+                if (state.entryDepth == 0) {
+                    state.openEntry();
+                }
+            }
+            case "content" -> {
+                if (state.entryDepth != 0) {
+                    state.contentCount++;
+                }
+            }
+            case "ReadingType" -> {
+                if (state.entryDepth != 0) {
+                    state.readingTypeCount++;
+                    if (state.readingTypeDepth == 0) {
+                        state.openReadingType();
+                    }
+                }
+            }
+            case "IntervalBlock" -> {
+                if (state.entryDepth != 0) {
+                    state.intervalBlockCount++;
+                    if (state.intervalBlockDepth == 0) {
+                        state.intervalBlockDepth = state.depth;
+                    }
+                }
+            }
+            case "IntervalReading" -> {
+                if (state.intervalBlockDepth != 0 && state.intervalReadingDepth == 0) {
+                    state.openIntervalReading();
+                }
+            }
+            case "timePeriod" -> {
+                if (state.intervalReadingDepth != 0) {
+                    state.timePeriodCount++;
+                    if (state.timePeriodDepth == 0) {
+                        state.timePeriodDepth = state.depth;
+                    }
+                }
+            }
+            default -> {
+                // Other nodes are only walked through
+            }
+        }
+    }
+
+    private boolean parseLeafNode(ParseState state, XMLStreamReader reader, String name) throws XMLStreamException {
+        switch (name) {
+            case "id" -> {
+                String text = readText(reader);
+                if (++state.idCount == 1) {
+                    state.result.setId(text);
+                }
+            }
+            case "title" -> {
+                String text = readText(reader);
+                if (++state.titleCount == 1) {
+                    state.result.setTitle(text);
+                }
+            }
+            case "kWhPrice" -> {
+                if (state.readingTypeDepth == 0) {
+                    return false;
+                }
+                String text = readText(reader);
+                if (++state.kWhPriceCount == 1) {
+                    state.kWhPriceText = text;
+                }
+            }
+            case "readingUnit" -> {
+                if (state.readingTypeDepth == 0) {
+                    return false;
+                }
+                String text = readText(reader);
+                if (++state.readingUnitCount == 1) {
+                    state.readingUnitText = text;
+                }
+            }
+            case "value" -> {
+                if (state.intervalReadingDepth == 0) {
+                    return false;
+                }
+                String text = readText(reader);
+                if (++state.valueCount == 1) {
+                    state.valueText = text;
+                }
+            }
+            case "duration" -> {
+                if (state.timePeriodDepth == 0) {
+                    return false;
+                }
+                String text = readText(reader);
+                if (++state.durationCount == 1) {
+                    state.durationText = text;
+                }
+            }
+            case "start" -> {
+                if (state.timePeriodDepth == 0) {
+                    return false;
+                }
+                String text = readText(reader);
+                if (++state.startCount == 1) {
+                    state.startText = text;
+                }
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void endElement(ParseState state) {
+        if (state.rootError != null) {
+            return;
+        }
+        if (state.depth == state.timePeriodDepth) {
+            state.timePeriodDepth = 0;
+        } else if (state.depth == state.intervalReadingDepth) {
+            state.intervalReadingDepth = 0;
+            closeIntervalReading(state);
+        } else if (state.depth == state.intervalBlockDepth) {
+            state.intervalBlockDepth = 0;
+        } else if (state.depth == state.readingTypeDepth) {
+            state.readingTypeDepth = 0;
+            closeReadingType(state);
+        } else if (state.depth == state.entryDepth) {
+            state.entryDepth = 0;
+            closeEntry(state);
+        }
+        state.depth--;
+    }
+
+    private void closeEntry(ParseState state) {
+        IllegalMeterBatchReadingXmlException error;
+        if (state.contentCount != 1) {
+            error = new IllegalMeterBatchReadingXmlException("Invalid number of content under entry node : " + state.contentCount);
+        } else if (state.readingTypeCount != 0 && state.intervalBlockCount != 0) {
+            error = new IllegalMeterBatchReadingXmlException("Both ReadingType and IntervalBlock exists under content node");
+        } else if (state.readingTypeCount > 1) {
+            error = new IllegalMeterBatchReadingXmlException("Multiple ReadingType nodes under content node");
+        } else if (state.intervalBlockCount > 1) {
+            error = new IllegalMeterBatchReadingXmlException("Multiple IntervalBlock nodes under content node");
+        } else {
+            error = state.entryError;
+        }
+        if (state.firstError == null) {
+            state.firstError = error;
+        }
+    }
+
+    private void closeReadingType(ParseState state) {
+        try {
+            if (state.kWhPriceCount == 1) {
+                try {
+                    state.result.setPricePerKwh(new BigDecimal(state.kWhPriceText));
+                } catch (NumberFormatException nfe) {
+                    throw new IllegalMeterBatchReadingXmlException("Invalid kWhPrice value : " + state.kWhPriceText, nfe);
+                }
+            } else {
+                throw new IllegalMeterBatchReadingXmlException("Invalid number of kWhPrice nodes under ReadingType node : " + state.kWhPriceCount);
+            }
+            if (state.readingUnitCount == 1) {
+                try {
+                    state.result.setReadingUnit(XmlReadingUnit.valueOf(state.readingUnitText.toUpperCase()));
+                } catch (IllegalArgumentException iae) {
+                    throw new IllegalMeterBatchReadingXmlException("Invalid readingUnit value : " + state.readingUnitText, iae);
+                }
+            } else {
+                throw new IllegalMeterBatchReadingXmlException("Invalid number of readingUnit nodes under ReadingType node : " + state.readingUnitCount);
+            }
+        } catch (IllegalMeterBatchReadingXmlException e) {
+            state.recordEntryError(e);
+        }
+    }
+
+    private void closeIntervalReading(ParseState state) {
+        XmlIntervalReading intervalReading = new XmlIntervalReading();
+        try {
+            if (state.valueCount == 1) {
+                intervalReading.setReading(parseLong(state.valueText, "Invalid value node value : "));
+            } else {
+                throw new IllegalMeterBatchReadingXmlException("Invalid number of value nodes under IntervalReading node : " + state.valueCount);
+            }
+            if (state.timePeriodCount != 1) {
+                throw new IllegalMeterBatchReadingXmlException("Invalid number of timePeriod nodes under IntervalReading node : " + state.timePeriodCount);
+            }
+            if (state.durationCount == 1) {
+                intervalReading.setDurationAsSec(parseLong(state.durationText, "Invalid duration node value : "));
+            } else {
+                throw new IllegalMeterBatchReadingXmlException("Invalid number of duration nodes under timePeriod node : " + state.durationCount);
+            }
+            if (state.startCount == 1) {
+                intervalReading.setStartEpochAsSec(parseLong(state.startText, "Invalid start node value : "));
+            } else {
+                throw new IllegalMeterBatchReadingXmlException("Invalid number of start nodes under timePeriod node : " + state.startCount);
+            }
+        } catch (IllegalMeterBatchReadingXmlException e) {
+            state.recordEntryError(e);
+            return;
+        }
+        state.intervalReadingCount++;
+        // Once the feed is known to be rejected there is no point in feeding the listener any further
+        if (state.firstError == null && state.entryError == null) {
+            state.listener.onIntervalReading(state.result, intervalReading);
+        }
+    }
+
+    private static Long parseLong(String text, String errorMessage) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException nfe) {
+            throw new IllegalMeterBatchReadingXmlException(errorMessage + text, nfe);
+        }
+    }
+
+    private static final class ParseState {
+        private final XmlIntervalReadingListener listener;
+        private final XmlMeterBatchReading result = new XmlMeterBatchReading();
+        private IllegalMeterBatchReadingXmlException rootError;
+        private IllegalMeterBatchReadingXmlException firstError;
+        private int depth;
+        private int idCount;
+        private int titleCount;
+        private int entryCount;
+        private long intervalReadingCount;
+        // entry scope
+        private int entryDepth;
+        private int contentCount;
+        private int readingTypeCount;
+        private int intervalBlockCount;
+        private IllegalMeterBatchReadingXmlException entryError;
+        // ReadingType scope
+        private int readingTypeDepth;
+        private int kWhPriceCount;
+        private String kWhPriceText;
+        private int readingUnitCount;
+        private String readingUnitText;
+        // IntervalBlock, IntervalReading and timePeriod scopes
+        private int intervalBlockDepth;
+        private int intervalReadingDepth;
+        private int valueCount;
+        private String valueText;
+        private int timePeriodDepth;
+        private int timePeriodCount;
+        private int durationCount;
+        private String durationText;
+        private int startCount;
+        private String startText;
+
+        private ParseState(XmlIntervalReadingListener listener) {
+            this.listener = listener;
+        }
+
+        private void openEntry() {
+            entryDepth = depth;
+            contentCount = 0;
+            readingTypeCount = 0;
+            intervalBlockCount = 0;
+            entryError = null;
+        }
+
+        private void openReadingType() {
+            readingTypeDepth = depth;
+            kWhPriceCount = 0;
+            kWhPriceText = null;
+            readingUnitCount = 0;
+            readingUnitText = null;
+        }
+
+        private void openIntervalReading() {
+            intervalReadingDepth = depth;
+            valueCount = 0;
+            valueText = null;
+            timePeriodCount = 0;
+            durationCount = 0;
+            durationText = null;
+            startCount = 0;
+            startText = null;
+        }
+
+        private void recordEntryError(IllegalMeterBatchReadingXmlException e) {
+            if (entryError == null) {
+                entryError = e;
+            }
+        }
+
+        private XmlMeterBatchReading finish() {
+            // Checks are done in the order DOM based parser does them
+            if (rootError != null) {
+                throw rootError;
+            }
+            if (idCount != 1) {
+                throw new IllegalMeterBatchReadingXmlException("Invalid number of id nodes : " + idCount);
+            }
+            if (titleCount != 1) {
+                throw new IllegalMeterBatchReadingXmlException("Invalid number of title nodes : " + titleCount);
+            }
+            if (entryCount != 2) {
+                throw new IllegalMeterBatchReadingXmlException("Invalid number of entry nodes : " + entryCount);
+            }
+            if (firstError != null) {
+                throw firstError;
+            }
+            if (result.getPricePerKwh() == null) {
+                throw new IllegalMeterBatchReadingXmlException("ReadingType node is missing");
+            }
+            if (intervalReadingCount == 0) {
+                throw new IllegalMeterBatchReadingXmlException("No IntervalReadings exist");
+            }
+            return result;
+        }
+    }
+}
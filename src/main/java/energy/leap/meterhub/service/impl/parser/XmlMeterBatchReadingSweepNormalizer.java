@@ -0,0 +1,202 @@
+package energy.leap.meterhub.service.impl.parser;
+
+import energy.leap.meterhub.service.exception.IllegalMeterBatchReadingContentException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Sort and sweep counterpart of XmlMeterBatchReadingNormalizer. Readings are copied into primitive arrays,
+// sorted once by start and then checked hour by hour in a single linear pass. Rejections are the same as
+// XmlMeterBatchReadingNormalizer, including which reading is reported for overlaps and overflows.
+// Normalized readings are returned ordered by hour.
+public class XmlMeterBatchReadingSweepNormalizer {
+
+    public static final long SECONDS_PER_HOUR = 3600L;
+
+    // Sort keys pack start offset and reading index into a single long
+    private static final int INDEX_BITS = 26;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+    private static final long MAX_PACKED_START_OFFSET = (1L << (Long.SIZE - 1 - INDEX_BITS)) - 1;
+
+    public static long getHourStart(long timeSec) {
+        return Math.floorDiv(timeSec, SECONDS_PER_HOUR) * SECONDS_PER_HOUR;
+    }
+
+    // Same as threeten Interval.overlaps, empty intervals overlap only with an equal interval
+    // or an interval strictly containing them
+    static boolean overlaps(long start, long end, long otherStart, long otherEnd) {
+        return (start == otherStart && end == otherEnd) || (start < otherEnd && otherStart < end);
+    }
+
+    // Returns indexes of readings sorted by start, readings with same start keep their original order
+    static int[] sortByStart(long[] starts, int count) {
+        int[] order = new int[count];
+        if (count == 0) {
+            return order;
+        }
+        long min = starts[0];
+        long max = starts[0];
+        for (int i = 1; i < count; i++) {
+            min = Math.min(min, starts[i]);
+            max = Math.max(max, starts[i]);
+        }
+        long span = max - min;
+        if (count <= INDEX_MASK && span >= 0 && span <= MAX_PACKED_START_OFFSET) {
+            long[] keys = new long[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = ((starts[i] - min) << INDEX_BITS) | i;
+            }
+            Arrays.sort(keys);
+            for (int i = 0; i < count; i++) {
+                order[i] = (int) (keys[i] & INDEX_MASK);
+            }
+        } else {
+            // Not expected for real feeds, spans more than 4000 years or 67M readings
+            Integer[] boxedOrder = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                boxedOrder[i] = i;
+            }
+            Arrays.sort(boxedOrder, Comparator.comparingLong((Integer i) -> starts[i]));
+            for (int i = 0; i < count; i++) {
+                order[i] = boxedOrder[i];
+            }
+        }
+        return order;
+    }
+
+    public XmlMeterBatchReading normalize(XmlMeterBatchReading meterReading) {
+        List<XmlIntervalReading> readings = meterReading.getIntervalReadings();
+        int count = readings.size();
+        long[] starts = new long[count];
+        long[] ends = new long[count];
+        long[] values = new long[count];
+        int firstNegativeDuration = Integer.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            XmlIntervalReading reading = readings.get(i);
+            starts[i] = reading.getStartEpochAsSec();
+            ends[i] = starts[i] + reading.getDurationAsSec();
+            values[i] = reading.getReading();
+            if (ends[i] < starts[i] && firstNegativeDuration == Integer.MAX_VALUE) {
+                firstNegativeDuration = i;
+            }
+        }
+        int[] order = sortByStart(starts, count);
+
+        List<XmlIntervalReading> hourReadings = new ArrayList<>();
+        // Overlaps and overflows are reported before gaps, for the reading that comes first in the file
+        int firstOverflow = Integer.MAX_VALUE;
+        List<int[]> hoursWithPossibleOverlaps = new ArrayList<>();
+        // Gaps are reported for the earliest hour having them
+        String firstGapError = null;
+
+        int hourFrom = 0;
+        while (hourFrom < count) {
+            long hourStart = getHourStart(starts[order[hourFrom]]);
+            long hourEnd = hourStart + SECONDS_PER_HOUR;
+            long combinedStart = starts[order[hourFrom]];
+            long combinedEnd = combinedStart;
+            long maxEnd = Long.MIN_VALUE;
+            long totalValue = 0L;
+            boolean disconnected = false;
+            boolean possibleOverlap = false;
+            int minIndex = Integer.MAX_VALUE;
+            int hourTo = hourFrom;
+            for (; hourTo < count && starts[order[hourTo]] < hourEnd; hourTo++) {
+                int i = order[hourTo];
+                long start = starts[i];
+                long end = ends[i];
+                minIndex = Math.min(minIndex, i);
+                if (end > hourEnd) {
+                    firstOverflow = Math.min(firstOverflow, i);
+                }
+                // Every overlapping pair ends up here, some touching empty intervals too.
+                // Those hours are checked again in file order below.
+                if (hourTo > hourFrom) {
+                    int previous = order[hourTo - 1];
+                    if (start < maxEnd || (start == starts[previous] && end == ends[previous])) {
+                        possibleOverlap = true;
+                    }
+                }
+                maxEnd = Math.max(maxEnd, end);
+                // Combine back to back intervals, as threeten Interval.isBefore and union would do
+                if (hourTo == hourFrom) {
+                    combinedEnd = end;
+                    totalValue += values[i];
+                } else if (!disconnected && combinedEnd == start && !(combinedStart == start && combinedEnd == end)) {
+                    combinedEnd = end;
+                    totalValue += values[i];
+                } else {
+                    disconnected = true;
+                }
+            }
+            if (possibleOverlap) {
+                hoursWithPossibleOverlaps.add(new int[]{hourFrom, hourTo, minIndex});
+            }
+            if (disconnected) {
+                if (firstGapError == null) {
+                    firstGapError = "Disconnected interval exists for start " + hourStart;
+                }
+            } else if (combinedStart != hourStart || combinedEnd != hourEnd) {
+                if (firstGapError == null) {
+                    firstGapError = "Partial hour for " + hourStart;
+                }
+            } else {
+                hourReadings.add(new XmlIntervalReading(hourStart, SECONDS_PER_HOUR, totalValue));
+            }
+            hourFrom = hourTo;
+        }
+
+        checkOverlapsAndOverflows(readings, order, starts, ends, hoursWithPossibleOverlaps,
+                Math.min(firstOverflow, firstNegativeDuration));
+        if (firstGapError != null) {
+            throw new IllegalMeterBatchReadingContentException(firstGapError);
+        }
+        return new XmlMeterBatchReading(meterReading.getId(), meterReading.getTitle(), meterReading.getPricePerKwh(),
+                meterReading.getReadingUnit(), hourReadings);
+    }
+
+    private void checkOverlapsAndOverflows(List<XmlIntervalReading> readings, int[] order, long[] starts, long[] ends,
+                                           List<int[]> hoursWithPossibleOverlaps, int firstInvalid) {
+        // Find the first reading in file order overlapping with an earlier reading of the same hour,
+        // only hours flagged by the sweep are checked and only up to the first invalid reading found so far
+        int firstOverlap = Integer.MAX_VALUE;
+        int firstOverlapOther = -1;
+        hoursWithPossibleOverlaps.sort(Comparator.comparingInt(hour -> hour[2]));
+        for (int[] hour : hoursWithPossibleOverlaps) {
+            int limit = Math.min(firstOverlap, firstInvalid);
+            if (hour[2] >= limit) {
+                break;
+            }
+            int[] indexes = Arrays.copyOfRange(order, hour[0], hour[1]);
+            Arrays.sort(indexes);
+            search:
+            for (int jj = 1; jj < indexes.length && indexes[jj] <= limit; jj++) {
+                int j = indexes[jj];
+                if (ends[j] < starts[j]) {
+                    // Negative duration is reported before anything else for that reading
+                    break;
+                }
+                for (int ii = 0; ii < jj; ii++) {
+                    int i = indexes[ii];
+                    if (overlaps(starts[j], ends[j], starts[i], ends[i])) {
+                        firstOverlap = j;
+                        firstOverlapOther = i;
+                        break search;
+                    }
+                }
+            }
+        }
+        if (firstOverlap != Integer.MAX_VALUE && firstOverlap <= firstInvalid) {
+            throw new IllegalMeterBatchReadingContentException(readings.get(firstOverlap) + " overlaps with " + readings.get(firstOverlapOther));
+        }
+        if (firstInvalid != Integer.MAX_VALUE) {
+            XmlIntervalReading reading = readings.get(firstInvalid);
+            if (reading.getDurationAsSec() < 0) {
+                throw new IllegalMeterBatchReadingContentException(reading + " has negative duration");
+            }
+            throw new IllegalMeterBatchReadingContentException(reading + " overflows hour");
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package energy.leap.meterhub.web;
+
+import energy.leap.meterhub.service.MeterGroupService;
+import energy.leap.meterhub.service.dto.GroupHourlyReportDto;
+import energy.leap.meterhub.service.dto.MeterGroupDto;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.util.List;
+
+@RestController
+@RequestMapping("/group")
+@RequiredArgsConstructor
+public class MeterGroupController {
+
+    @NonNull
+    private final MeterGroupService service;
+
+    @GetMapping
+    public List<MeterGroupDto> getGroups() {
+        return service.getGroups();
+    }
+
+    @PostMapping
+    public ResponseEntity<MeterGroupDto> createGroup(
+            @RequestParam("id") String id,
+            @RequestParam(value = "title", required = false) String title,
+            @RequestParam(value = "parent", required = false) String parent) {
+        MeterGroupDto group = service.createGroup(id, title, parent);
+        return ResponseEntity.created(URI.create("/group/" + group.getId())).body(group);
+    }
+
+    @GetMapping("/{id}/meters")
+    public List<String> getAssignedMeters(@PathVariable("id") String id) {
+        return service.getAssignedMeterIds(id);
+    }
+
+    @PutMapping("/{id}/meters/{meterId}")
+    public ResponseEntity<Void> assignMeter(@PathVariable("id") String id, @PathVariable("meterId") String meterId) {
+        service.assignMeter(id, meterId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{id}/meters/{meterId}")
+    public ResponseEntity<Void> unassignMeter(@PathVariable("id") String id, @PathVariable("meterId") String meterId) {
+        service.unassignMeter(id, meterId);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Reading, cost and number of meters with a reading of each hour in [from, to) over all meters of the group
+    @GetMapping("/{id}/hourly_report")
+    public List<GroupHourlyReportDto> getHourlyReportForGroup(
+            @PathVariable("id") String id,
+            @RequestParam(value = "from", required = false) Long from,
+            @RequestParam(value = "to", required = false) Long to) {
+        return service.getHourlyReportsForGroup(id, from, to);
+    }
+}
@@ -1,41 +1,187 @@
 package energy.leap.meterhub.web;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import energy.leap.meterhub.service.MeterReadingReportService;
+import energy.leap.meterhub.service.dto.BucketedReportDto;
+import energy.leap.meterhub.service.dto.CacheStatisticsDto;
 import energy.leap.meterhub.service.dto.EnergyMeterDto;
 import energy.leap.meterhub.service.dto.HourlyReportDto;
+import energy.leap.meterhub.service.dto.HourlyReportPageDto;
+import energy.leap.meterhub.service.dto.MeterBatchReportRequestDto;
+import energy.leap.meterhub.service.dto.MeterSummaryDto;
+import energy.leap.meterhub.service.dto.TopMeterDto;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
 @RequestMapping("/report")
 @RequiredArgsConstructor
 public class MeterReadingReportController {
+    public static final String CONTINUATION_TOKEN_HEADER = "X-Continuation-Token";
+
     @NonNull
     private final MeterReadingReportService service;
 
+    @NonNull
+    private final ObjectMapper objectMapper;
+
+    // Reports of a meter only change with its data version, which is sent as ETag and Last-Modified. When the client
+    // already has the current version a 304 is returned without reading or serializing the report.
+    private boolean checkNotModified(String meterId, WebRequest webRequest) {
+        return service.getDataVersionOfMeter(meterId)
+                .filter(version -> version.getDataVersion() != null)
+                .map(version -> webRequest.checkNotModified(String.format("\"%d\"", version.getDataVersion()),
+                        version.getDataModifiedEpochAsMilli() == null ? -1 : version.getDataModifiedEpochAsMilli()))
+                .orElse(false);
+    }
+
     @GetMapping("/meters")
     public List<EnergyMeterDto> getEnergyMeters() {
         return service.getEnergyMeters();
     }
 
+    // Hours in [from, to) ordered by hour, when there are more of them than the limit the response carries a
+    // continuation token header to be passed back with the same from and to for the next page
     @GetMapping("/hourly_report/{id}")
-    public List<HourlyReportDto> getHourlyReportForMeter(@PathVariable("id") String id) {
-        return service.getHourlyReportsForMeter(id);
+    public ResponseEntity<List<HourlyReportDto>> getHourlyReportForMeter(
+            @PathVariable("id") String id,
+            @RequestParam(value = "from", required = false) Long from,
+            @RequestParam(value = "to", required = false) Long to,
+            @RequestParam(value = "continuation_token", required = false) String continuationToken,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            WebRequest webRequest) {
+        if (checkNotModified(id, webRequest)) {
+            return null;
+        }
+        HourlyReportPageDto page = service.getHourlyReportsForMeter(id, from, to, continuationToken, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getContinuationToken() != null) {
+            response.header(CONTINUATION_TOKEN_HEADER, page.getContinuationToken());
+        }
+        return response.body(page.getHourlyReports());
+    }
+
+    // Same hours as the hourly report but without paging, the JSON array is written while rows are read from
+    // the database so that memory use does not depend on the size of the range
+    @GetMapping("/hourly_report/{id}/stream")
+    public ResponseEntity<StreamingResponseBody> streamHourlyReportForMeter(
+            @PathVariable("id") String id,
+            @RequestParam(value = "from", required = false) Long from,
+            @RequestParam(value = "to", required = false) Long to,
+            WebRequest webRequest) {
+        if (checkNotModified(id, webRequest)) {
+            return null;
+        }
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                service.streamHourlyReportsForMeter(id, from, to, hourlyReport -> {
+                    try {
+                        generator.writeObject(hourlyReport);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // Totals, and hourly reports when asked, of many meters in one request. Meters are read in chunks in parallel,
+    // the JSON array is written as the chunks come in following the order of the request.
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBatchReport(@RequestBody MeterBatchReportRequestDto request) {
+        // Invalid requests are refused before the response is committed
+        service.checkBatchReportRequest(request);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                service.streamBatchReports(request, batchReport -> {
+                    try {
+                        generator.writeObject(batchReport);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // Reading and cost of each day or month starting in [from, to), ordered by start
+    @GetMapping("/bucketed/{id}")
+    public List<BucketedReportDto> getBucketedReportForMeter(
+            @PathVariable("id") String id,
+            @RequestParam("granularity") String granularity,
+            @RequestParam(value = "from", required = false) Long from,
+            @RequestParam(value = "to", required = false) Long to,
+            WebRequest webRequest) {
+        if (checkNotModified(id, webRequest)) {
+            return null;
+        }
+        return service.getBucketedReportsForMeter(id, granularity, from, to);
+    }
+
+    // Total reading, exact total cost, hour count, first, last and peak hour of the hours in [from, to), in one
+    // request instead of one per figure
+    @GetMapping("/summary/{id}")
+    public MeterSummaryDto getSummaryForMeter(
+            @PathVariable("id") String id,
+            @RequestParam(value = "from", required = false) Long from,
+            @RequestParam(value = "to", required = false) Long to,
+            WebRequest webRequest) {
+        if (checkNotModified(id, webRequest)) {
+            return null;
+        }
+        return service.getSummaryForMeter(id, from, to);
+    }
+
+    // Meters with the highest reading or cost over the hours in [from, to), highest first
+    @GetMapping("/top_meters")
+    public List<TopMeterDto> getTopMeters(
+            @RequestParam("from") Long from,
+            @RequestParam("to") Long to,
+            @RequestParam(value = "by", defaultValue = "reading") String ranking,
+            @RequestParam(value = "count", required = false) Integer count) {
+        return service.getTopMeters(from, to, ranking, count);
     }
 
     @GetMapping("/total_reading/{id}")
-    public Long getTotalReadingAsWhForMeter(@PathVariable("id") String id) {
+    public Long getTotalReadingAsWhForMeter(@PathVariable("id") String id, WebRequest webRequest) {
+        if (checkNotModified(id, webRequest)) {
+            return null;
+        }
         return service.getTotalReadingAsWhForMeter(id);
     }
 
     @GetMapping("/total_cost/{id}")
-    public Double getTotalCostForMeter(@PathVariable("id") String id) {
+    public Double getTotalCostForMeter(@PathVariable("id") String id, WebRequest webRequest) {
+        if (checkNotModified(id, webRequest)) {
+            return null;
+        }
         return service.getTotalCostForMeter(id);
     }
+
+    @GetMapping("/cache_statistics")
+    public List<CacheStatisticsDto> getCacheStatistics() {
+        return service.getCacheStatistics();
+    }
 }
@@ -1,9 +1,16 @@
 package energy.leap.meterhub.web;
 
+import energy.leap.meterhub.service.IngestJobService;
 import energy.leap.meterhub.service.MeterBatchReadingProcessorService;
+import energy.leap.meterhub.service.dto.BulkLoadReportDto;
+import energy.leap.meterhub.service.dto.IngestJobDto;
+import energy.leap.meterhub.service.dto.IngestPartitionStatisticsDto;
+import energy.leap.meterhub.service.dto.IngestStageStatisticsDto;
+import energy.leap.meterhub.service.dto.WriteBehindStatisticsDto;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -11,6 +18,9 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
 
 @RestController
 @RequestMapping("/upload")
@@ -21,11 +31,74 @@ public class MeterReadingUploadController {
     @NonNull
     private final MeterBatchReadingProcessorService service;
 
+    @NonNull
+    private final IngestJobService ingestJobService;
+
+    private static ResponseEntity<IngestJobDto> accepted(IngestJobDto job) {
+        return ResponseEntity.accepted().location(URI.create("/upload/jobs/" + job.getId())).body(job);
+    }
+
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public @ResponseBody ResponseEntity<String> uploadMeterReadingReport(@RequestParam("file") MultipartFile file) throws IOException {
-        String fileContent = new String(file.getInputStream().readAllBytes());
-        log.info("New XML file : {}", fileContent);
-        service.processBatchReading(fileContent);
+        log.info("New XML file : {} ({} bytes)", file.getOriginalFilename(), file.getSize());
+        // Large parts are spilled to disk by the container (see spring.servlet.multipart.file-size-threshold)
+        try (InputStream fileContent = file.getInputStream()) {
+            service.processBatchReading(fileContent);
+        }
         return new ResponseEntity<>("POST Response", HttpStatus.OK);
     }
+
+    @PostMapping(consumes = {MediaType.APPLICATION_XML_VALUE, MediaType.TEXT_XML_VALUE})
+    public @ResponseBody ResponseEntity<String> uploadMeterReadingReport(
+            InputStream body,
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength) {
+        log.info("New XML body ({} bytes)", contentLength);
+        service.processBatchReading(body);
+        return new ResponseEntity<>("POST Response", HttpStatus.OK);
+    }
+
+    // Meant for importing history of many meters at once, either all feeds are loaded or none
+    @PostMapping(path = "/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public @ResponseBody ResponseEntity<BulkLoadReportDto> bulkUploadMeterReadingReports(@RequestParam("files") List<MultipartFile> files) {
+        log.info("New bulk upload of {} XML files", files.size());
+        return new ResponseEntity<>(service.processBatchReadings(files), HttpStatus.OK);
+    }
+
+    // Feed is queued and processed in the background, its job can be followed at the returned location
+    @PostMapping(path = "/async", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public @ResponseBody ResponseEntity<IngestJobDto> uploadMeterReadingReportAsync(@RequestParam("file") MultipartFile file) throws IOException {
+        log.info("New async XML file : {} ({} bytes)", file.getOriginalFilename(), file.getSize());
+        try (InputStream fileContent = file.getInputStream()) {
+            return accepted(ingestJobService.submitBatchReading(fileContent));
+        }
+    }
+
+    @PostMapping(path = "/async", consumes = {MediaType.APPLICATION_XML_VALUE, MediaType.TEXT_XML_VALUE})
+    public @ResponseBody ResponseEntity<IngestJobDto> uploadMeterReadingReportAsync(
+            InputStream body,
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength) {
+        log.info("New async XML body ({} bytes)", contentLength);
+        return accepted(ingestJobService.submitBatchReading(body));
+    }
+
+    @GetMapping("/jobs/{id}")
+    public IngestJobDto getIngestJob(@PathVariable("id") String id) {
+        return ingestJobService.getJob(id);
+    }
+
+    @GetMapping("/stages")
+    public List<IngestStageStatisticsDto> getIngestStageStatistics() {
+        return ingestJobService.getStageStatistics();
+    }
+
+    @GetMapping("/partitions")
+    public List<IngestPartitionStatisticsDto> getIngestPartitionStatistics() {
+        return ingestJobService.getPartitionStatistics();
+    }
+
+    // Not found unless async uploads are saved in WRITE_BEHIND mode
+    @GetMapping("/write_behind")
+    public ResponseEntity<WriteBehindStatisticsDto> getWriteBehindStatistics() {
+        return ResponseEntity.of(ingestJobService.getWriteBehindStatistics());
+    }
 }
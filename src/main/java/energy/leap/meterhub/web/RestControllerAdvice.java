@@ -1,16 +1,24 @@
 package energy.leap.meterhub.web;
 
 import energy.leap.meterhub.service.exception.IllegalMeterBatchReadingContentException;
+import energy.leap.meterhub.service.exception.IllegalMeterGroupRequestException;
+import energy.leap.meterhub.service.exception.IngestJobNotFoundException;
+import energy.leap.meterhub.service.exception.IngestQueueFullException;
 import energy.leap.meterhub.service.exception.IllegalMeterBatchReadingXmlException;
+import energy.leap.meterhub.service.exception.IllegalReportRequestException;
+import energy.leap.meterhub.service.exception.MeterGroupNotFoundException;
 import energy.leap.meterhub.service.exception.MeterNotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
 
 @ControllerAdvice
 @Slf4j
@@ -35,6 +43,35 @@ public class RestControllerAdvice {
         return error(NOT_FOUND, e);
     }
 
+    @ExceptionHandler({IllegalReportRequestException.class})
+    public ResponseEntity<String> handleIllegalReportRequestException(IllegalReportRequestException e){
+        return error(BAD_REQUEST, e);
+    }
+
+    @ExceptionHandler({MeterGroupNotFoundException.class})
+    public ResponseEntity<String> handleMeterGroupNotFoundException(MeterGroupNotFoundException e){
+        return error(NOT_FOUND, e);
+    }
+
+    @ExceptionHandler({IllegalMeterGroupRequestException.class})
+    public ResponseEntity<String> handleIllegalMeterGroupRequestException(IllegalMeterGroupRequestException e){
+        return error(BAD_REQUEST, e);
+    }
+
+    @ExceptionHandler({IngestJobNotFoundException.class})
+    public ResponseEntity<String> handleIngestJobNotFoundException(IngestJobNotFoundException e){
+        return error(NOT_FOUND, e);
+    }
+
+    // Expected under burst load, so it is not logged as an error
+    @ExceptionHandler({IngestQueueFullException.class})
+    public ResponseEntity<String> handleIngestQueueFullException(IngestQueueFullException e){
+        log.warn("Upload rejected : {}", e.getMessage());
+        return ResponseEntity.status(TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, e.getRetryAfter().toSeconds())))
+                .body(e.getMessage());
+    }
+
     private ResponseEntity<String> error(HttpStatus status, Exception e) {
         log.error("Exception : ", e);
         return ResponseEntity.status(status).body(e.getMessage());
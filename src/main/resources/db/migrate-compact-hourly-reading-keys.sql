@@ -0,0 +1,92 @@
+-- Moves a PostgreSQL database created before meters had integer keys to the compact hourly reading schema,
+-- where hourly readings are keyed by (meter_key, hour_index) instead of (meter_id, hour_start_epoch_as_sec).
+-- Data versions of meters and the tables of totals, rollups and groups are added as well, unless they exist already.
+-- Run once while the application is stopped, everything is done in one transaction. Totals, rollups and the hours of
+-- the fleet are built from the stored readings on the first start afterwards.
+BEGIN;
+
+-- Meters existing before data versions were kept start at version 0, like newly inserted meters
+ALTER TABLE energy_meter ADD COLUMN IF NOT EXISTS data_version BIGINT;
+ALTER TABLE energy_meter ADD COLUMN IF NOT EXISTS data_modified_epoch_as_milli BIGINT;
+UPDATE energy_meter SET data_version = 0 WHERE data_version IS NULL;
+
+-- Existing meters are numbered in the order of their ids, new meters get the next keys on insert
+ALTER TABLE energy_meter ADD COLUMN meter_key INTEGER;
+UPDATE energy_meter em SET meter_key = numbered.meter_key
+FROM (SELECT id, ROW_NUMBER() OVER (ORDER BY id) AS meter_key FROM energy_meter) numbered
+WHERE em.id = numbered.id;
+-- Identity columns have to be NOT NULL, every meter has a key by now
+ALTER TABLE energy_meter ALTER COLUMN meter_key SET NOT NULL;
+ALTER TABLE energy_meter ALTER COLUMN meter_key ADD GENERATED BY DEFAULT AS IDENTITY;
+SELECT setval(pg_get_serial_sequence('energy_meter', 'meter_key'), COALESCE(MAX(meter_key), 0) + 1, false) FROM energy_meter;
+ALTER TABLE energy_meter ADD CONSTRAINT uk_energy_meter_meter_key UNIQUE (meter_key);
+
+CREATE TABLE hourly_reading_compact (
+    hour_index INTEGER NOT NULL,
+    meter_key INTEGER NOT NULL,
+    price_per_kwh NUMERIC(38, 2),
+    reading_as_wh BIGINT,
+    PRIMARY KEY (hour_index, meter_key)
+);
+
+-- Hour starts are always whole hours, readings of meters missing from energy_meter are dropped
+INSERT INTO hourly_reading_compact (hour_index, meter_key, price_per_kwh, reading_as_wh)
+SELECT (hr.hour_start_epoch_as_sec / 3600)::INTEGER, em.meter_key, hr.price_per_kwh, hr.reading_as_wh
+FROM hourly_reading hr
+JOIN energy_meter em ON em.id = hr.meter_id;
+
+DROP TABLE hourly_reading;
+ALTER TABLE hourly_reading_compact RENAME TO hourly_reading;
+-- Both orders are needed. Reports, totals and ingests read a meter over a range of hours, which the primary key
+-- starting with hour_index can not serve. Retention, the fleet and partition maintenance read all meters over a range
+-- of hours, the last looks up MIN and MAX of hour_index in the default partition through the primary key.
+CREATE INDEX idx_hourly_reading_meter_hour ON hourly_reading (meter_key, hour_index);
+
+CREATE TABLE IF NOT EXISTS meter_totals (
+    meter_id VARCHAR(255) NOT NULL,
+    total_reading_as_wh BIGINT,
+    total_cost NUMERIC(38, 5),
+    hour_count BIGINT,
+    first_hour_start_epoch_as_sec BIGINT,
+    last_hour_start_epoch_as_sec BIGINT,
+    PRIMARY KEY (meter_id)
+);
+
+CREATE TABLE IF NOT EXISTS meter_rollup (
+    bucket_hour_index INTEGER NOT NULL,
+    granularity VARCHAR(5) NOT NULL,
+    meter_key INTEGER NOT NULL,
+    reading_as_wh BIGINT,
+    cost NUMERIC(38, 5),
+    PRIMARY KEY (bucket_hour_index, granularity, meter_key)
+);
+CREATE INDEX IF NOT EXISTS idx_meter_rollup_meter_bucket ON meter_rollup (meter_key, granularity, bucket_hour_index);
+
+-- The fleet is inserted by the application on its first start
+CREATE TABLE IF NOT EXISTS meter_group (
+    id VARCHAR(255) NOT NULL,
+    group_key INTEGER GENERATED BY DEFAULT AS IDENTITY,
+    parent_id VARCHAR(255),
+    title VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_meter_group_group_key UNIQUE (group_key)
+);
+
+CREATE TABLE IF NOT EXISTS meter_group_member (
+    group_key INTEGER NOT NULL,
+    meter_key INTEGER NOT NULL,
+    assigned BOOLEAN,
+    PRIMARY KEY (group_key, meter_key)
+);
+CREATE INDEX IF NOT EXISTS idx_meter_group_member_meter ON meter_group_member (meter_key);
+
+CREATE TABLE IF NOT EXISTS group_hourly_reading (
+    group_key INTEGER NOT NULL,
+    hour_index INTEGER NOT NULL,
+    reading_as_wh BIGINT,
+    cost NUMERIC(38, 5),
+    meter_count INTEGER,
+    PRIMARY KEY (group_key, hour_index)
+);
+
+COMMIT;
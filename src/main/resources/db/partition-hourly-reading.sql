@@ -0,0 +1,26 @@
+-- Turns hourly_reading of a PostgreSQL database into a table partitioned by month on hour_index, for
+-- meterhub.persistence.partitioning.enabled=true. Run once while the application is stopped, everything is done in
+-- one transaction. Existing readings are put into the default partition, the application moves them into monthly
+-- partitions on its first maintenance run.
+BEGIN;
+
+CREATE TABLE hourly_reading_partitioned (
+    hour_index INTEGER NOT NULL,
+    meter_key INTEGER NOT NULL,
+    price_per_kwh NUMERIC(38, 2),
+    reading_as_wh BIGINT,
+    PRIMARY KEY (hour_index, meter_key)
+) PARTITION BY RANGE (hour_index);
+
+-- Takes readings of months without partition, so ingests never fail on a missing partition
+CREATE TABLE hourly_reading_default PARTITION OF hourly_reading_partitioned DEFAULT;
+
+INSERT INTO hourly_reading_partitioned (hour_index, meter_key, price_per_kwh, reading_as_wh)
+SELECT hour_index, meter_key, price_per_kwh, reading_as_wh FROM hourly_reading;
+
+DROP TABLE hourly_reading;
+ALTER TABLE hourly_reading_partitioned RENAME TO hourly_reading;
+-- Created on every partition, queries of a meter and an hour range only scan the partitions of those months
+CREATE INDEX idx_hourly_reading_meter_hour ON hourly_reading (meter_key, hour_index);
+
+COMMIT;
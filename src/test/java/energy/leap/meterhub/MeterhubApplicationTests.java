@@ -1,7 +1,15 @@
 package energy.leap.meterhub;
 
+import energy.leap.meterhub.service.dto.BulkLoadReportDto;
 import energy.leap.meterhub.service.dto.EnergyMeterDto;
+import energy.leap.meterhub.service.dto.GroupHourlyReportDto;
 import energy.leap.meterhub.service.dto.HourlyReportDto;
+import energy.leap.meterhub.service.dto.IngestJobDto;
+import energy.leap.meterhub.service.dto.IngestJobStatus;
+import energy.leap.meterhub.service.dto.MeterBatchReportDto;
+import energy.leap.meterhub.service.dto.MeterBatchReportRequestDto;
+import energy.leap.meterhub.service.dto.MeterGroupDto;
+import energy.leap.meterhub.service.dto.TopMeterDto;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,9 +24,14 @@ import org.springframework.util.MultiValueMap;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.math.BigDecimal;
+import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -118,9 +131,9 @@ class MeterhubApplicationTests {
         assertEquals(3, hourlyReportResponse.getBody().length);
         List<HourlyReportDto> actualReports = Arrays.stream(hourlyReportResponse.getBody()).toList();
         List<HourlyReportDto> expectedReports =
-                Stream.of(new HourlyReportDto(1555484400L, 340000L, new BigDecimal("23.80")),
-                                new HourlyReportDto(1555488000L, 260000L, new BigDecimal("18.20")),
-                                new HourlyReportDto(1555491600L, 200000L, new BigDecimal("14.00")))
+                Stream.of(new HourlyReportDto(1555484400L, 340000L, new BigDecimal("23.80000")),
+                                new HourlyReportDto(1555488000L, 260000L, new BigDecimal("18.20000")),
+                                new HourlyReportDto(1555491600L, 200000L, new BigDecimal("14.00000")))
                         .toList();
         Assertions.assertThat(actualReports).containsAll(expectedReports);
     }
@@ -179,9 +192,9 @@ class MeterhubApplicationTests {
         assertEquals(3, hourlyReportResponse.getBody().length);
         List<HourlyReportDto> actualReports = Arrays.stream(hourlyReportResponse.getBody()).toList();
         List<HourlyReportDto> expectedReports =
-                Stream.of(new HourlyReportDto(1555484400L, 340000L, new BigDecimal("23.80")),
-                                new HourlyReportDto(1555488000L, 260000L, new BigDecimal("18.20")),
-                                new HourlyReportDto(1555491600L, 200000L, new BigDecimal("14.00")))
+                Stream.of(new HourlyReportDto(1555484400L, 340000L, new BigDecimal("23.80000")),
+                                new HourlyReportDto(1555488000L, 260000L, new BigDecimal("18.20000")),
+                                new HourlyReportDto(1555491600L, 200000L, new BigDecimal("14.00000")))
                         .toList();
         Assertions.assertThat(actualReports).containsAll(expectedReports);
         Assertions.assertThat(hourlyReportResponse2.getStatusCode()).isEqualTo(HttpStatus.OK);
@@ -189,9 +202,9 @@ class MeterhubApplicationTests {
         assertEquals(3, hourlyReportResponse2.getBody().length);
         List<HourlyReportDto> actualReports2 = Arrays.stream(hourlyReportResponse2.getBody()).toList();
         List<HourlyReportDto> expectedReports2 =
-                Stream.of(new HourlyReportDto(1555484400L, 200000L, new BigDecimal("14.00")),
-                                new HourlyReportDto(1555488000L, 260000L, new BigDecimal("18.20")),
-                                new HourlyReportDto(1555491600L, 200000L, new BigDecimal("14.00")))
+                Stream.of(new HourlyReportDto(1555484400L, 200000L, new BigDecimal("14.00000")),
+                                new HourlyReportDto(1555488000L, 260000L, new BigDecimal("18.20000")),
+                                new HourlyReportDto(1555491600L, 200000L, new BigDecimal("14.00000")))
                         .toList();
         Assertions.assertThat(actualReports2).containsAll(expectedReports2);
     }
@@ -241,14 +254,286 @@ class MeterhubApplicationTests {
         assertEquals(4, hourlyReportResponse.getBody().length);
         List<HourlyReportDto> actualReports = Arrays.stream(hourlyReportResponse.getBody()).toList();
         List<HourlyReportDto> expectedReports =
-                Stream.of(new HourlyReportDto(1555480800L, 100000L, new BigDecimal("5.00")),
-                                new HourlyReportDto(1555484400L, 400000L, new BigDecimal("20.00")),
-                                new HourlyReportDto(1555488000L, 260000L, new BigDecimal("18.20")),
-                                new HourlyReportDto(1555491600L, 200000L, new BigDecimal("14.00")))
+                Stream.of(new HourlyReportDto(1555480800L, 100000L, new BigDecimal("5.00000")),
+                                new HourlyReportDto(1555484400L, 400000L, new BigDecimal("20.00000")),
+                                new HourlyReportDto(1555488000L, 260000L, new BigDecimal("18.20000")),
+                                new HourlyReportDto(1555491600L, 200000L, new BigDecimal("14.00000")))
                         .toList();
         Assertions.assertThat(actualReports).containsAll(expectedReports);
     }
 
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void GivenMeterAssignedToGroupAndOtherMeterUploaded_WhenGroupReportsRequested_ThenGroupHasItsMeterAndFleetHasBoth() {
+        // Arrange
+        String baseUrl = String.format("http://localhost:%d", randomServerPort);
+        uploadFile(baseUrl, "src/test/resources/meter1.xml");
+        URI uriCreateGroup = UriComponentsBuilder.fromHttpUrl(baseUrl).path("/group").queryParam("id", "site").queryParam("title", "Site").build().toUri();
+        ResponseEntity<MeterGroupDto> createResponse = restTemplate.postForEntity(uriCreateGroup, null, MeterGroupDto.class);
+        Assertions.assertThat(createResponse.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        URI uriAssignMeter = UriComponentsBuilder.fromHttpUrl(baseUrl).path("/group/site/meters/1a46b097-b80a-4e25-8852-44f88b9179ae").build().toUri();
+        restTemplate.put(uriAssignMeter, null);
+        uploadFile(baseUrl, "src/test/resources/meter2.xml");
+        // Act
+        URI uriGroupReport = UriComponentsBuilder.fromHttpUrl(baseUrl).path("/group/site/hourly_report").build().toUri();
+        final ResponseEntity<GroupHourlyReportDto[]> groupReportResponse = restTemplate.getForEntity(uriGroupReport, GroupHourlyReportDto[].class);
+        URI uriFleetReport = UriComponentsBuilder.fromHttpUrl(baseUrl).path("/group/fleet/hourly_report").build().toUri();
+        final ResponseEntity<GroupHourlyReportDto[]> fleetReportResponse = restTemplate.getForEntity(uriFleetReport, GroupHourlyReportDto[].class);
+        // Assert
+        Assertions.assertThat(groupReportResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertNotNull(groupReportResponse.getBody());
+        assertEquals(List.of(new GroupHourlyReportDto(1555484400L, 340000L, new BigDecimal("23.80000"), 1),
+                        new GroupHourlyReportDto(1555488000L, 260000L, new BigDecimal("18.20000"), 1),
+                        new GroupHourlyReportDto(1555491600L, 200000L, new BigDecimal("14.00000"), 1)),
+                Arrays.asList(groupReportResponse.getBody()));
+        Assertions.assertThat(fleetReportResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertNotNull(fleetReportResponse.getBody());
+        assertEquals(List.of(new GroupHourlyReportDto(1555484400L, 540000L, new BigDecimal("37.80000"), 2),
+                        new GroupHourlyReportDto(1555488000L, 520000L, new BigDecimal("36.40000"), 2),
+                        new GroupHourlyReportDto(1555491600L, 400000L, new BigDecimal("28.00000"), 2)),
+                Arrays.asList(fleetReportResponse.getBody()));
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void GivenReportUploadedAsXmlBody_WhenTotalReadingRequested_ThenCorrectTotalReceived() throws IOException {
+        // Arrange
+        String baseUrl = String.format("http://localhost:%d", randomServerPort);
+        URI uriUpload = UriComponentsBuilder.fromHttpUrl(baseUrl).path("/upload").build().toUri();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_XML);
+        HttpEntity<byte[]> requestEntity = new HttpEntity<>(Files.readAllBytes(Path.of("src/test/resources/meter2.xml")), headers);
+        ResponseEntity<Void> uploadResponse = restTemplate.postForEntity(uriUpload, requestEntity, Void.class);
+        Assertions.assertThat(uploadResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        // Act
+        URI uriTotalReadingReport = UriComponentsBuilder.fromHttpUrl(baseUrl).path("/report/total_reading/9346bfb3-20aa-3412-ffab-44f88b917999").build().toUri();
+        final ResponseEntity<Long> totalReadingResponse = restTemplate.getForEntity(uriTotalReadingReport, Long.class);
+        // Assert
+        Assertions.assertThat(totalReadingResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertEquals(660000L, totalReadingResponse.getBody());
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void GivenReportsBulkUploaded_WhenTotalReadingsRequested_ThenCorrectTotalsReceived() {
+        // Arrange
+        String baseUrl = String.format("http://localhost:%d", randomServerPort);
+        URI uriBulkUpload = UriComponentsBuilder.fromHttpUrl(baseUrl).path("/upload/bulk").build().toUri();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("files", new FileSystemResource("src/test/resources/meter1.xml"));
+        body.add("files", new FileSystemResource("src/test/resources/meter2.xml"));
+        final ResponseEntity<BulkLoadReportDto> uploadResponse =
+                restTemplate.postForEntity(uriBulkUpload, new HttpEntity<>(body, headers), BulkLoadReportDto.class);
+        Assertions.assertThat(uploadResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertNotNull(uploadResponse.getBody());
+        assertEquals(2, uploadResponse.getBody().getFeedCount());
+        assertEquals(6L, uploadResponse.getBody().getHourlyReadingCount());
+        // Act
+        URI uriTotalReadingReport = UriComponentsBuilder.fromHttpUrl(baseUrl).path("/report/total_reading/1a46b097-b80a-4e25-8852-44f88b9179ae").build().toUri();
+        final ResponseEntity<Long> totalReadingResponse = restTemplate.getForEntity(uriTotalReadingReport, Long.class);
+        URI uriTotalReadingReport2 = UriComponentsBuilder.fromHttpUrl(baseUrl).path("/report/total_reading/9346bfb3-20aa-3412-ffab-44f88b917999").build().toUri();
+        final ResponseEntity<Long> totalReadingResponse2 = restTemplate.getForEntity(uriTotalReadingReport2, Long.class);
+        // Assert
+        assertEquals(800000L, totalReadingResponse.getBody());
+        assertEquals(660000L, totalReadingResponse2.getBody());
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void GivenReportUploaded_WhenHourlyReportPagesRequested_ThenAllHoursReceivedInOrder() {
+        // Arrange
+        String baseUrl = String.format("http://localhost:%d", randomServerPort);
+        ResponseEntity<Void> uploadResponse = uploadFile(baseUrl, "src/test/resources/meter1.xml");
+        Assertions.assertThat(uploadResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        // Act
+        URI uriFirstPage = UriComponentsBuilder.fromHttpUrl(baseUrl).path("/report/hourly_report/1a46b097-b80a-4e25-8852-44f88b9179ae")
+                .queryParam("limit", 2).build().toUri();
+        final ResponseEntity<HourlyReportDto[]> firstPageResponse = restTemplate.getForEntity(uriFirstPage, HourlyReportDto[].class);
+        String continuationToken = firstPageResponse.getHeaders().getFirst("X-Continuation-Token");
+        URI uriSecondPage = UriComponentsBuilder.fromHttpUrl(baseUrl).path("/report/hourly_report/1a46b097-b80a-4e25-8852-44f88b9179ae")
+                .queryParam("limit", 2).queryParam("continuation_token", continuationToken).build().toUri();
+        final ResponseEntity<HourlyReportDto[]> secondPageResponse = restTemplate.getForEntity(uriSecondPage, HourlyReportDto[].class);
+        // Assert
+        assertNotNull(continuationToken);
+        assertNotNull(firstPageResponse.getBody());
+        assertNotNull(secondPageResponse.getBody());
+        assertNull(secondPageResponse.getHeaders().getFirst("X-Continuation-Token"));
+        assertEquals(List.of(new HourlyReportDto(1555484400L, 340000L, new BigDecimal("23.80000")),
+                        new HourlyReportDto(1555488000L, 260000L, new BigDecimal("18.20000"))),
+                Arrays.asList(firstPageResponse.getBody()));
+        assertEquals(List.of(new HourlyReportDto(1555491600L, 200000L, new BigDecimal("14.00000"))),
+                Arrays.asList(secondPageResponse.getBody()));
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void GivenReportUploaded_WhenHourlyReportStreamedInRange_ThenReportsInRangeReceivedInOrder() {
+        // Arrange
+        String baseUrl = String.format("http://localhost:%d", randomServerPort);
+        ResponseEntity<Void> uploadResponse = uploadFile(baseUrl, "src/test/resources/meter1.xml");
+        Assertions.assertThat(uploadResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        // Act
+        URI uriStream = UriComponentsBuilder.fromHttpUrl(baseUrl).path("/report/hourly_report/1a46b097-b80a-4e25-8852-44f88b9179ae/stream")
+                .queryParam("from", 1555488000L).build().toUri();
+        final ResponseEntity<HourlyReportDto[]> streamResponse = restTemplate.getForEntity(uriStream, HourlyReportDto[].class);
+        // Assert
+        Assertions.assertThat(streamResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertNotNull(streamResponse.getBody());
+        assertEquals(List.of(new HourlyReportDto(1555488000L, 260000L, new BigDecimal("18.20000")),
+                        new HourlyReportDto(1555491600L, 200000L, new BigDecimal("14.00000"))),
+                Arrays.asList(streamResponse.getBody()));
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void GivenReportsForMultipleMetersUploaded_WhenBatchReportRequestedInRange_ThenReportsOfKnownMetersReceivedInRequestOrder() {
+        // Arrange
+        String baseUrl = String.format("http://localhost:%d", randomServerPort);
+        Assertions.assertThat(uploadFile(baseUrl, "src/test/resources/meter1.xml").getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(uploadFile(baseUrl, "src/test/resources/meter2.xml").getStatusCode()).isEqualTo(HttpStatus.OK);
+        MeterBatchReportRequestDto request = new MeterBatchReportRequestDto(List.of("9346bfb3-20aa-3412-ffab-44f88b917999",
+                "unknown_id", "1a46b097-b80a-4e25-8852-44f88b9179ae"), 1555488000L, null, true);
+        // Act
+        URI uriBatchReport = UriComponentsBuilder.fromHttpUrl(baseUrl).path("/report/batch").build().toUri();
+        final ResponseEntity<MeterBatchReportDto[]> batchResponse = restTemplate.postForEntity(uriBatchReport, request, MeterBatchReportDto[].class);
+        // Assert
+        Assertions.assertThat(batchResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertNotNull(batchResponse.getBody());
+        assertEquals(2, batchResponse.getBody().length);
+        MeterBatchReportDto report = batchResponse.getBody()[0];
+        MeterBatchReportDto report2 = batchResponse.getBody()[1];
+        assertEquals("9346bfb3-20aa-3412-ffab-44f88b917999", report.getMeterId());
+        assertEquals(460000L, report.getTotalReadingAsWh());
+        assertEquals(0, new BigDecimal("32.2").compareTo(report.getTotalCost()));
+        assertEquals(2, report.getHourlyReports().size());
+        assertEquals("1a46b097-b80a-4e25-8852-44f88b9179ae", report2.getMeterId());
+        assertEquals(460000L, report2.getTotalReadingAsWh());
+        assertEquals(new HourlyReportDto(1555488000L, 260000L, new BigDecimal("18.20000")), report2.getHourlyReports().get(0));
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void GivenReportsForMultipleMetersUploaded_WhenTopMetersRequestedForDayAndPartOfIt_ThenMetersRankedByRangeTotals() {
+        // Arrange
+        String baseUrl = String.format("http://localhost:%d", randomServerPort);
+        Assertions.assertThat(uploadFile(baseUrl, "src/test/resources/meter1.xml").getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(uploadFile(baseUrl, "src/test/resources/meter2.xml").getStatusCode()).isEqualTo(HttpStatus.OK);
+        // Act
+        // The whole day of April 17 2019 is read from the day rollups, the last two hours from the hourly readings
+        URI uriDay = UriComponentsBuilder.fromHttpUrl(baseUrl).path("/report/top_meters")
+                .queryParam("from", 1555459200L).queryParam("to", 1555545600L).queryParam("count", 1).build().toUri();
+        final ResponseEntity<TopMeterDto[]> dayResponse = restTemplate.getForEntity(uriDay, TopMeterDto[].class);
+        URI uriHours = UriComponentsBuilder.fromHttpUrl(baseUrl).path("/report/top_meters")
+                .queryParam("from", 1555488000L).queryParam("to", 1555495200L).queryParam("by", "cost").build().toUri();
+        final ResponseEntity<TopMeterDto[]> hoursResponse = restTemplate.getForEntity(uriHours, TopMeterDto[].class);
+        // Assert
+        Assertions.assertThat(dayResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertNotNull(dayResponse.getBody());
+        assertEquals(1, dayResponse.getBody().length);
+        assertEquals("1a46b097-b80a-4e25-8852-44f88b9179ae", dayResponse.getBody()[0].getMeterId());
+        assertEquals(800000L, dayResponse.getBody()[0].getTotalReadingAsWh());
+        assertNotNull(hoursResponse.getBody());
+        assertEquals(2, hoursResponse.getBody().length);
+        assertEquals("1a46b097-b80a-4e25-8852-44f88b9179ae", hoursResponse.getBody()[0].getMeterId());
+        assertEquals(460000L, hoursResponse.getBody()[0].getTotalReadingAsWh());
+        assertEquals(0, new BigDecimal("32.2").compareTo(hoursResponse.getBody()[1].getTotalCost()));
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void GivenReportsRequestedBeforeOverlappingUpload_WhenReportsRequestedAgain_ThenUpdatedReportsReceived() {
+        // Arrange
+        String baseUrl = String.format("http://localhost:%d", randomServerPort);
+        ResponseEntity<Void> uploadResponse = uploadFile(baseUrl, "src/test/resources/meter1.xml");
+        Assertions.assertThat(uploadResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        URI uriTotalReadingReport = UriComponentsBuilder.fromHttpUrl(baseUrl).path("/report/total_reading/1a46b097-b80a-4e25-8852-44f88b9179ae").build().toUri();
+        URI uriHourlyReport = UriComponentsBuilder.fromHttpUrl(baseUrl).path("/report/hourly_report/1a46b097-b80a-4e25-8852-44f88b9179ae").build().toUri();
+        assertEquals(800000L, restTemplate.getForEntity(uriTotalReadingReport, Long.class).getBody());
+        assertEquals(3, restTemplate.getForEntity(uriHourlyReport, HourlyReportDto[].class).getBody().length);
+        ResponseEntity<Void> uploadResponse2 = uploadFile(baseUrl, "src/test/resources/meter1_2.xml");
+        Assertions.assertThat(uploadResponse2.getStatusCode()).isEqualTo(HttpStatus.OK);
+        // Act
+        final ResponseEntity<Long> totalReadingResponse = restTemplate.getForEntity(uriTotalReadingReport, Long.class);
+        final ResponseEntity<HourlyReportDto[]> hourlyReportResponse = restTemplate.getForEntity(uriHourlyReport, HourlyReportDto[].class);
+        // Assert
+        assertEquals(960000L, totalReadingResponse.getBody());
+        assertNotNull(hourlyReportResponse.getBody());
+        assertEquals(4, hourlyReportResponse.getBody().length);
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void GivenSameNewMeterUploadedConcurrently_WhenTotalReadingRequested_ThenAllUploadsSucceededAndTotalCountedOnce() {
+        // Arrange
+        String baseUrl = String.format("http://localhost:%d", randomServerPort);
+        URI uriTotalReadingReport = UriComponentsBuilder.fromHttpUrl(baseUrl).path("/report/total_reading/1a46b097-b80a-4e25-8852-44f88b9179ae").build().toUri();
+        // Act
+        List<HttpStatusCode> uploadStatuses = IntStream.range(0, 4)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> uploadFile(baseUrl, "src/test/resources/meter1.xml").getStatusCode()))
+                .toList()
+                .stream()
+                .map(CompletableFuture::join)
+                .toList();
+        final ResponseEntity<Long> totalReadingResponse = restTemplate.getForEntity(uriTotalReadingReport, Long.class);
+        // Assert
+        assertEquals(List.of(HttpStatus.OK, HttpStatus.OK, HttpStatus.OK, HttpStatus.OK), uploadStatuses);
+        assertEquals(800000L, totalReadingResponse.getBody());
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void GivenTotalReadingReceivedWithETag_WhenRequestedAgainWithETag_ThenNotModifiedUntilNextUpload() {
+        // Arrange
+        String baseUrl = String.format("http://localhost:%d", randomServerPort);
+        ResponseEntity<Void> uploadResponse = uploadFile(baseUrl, "src/test/resources/meter1.xml");
+        Assertions.assertThat(uploadResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        URI uriTotalReadingReport = UriComponentsBuilder.fromHttpUrl(baseUrl).path("/report/total_reading/1a46b097-b80a-4e25-8852-44f88b9179ae").build().toUri();
+        String eTag = restTemplate.getForEntity(uriTotalReadingReport, Long.class).getHeaders().getETag();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(eTag);
+        // Act
+        final ResponseEntity<Long> notModifiedResponse =
+                restTemplate.exchange(uriTotalReadingReport, HttpMethod.GET, new HttpEntity<>(headers), Long.class);
+        ResponseEntity<Void> uploadResponse2 = uploadFile(baseUrl, "src/test/resources/meter1_2.xml");
+        Assertions.assertThat(uploadResponse2.getStatusCode()).isEqualTo(HttpStatus.OK);
+        final ResponseEntity<Long> modifiedResponse =
+                restTemplate.exchange(uriTotalReadingReport, HttpMethod.GET, new HttpEntity<>(headers), Long.class);
+        // Assert
+        assertNotNull(eTag);
+        Assertions.assertThat(notModifiedResponse.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertNull(notModifiedResponse.getBody());
+        Assertions.assertThat(modifiedResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertNotEquals(eTag, modifiedResponse.getHeaders().getETag());
+        assertEquals(960000L, modifiedResponse.getBody());
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void GivenReportUploadedAsync_WhenJobFinished_ThenJobSucceededAndTotalReadingAvailable() throws InterruptedException {
+        // Arrange
+        String baseUrl = String.format("http://localhost:%d", randomServerPort);
+        URI uriUpload = UriComponentsBuilder.fromHttpUrl(baseUrl).path("/upload/async").build().toUri();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", new FileSystemResource("src/test/resources/meter1.xml"));
+        // Act
+        ResponseEntity<IngestJobDto> uploadResponse = restTemplate.postForEntity(uriUpload, new HttpEntity<>(body, headers), IngestJobDto.class);
+        URI uriJob = UriComponentsBuilder.fromHttpUrl(baseUrl).path(uploadResponse.getHeaders().getLocation().getPath()).build().toUri();
+        IngestJobDto job = restTemplate.getForEntity(uriJob, IngestJobDto.class).getBody();
+        for (int attempt = 0; attempt < 500 && job.getStatus() != IngestJobStatus.SUCCEEDED && job.getStatus() != IngestJobStatus.FAILED; attempt++) {
+            Thread.sleep(10);
+            job = restTemplate.getForEntity(uriJob, IngestJobDto.class).getBody();
+        }
+        // Assert
+        Assertions.assertThat(uploadResponse.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertEquals(IngestJobStatus.SUCCEEDED, job.getStatus());
+        URI uriTotalReadingReport = UriComponentsBuilder.fromHttpUrl(baseUrl).path("/report/total_reading/1a46b097-b80a-4e25-8852-44f88b9179ae").build().toUri();
+        assertEquals(800000L, restTemplate.getForEntity(uriTotalReadingReport, Long.class).getBody());
+    }
+
     @Test
     void GivenConfigurationOk__WhenInvalidReportUploaded_ThenErrorReceived() {
         // Arrange
@@ -5,10 +5,12 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @DataJpaTest
 class EnergyMeterRepositoryTests {
@@ -16,6 +18,9 @@ class EnergyMeterRepositoryTests {
     @Autowired
     EnergyMeterRepository energyMeterRepository;
 
+    @Autowired
+    TestEntityManager testEntityManager;
+
     @Test
     void GivenConfigurationOk_WhenContextLoaded_ThenEnergyMeterRepositoryIsAvailable() {
         // Arrange
@@ -72,4 +77,58 @@ class EnergyMeterRepositoryTests {
         assertThat(energyMeters).containsOnly(energyMeter2);
     }
 
+    @Test
+    void GivenEnergyMeterIsSaved_WhenDataVersionIncrementedTwice_ThenDataVersionAndModificationTimeUpdated() {
+        // Arrange
+        energyMeterRepository.save(new EnergyMeter("dummy_id_1", "dummy title 1"));
+        // Act
+        energyMeterRepository.incrementDataVersion("dummy_id_1", 1555484400000L);
+        int updated = energyMeterRepository.incrementDataVersion("dummy_id_1", 1555488000000L);
+        testEntityManager.clear();
+        // Assert
+        EnergyMeter energyMeter = energyMeterRepository.findById("dummy_id_1").orElseThrow();
+        assertEquals(1, updated);
+        assertEquals(2L, energyMeter.getDataVersion());
+        assertEquals(1555488000000L, energyMeter.getDataModifiedEpochAsMilli());
+    }
+
+    @Test
+    void GivenOneEnergyMeterIsSaved_WhenSameAndNewMeterInsertedIfAbsent_ThenOnlyNewMeterInserted() {
+        // Arrange
+        energyMeterRepository.saveAndFlush(new EnergyMeter("dummy_id_1", "dummy title 1"));
+        // Act
+        int insertedExisting = energyMeterRepository.insertIfAbsent("dummy_id_1", "other title");
+        int insertedNew = energyMeterRepository.insertIfAbsent("dummy_id_2", null);
+        testEntityManager.clear();
+        // Assert
+        assertEquals(0, insertedExisting);
+        assertEquals(1, insertedNew);
+        assertEquals(new EnergyMeter("dummy_id_1", "dummy title 1"), energyMeterRepository.findById("dummy_id_1").orElseThrow());
+        assertEquals(new EnergyMeter("dummy_id_2", null), energyMeterRepository.findById("dummy_id_2").orElseThrow());
+    }
+
+    @Test
+    void GivenOneEnergyMeterIsSaved_WhenNewMeterInsertedIfAbsent_ThenNewMeterGetsNextKey() {
+        // Arrange
+        Integer meterKey1 = energyMeterRepository.saveAndFlush(new EnergyMeter("dummy_id_1", "dummy title 1")).getMeterKey();
+        // Act
+        energyMeterRepository.insertIfAbsent("dummy_id_2", "dummy title 2");
+        // Assert
+        assertThat(energyMeterRepository.findMeterKey("dummy_id_2")).isNotNull().isGreaterThan(meterKey1);
+    }
+
+    @Test
+    void GivenOneEnergyMeterIsSaved_WhenTitleUpdated_ThenOnlyTitleChanged() {
+        // Arrange
+        energyMeterRepository.save(new EnergyMeter("dummy_id_1", "dummy title 1"));
+        energyMeterRepository.incrementDataVersion("dummy_id_1", 1555484400000L);
+        // Act
+        int updated = energyMeterRepository.updateTitle("dummy_id_1", "dummy title 2");
+        testEntityManager.clear();
+        // Assert
+        assertEquals(1, updated);
+        assertEquals(new EnergyMeter("dummy_id_1", "dummy title 2", 1L, 1555484400000L),
+                energyMeterRepository.findById("dummy_id_1").orElseThrow());
+    }
+
 }
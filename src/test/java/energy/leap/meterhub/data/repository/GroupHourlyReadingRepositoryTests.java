@@ -0,0 +1,110 @@
+package energy.leap.meterhub.data.repository;
+
+import energy.leap.meterhub.data.entity.EnergyMeter;
+import energy.leap.meterhub.data.entity.GroupHourlyReading;
+import energy.leap.meterhub.data.entity.GroupHourlyReadingKey;
+import energy.leap.meterhub.data.entity.HourlyReading;
+import energy.leap.meterhub.data.entity.MeterGroup;
+import energy.leap.meterhub.data.projection.GroupHourlyReadingValue;
+import energy.leap.meterhub.data.projection.GroupHourlyReportValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+class GroupHourlyReadingRepositoryTests {
+
+    @Autowired
+    GroupHourlyReadingRepository groupHourlyReadingRepository;
+
+    @Autowired
+    MeterGroupRepository meterGroupRepository;
+
+    @Autowired
+    EnergyMeterRepository energyMeterRepository;
+
+    @Autowired
+    HourlyReadingRepository hourlyReadingRepository;
+
+    private Integer groupKey1;
+
+    private Integer groupKey2;
+
+    @BeforeEach
+    void saveGroups() {
+        groupKey1 = meterGroupRepository.saveAndFlush(new MeterGroup("dummy_group_1", "dummy title 1", MeterGroup.ROOT_ID)).getGroupKey();
+        groupKey2 = meterGroupRepository.saveAndFlush(new MeterGroup("dummy_group_2", "dummy title 2", MeterGroup.ROOT_ID)).getGroupKey();
+    }
+
+    private GroupHourlyReading hour(Integer groupKey, int hourIndex, long readingAsWh, String cost, int meterCount) {
+        return new GroupHourlyReading(new GroupHourlyReadingKey(groupKey, hourIndex), readingAsWh, new BigDecimal(cost), meterCount);
+    }
+
+    @Test
+    void GivenHoursOfGroupStored_WhenDeltasAdded_ThenStoredHoursSummedAndNewHoursInserted() {
+        // Arrange
+        groupHourlyReadingRepository.addAll(List.of(hour(groupKey1, 432080, 100L, "0.01000", 1)));
+        // Act
+        groupHourlyReadingRepository.addAll(List.of(hour(groupKey1, 432081, 300L, "0.03000", 1),
+                hour(groupKey1, 432080, 200L, "0.02000", 1),
+                hour(groupKey2, 432080, 400L, "0.04000", 1)));
+        // Assert
+        assertThat(groupHourlyReadingRepository.findAll()).containsExactlyInAnyOrder(hour(groupKey1, 432080, 300L, "0.03000", 2),
+                hour(groupKey1, 432081, 300L, "0.03000", 1), hour(groupKey2, 432080, 400L, "0.04000", 1));
+    }
+
+    @Test
+    void GivenHoursOfGroupsStored_WhenReportsOfGroupQueriedInRange_ThenHoursOfGroupInRangeFoundInOrder() {
+        // Arrange
+        // 432080 is the hour starting at 1555488000
+        groupHourlyReadingRepository.saveAll(List.of(hour(groupKey1, 432081, 300L, "0.03000", 2),
+                hour(groupKey1, 432080, 200L, "0.02000", 1),
+                hour(groupKey2, 432080, 400L, "0.04000", 1)));
+        // Act
+        List<GroupHourlyReportValue> reports = groupHourlyReadingRepository.findReportsOfGroupBetween("dummy_group_1", Long.MIN_VALUE, Long.MAX_VALUE);
+        List<GroupHourlyReportValue> firstHourReports = groupHourlyReadingRepository.findReportsOfGroupBetween("dummy_group_1", 1555488000L, 1555491600L);
+        // Assert
+        assertEquals(List.of(new GroupHourlyReportValue(1555488000L, 200L, new BigDecimal("0.02000"), 1),
+                new GroupHourlyReportValue(1555491600L, 300L, new BigDecimal("0.03000"), 2)), reports);
+        assertEquals(List.of(new GroupHourlyReportValue(1555488000L, 200L, new BigDecimal("0.02000"), 1)), firstHourReports);
+    }
+
+    @Test
+    void GivenReadingsOfMeters_WhenFleetAggregated_ThenReadingsOfAllMetersSummedPerHour() {
+        // Arrange
+        Integer meterKey1 = energyMeterRepository.saveAndFlush(new EnergyMeter("dummy_id_1", "dummy title 1")).getMeterKey();
+        Integer meterKey2 = energyMeterRepository.saveAndFlush(new EnergyMeter("dummy_id_2", "dummy title 2")).getMeterKey();
+        hourlyReadingRepository.saveAllAndFlush(List.of(new HourlyReading(meterKey1, 1555488000L, new BigDecimal("0.10"), 100L),
+                new HourlyReading(meterKey2, 1555488000L, new BigDecimal("0.20"), 200L),
+                new HourlyReading(meterKey2, 1555491600L, new BigDecimal("0.20"), 300L)));
+        // Act
+        List<GroupHourlyReadingValue> fleetValues = groupHourlyReadingRepository.aggregateAllMeters();
+        // Assert
+        assertThat(fleetValues).extracting(GroupHourlyReadingValue::getHourIndex, GroupHourlyReadingValue::getReadingAsWh,
+                        value -> value.getPriceTimesReading().intValueExact(), GroupHourlyReadingValue::getMeterCount)
+                .containsExactlyInAnyOrder(tuple(432080, 300L, 50, 2L),
+                        tuple(432081, 300L, 60, 1L));
+    }
+
+    @Test
+    void GivenHoursWithoutMeterLeft_WhenEmptyHoursOfGroupDeleted_ThenOnlyEmptyHoursOfGroupDeleted() {
+        // Arrange
+        groupHourlyReadingRepository.saveAllAndFlush(List.of(hour(groupKey1, 432080, 0L, "0.00000", 0),
+                hour(groupKey1, 432081, 300L, "0.03000", 1),
+                hour(groupKey2, 432080, 0L, "0.00000", 0)));
+        // Act
+        int deleted = groupHourlyReadingRepository.deleteEmptyOfGroups(List.of(groupKey1));
+        // Assert
+        assertEquals(1, deleted);
+        assertThat(groupHourlyReadingRepository.findAll()).containsExactlyInAnyOrder(hour(groupKey1, 432081, 300L, "0.03000", 1),
+                hour(groupKey2, 432080, 0L, "0.00000", 0));
+    }
+}
@@ -0,0 +1,83 @@
+package energy.leap.meterhub.data.repository;
+
+import energy.leap.meterhub.data.entity.EnergyMeter;
+import energy.leap.meterhub.data.entity.HourlyReading;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Bulk loads go through COPY on PostgreSQL only, these run against a PostgreSQL container when Docker is available
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class HourlyReadingRepositoryPostgreSqlTests {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRESQL = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void postgreSqlProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRESQL::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRESQL::getUsername);
+        registry.add("spring.datasource.password", POSTGRESQL::getPassword);
+        // The schema is only created by default for embedded databases
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+
+    @Autowired
+    HourlyReadingRepository hourlyReadingRepository;
+
+    @Autowired
+    EnergyMeterRepository energyMeterRepository;
+
+    @Test
+    void GivenReadingsWithRepeatedHoursBulkLoaded_WhenAllReadingsQueried_ThenLastReadingOfEachHourIsFound() {
+        // Arrange
+        Integer meterKey = energyMeterRepository.saveAndFlush(new EnergyMeter("dummy_id_1", "dummy title 1")).getMeterKey();
+        hourlyReadingRepository.upsertAll(List.of(new HourlyReading(meterKey, 1555484400L, new BigDecimal("0.05"), 100L)));
+        List<HourlyReading> readings =
+                List.of(new HourlyReading(meterKey, 1555484400L, new BigDecimal("0.06"), 200L),
+                        new HourlyReading(meterKey, 1555488000L, new BigDecimal("0.07"), 300L),
+                        new HourlyReading(meterKey, 1555488000L, new BigDecimal("0.08"), 400L));
+        // Act
+        long loaded = hourlyReadingRepository.bulkLoad(readings);
+        // Assert
+        assertEquals(3L, loaded);
+        assertThat(hourlyReadingRepository.findAll()).containsExactlyInAnyOrder(
+                new HourlyReading(meterKey, 1555484400L, new BigDecimal("0.06"), 200L),
+                new HourlyReading(meterKey, 1555488000L, new BigDecimal("0.08"), 400L));
+    }
+
+    @Test
+    void GivenMeterSavedBetweenBulkLoads_WhenAllReadingsQueried_ThenReadingsOfBothLoadsAreFound() {
+        // Arrange
+        Integer meterKey1 = energyMeterRepository.saveAndFlush(new EnergyMeter("dummy_id_1", "dummy title 1")).getMeterKey();
+        List<HourlyReading> readings1 = new ArrayList<>();
+        for (long hour = 0; hour < 5000; hour++) {
+            readings1.add(new HourlyReading(meterKey1, 1555484400L + hour * 3600, new BigDecimal("0.07"), 2L));
+        }
+        // Act
+        long loaded = hourlyReadingRepository.bulkLoad(readings1);
+        // The connection is used again once the first load is done, the second load gets a new staging table
+        energyMeterRepository.insertIfAbsent("dummy_id_2", "dummy title 2");
+        Integer meterKey2 = energyMeterRepository.findMeterKey("dummy_id_2");
+        loaded += hourlyReadingRepository.bulkLoad(List.of(new HourlyReading(meterKey2, 1555484400L, new BigDecimal("0.08"), 5L)));
+        // Assert
+        assertEquals(5001L, loaded);
+        assertEquals(10000L, hourlyReadingRepository.getTotalReadingAsWhOfMeter("dummy_id_1"));
+        assertEquals(5L, hourlyReadingRepository.getTotalReadingAsWhOfMeter("dummy_id_2"));
+    }
+}
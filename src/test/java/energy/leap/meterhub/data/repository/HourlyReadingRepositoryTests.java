@@ -1,15 +1,29 @@
 package energy.leap.meterhub.data.repository;
 
+import energy.leap.meterhub.data.entity.EnergyMeter;
 import energy.leap.meterhub.data.entity.HourlyReading;
+import energy.leap.meterhub.data.entity.HourlyReadingKey;
+import energy.leap.meterhub.data.projection.HourlyReadingValue;
+import energy.leap.meterhub.data.projection.HourlyReportValue;
+import energy.leap.meterhub.data.projection.MeterHourlyReportValue;
+import energy.leap.meterhub.data.projection.MeterKeyTotalsValue;
+import energy.leap.meterhub.data.projection.MeterRangeTotalsValue;
+import energy.leap.meterhub.data.projection.MeterSummaryValue;
+import energy.leap.meterhub.data.projection.MeterTotalsValue;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @DataJpaTest
@@ -18,13 +32,27 @@ class HourlyReadingRepositoryTests {
     @Autowired
     HourlyReadingRepository hourlyReadingRepository;
 
+    @Autowired
+    EnergyMeterRepository energyMeterRepository;
+
+    private Integer meterKey1;
+
+    private Integer meterKey2;
+
+    // Readings are stored with the keys of their meters, queries of a meter go by its id
+    @BeforeEach
+    void saveMeters() {
+        meterKey1 = energyMeterRepository.saveAndFlush(new EnergyMeter("dummy_id_1", "dummy title 1")).getMeterKey();
+        meterKey2 = energyMeterRepository.saveAndFlush(new EnergyMeter("dummy_id_2", "dummy title 2")).getMeterKey();
+    }
+
     @Test
     void GivenReadingsSaved_WhenReadingsQueried_ThenSavedReadingsAreFound() {
         // Arrange
         List<HourlyReading> readings =
-                Stream.of(new HourlyReading("dummy_id_1", 1555484400L, new BigDecimal("0.07"), 100L),
-                                new HourlyReading("dummy_id_1", 1555488000L, new BigDecimal("0.08"), 200L),
-                                new HourlyReading("dummy_id_1", 1555477200L, new BigDecimal("0.09"), 300L))
+                Stream.of(new HourlyReading(meterKey1, 1555484400L, new BigDecimal("0.07"), 100L),
+                                new HourlyReading(meterKey1, 1555488000L, new BigDecimal("0.08"), 200L),
+                                new HourlyReading(meterKey1, 1555477200L, new BigDecimal("0.09"), 300L))
                         .toList();
         hourlyReadingRepository.saveAll(readings);
         // Act
@@ -37,14 +65,14 @@ class HourlyReadingRepositoryTests {
     void GivenTwoDifferentMeterReadingsSaved_WhenAllReadingsQueried_ThenSavedReadingsAreFound() {
         // Arrange
         List<HourlyReading> readings1 =
-                Stream.of(new HourlyReading("dummy_id_1", 1555484400L, new BigDecimal("0.07"), 100L),
-                                new HourlyReading("dummy_id_1", 1555488000L, new BigDecimal("0.08"), 200L),
-                                new HourlyReading("dummy_id_1", 1555477200L, new BigDecimal("0.09"), 300L))
+                Stream.of(new HourlyReading(meterKey1, 1555484400L, new BigDecimal("0.07"), 100L),
+                                new HourlyReading(meterKey1, 1555488000L, new BigDecimal("0.08"), 200L),
+                                new HourlyReading(meterKey1, 1555477200L, new BigDecimal("0.09"), 300L))
                         .toList();
         List<HourlyReading> readings2 =
-                Stream.of(new HourlyReading("dummy_id_2", 1555484400L, new BigDecimal("0.01"), 500L),
-                                new HourlyReading("dummy_id_2", 1555488000L, new BigDecimal("0.02"), 500L),
-                                new HourlyReading("dummy_id_2", 1555477200L, new BigDecimal("0.03"), 600L))
+                Stream.of(new HourlyReading(meterKey2, 1555484400L, new BigDecimal("0.01"), 500L),
+                                new HourlyReading(meterKey2, 1555488000L, new BigDecimal("0.02"), 500L),
+                                new HourlyReading(meterKey2, 1555477200L, new BigDecimal("0.03"), 600L))
                         .toList();
         hourlyReadingRepository.saveAll(readings1);
         hourlyReadingRepository.saveAll(readings2);
@@ -58,12 +86,12 @@ class HourlyReadingRepositoryTests {
     void GivenReadingListsWithOverlappingReadingsSaved_WhenAllReadingsQueried_ThenUnionOfReadingsAreFound() {
         // Arrange
         List<HourlyReading> readings1 =
-                Stream.of(new HourlyReading("dummy_id_1", 1555484400L, new BigDecimal("0.05"), 100L),
-                                new HourlyReading("dummy_id_1", 1555488000L, new BigDecimal("0.06"), 200L))
+                Stream.of(new HourlyReading(meterKey1, 1555484400L, new BigDecimal("0.05"), 100L),
+                                new HourlyReading(meterKey1, 1555488000L, new BigDecimal("0.06"), 200L))
                         .toList();
         List<HourlyReading> readings2 =
-                Stream.of(new HourlyReading("dummy_id_1", 1555488000L, new BigDecimal("0.07"), 300L),
-                                new HourlyReading("dummy_id_1", 1555495200L, new BigDecimal("0.08"), 400L))
+                Stream.of(new HourlyReading(meterKey1, 1555488000L, new BigDecimal("0.07"), 300L),
+                                new HourlyReading(meterKey1, 1555495200L, new BigDecimal("0.08"), 400L))
                         .toList();
         hourlyReadingRepository.saveAll(readings1);
         hourlyReadingRepository.saveAll(readings2);
@@ -72,9 +100,9 @@ class HourlyReadingRepositoryTests {
         System.out.println(foundReadings);
         // Assert
         List<HourlyReading> expectedReadings =
-                Stream.of(new HourlyReading("dummy_id_1", 1555484400L, new BigDecimal("0.05"), 100L),
-                                new HourlyReading("dummy_id_1", 1555488000L, new BigDecimal("0.07"), 300L),
-                                new HourlyReading("dummy_id_1", 1555495200L, new BigDecimal("0.08"), 400L))
+                Stream.of(new HourlyReading(meterKey1, 1555484400L, new BigDecimal("0.05"), 100L),
+                                new HourlyReading(meterKey1, 1555488000L, new BigDecimal("0.07"), 300L),
+                                new HourlyReading(meterKey1, 1555495200L, new BigDecimal("0.08"), 400L))
                         .toList();
         assertThat(foundReadings).containsAll(expectedReadings).hasSize(expectedReadings.size());
     }
@@ -83,19 +111,19 @@ class HourlyReadingRepositoryTests {
     void GivenTwoDifferentMeterReadingsSaved_WhenFirstMeterReadingsQueried_ThenOnlyFirstMeterReadingsAreFound() {
         // Arrange
         List<HourlyReading> readings1 =
-                Stream.of(new HourlyReading("dummy_id_1", 1555484400L, new BigDecimal("0.07"), 100L),
-                                new HourlyReading("dummy_id_1", 1555488000L, new BigDecimal("0.08"), 200L),
-                                new HourlyReading("dummy_id_1", 1555477200L, new BigDecimal("0.09"), 300L))
+                Stream.of(new HourlyReading(meterKey1, 1555484400L, new BigDecimal("0.07"), 100L),
+                                new HourlyReading(meterKey1, 1555488000L, new BigDecimal("0.08"), 200L),
+                                new HourlyReading(meterKey1, 1555477200L, new BigDecimal("0.09"), 300L))
                         .toList();
         List<HourlyReading> readings2 =
-                Stream.of(new HourlyReading("dummy_id_2", 1555484400L, new BigDecimal("0.01"), 500L),
-                                new HourlyReading("dummy_id_2", 1555488000L, new BigDecimal("0.02"), 500L),
-                                new HourlyReading("dummy_id_2", 1555477200L, new BigDecimal("0.03"), 600L))
+                Stream.of(new HourlyReading(meterKey2, 1555484400L, new BigDecimal("0.01"), 500L),
+                                new HourlyReading(meterKey2, 1555488000L, new BigDecimal("0.02"), 500L),
+                                new HourlyReading(meterKey2, 1555477200L, new BigDecimal("0.03"), 600L))
                         .toList();
         hourlyReadingRepository.saveAll(readings1);
         hourlyReadingRepository.saveAll(readings2);
         // Act
-        List<HourlyReading> foundReadings1 = hourlyReadingRepository.findByIdMeterId("dummy_id_1");
+        List<HourlyReading> foundReadings1 = hourlyReadingRepository.findByMeterId("dummy_id_1");
         // Assert
         assertThat(foundReadings1).containsAll(readings1).hasSize(readings1.size());
     }
@@ -104,19 +132,19 @@ class HourlyReadingRepositoryTests {
     void GivenTwoDifferentMeterReadingsSaved_WhenSecondMeterReadingsQueried_ThenOnlySecondMeterReadingsAreFound() {
         // Arrange
         List<HourlyReading> readings1 =
-                Stream.of(new HourlyReading("dummy_id_1", 1555484400L, new BigDecimal("0.07"), 100L),
-                                new HourlyReading("dummy_id_1", 1555488000L, new BigDecimal("0.08"), 200L),
-                                new HourlyReading("dummy_id_1", 1555477200L, new BigDecimal("0.09"), 300L))
+                Stream.of(new HourlyReading(meterKey1, 1555484400L, new BigDecimal("0.07"), 100L),
+                                new HourlyReading(meterKey1, 1555488000L, new BigDecimal("0.08"), 200L),
+                                new HourlyReading(meterKey1, 1555477200L, new BigDecimal("0.09"), 300L))
                         .toList();
         List<HourlyReading> readings2 =
-                Stream.of(new HourlyReading("dummy_id_2", 1555484400L, new BigDecimal("0.01"), 500L),
-                                new HourlyReading("dummy_id_2", 1555488000L, new BigDecimal("0.02"), 500L),
-                                new HourlyReading("dummy_id_2", 1555477200L, new BigDecimal("0.03"), 600L))
+                Stream.of(new HourlyReading(meterKey2, 1555484400L, new BigDecimal("0.01"), 500L),
+                                new HourlyReading(meterKey2, 1555488000L, new BigDecimal("0.02"), 500L),
+                                new HourlyReading(meterKey2, 1555477200L, new BigDecimal("0.03"), 600L))
                         .toList();
         hourlyReadingRepository.saveAll(readings1);
         hourlyReadingRepository.saveAll(readings2);
         // Act
-        List<HourlyReading> foundReadings2 = hourlyReadingRepository.findByIdMeterId("dummy_id_2");
+        List<HourlyReading> foundReadings2 = hourlyReadingRepository.findByMeterId("dummy_id_2");
         // Assert
         assertThat(foundReadings2).containsAll(readings2).hasSize(readings2.size());
     }
@@ -125,9 +153,9 @@ class HourlyReadingRepositoryTests {
     void GivenReadingsForMeterSaved_WhenTotalReadingForMeterQueried_ThenTotalIsEqualToSumOfMeterReadings() {
         // Arrange
         List<HourlyReading> readings =
-                Stream.of(new HourlyReading("dummy_id_1", 1555484400L, new BigDecimal("0.07"), 100L),
-                                new HourlyReading("dummy_id_1", 1555488000L, new BigDecimal("0.08"), 200L),
-                                new HourlyReading("dummy_id_1", 1555477200L, new BigDecimal("0.09"), 300L))
+                Stream.of(new HourlyReading(meterKey1, 1555484400L, new BigDecimal("0.07"), 100L),
+                                new HourlyReading(meterKey1, 1555488000L, new BigDecimal("0.08"), 200L),
+                                new HourlyReading(meterKey1, 1555477200L, new BigDecimal("0.09"), 300L))
                         .toList();
         hourlyReadingRepository.saveAll(readings);
         // Act
@@ -140,9 +168,9 @@ class HourlyReadingRepositoryTests {
     void GivenReadingsForMeterSaved_WhenTotalCostForMeterQueried_ThenTotalIsEqualToSumOfReadingsMultipliedByPrices() {
         // Arrange
         List<HourlyReading> readings =
-                Stream.of(new HourlyReading("dummy_id_1", 1555484400L, new BigDecimal("0.07"), 100L),
-                                new HourlyReading("dummy_id_1", 1555488000L, new BigDecimal("0.08"), 200L),
-                                new HourlyReading("dummy_id_1", 1555477200L, new BigDecimal("0.09"), 300L))
+                Stream.of(new HourlyReading(meterKey1, 1555484400L, new BigDecimal("0.07"), 100L),
+                                new HourlyReading(meterKey1, 1555488000L, new BigDecimal("0.08"), 200L),
+                                new HourlyReading(meterKey1, 1555477200L, new BigDecimal("0.09"), 300L))
                         .toList();
         hourlyReadingRepository.saveAll(readings);
         // Act
@@ -150,4 +178,254 @@ class HourlyReadingRepositoryTests {
         // Assert
         assertEquals(0.05, totalReading, 1E-6);
     }
+
+    @Test
+    void GivenReadingListsWithOverlappingReadingsUpserted_WhenAllReadingsQueried_ThenNewReadingsOverwriteExistingOnes() {
+        // Arrange
+        List<HourlyReading> readings1 =
+                Stream.of(new HourlyReading(meterKey1, 1555484400L, new BigDecimal("0.05"), 100L),
+                                new HourlyReading(meterKey1, 1555488000L, new BigDecimal("0.06"), 200L))
+                        .toList();
+        List<HourlyReading> readings2 =
+                Stream.of(new HourlyReading(meterKey1, 1555488000L, new BigDecimal("0.07"), 300L),
+                                new HourlyReading(meterKey1, 1555495200L, new BigDecimal("0.08"), 400L))
+                        .toList();
+        hourlyReadingRepository.upsertAll(readings1);
+        hourlyReadingRepository.upsertAll(readings2);
+        // Act
+        List<HourlyReading> foundReadings = hourlyReadingRepository.findAll();
+        // Assert
+        List<HourlyReading> expectedReadings =
+                Stream.of(new HourlyReading(meterKey1, 1555484400L, new BigDecimal("0.05"), 100L),
+                                new HourlyReading(meterKey1, 1555488000L, new BigDecimal("0.07"), 300L),
+                                new HourlyReading(meterKey1, 1555495200L, new BigDecimal("0.08"), 400L))
+                        .toList();
+        assertThat(foundReadings).containsAll(expectedReadings).hasSize(expectedReadings.size());
+    }
+
+    @Test
+    void GivenMoreReadingsThanBatchSizeUpserted_WhenTotalReadingForMeterQueried_ThenAllReadingsAreSaved() {
+        // Arrange
+        List<HourlyReading> readings = new ArrayList<>();
+        for (long hour = 0; hour < 2500; hour++) {
+            readings.add(new HourlyReading(meterKey1, 1555484400L + hour * 3600, new BigDecimal("0.07"), 2L));
+        }
+        hourlyReadingRepository.upsertAll(readings);
+        // Act
+        Long totalReading = hourlyReadingRepository.getTotalReadingAsWhOfMeter("dummy_id_1");
+        // Assert
+        assertEquals(5000L, totalReading);
+    }
+
+    @Test
+    void GivenReadingsWithRepeatedHoursBulkLoaded_WhenAllReadingsQueried_ThenLastReadingOfEachHourIsFound() {
+        // Arrange
+        hourlyReadingRepository.upsertAll(List.of(new HourlyReading(meterKey1, 1555484400L, new BigDecimal("0.05"), 100L)));
+        List<HourlyReading> readings =
+                List.of(new HourlyReading(meterKey1, 1555484400L, new BigDecimal("0.06"), 200L),
+                        new HourlyReading(meterKey1, 1555488000L, new BigDecimal("0.07"), 300L),
+                        new HourlyReading(meterKey1, 1555488000L, new BigDecimal("0.08"), 400L));
+        // Act
+        long loaded = hourlyReadingRepository.bulkLoad(readings);
+        // Assert
+        List<HourlyReading> expectedReadings =
+                Stream.of(new HourlyReading(meterKey1, 1555484400L, new BigDecimal("0.06"), 200L),
+                                new HourlyReading(meterKey1, 1555488000L, new BigDecimal("0.08"), 400L))
+                        .toList();
+        assertEquals(3L, loaded);
+        assertThat(hourlyReadingRepository.findAll()).containsAll(expectedReadings).hasSize(expectedReadings.size());
+    }
+
+    @Test
+    void GivenReadingsForMeterSaved_WhenValuesBetweenHoursQueried_ThenOnlyValuesOfThoseHoursFound() {
+        // Arrange
+        List<HourlyReading> readings =
+                Stream.of(new HourlyReading(meterKey1, 1555477200L, new BigDecimal("0.07"), 100L),
+                                new HourlyReading(meterKey1, 1555484400L, new BigDecimal("0.08"), 200L),
+                                new HourlyReading(meterKey1, 1555488000L, new BigDecimal("0.09"), 300L),
+                                new HourlyReading(meterKey2, 1555484400L, new BigDecimal("0.09"), 400L))
+                        .toList();
+        hourlyReadingRepository.saveAll(readings);
+        // Act
+        List<HourlyReadingValue> values = hourlyReadingRepository.findValuesOfMeterBetween("dummy_id_1", 1555480000L, 1555488000L);
+        // Assert
+        assertThat(values).containsExactlyInAnyOrder(new HourlyReadingValue(1555484400L, new BigDecimal("0.08"), 200L),
+                new HourlyReadingValue(1555488000L, new BigDecimal("0.09"), 300L));
+    }
+
+    @Test
+    void GivenReadingsForMeterSaved_WhenTotalsAggregated_ThenTotalsOfMeterReadingsFound() {
+        // Arrange
+        List<HourlyReading> readings =
+                Stream.of(new HourlyReading(meterKey1, 1555484400L, new BigDecimal("0.07"), 100L),
+                                new HourlyReading(meterKey1, 1555488000L, new BigDecimal("0.08"), 200L),
+                                new HourlyReading(meterKey1, 1555477200L, new BigDecimal("0.09"), 300L),
+                                new HourlyReading(meterKey2, 1555477200L, new BigDecimal("0.09"), 300L))
+                        .toList();
+        hourlyReadingRepository.saveAll(readings);
+        // Act
+        MeterTotalsValue totals = hourlyReadingRepository.aggregateTotalsOfMeter("dummy_id_1");
+        // Assert
+        assertEquals(600L, totals.getTotalReadingAsWh());
+        assertEquals(0, new BigDecimal("50").compareTo(totals.getTotalPriceTimesReading()));
+        assertEquals(3L, totals.getHourCount());
+        assertEquals(1555477200L, totals.getFirstHourStartEpochAsSec());
+        assertEquals(1555488000L, totals.getLastHourStartEpochAsSec());
+    }
+
+    @Test
+    void GivenReadingsForMetersSaved_WhenReportsOfMeterQueriedInRange_ThenPageOfReportsInRangeFoundInOrderWithCost() {
+        // Arrange
+        List<HourlyReading> readings =
+                Stream.of(new HourlyReading(meterKey1, 1555491600L, new BigDecimal("0.07"), 400L),
+                                new HourlyReading(meterKey1, 1555484400L, new BigDecimal("0.07"), 200L),
+                                new HourlyReading(meterKey1, 1555477200L, new BigDecimal("0.07"), 100L),
+                                new HourlyReading(meterKey1, 1555488000L, new BigDecimal("0.07"), 300L),
+                                new HourlyReading(meterKey2, 1555484400L, new BigDecimal("0.07"), 500L))
+                        .toList();
+        hourlyReadingRepository.saveAll(readings);
+        // Act
+        List<HourlyReportValue> foundReports =
+                hourlyReadingRepository.findReportsOfMeterBetween("dummy_id_1", 1555480000L, 1555491600L, PageRequest.of(0, 10));
+        List<HourlyReportValue> firstReport =
+                hourlyReadingRepository.findReportsOfMeterBetween("dummy_id_1", Long.MIN_VALUE, Long.MAX_VALUE, PageRequest.of(0, 1));
+        // Assert
+        assertEquals(List.of(new HourlyReportValue(1555484400L, 200L, new BigDecimal("0.01400")),
+                        new HourlyReportValue(1555488000L, 300L, new BigDecimal("0.02100"))),
+                foundReports);
+        assertEquals(List.of(new HourlyReportValue(1555477200L, 100L, new BigDecimal("0.00700"))), firstReport);
+    }
+
+    @Test
+    void GivenReadingsForMetersSaved_WhenReportsOfMeterStreamedInRange_ThenReportsInRangeStreamedInOrderWithCost() {
+        // Arrange
+        List<HourlyReading> readings =
+                Stream.of(new HourlyReading(meterKey1, 1555491600L, new BigDecimal("0.07"), 400L),
+                                new HourlyReading(meterKey1, 1555484400L, new BigDecimal("0.08"), 200L),
+                                new HourlyReading(meterKey1, 1555477200L, new BigDecimal("0.07"), 100L),
+                                new HourlyReading(meterKey1, 1555488000L, new BigDecimal("0.07"), 300L),
+                                new HourlyReading(meterKey2, 1555484400L, new BigDecimal("0.07"), 500L))
+                        .toList();
+        hourlyReadingRepository.saveAll(readings);
+        // Act
+        List<HourlyReportValue> foundReports;
+        try (Stream<HourlyReportValue> reports = hourlyReadingRepository.streamReportsOfMeterBetween("dummy_id_1", 1555480000L, 1555491600L)) {
+            foundReports = reports.toList();
+        }
+        // Assert
+        assertEquals(List.of(new HourlyReportValue(1555484400L, 200L, new BigDecimal("0.01600")),
+                        new HourlyReportValue(1555488000L, 300L, new BigDecimal("0.02100"))),
+                foundReports);
+    }
+
+    @Test
+    void GivenReadingsForMetersSaved_WhenReadingsOfMetersQueriedInRange_ThenTotalsPerMeterAndReportsOrderedByMeterAndHourFound() {
+        // Arrange
+        Integer meterKey3 = energyMeterRepository.saveAndFlush(new EnergyMeter("dummy_id_3", "dummy title 3")).getMeterKey();
+        List<HourlyReading> readings =
+                Stream.of(new HourlyReading(meterKey2, 1555488000L, new BigDecimal("0.07"), 300L),
+                                new HourlyReading(meterKey2, 1555484400L, new BigDecimal("0.08"), 200L),
+                                new HourlyReading(meterKey1, 1555484400L, new BigDecimal("0.07"), 100L),
+                                new HourlyReading(meterKey1, 1555477200L, new BigDecimal("0.07"), 400L),
+                                new HourlyReading(meterKey3, 1555484400L, new BigDecimal("0.07"), 500L))
+                        .toList();
+        hourlyReadingRepository.saveAll(readings);
+        List<String> meterIds = List.of("dummy_id_2", "dummy_id_1");
+        // Act
+        List<MeterRangeTotalsValue> foundTotals = hourlyReadingRepository.aggregateTotalsOfMetersBetween(meterIds, 1555480000L, Long.MAX_VALUE);
+        List<MeterHourlyReportValue> foundReports = hourlyReadingRepository.findReportsOfMetersBetween(meterIds, 1555480000L, Long.MAX_VALUE);
+        // Assert
+        assertThat(foundTotals).extracting(MeterRangeTotalsValue::getMeterId, MeterRangeTotalsValue::getTotalReadingAsWh)
+                .containsExactlyInAnyOrder(tuple("dummy_id_1", 100L), tuple("dummy_id_2", 500L));
+        assertEquals(List.of(new MeterHourlyReportValue("dummy_id_1", 1555484400L, 100L, new BigDecimal("0.00700")),
+                        new MeterHourlyReportValue("dummy_id_2", 1555484400L, 200L, new BigDecimal("0.01600")),
+                        new MeterHourlyReportValue("dummy_id_2", 1555488000L, 300L, new BigDecimal("0.02100"))),
+                foundReports);
+    }
+
+    @Test
+    void GivenReadingsForMetersSaved_WhenSummaryOfMeterQueriedInRange_ThenTotalsAndEarliestPeakHourOfRangeFound() {
+        // Arrange
+        List<HourlyReading> readings =
+                Stream.of(new HourlyReading(meterKey1, 1555477200L, new BigDecimal("0.07"), 900L),
+                                new HourlyReading(meterKey1, 1555484400L, new BigDecimal("0.07"), 100L),
+                                new HourlyReading(meterKey1, 1555488000L, new BigDecimal("0.08"), 300L),
+                                new HourlyReading(meterKey1, 1555491600L, new BigDecimal("0.09"), 300L),
+                                new HourlyReading(meterKey2, 1555488000L, new BigDecimal("0.07"), 500L))
+                        .toList();
+        hourlyReadingRepository.saveAllAndFlush(readings);
+        // Act
+        MeterSummaryValue summary = hourlyReadingRepository.findSummaryOfMeterBetween("dummy_id_1", 1555480000L, Long.MAX_VALUE);
+        MeterSummaryValue emptySummary = hourlyReadingRepository.findSummaryOfMeterBetween("dummy_id_1", 1555495200L, Long.MAX_VALUE);
+        // Assert
+        assertEquals(700L, summary.getTotalReadingAsWh());
+        assertEquals(0, new BigDecimal("58").compareTo(summary.getTotalPriceTimesReading()));
+        assertEquals(3L, summary.getHourCount());
+        assertEquals(1555484400L, summary.getFirstHourStartEpochAsSec());
+        assertEquals(1555491600L, summary.getLastHourStartEpochAsSec());
+        assertEquals(1555488000L, summary.getPeakHourStartEpochAsSec());
+        assertEquals(300L, summary.getPeakReadingAsWh());
+        assertThat(emptySummary).isNull();
+    }
+
+    @Test
+    void GivenReadingsForMetersSaved_WhenTotalsOfAllMetersQueriedInRange_ThenReadingsInRangeSummedPerMeterWithCost() {
+        // Arrange
+        List<HourlyReading> readings =
+                Stream.of(new HourlyReading(meterKey1, 1555477200L, new BigDecimal("0.07"), 900L),
+                                new HourlyReading(meterKey1, 1555484400L, new BigDecimal("0.07"), 100L),
+                                new HourlyReading(meterKey1, 1555488000L, new BigDecimal("0.08"), 300L),
+                                new HourlyReading(meterKey2, 1555488000L, new BigDecimal("0.07"), 500L))
+                        .toList();
+        hourlyReadingRepository.saveAllAndFlush(readings);
+        // Act
+        List<MeterKeyTotalsValue> totals = hourlyReadingRepository.aggregateTotalsOfAllMetersBetweenHourIndexes(
+                HourlyReadingKey.hourIndexAtOrAfter(1555484400L), HourlyReadingKey.hourIndexAtOrAfter(1555491600L));
+        // Assert
+        assertThat(totals).extracting(MeterKeyTotalsValue::getMeterKey, MeterKeyTotalsValue::getTotalReadingAsWh,
+                        value -> value.getTotalCost().stripTrailingZeros())
+                .containsExactlyInAnyOrder(tuple(meterKey1, 400L, new BigDecimal("0.031")), tuple(meterKey2, 500L, new BigDecimal("0.035")));
+    }
+
+    @Test
+    void GivenMetersSaved_WhenKeysAssigned_ThenEachMeterGetsItsOwnKey() {
+        // Assert
+        assertThat(meterKey1).isNotNull().isNotEqualTo(meterKey2);
+        assertEquals(meterKey1, energyMeterRepository.findMeterKey("dummy_id_1"));
+    }
+
+    @Test
+    void GivenReadingSaved_WhenStored_ThenKeyedByHoursSinceEpoch() {
+        // Arrange
+        hourlyReadingRepository.upsertAll(List.of(new HourlyReading(meterKey1, 1555484400L, new BigDecimal("0.07"), 100L)));
+        // Act
+        List<HourlyReading> foundReadings = hourlyReadingRepository.findAll();
+        // Assert
+        assertEquals(List.of(new HourlyReading(new HourlyReadingKey(meterKey1, 432079), new BigDecimal("0.07"), 100L)), foundReadings);
+        assertEquals(1555484400L, foundReadings.get(0).getId().getHourStartEpochAsSec());
+    }
+
+    @Test
+    void GivenReadingsOfTwoMonthsSaved_WhenReadingsBeforeSecondMonthDeleted_ThenOnlyReadingsOfSecondMonthLeft() {
+        // Arrange
+        List<HourlyReading> readings =
+                Stream.of(new HourlyReading(meterKey1, 1554069600L, new BigDecimal("0.07"), 100L),
+                                new HourlyReading(meterKey1, 1554076800L, new BigDecimal("0.08"), 200L),
+                                new HourlyReading(meterKey2, 1554080400L, new BigDecimal("0.09"), 300L))
+                        .toList();
+        hourlyReadingRepository.saveAll(readings);
+        // Act
+        int deleted = hourlyReadingRepository.deleteReadingsBefore(HourlyReadingKey.toHourIndex(YearMonth.of(2019, 4)));
+        // Assert
+        assertEquals(1, deleted);
+        assertThat(hourlyReadingRepository.findAll()).containsExactlyInAnyOrder(readings.get(1), readings.get(2));
+    }
+
+    @Test
+    void GivenH2Database_WhenPartitioningChecked_ThenTableIsNotPartitioned() {
+        // Act
+        boolean partitioned = hourlyReadingRepository.isPartitioned();
+        // Assert
+        assertThat(partitioned).isFalse();
+    }
 }
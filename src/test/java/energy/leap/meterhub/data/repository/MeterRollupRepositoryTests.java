@@ -0,0 +1,103 @@
+package energy.leap.meterhub.data.repository;
+
+import energy.leap.meterhub.data.entity.EnergyMeter;
+import energy.leap.meterhub.data.entity.MeterRollup;
+import energy.leap.meterhub.data.entity.MeterRollupKey;
+import energy.leap.meterhub.data.entity.RollupGranularity;
+import energy.leap.meterhub.data.projection.BucketedReportValue;
+import energy.leap.meterhub.data.projection.MeterKeyTotalsValue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+class MeterRollupRepositoryTests {
+
+    @Autowired
+    MeterRollupRepository meterRollupRepository;
+
+    @Autowired
+    EnergyMeterRepository energyMeterRepository;
+
+    private Integer meterKey1;
+
+    private Integer meterKey2;
+
+    @BeforeEach
+    void saveMeters() {
+        meterKey1 = energyMeterRepository.saveAndFlush(new EnergyMeter("dummy_id_1", "dummy title 1")).getMeterKey();
+        meterKey2 = energyMeterRepository.saveAndFlush(new EnergyMeter("dummy_id_2", "dummy title 2")).getMeterKey();
+    }
+
+    private MeterRollup rollup(Integer meterKey, RollupGranularity granularity, int bucketHourIndex, long readingAsWh, String cost) {
+        return new MeterRollup(new MeterRollupKey(meterKey, granularity, bucketHourIndex), readingAsWh, new BigDecimal(cost));
+    }
+
+    @Test
+    void GivenRollupsOfMetersSaved_WhenReportsOfMeterQueriedInRange_ThenBucketsOfGranularityInRangeFoundInOrder() {
+        // Arrange
+        // 431688 is the first hour of April 2019, 432408 of May 2019
+        meterRollupRepository.saveAll(List.of(
+                rollup(meterKey1, RollupGranularity.MONTH, 432408, 300L, "0.03000"),
+                rollup(meterKey1, RollupGranularity.MONTH, 431688, 200L, "0.02000"),
+                rollup(meterKey1, RollupGranularity.DAY, 431688, 100L, "0.01000"),
+                rollup(meterKey2, RollupGranularity.MONTH, 431688, 400L, "0.04000")));
+        // Act
+        List<BucketedReportValue> monthReports =
+                meterRollupRepository.findReportsOfMeterBetween("dummy_id_1", RollupGranularity.MONTH, Long.MIN_VALUE, Long.MAX_VALUE);
+        List<BucketedReportValue> firstMonthReports =
+                meterRollupRepository.findReportsOfMeterBetween("dummy_id_1", RollupGranularity.MONTH, 1554076800L, 1556668800L);
+        // Assert
+        assertEquals(List.of(new BucketedReportValue(1554076800L, 200L, new BigDecimal("0.02000")),
+                new BucketedReportValue(1556668800L, 300L, new BigDecimal("0.03000"))), monthReports);
+        assertEquals(List.of(new BucketedReportValue(1554076800L, 200L, new BigDecimal("0.02000"))), firstMonthReports);
+    }
+
+    @Test
+    void GivenRollupsOfOneMeterSaved_WhenMetersWithoutRollupsQueried_ThenOnlyOtherMeterFound() {
+        // Arrange
+        meterRollupRepository.save(rollup(meterKey1, RollupGranularity.DAY, 431688, 100L, "0.01000"));
+        // Act
+        List<String> meterIds = meterRollupRepository.findMeterIdsWithoutRollups();
+        // Assert
+        assertEquals(List.of("dummy_id_2"), meterIds);
+    }
+
+    @Test
+    void GivenRollupsOfTwoMonthsSaved_WhenRollupsBeforeSecondMonthDeleted_ThenOnlyRollupsOfSecondMonthLeft() {
+        // Arrange
+        MeterRollup secondMonth = rollup(meterKey1, RollupGranularity.MONTH, 432408, 300L, "0.03000");
+        meterRollupRepository.saveAll(List.of(rollup(meterKey1, RollupGranularity.MONTH, 431688, 200L, "0.02000"),
+                rollup(meterKey1, RollupGranularity.DAY, 432384, 100L, "0.01000"), secondMonth));
+        // Act
+        int deleted = meterRollupRepository.deleteBefore(432408);
+        // Assert
+        assertEquals(2, deleted);
+        assertThat(meterRollupRepository.findAll()).containsExactly(secondMonth);
+    }
+
+    @Test
+    void GivenRollupsOfMetersSaved_WhenTotalsOfAllMetersQueriedInRange_ThenBucketsOfGranularityInRangeSummedPerMeter() {
+        // Arrange
+        meterRollupRepository.saveAll(List.of(
+                rollup(meterKey1, RollupGranularity.DAY, 431688, 100L, "0.01000"),
+                rollup(meterKey1, RollupGranularity.DAY, 431712, 200L, "0.02000"),
+                rollup(meterKey1, RollupGranularity.DAY, 432408, 300L, "0.03000"),
+                rollup(meterKey1, RollupGranularity.MONTH, 431688, 300L, "0.03000"),
+                rollup(meterKey2, RollupGranularity.DAY, 431712, 400L, "0.04000")));
+        // Act
+        List<MeterKeyTotalsValue> totals =
+                meterRollupRepository.aggregateTotalsOfAllMetersBetweenHourIndexes(RollupGranularity.DAY, 431688, 432408);
+        // Assert
+        assertThat(totals).extracting(MeterKeyTotalsValue::getMeterKey, MeterKeyTotalsValue::getTotalReadingAsWh)
+                .containsExactlyInAnyOrder(tuple(meterKey1, 300L), tuple(meterKey2, 400L));
+    }
+}
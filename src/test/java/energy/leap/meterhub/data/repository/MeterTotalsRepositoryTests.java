@@ -0,0 +1,58 @@
+package energy.leap.meterhub.data.repository;
+
+import energy.leap.meterhub.data.entity.EnergyMeter;
+import energy.leap.meterhub.data.entity.MeterTotals;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest
+class MeterTotalsRepositoryTests {
+
+    @Autowired
+    MeterTotalsRepository meterTotalsRepository;
+
+    @Autowired
+    EnergyMeterRepository energyMeterRepository;
+
+    @Autowired
+    TestEntityManager testEntityManager;
+
+    @Test
+    void GivenTotalsOfOneMeterSaved_WhenSameAndNewMeterInsertedIfAbsent_ThenOnlyEmptyTotalsOfNewMeterInserted() {
+        // Arrange
+        MeterTotals totals = new MeterTotals("dummy_id_1", 100L, new BigDecimal("0.00700"), 1L, 1555484400L, 1555484400L);
+        meterTotalsRepository.saveAndFlush(totals);
+        // Act
+        int insertedExisting = meterTotalsRepository.insertIfAbsent("dummy_id_1");
+        int insertedNew = meterTotalsRepository.insertIfAbsent("dummy_id_2");
+        testEntityManager.clear();
+        // Assert
+        assertEquals(0, insertedExisting);
+        assertEquals(1, insertedNew);
+        assertEquals(totals, meterTotalsRepository.findForUpdate("dummy_id_1").orElseThrow());
+        MeterTotals emptyTotals = meterTotalsRepository.findForUpdate("dummy_id_2").orElseThrow();
+        assertEquals(0L, emptyTotals.getTotalReadingAsWh());
+        assertEquals(0, BigDecimal.ZERO.compareTo(emptyTotals.getTotalCost()));
+        assertEquals(0L, emptyTotals.getHourCount());
+        assertNull(emptyTotals.getFirstHourStartEpochAsSec());
+    }
+
+    @Test
+    void GivenTotalsOfOneMeterSaved_WhenMetersWithoutTotalsQueried_ThenOnlyOtherMeterFound() {
+        // Arrange
+        energyMeterRepository.saveAll(List.of(new EnergyMeter("dummy_id_1", "dummy title 1"), new EnergyMeter("dummy_id_2", "dummy title 2")));
+        meterTotalsRepository.save(new MeterTotals("dummy_id_1", 100L, new BigDecimal("0.00700"), 1L, 1555484400L, 1555484400L));
+        // Act
+        List<String> meterIds = meterTotalsRepository.findMeterIdsWithoutTotals();
+        // Assert
+        assertEquals(List.of("dummy_id_2"), meterIds);
+    }
+}
@@ -0,0 +1,422 @@
+package energy.leap.meterhub.service;
+
+import energy.leap.meterhub.config.MeterhubProperties;
+import energy.leap.meterhub.service.dto.IngestJobDto;
+import energy.leap.meterhub.service.dto.IngestJobStatus;
+import energy.leap.meterhub.service.dto.IngestPartitionStatisticsDto;
+import energy.leap.meterhub.service.dto.IngestStageStatisticsDto;
+import energy.leap.meterhub.service.exception.IllegalMeterBatchReadingContentException;
+import energy.leap.meterhub.service.exception.IngestJobNotFoundException;
+import energy.leap.meterhub.service.exception.IngestQueueFullException;
+import energy.leap.meterhub.service.impl.IngestJobServiceImpl;
+import energy.leap.meterhub.service.impl.MeterBatchReadingProcessorServiceImpl;
+import energy.leap.meterhub.service.impl.parser.XmlIntervalReading;
+import energy.leap.meterhub.service.impl.parser.XmlMeterBatchReading;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatCode;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+
+class IngestJobServiceTests {
+
+    private final MeterBatchReadingProcessorServiceImpl meterBatchReadingProcessorService = Mockito.mock(MeterBatchReadingProcessorServiceImpl.class);
+
+    private IngestJobServiceImpl ingestJobService;
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        ingestJobService.shutdown();
+    }
+
+    private static InputStream feed(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private IngestJobDto awaitFinished(String jobId) throws InterruptedException {
+        for (int attempt = 0; attempt < 500; attempt++) {
+            IngestJobDto job = ingestJobService.getJob(jobId);
+            if (job.getStatus() == IngestJobStatus.SUCCEEDED || job.getStatus() == IngestJobStatus.FAILED) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Ingest job did not finish : " + jobId);
+    }
+
+    // The worker has taken the job off the queue once it is running
+    private void awaitStarted(String jobId) throws InterruptedException {
+        for (int attempt = 0; attempt < 500; attempt++) {
+            if (ingestJobService.getJob(jobId).getStatus() != IngestJobStatus.QUEUED) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Ingest job did not start : " + jobId);
+    }
+
+    // Parsing returns a batch reading carrying the feed content as its id, normalizing passes it on
+    private void stubParseAndNormalize() {
+        Mockito.doAnswer(invocation -> {
+            XmlMeterBatchReading batchReading = new XmlMeterBatchReading();
+            batchReading.setId(new String(invocation.<InputStream>getArgument(0).readAllBytes(), StandardCharsets.UTF_8));
+            return batchReading;
+        }).when(meterBatchReadingProcessorService).parseBatchReading(any(InputStream.class));
+        Mockito.doAnswer(invocation -> invocation.getArgument(0))
+                .when(meterBatchReadingProcessorService).normalizeBatchReading(any(XmlMeterBatchReading.class));
+    }
+
+    @Test
+    void GivenFeedSubmitted_WhenProcessed_ThenJobSucceededWithTimings() throws InterruptedException {
+        // Arrange
+        ingestJobService = new IngestJobServiceImpl(meterBatchReadingProcessorService, new MeterhubProperties());
+        stubParseAndNormalize();
+        List<String> processedContents = new CopyOnWriteArrayList<>();
+        Mockito.doAnswer(invocation -> processedContents.add(invocation.<XmlMeterBatchReading>getArgument(0).getId()))
+                .when(meterBatchReadingProcessorService).saveBatchReading(any(XmlMeterBatchReading.class));
+        // Act
+        IngestJobDto submittedJob = ingestJobService.submitBatchReading(feed("<feed/>"));
+        IngestJobDto finishedJob = awaitFinished(submittedJob.getId());
+        // Assert
+        assertEquals(IngestJobStatus.SUCCEEDED, finishedJob.getStatus());
+        assertEquals(submittedJob.getSubmittedEpochAsMilli(), finishedJob.getSubmittedEpochAsMilli());
+        assertNotNull(finishedJob.getStartedEpochAsMilli());
+        assertNotNull(finishedJob.getFinishedEpochAsMilli());
+        assertNull(finishedJob.getError());
+        assertEquals(List.of("<feed/>"), processedContents);
+    }
+
+    @Test
+    void GivenInvalidFeedSubmitted_WhenProcessed_ThenJobFailedWithValidationError() throws InterruptedException {
+        // Arrange
+        ingestJobService = new IngestJobServiceImpl(meterBatchReadingProcessorService, new MeterhubProperties());
+        stubParseAndNormalize();
+        Mockito.doThrow(new IllegalMeterBatchReadingContentException("Disconnected interval exists for start 1555491600"))
+                .when(meterBatchReadingProcessorService).normalizeBatchReading(any(XmlMeterBatchReading.class));
+        // Act
+        IngestJobDto finishedJob = awaitFinished(ingestJobService.submitBatchReading(feed("<feed/>")).getId());
+        // Assert
+        assertEquals(IngestJobStatus.FAILED, finishedJob.getStatus());
+        assertEquals("Disconnected interval exists for start 1555491600", finishedJob.getError());
+        Mockito.verify(meterBatchReadingProcessorService, Mockito.never()).saveBatchReading(any(XmlMeterBatchReading.class));
+    }
+
+    @Test
+    void GivenWorkerBusyAndQueueFull_WhenFeedSubmitted_ThenIngestQueueFullExceptionThrown() throws InterruptedException {
+        // Arrange
+        MeterhubProperties properties = new MeterhubProperties();
+        properties.getIngest().getAsync().getParse().setWorkerCount(1);
+        properties.getIngest().getAsync().getParse().setQueueCapacity(1);
+        properties.getIngest().getAsync().setRetryAfter(Duration.ofSeconds(7));
+        ingestJobService = new IngestJobServiceImpl(meterBatchReadingProcessorService, properties);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return new XmlMeterBatchReading();
+        }).when(meterBatchReadingProcessorService).parseBatchReading(any(InputStream.class));
+        Mockito.doAnswer(invocation -> invocation.getArgument(0))
+                .when(meterBatchReadingProcessorService).normalizeBatchReading(any(XmlMeterBatchReading.class));
+        IngestJobDto runningJob = ingestJobService.submitBatchReading(feed("<feed/>"));
+        awaitStarted(runningJob.getId());
+        IngestJobDto queuedJob = ingestJobService.submitBatchReading(feed("<feed/>"));
+        // Act
+        assertThatCode(() -> ingestJobService.submitBatchReading(feed("<feed/>")))
+        // Assert
+        .isInstanceOf(IngestQueueFullException.class)
+        .matches(e -> ((IngestQueueFullException) e).getRetryAfter().equals(Duration.ofSeconds(7)));
+        assertEquals(IngestJobStatus.QUEUED, ingestJobService.getJob(queuedJob.getId()).getStatus());
+        release.countDown();
+        assertEquals(IngestJobStatus.SUCCEEDED, awaitFinished(runningJob.getId()).getStatus());
+        assertEquals(IngestJobStatus.SUCCEEDED, awaitFinished(queuedJob.getId()).getStatus());
+    }
+
+    @Test
+    void GivenFirstFeedBeingSaved_WhenSecondFeedSubmitted_ThenSecondFeedParsedBeforeFirstFeedSaved() throws InterruptedException {
+        // Arrange
+        MeterhubProperties properties = new MeterhubProperties();
+        properties.getIngest().getAsync().getPersist().setWorkerCount(1);
+        ingestJobService = new IngestJobServiceImpl(meterBatchReadingProcessorService, properties);
+        stubParseAndNormalize();
+        CountDownLatch firstFeedSaving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            if (invocation.<XmlMeterBatchReading>getArgument(0).getId().equals("<feed1/>")) {
+                firstFeedSaving.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            }
+            return null;
+        }).when(meterBatchReadingProcessorService).saveBatchReading(any(XmlMeterBatchReading.class));
+        IngestJobDto firstJob = ingestJobService.submitBatchReading(feed("<feed1/>"));
+        assertTrue(firstFeedSaving.await(10, TimeUnit.SECONDS));
+        // Act
+        IngestJobDto secondJob = ingestJobService.submitBatchReading(feed("<feed2/>"));
+        Mockito.verify(meterBatchReadingProcessorService, Mockito.timeout(10000).times(2)).normalizeBatchReading(any(XmlMeterBatchReading.class));
+        // Assert
+        assertEquals(IngestJobStatus.RUNNING, ingestJobService.getJob(firstJob.getId()).getStatus());
+        IngestStageStatisticsDto persistStatistics = ingestJobService.getStageStatistics().get(2);
+        assertEquals("persist", persistStatistics.getName());
+        assertEquals(0, persistStatistics.getCompletedCount());
+        release.countDown();
+        assertEquals(IngestJobStatus.SUCCEEDED, awaitFinished(firstJob.getId()).getStatus());
+        assertEquals(IngestJobStatus.SUCCEEDED, awaitFinished(secondJob.getId()).getStatus());
+        List<IngestStageStatisticsDto> statistics = ingestJobService.getStageStatistics();
+        assertEquals(List.of("parse", "normalize", "persist"), statistics.stream().map(IngestStageStatisticsDto::getName).toList());
+        statistics.forEach(stageStatistics -> assertEquals(2, stageStatistics.getCompletedCount()));
+    }
+
+    // Both feeds are of the same meter, the content of the feed becomes its title
+    private void stubNormalizeToSameMeter() {
+        Mockito.doAnswer(invocation -> new XmlMeterBatchReading("meter1", invocation.<XmlMeterBatchReading>getArgument(0).getId(),
+                        null, null, List.of()))
+                .when(meterBatchReadingProcessorService).normalizeBatchReading(any(XmlMeterBatchReading.class));
+    }
+
+    @Test
+    void GivenFirstFeedOfMeterParsedAfterSecond_WhenProcessed_ThenFeedsSavedInSubmissionOrder() throws InterruptedException {
+        // Arrange
+        ingestJobService = new IngestJobServiceImpl(meterBatchReadingProcessorService, new MeterhubProperties());
+        stubParseAndNormalize();
+        stubNormalizeToSameMeter();
+        CountDownLatch secondFeedParsed = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            XmlMeterBatchReading batchReading = new XmlMeterBatchReading();
+            batchReading.setId(new String(invocation.<InputStream>getArgument(0).readAllBytes(), StandardCharsets.UTF_8));
+            if (batchReading.getId().equals("<feed1/>")) {
+                secondFeedParsed.await(10, TimeUnit.SECONDS);
+            } else {
+                secondFeedParsed.countDown();
+            }
+            return batchReading;
+        }).when(meterBatchReadingProcessorService).parseBatchReading(any(InputStream.class));
+        List<String> savedTitles = new CopyOnWriteArrayList<>();
+        Mockito.doAnswer(invocation -> savedTitles.add(invocation.<XmlMeterBatchReading>getArgument(0).getTitle()))
+                .when(meterBatchReadingProcessorService).saveBatchReading(any(XmlMeterBatchReading.class));
+        // Act
+        IngestJobDto firstJob = ingestJobService.submitBatchReading(feed("<feed1/>"));
+        IngestJobDto secondJob = ingestJobService.submitBatchReading(feed("<feed2/>"));
+        // Assert
+        assertEquals(IngestJobStatus.SUCCEEDED, awaitFinished(firstJob.getId()).getStatus());
+        assertEquals(IngestJobStatus.SUCCEEDED, awaitFinished(secondJob.getId()).getStatus());
+        assertEquals(List.of("<feed1/>", "<feed2/>"), savedTitles);
+    }
+
+    @Test
+    void GivenFirstFeedOfMeterBeingSaved_WhenSecondFeedTakenByOtherPersistWorker_ThenSecondFeedSavedAfterFirst() throws InterruptedException {
+        // Arrange
+        ingestJobService = new IngestJobServiceImpl(meterBatchReadingProcessorService, new MeterhubProperties());
+        stubParseAndNormalize();
+        stubNormalizeToSameMeter();
+        CountDownLatch firstFeedSaving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> savedTitles = new CopyOnWriteArrayList<>();
+        Mockito.doAnswer(invocation -> {
+            savedTitles.add(invocation.<XmlMeterBatchReading>getArgument(0).getTitle());
+            if (invocation.<XmlMeterBatchReading>getArgument(0).getTitle().equals("<feed1/>")) {
+                firstFeedSaving.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            }
+            return null;
+        }).when(meterBatchReadingProcessorService).saveBatchReading(any(XmlMeterBatchReading.class));
+        IngestJobDto firstJob = ingestJobService.submitBatchReading(feed("<feed1/>"));
+        assertTrue(firstFeedSaving.await(10, TimeUnit.SECONDS));
+        // Act
+        IngestJobDto secondJob = ingestJobService.submitBatchReading(feed("<feed2/>"));
+        Mockito.verify(meterBatchReadingProcessorService, Mockito.timeout(10000).times(2)).normalizeBatchReading(any(XmlMeterBatchReading.class));
+        // The second persist worker is idle and takes the second feed, which waits for the first one
+        Thread.sleep(100);
+        List<String> titlesWhileFirstFeedSaving = List.copyOf(savedTitles);
+        release.countDown();
+        // Assert
+        assertEquals(List.of("<feed1/>"), titlesWhileFirstFeedSaving);
+        assertEquals(IngestJobStatus.SUCCEEDED, awaitFinished(firstJob.getId()).getStatus());
+        assertEquals(IngestJobStatus.SUCCEEDED, awaitFinished(secondJob.getId()).getStatus());
+        assertEquals(List.of("<feed1/>", "<feed2/>"), savedTitles);
+    }
+
+    private MeterhubProperties partitionedProperties() {
+        MeterhubProperties properties = new MeterhubProperties();
+        properties.getIngest().getAsync().setPersistMode(MeterhubProperties.PersistMode.PARTITIONED);
+        properties.getIngest().getAsync().getPartitions().setCount(1);
+        return properties;
+    }
+
+    private void awaitPartitionQueueDepth(int queueDepth) throws InterruptedException {
+        for (int attempt = 0; attempt < 500; attempt++) {
+            if (ingestJobService.getPartitionStatistics().get(0).getQueueDepth() == queueDepth) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Partition queue did not reach depth " + queueDepth);
+    }
+
+    @Test
+    void GivenPartitionBusyWithMeter_WhenMoreFeedsOfMeterQueued_ThenQueuedFeedsSavedInOneWrite() throws InterruptedException {
+        // Arrange
+        ingestJobService = new IngestJobServiceImpl(meterBatchReadingProcessorService, partitionedProperties());
+        stubParseAndNormalize();
+        CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> writtenBatchCounts = new CopyOnWriteArrayList<>();
+        Mockito.doAnswer(invocation -> {
+            writtenBatchCounts.add(invocation.<List<XmlMeterBatchReading>>getArgument(0).size());
+            firstWriteStarted.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(meterBatchReadingProcessorService).saveOwnedBatchReadings(any());
+        IngestJobDto firstJob = ingestJobService.submitBatchReading(feed("<meter1/>"));
+        assertTrue(firstWriteStarted.await(10, TimeUnit.SECONDS));
+        // Act
+        List<IngestJobDto> queuedJobs = List.of(ingestJobService.submitBatchReading(feed("<meter1/>")),
+                ingestJobService.submitBatchReading(feed("<meter1/>")),
+                ingestJobService.submitBatchReading(feed("<meter1/>")));
+        awaitPartitionQueueDepth(3);
+        release.countDown();
+        // Assert
+        assertEquals(IngestJobStatus.SUCCEEDED, awaitFinished(firstJob.getId()).getStatus());
+        for (IngestJobDto queuedJob : queuedJobs) {
+            assertEquals(IngestJobStatus.SUCCEEDED, awaitFinished(queuedJob.getId()).getStatus());
+        }
+        assertEquals(List.of(1, 3), writtenBatchCounts);
+        IngestPartitionStatisticsDto statistics = ingestJobService.getPartitionStatistics().get(0);
+        assertEquals(0, statistics.getQueueDepth());
+        assertEquals(4, statistics.getWrittenBatchCount());
+        assertEquals(2, statistics.getWriteCount());
+    }
+
+    @Test
+    void GivenInvalidFeedAmongFeedsSavedTogether_WhenSaveFails_ThenOnlyInvalidFeedFailed() throws InterruptedException {
+        // Arrange
+        ingestJobService = new IngestJobServiceImpl(meterBatchReadingProcessorService, partitionedProperties());
+        stubParseAndNormalize();
+        CountDownLatch firstWriteStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            List<XmlMeterBatchReading> batchReadings = invocation.getArgument(0);
+            if (firstWriteStarted.getCount() > 0) {
+                firstWriteStarted.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            }
+            if (batchReadings.stream().anyMatch(batchReading -> "invalid".equals(batchReading.getTitle()))) {
+                throw new IllegalMeterBatchReadingContentException("Invalid readings");
+            }
+            return null;
+        }).when(meterBatchReadingProcessorService).saveOwnedBatchReadings(any());
+        ingestJobService.submitBatchReading(feed("<meter0/>"));
+        assertTrue(firstWriteStarted.await(10, TimeUnit.SECONDS));
+        stubNormalizeToSameMeter();
+        // Act
+        IngestJobDto validJob = ingestJobService.submitBatchReading(feed("valid"));
+        IngestJobDto invalidJob = ingestJobService.submitBatchReading(feed("invalid"));
+        awaitPartitionQueueDepth(2);
+        release.countDown();
+        // Assert
+        assertEquals(IngestJobStatus.SUCCEEDED, awaitFinished(validJob.getId()).getStatus());
+        IngestJobDto failedJob = awaitFinished(invalidJob.getId());
+        assertEquals(IngestJobStatus.FAILED, failedJob.getStatus());
+        assertEquals("Invalid readings", failedJob.getError());
+    }
+
+    // Feeds with one hourly reading each, a batch of two of them is flushed right away
+    private void createWriteBehindService(MeterhubProperties.WriteBehindAcknowledgement acknowledgement) {
+        MeterhubProperties properties = new MeterhubProperties();
+        properties.getIngest().getAsync().setPersistMode(MeterhubProperties.PersistMode.WRITE_BEHIND);
+        properties.getIngest().getAsync().getWriteBehind().setAcknowledgement(acknowledgement);
+        properties.getIngest().getAsync().getWriteBehind().setMaxDelay(Duration.ofMinutes(1));
+        properties.getIngest().getAsync().getWriteBehind().setMinBatchSize(2);
+        ingestJobService = new IngestJobServiceImpl(meterBatchReadingProcessorService, properties);
+        stubParseAndNormalize();
+        Mockito.doAnswer(invocation -> {
+            XmlMeterBatchReading batchReading = invocation.getArgument(0);
+            batchReading.setIntervalReadings(List.of(new XmlIntervalReading(1555484400L, 3600L, 100L)));
+            return batchReading;
+        }).when(meterBatchReadingProcessorService).normalizeBatchReading(any(XmlMeterBatchReading.class));
+    }
+
+    @Test
+    void GivenDurableWriteBehind_WhenFeedsOfTwoMetersSubmitted_ThenSavedTogetherAndSucceededOnlyOnceSaved() throws InterruptedException {
+        // Arrange
+        createWriteBehindService(MeterhubProperties.WriteBehindAcknowledgement.DURABLE);
+        CountDownLatch flushStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<List<String>> flushedMeterIds = new CopyOnWriteArrayList<>();
+        Mockito.doAnswer(invocation -> {
+            flushedMeterIds.add(invocation.<List<XmlMeterBatchReading>>getArgument(0).stream().map(XmlMeterBatchReading::getId).toList());
+            flushStarted.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return null;
+        }).when(meterBatchReadingProcessorService).saveBatchReadingsOfMeters(any());
+        // Act
+        IngestJobDto firstJob = ingestJobService.submitBatchReading(feed("<meter1/>"));
+        IngestJobDto secondJob = ingestJobService.submitBatchReading(feed("<meter2/>"));
+        assertTrue(flushStarted.await(10, TimeUnit.SECONDS));
+        IngestJobStatus statusWhileFlushing = ingestJobService.getJob(firstJob.getId()).getStatus();
+        release.countDown();
+        // Assert
+        assertEquals(IngestJobStatus.RUNNING, statusWhileFlushing);
+        assertEquals(IngestJobStatus.SUCCEEDED, awaitFinished(firstJob.getId()).getStatus());
+        assertEquals(IngestJobStatus.SUCCEEDED, awaitFinished(secondJob.getId()).getStatus());
+        // Feeds are parsed in parallel but buffered in the order they were submitted
+        assertEquals(List.of(List.of("<meter1/>", "<meter2/>")), flushedMeterIds);
+        assertEquals(1L, ingestJobService.getWriteBehindStatistics().orElseThrow().getFlushCount());
+    }
+
+    @Test
+    void GivenBufferedWriteBehind_WhenFeedBuffered_ThenSucceededBeforeSaved() throws InterruptedException {
+        // Arrange
+        createWriteBehindService(MeterhubProperties.WriteBehindAcknowledgement.BUFFERED);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> release.await(10, TimeUnit.SECONDS))
+                .when(meterBatchReadingProcessorService).saveBatchReadingsOfMeters(any());
+        // Act
+        IngestJobDto finishedJob = awaitFinished(ingestJobService.submitBatchReading(feed("<meter1/>")).getId());
+        // Assert
+        assertEquals(IngestJobStatus.SUCCEEDED, finishedJob.getStatus());
+        Mockito.verify(meterBatchReadingProcessorService, Mockito.never()).saveBatchReadingsOfMeters(any());
+        release.countDown();
+    }
+
+    @Test
+    void GivenFlushOfSeveralMetersFails_WhenSavedByMeter_ThenOnlyJobOfInvalidMeterFailed() throws InterruptedException {
+        // Arrange
+        createWriteBehindService(MeterhubProperties.WriteBehindAcknowledgement.DURABLE);
+        Mockito.doThrow(new IllegalMeterBatchReadingContentException("Invalid readings"))
+                .when(meterBatchReadingProcessorService).saveBatchReadingsOfMeters(any());
+        Mockito.doAnswer(invocation -> {
+            if (invocation.<List<XmlMeterBatchReading>>getArgument(0).get(0).getId().equals("<invalid/>")) {
+                throw new IllegalMeterBatchReadingContentException("Invalid readings");
+            }
+            return null;
+        }).when(meterBatchReadingProcessorService).saveBatchReadings(any());
+        // Act
+        IngestJobDto validJob = ingestJobService.submitBatchReading(feed("<meter1/>"));
+        IngestJobDto invalidJob = ingestJobService.submitBatchReading(feed("<invalid/>"));
+        // Assert
+        assertEquals(IngestJobStatus.SUCCEEDED, awaitFinished(validJob.getId()).getStatus());
+        assertEquals(IngestJobStatus.FAILED, awaitFinished(invalidJob.getId()).getStatus());
+    }
+
+    @Test
+    void GivenNoJobSubmitted_WhenJobRequested_ThenIngestJobNotFoundExceptionThrown() {
+        // Arrange
+        ingestJobService = new IngestJobServiceImpl(meterBatchReadingProcessorService, new MeterhubProperties());
+        // Act
+        assertThatCode(() -> ingestJobService.getJob("dummy_id"))
+        // Assert
+        .isInstanceOf(IngestJobNotFoundException.class);
+    }
+}
@@ -1,20 +1,51 @@
 package energy.leap.meterhub.service;
 
 import energy.leap.meterhub.data.entity.EnergyMeter;
+import energy.leap.meterhub.data.entity.GroupHourlyReading;
+import energy.leap.meterhub.data.entity.GroupHourlyReadingKey;
 import energy.leap.meterhub.data.entity.HourlyReading;
+import energy.leap.meterhub.data.entity.MeterRollup;
+import energy.leap.meterhub.data.entity.MeterRollupKey;
+import energy.leap.meterhub.data.entity.MeterTotals;
+import energy.leap.meterhub.data.entity.RollupGranularity;
+import energy.leap.meterhub.data.projection.HourlyReadingValue;
+import energy.leap.meterhub.data.projection.MeterTotalsValue;
 import energy.leap.meterhub.data.repository.EnergyMeterRepository;
+import energy.leap.meterhub.data.repository.GroupHourlyReadingRepository;
 import energy.leap.meterhub.data.repository.HourlyReadingRepository;
+import energy.leap.meterhub.data.repository.MeterGroupRepository;
+import energy.leap.meterhub.data.repository.MeterRollupRepository;
+import energy.leap.meterhub.data.repository.MeterTotalsRepository;
+import energy.leap.meterhub.service.impl.MeterBatchReadingProcessorServiceImpl;
+import energy.leap.meterhub.service.impl.MeterBatchReadingWriter;
+import energy.leap.meterhub.service.impl.MeterRegistry;
+import energy.leap.meterhub.service.impl.MeterWriteLocks;
+import energy.leap.meterhub.service.impl.parser.XmlMeterBatchReading;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.ByteArrayResource;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 @SpringBootTest
 class MeterBatchReadingProcessorServiceTests {
 
@@ -24,9 +55,48 @@ class MeterBatchReadingProcessorServiceTests {
     @MockBean
     HourlyReadingRepository hourlyReadingRepository;
 
+    @MockBean
+    MeterTotalsRepository meterTotalsRepository;
+
+    @MockBean
+    MeterRollupRepository meterRollupRepository;
+
+    @MockBean
+    MeterGroupRepository meterGroupRepository;
+
+    @MockBean
+    GroupHourlyReadingRepository groupHourlyReadingRepository;
+
     @Autowired
     MeterBatchReadingProcessorService meterBatchReadingProcessorService;
 
+    @Autowired
+    MeterBatchReadingProcessorServiceImpl meterBatchReadingProcessorServiceImpl;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    MeterBatchReadingWriter meterBatchReadingWriter;
+
+    @Autowired
+    MeterWriteLocks meterWriteLocks;
+
+    private static final Integer METER_KEY_1 = 7;
+
+    private static final Integer METER_KEY_2 = 8;
+
+    // Meters registered by earlier tests are forgotten, the mocked repository has none
+    @BeforeEach
+    void loadMeterRegistry() {
+        Mockito.when(energyMeterRepository.findMeterKey("9346bfb3-20aa-3412-ffab-44f88b917999")).thenReturn(METER_KEY_1);
+        Mockito.when(energyMeterRepository.findMeterKey("dummy_id_2")).thenReturn(METER_KEY_2);
+        // Totals of a meter are inserted empty when it has none, before they are locked
+        Mockito.when(meterTotalsRepository.findForUpdate(Mockito.anyString()))
+                .thenAnswer(invocation -> Optional.of(new MeterTotals(invocation.getArgument(0), 0L, BigDecimal.ZERO, 0L, null, null)));
+        meterRegistry.load();
+    }
+
     private static final String METER_BATCH_READING_XML_1 = """
                 <feed>
                     <id>9346bfb3-20aa-3412-ffab-44f88b917999</id>
@@ -58,25 +128,52 @@ class MeterBatchReadingProcessorServiceTests {
     @Test
     void GivenNoMeterReportExists_WhenNewMeterReportProcessed_ThenMeterIsSaved() {
         // Arrange
-        Mockito.when(energyMeterRepository.findById("9346bfb3-20aa-3412-ffab-44f88b917999")).thenReturn(Optional.empty());
+        Mockito.when(energyMeterRepository.insertIfAbsent("9346bfb3-20aa-3412-ffab-44f88b917999", "Green Button Usage Feed")).thenReturn(1);
+        // Act
+        meterBatchReadingProcessorService.processBatchReading(METER_BATCH_READING_XML_1);
+        // Assert
+        Mockito.verify(energyMeterRepository, Mockito.times(1)).insertIfAbsent("9346bfb3-20aa-3412-ffab-44f88b917999", "Green Button Usage Feed");
+        Mockito.verify(energyMeterRepository, Mockito.never()).updateTitle(Mockito.any(), Mockito.any());
+        Mockito.verify(energyMeterRepository, Mockito.never()).findById(Mockito.any());
+    }
+
+    @Test
+    void GivenMeterReportExists_WhenNewMeterReportProcessed_ThenMeterIsNotWrittenAgain() {
+        // Arrange
+        Mockito.when(energyMeterRepository.findAll()).thenReturn(List.of(new EnergyMeter("9346bfb3-20aa-3412-ffab-44f88b917999", "Green Button Usage Feed")));
+        meterRegistry.load();
+        // Act
+        meterBatchReadingProcessorService.processBatchReading(METER_BATCH_READING_XML_1);
+        // Assert
+        Mockito.verify(energyMeterRepository, Mockito.never()).insertIfAbsent(Mockito.any(), Mockito.any());
+        Mockito.verify(energyMeterRepository, Mockito.never()).updateTitle(Mockito.any(), Mockito.any());
+        Mockito.verify(energyMeterRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    void GivenMeterReportExistsWithOtherTitle_WhenNewMeterReportProcessed_ThenTitleIsUpdated() {
+        // Arrange
+        Mockito.when(energyMeterRepository.findAll()).thenReturn(List.of(new EnergyMeter("9346bfb3-20aa-3412-ffab-44f88b917999", "Old Usage Feed")));
+        meterRegistry.load();
         // Act
         meterBatchReadingProcessorService.processBatchReading(METER_BATCH_READING_XML_1);
+        meterBatchReadingProcessorService.processBatchReading(METER_BATCH_READING_XML_1);
         // Assert
-        EnergyMeter expectedMeter = new EnergyMeter("9346bfb3-20aa-3412-ffab-44f88b917999", "Green Button Usage Feed");
-        Mockito.verify(energyMeterRepository, Mockito.times(1)).findById("9346bfb3-20aa-3412-ffab-44f88b917999");
-        Mockito.verify(energyMeterRepository, Mockito.times(1)).save(expectedMeter);
+        Mockito.verify(energyMeterRepository, Mockito.never()).insertIfAbsent(Mockito.any(), Mockito.any());
+        // The registry has taken the new title, so the second report writes nothing
+        Mockito.verify(energyMeterRepository, Mockito.times(1)).updateTitle("9346bfb3-20aa-3412-ffab-44f88b917999", "Green Button Usage Feed");
     }
 
     @Test
-    void GivenMeterReportExists_WhenNewMeterReportProcessed_ThenMeterIsUpdated() {
+    void GivenMeterReportExists_WhenNewMeterReportProcessed_ThenDataVersionOfMeterIncremented() {
         // Arrange
-        Mockito.when(energyMeterRepository.findById("9346bfb3-20aa-3412-ffab-44f88b917999")).thenReturn(Optional.of(new EnergyMeter("9346bfb3-20aa-3412-ffab-44f88b917999", "Green Button Usage Feed")));
+        Mockito.when(energyMeterRepository.findAll()).thenReturn(List.of(new EnergyMeter("9346bfb3-20aa-3412-ffab-44f88b917999", "Green Button Usage Feed")));
+        meterRegistry.load();
         // Act
         meterBatchReadingProcessorService.processBatchReading(METER_BATCH_READING_XML_1);
         // Assert
-        EnergyMeter expectedMeter = new EnergyMeter("9346bfb3-20aa-3412-ffab-44f88b917999", "Green Button Usage Feed");
-        Mockito.verify(energyMeterRepository, Mockito.times(1)).findById("9346bfb3-20aa-3412-ffab-44f88b917999");
-        Mockito.verify(energyMeterRepository, Mockito.times(1)).save(expectedMeter);
+        Mockito.verify(energyMeterRepository, Mockito.times(1))
+                .incrementDataVersion(Mockito.eq("9346bfb3-20aa-3412-ffab-44f88b917999"), Mockito.anyLong());
     }
 
     private static final String METER_BATCH_READING_XML_2 = """
@@ -143,9 +240,225 @@ class MeterBatchReadingProcessorServiceTests {
         meterBatchReadingProcessorService.processBatchReading(METER_BATCH_READING_XML_2);
         // Assert
         List<HourlyReading> readingsExpected =
-                Stream.of(new HourlyReading("9346bfb3-20aa-3412-ffab-44f88b917999", 1555488000L, new BigDecimal("0.07"), 260000L),
-                                new HourlyReading("9346bfb3-20aa-3412-ffab-44f88b917999", 1555491600L, new BigDecimal("0.07"), 200000L))
+                Stream.of(new HourlyReading(METER_KEY_1, 1555488000L, new BigDecimal("0.07"), 260000L),
+                                new HourlyReading(METER_KEY_1, 1555491600L, new BigDecimal("0.07"), 200000L))
                         .toList();
-        Mockito.verify(hourlyReadingRepository, Mockito.times(1)).saveAll(readingsExpected);
+        Mockito.verify(hourlyReadingRepository, Mockito.times(1)).upsertAll(readingsExpected);
+    }
+
+    @Test
+    void GivenNoMeterReportExists_WhenReportStreamWithReadingsProcessed_ThenReadingsSaved() {
+        // Arrange
+        ByteArrayInputStream batchReadingStream = new ByteArrayInputStream(METER_BATCH_READING_XML_2.getBytes(StandardCharsets.UTF_8));
+        // Act
+        meterBatchReadingProcessorService.processBatchReading(batchReadingStream);
+        // Assert
+        List<HourlyReading> readingsExpected =
+                Stream.of(new HourlyReading(METER_KEY_1, 1555488000L, new BigDecimal("0.07"), 260000L),
+                                new HourlyReading(METER_KEY_1, 1555491600L, new BigDecimal("0.07"), 200000L))
+                        .toList();
+        Mockito.verify(hourlyReadingRepository, Mockito.times(1)).upsertAll(readingsExpected);
+    }
+
+    @Test
+    void GivenNoMeterReportExists_WhenReportWithReadingsProcessed_ThenTotalsSaved() {
+        // Arrange
+        // None
+        // Act
+        meterBatchReadingProcessorService.processBatchReading(METER_BATCH_READING_XML_2);
+        // Assert
+        Mockito.verify(hourlyReadingRepository, Mockito.times(1))
+                .findValuesOfMeterBetween("9346bfb3-20aa-3412-ffab-44f88b917999", 1555488000L, 1555491600L);
+        Mockito.verify(meterTotalsRepository, Mockito.times(1)).save(
+                new MeterTotals("9346bfb3-20aa-3412-ffab-44f88b917999", 460000L, new BigDecimal("32.20000"), 2L, 1555488000L, 1555491600L));
+    }
+
+    @Test
+    void GivenNoMeterReportExists_WhenReportWithReadingsProcessed_ThenTotalsInsertedAndLockedBeforeOverwrittenReadingsRead() {
+        // Arrange
+        InOrder inOrder = Mockito.inOrder(meterTotalsRepository, hourlyReadingRepository);
+        // Act
+        meterBatchReadingProcessorService.processBatchReading(METER_BATCH_READING_XML_2);
+        // Assert
+        inOrder.verify(meterTotalsRepository).insertIfAbsent("9346bfb3-20aa-3412-ffab-44f88b917999");
+        inOrder.verify(meterTotalsRepository).findForUpdate("9346bfb3-20aa-3412-ffab-44f88b917999");
+        inOrder.verify(hourlyReadingRepository).findValuesOfMeterBetween("9346bfb3-20aa-3412-ffab-44f88b917999", 1555488000L, 1555491600L);
+    }
+
+    @Test
+    void GivenMeterReportExists_WhenReportOverwritingAnHourProcessed_ThenTotalsUpdatedByDifference() {
+        // Arrange
+        Mockito.when(meterTotalsRepository.findForUpdate("9346bfb3-20aa-3412-ffab-44f88b917999"))
+                .thenReturn(Optional.of(new MeterTotals("9346bfb3-20aa-3412-ffab-44f88b917999", 300000L, new BigDecimal("30.00000"), 2L, 1555484400L, 1555488000L)));
+        Mockito.when(hourlyReadingRepository.findValuesOfMeterBetween("9346bfb3-20aa-3412-ffab-44f88b917999", 1555488000L, 1555491600L))
+                .thenReturn(List.of(new HourlyReadingValue(1555488000L, new BigDecimal("0.10"), 100000L)));
+        // Act
+        meterBatchReadingProcessorService.processBatchReading(METER_BATCH_READING_XML_2);
+        // Assert
+        Mockito.verify(meterTotalsRepository, Mockito.times(1)).save(
+                new MeterTotals("9346bfb3-20aa-3412-ffab-44f88b917999", 660000L, new BigDecimal("52.20000"), 3L, 1555484400L, 1555491600L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void GivenDayRollupExists_WhenReportOverwritingAnHourProcessed_ThenDayRollupUpdatedByDifferenceAndMonthRollupAdded() {
+        // Arrange
+        // 432072 is the first hour of 17 April 2019, 431688 of April 2019
+        Mockito.when(hourlyReadingRepository.findValuesOfMeterBetween("9346bfb3-20aa-3412-ffab-44f88b917999", 1555488000L, 1555491600L))
+                .thenReturn(List.of(new HourlyReadingValue(1555488000L, new BigDecimal("0.10"), 100000L)));
+        Mockito.when(meterRollupRepository.findOfMeterBetween(METER_KEY_1, 431688, 432072))
+                .thenReturn(List.of(new MeterRollup(new MeterRollupKey(METER_KEY_1, RollupGranularity.DAY, 432072), 100000L, new BigDecimal("10.00000"))));
+        ArgumentCaptor<Iterable<MeterRollup>> savedRollups = ArgumentCaptor.forClass(Iterable.class);
+        // Act
+        meterBatchReadingProcessorService.processBatchReading(METER_BATCH_READING_XML_2);
+        // Assert
+        Mockito.verify(meterRollupRepository, Mockito.times(1)).saveAll(savedRollups.capture());
+        Assertions.assertThat(savedRollups.getValue()).containsExactlyInAnyOrder(
+                new MeterRollup(new MeterRollupKey(METER_KEY_1, RollupGranularity.DAY, 432072), 460000L, new BigDecimal("32.20000")),
+                new MeterRollup(new MeterRollupKey(METER_KEY_1, RollupGranularity.MONTH, 431688), 360000L, new BigDecimal("22.20000")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void GivenMeterInGroups_WhenReportOverwritingAnHourProcessed_ThenDifferencesAddedToHoursOfEachGroupAndNewHourCounted() {
+        // Arrange
+        Mockito.when(meterGroupRepository.findGroupKeysOfMeter(METER_KEY_1)).thenReturn(List.of(1, 2));
+        Mockito.when(hourlyReadingRepository.findValuesOfMeterBetween("9346bfb3-20aa-3412-ffab-44f88b917999", 1555488000L, 1555491600L))
+                .thenReturn(List.of(new HourlyReadingValue(1555488000L, new BigDecimal("0.10"), 100000L)));
+        ArgumentCaptor<List<GroupHourlyReading>> addedHours = ArgumentCaptor.forClass(List.class);
+        // Act
+        meterBatchReadingProcessorService.processBatchReading(METER_BATCH_READING_XML_2);
+        // Assert
+        Mockito.verify(groupHourlyReadingRepository, Mockito.times(1)).addAll(addedHours.capture());
+        Assertions.assertThat(addedHours.getValue()).containsExactlyInAnyOrder(
+                new GroupHourlyReading(new GroupHourlyReadingKey(1, 432080), 160000L, new BigDecimal("8.20000"), 0),
+                new GroupHourlyReading(new GroupHourlyReadingKey(1, 432081), 200000L, new BigDecimal("14.00000"), 1),
+                new GroupHourlyReading(new GroupHourlyReadingKey(2, 432080), 160000L, new BigDecimal("8.20000"), 0),
+                new GroupHourlyReading(new GroupHourlyReadingKey(2, 432081), 200000L, new BigDecimal("14.00000"), 1));
+    }
+
+    @Test
+    void GivenFeedsOfOneMeter_WhenSavedTogether_ThenReadingsMergedAndSavedInOneWrite() {
+        // Arrange
+        XmlMeterBatchReading batchReading1 = meterBatchReadingProcessorServiceImpl.parseBatchReading(
+                new ByteArrayInputStream(METER_BATCH_READING_XML_1.getBytes(StandardCharsets.UTF_8)));
+        XmlMeterBatchReading batchReading2 = meterBatchReadingProcessorServiceImpl.parseBatchReading(
+                new ByteArrayInputStream(METER_BATCH_READING_XML_2.getBytes(StandardCharsets.UTF_8)));
+        // Act
+        meterBatchReadingProcessorServiceImpl.saveBatchReadings(List.of(batchReading2, batchReading1, batchReading2));
+        // Assert
+        List<HourlyReading> readingsExpected =
+                Stream.of(new HourlyReading(METER_KEY_1, 1555484400L, new BigDecimal("0.07"), 200000L),
+                                new HourlyReading(METER_KEY_1, 1555488000L, new BigDecimal("0.07"), 260000L),
+                                new HourlyReading(METER_KEY_1, 1555491600L, new BigDecimal("0.07"), 200000L))
+                        .toList();
+        Mockito.verify(energyMeterRepository, Mockito.times(1)).insertIfAbsent("9346bfb3-20aa-3412-ffab-44f88b917999", "Green Button Usage Feed");
+        Mockito.verify(hourlyReadingRepository, Mockito.times(1)).upsertAll(readingsExpected);
+    }
+
+    @Test
+    void GivenLockOfMeterHeldByAnotherThread_WhenFeedsSavedByPartitionOwningMeter_ThenSavedWithoutWaitingForLock() throws InterruptedException {
+        // Arrange
+        XmlMeterBatchReading batchReading = meterBatchReadingProcessorServiceImpl.parseBatchReading(
+                new ByteArrayInputStream(METER_BATCH_READING_XML_1.getBytes(StandardCharsets.UTF_8)));
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread lockHolder = new Thread(() -> meterWriteLocks.runWithMeterLock(batchReading.getId(), () -> {
+            locked.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        lockHolder.start();
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+        try {
+            // Act
+            assertTimeoutPreemptively(Duration.ofSeconds(5),
+                    () -> meterBatchReadingProcessorServiceImpl.saveOwnedBatchReadings(List.of(batchReading)));
+        } finally {
+            release.countDown();
+            lockHolder.join();
+        }
+        // Assert
+        Mockito.verify(hourlyReadingRepository, Mockito.times(1)).upsertAll(Mockito.anyList());
+    }
+
+    @Test
+    void GivenFeedsOfTwoMeters_WhenSavedTogether_ThenReadingsOfBothMetersSavedInOneWrite() {
+        // Arrange
+        XmlMeterBatchReading batchReading1 = meterBatchReadingProcessorServiceImpl.parseBatchReading(
+                new ByteArrayInputStream(METER_BATCH_READING_XML_1.getBytes(StandardCharsets.UTF_8)));
+        XmlMeterBatchReading batchReading2 = meterBatchReadingProcessorServiceImpl.parseBatchReading(
+                new ByteArrayInputStream(METER_BATCH_READING_XML_2.getBytes(StandardCharsets.UTF_8)));
+        batchReading2.setId("dummy_id_2");
+        // Act
+        meterBatchReadingProcessorServiceImpl.saveBatchReadingsOfMeters(List.of(batchReading1, batchReading2));
+        // Assert
+        List<HourlyReading> readingsExpected =
+                Stream.of(new HourlyReading(METER_KEY_1, 1555484400L, new BigDecimal("0.07"), 200000L),
+                                new HourlyReading(METER_KEY_2, 1555488000L, new BigDecimal("0.07"), 260000L),
+                                new HourlyReading(METER_KEY_2, 1555491600L, new BigDecimal("0.07"), 200000L))
+                        .toList();
+        Mockito.verify(energyMeterRepository, Mockito.times(1)).insertIfAbsent("9346bfb3-20aa-3412-ffab-44f88b917999", "Green Button Usage Feed");
+        Mockito.verify(energyMeterRepository, Mockito.times(1)).insertIfAbsent("dummy_id_2", "Green Button Usage Feed");
+        Mockito.verify(hourlyReadingRepository, Mockito.times(1)).upsertAll(readingsExpected);
+    }
+
+    @Test
+    void GivenFeedsBulkUploaded_WhenProcessed_ThenMeterSavedBeforeReadingsOfChunkLoaded() {
+        // Arrange
+        Mockito.when(energyMeterRepository.insertIfAbsent("9346bfb3-20aa-3412-ffab-44f88b917999", "Green Button Usage Feed")).thenReturn(1);
+        InOrder inOrder = Mockito.inOrder(energyMeterRepository, hourlyReadingRepository);
+        // Act
+        meterBatchReadingProcessorService.processBatchReadings(List.of(
+                new ByteArrayResource(METER_BATCH_READING_XML_1.getBytes(StandardCharsets.UTF_8)),
+                new ByteArrayResource(METER_BATCH_READING_XML_2.getBytes(StandardCharsets.UTF_8))));
+        // Assert
+        inOrder.verify(energyMeterRepository).insertIfAbsent("9346bfb3-20aa-3412-ffab-44f88b917999", "Green Button Usage Feed");
+        inOrder.verify(energyMeterRepository).incrementDataVersion(Mockito.eq("9346bfb3-20aa-3412-ffab-44f88b917999"), Mockito.anyLong());
+        inOrder.verify(hourlyReadingRepository).bulkLoad(Mockito.argThat(readings -> readings.size() == 3));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void GivenMeterInGroups_WhenFeedsOverwritingAnHourBulkUploaded_ThenDifferencesAddedToHoursOfEachGroupWithoutRecomputing() {
+        // Arrange
+        Mockito.when(meterGroupRepository.findGroupKeysOfMeter(METER_KEY_1)).thenReturn(List.of(1, 2));
+        Mockito.when(hourlyReadingRepository.findValuesOfMeterBetween("9346bfb3-20aa-3412-ffab-44f88b917999", 1555488000L, 1555491600L))
+                .thenReturn(List.of(new HourlyReadingValue(1555488000L, new BigDecimal("0.10"), 100000L)));
+        ArgumentCaptor<List<GroupHourlyReading>> addedHours = ArgumentCaptor.forClass(List.class);
+        // Act
+        meterBatchReadingProcessorService.processBatchReadings(List.of(
+                new ByteArrayResource(METER_BATCH_READING_XML_2.getBytes(StandardCharsets.UTF_8))));
+        // Assert
+        Mockito.verify(groupHourlyReadingRepository, Mockito.times(1)).addAll(addedHours.capture());
+        Assertions.assertThat(addedHours.getValue()).containsExactlyInAnyOrder(
+                new GroupHourlyReading(new GroupHourlyReadingKey(1, 432080), 160000L, new BigDecimal("8.20000"), 0),
+                new GroupHourlyReading(new GroupHourlyReadingKey(1, 432081), 200000L, new BigDecimal("14.00000"), 1),
+                new GroupHourlyReading(new GroupHourlyReadingKey(2, 432080), 160000L, new BigDecimal("8.20000"), 0),
+                new GroupHourlyReading(new GroupHourlyReadingKey(2, 432081), 200000L, new BigDecimal("14.00000"), 1));
+        Mockito.verify(groupHourlyReadingRepository, Mockito.never()).aggregateAllMeters();
+    }
+
+    @Test
+    void GivenMetersWithReadingsBeforeMonth_WhenReadingsBeforeMonthDeleted_ThenTotalsRecomputedAndDataVersionsIncremented() {
+        // Arrange
+        Mockito.when(meterTotalsRepository.findMeterIdsWithHoursBefore(1554076800L))
+                .thenReturn(List.of("9346bfb3-20aa-3412-ffab-44f88b917999", "dummy_id_2"));
+        Mockito.when(hourlyReadingRepository.aggregateTotalsOfMeter("9346bfb3-20aa-3412-ffab-44f88b917999"))
+                .thenReturn(new MeterTotalsValue(200000L, new BigDecimal("14000.00"), 1L, 1555484400L, 1555484400L));
+        Mockito.when(hourlyReadingRepository.aggregateTotalsOfMeter("dummy_id_2"))
+                .thenReturn(new MeterTotalsValue(null, null, 0L, null, null));
+        // Act
+        meterBatchReadingWriter.deleteReadingsBefore(YearMonth.of(2019, 4));
+        // Assert
+        Mockito.verify(hourlyReadingRepository, Mockito.times(1)).deleteReadingsBefore(431688);
+        Mockito.verify(meterTotalsRepository, Mockito.times(1)).save(
+                new MeterTotals("9346bfb3-20aa-3412-ffab-44f88b917999", 200000L, new BigDecimal("14.00000"), 1L, 1555484400L, 1555484400L));
+        Mockito.verify(meterTotalsRepository, Mockito.times(1)).deleteById("dummy_id_2");
+        Mockito.verify(energyMeterRepository, Mockito.times(1)).incrementDataVersion(Mockito.eq("9346bfb3-20aa-3412-ffab-44f88b917999"), Mockito.any());
+        Mockito.verify(energyMeterRepository, Mockito.times(1)).incrementDataVersion(Mockito.eq("dummy_id_2"), Mockito.any());
     }
 }
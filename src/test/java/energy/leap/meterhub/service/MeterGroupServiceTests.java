@@ -0,0 +1,121 @@
+package energy.leap.meterhub.service;
+
+import energy.leap.meterhub.data.entity.EnergyMeter;
+import energy.leap.meterhub.data.entity.GroupHourlyReading;
+import energy.leap.meterhub.data.entity.GroupHourlyReadingKey;
+import energy.leap.meterhub.data.entity.MeterGroup;
+import energy.leap.meterhub.data.entity.MeterGroupMember;
+import energy.leap.meterhub.data.entity.MeterGroupMemberKey;
+import energy.leap.meterhub.data.projection.HourlyReadingValue;
+import energy.leap.meterhub.data.repository.EnergyMeterRepository;
+import energy.leap.meterhub.data.repository.GroupHourlyReadingRepository;
+import energy.leap.meterhub.data.repository.HourlyReadingRepository;
+import energy.leap.meterhub.data.repository.MeterGroupMemberRepository;
+import energy.leap.meterhub.data.repository.MeterGroupRepository;
+import energy.leap.meterhub.service.dto.MeterGroupDto;
+import energy.leap.meterhub.service.exception.IllegalMeterGroupRequestException;
+import energy.leap.meterhub.service.exception.MeterGroupNotFoundException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class MeterGroupServiceTests {
+
+    @MockBean
+    EnergyMeterRepository energyMeterRepository;
+
+    @MockBean
+    HourlyReadingRepository hourlyReadingRepository;
+
+    @MockBean
+    MeterGroupRepository meterGroupRepository;
+
+    @MockBean
+    MeterGroupMemberRepository meterGroupMemberRepository;
+
+    @MockBean
+    GroupHourlyReadingRepository groupHourlyReadingRepository;
+
+    @Autowired
+    MeterGroupService meterGroupService;
+
+    private static final Integer METER_KEY = 7;
+
+    private static MeterGroupMember member(Integer groupKey, boolean assigned) {
+        return new MeterGroupMember(new MeterGroupMemberKey(groupKey, METER_KEY), assigned);
+    }
+
+    // Site 2 holds feeders 3 and 4, all of them below the fleet
+    @BeforeEach
+    void teachGroups() {
+        Mockito.when(meterGroupRepository.findById(MeterGroup.ROOT_ID)).thenReturn(Optional.of(new MeterGroup(MeterGroup.ROOT_ID, "Fleet", null, 1)));
+        Mockito.when(meterGroupRepository.findById("site")).thenReturn(Optional.of(new MeterGroup("site", "Site", MeterGroup.ROOT_ID, 2)));
+        Mockito.when(meterGroupRepository.findById("feeder_a")).thenReturn(Optional.of(new MeterGroup("feeder_a", "Feeder A", "site", 3)));
+        Mockito.when(meterGroupRepository.findById("feeder_b")).thenReturn(Optional.of(new MeterGroup("feeder_b", "Feeder B", "site", 4)));
+        Mockito.when(energyMeterRepository.findForUpdate("dummy_id_1")).thenReturn(Optional.of(new EnergyMeter("dummy_id_1", "dummy title 1", 0L, null, METER_KEY)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void GivenMeterAssignedToFeeder_WhenAssignedToOtherFeederOfSameSite_ThenReadingsMovedBetweenFeedersOnly() {
+        // Arrange
+        Mockito.when(meterGroupMemberRepository.findByIdMeterKey(METER_KEY)).thenReturn(List.of(member(3, true), member(2, false)));
+        Mockito.when(hourlyReadingRepository.findValuesOfMeterBetweenHourIndexes("dummy_id_1", Integer.MIN_VALUE, Integer.MAX_VALUE))
+                .thenReturn(List.of(new HourlyReadingValue(1555488000L, new BigDecimal("0.10"), 100L)));
+        ArgumentCaptor<List<GroupHourlyReading>> addedHours = ArgumentCaptor.forClass(List.class);
+        // Act
+        meterGroupService.assignMeter("feeder_b", "dummy_id_1");
+        // Assert
+        Mockito.verify(meterGroupMemberRepository, Mockito.times(1)).deleteAll(List.of(member(3, true)));
+        Mockito.verify(meterGroupMemberRepository, Mockito.times(1)).saveAll(List.of(member(4, true), member(2, false)));
+        Mockito.verify(groupHourlyReadingRepository, Mockito.times(1)).addAll(addedHours.capture());
+        Assertions.assertThat(addedHours.getValue()).containsExactlyInAnyOrder(
+                new GroupHourlyReading(new GroupHourlyReadingKey(4, 432080), 100L, new BigDecimal("0.01000"), 1),
+                new GroupHourlyReading(new GroupHourlyReadingKey(3, 432080), -100L, new BigDecimal("-0.01000"), -1));
+        Mockito.verify(groupHourlyReadingRepository, Mockito.times(1)).deleteEmptyOfGroups(List.of(3));
+    }
+
+    @Test
+    void GivenMeterAssignedToOtherFeeder_WhenUnassignedFromSite_ThenIllegalMeterGroupRequestExceptionThrown() {
+        // Arrange
+        Mockito.when(meterGroupMemberRepository.findByIdMeterKey(METER_KEY)).thenReturn(List.of(member(3, true), member(2, false)));
+        // Act
+        // Assert
+        Assertions.assertThatThrownBy(() -> meterGroupService.unassignMeter("site", "dummy_id_1"))
+                .isInstanceOf(IllegalMeterGroupRequestException.class);
+        Mockito.verify(groupHourlyReadingRepository, Mockito.never()).addAll(Mockito.any());
+    }
+
+    @Test
+    void GivenNoParent_WhenGroupCreated_ThenGroupCreatedBelowFleet() {
+        // Arrange
+        Mockito.when(meterGroupRepository.existsById(MeterGroup.ROOT_ID)).thenReturn(true);
+        Mockito.when(meterGroupRepository.save(new MeterGroup("site", "Site", MeterGroup.ROOT_ID)))
+                .thenReturn(new MeterGroup("site", "Site", MeterGroup.ROOT_ID, 2));
+        // Act
+        MeterGroupDto group = meterGroupService.createGroup("site", "Site", null);
+        // Assert
+        assertEquals(new MeterGroupDto("site", "Site", MeterGroup.ROOT_ID), group);
+    }
+
+    @Test
+    void GivenUnknownParent_WhenGroupCreated_ThenMeterGroupNotFoundExceptionThrown() {
+        // Act
+        // Assert
+        Assertions.assertThatThrownBy(() -> meterGroupService.createGroup("feeder_c", "Feeder C", "unknown_site"))
+                .isInstanceOf(MeterGroupNotFoundException.class);
+        Mockito.verify(meterGroupRepository, Mockito.never()).save(Mockito.any());
+    }
+}
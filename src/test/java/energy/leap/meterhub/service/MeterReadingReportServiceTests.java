@@ -1,23 +1,56 @@
 package energy.leap.meterhub.service;
 
 import energy.leap.meterhub.data.entity.EnergyMeter;
-import energy.leap.meterhub.data.entity.HourlyReading;
+import energy.leap.meterhub.data.entity.MeterTotals;
+import energy.leap.meterhub.data.entity.RollupGranularity;
+import energy.leap.meterhub.data.projection.BucketedReportValue;
+import energy.leap.meterhub.data.projection.HourlyReportValue;
+import energy.leap.meterhub.data.projection.MeterHourlyReportValue;
+import energy.leap.meterhub.data.projection.MeterRangeTotalsValue;
+import energy.leap.meterhub.data.projection.MeterSummaryValue;
 import energy.leap.meterhub.data.repository.EnergyMeterRepository;
 import energy.leap.meterhub.data.repository.HourlyReadingRepository;
+import energy.leap.meterhub.data.repository.MeterRollupRepository;
+import energy.leap.meterhub.data.repository.MeterTotalsRepository;
+import energy.leap.meterhub.service.dto.BucketedReportDto;
 import energy.leap.meterhub.service.dto.EnergyMeterDto;
 import energy.leap.meterhub.service.dto.HourlyReportDto;
+import energy.leap.meterhub.service.dto.HourlyReportPageDto;
+import energy.leap.meterhub.service.dto.MeterBatchReportDto;
+import energy.leap.meterhub.service.dto.MeterBatchReportRequestDto;
+import energy.leap.meterhub.service.dto.MeterDataVersionDto;
+import energy.leap.meterhub.service.dto.MeterSummaryDto;
+import energy.leap.meterhub.service.exception.IllegalReportRequestException;
+import energy.leap.meterhub.service.exception.MeterNotFoundException;
+import energy.leap.meterhub.service.impl.MeterReadingsSavedEvent;
+import energy.leap.meterhub.service.impl.MeterReportCache;
 import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatCode;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 class MeterReadingReportServiceTests {
@@ -28,42 +61,71 @@ class MeterReadingReportServiceTests {
     @MockBean
     HourlyReadingRepository hourlyReadingRepository;
 
+    @MockBean
+    MeterTotalsRepository meterTotalsRepository;
+
+    @MockBean
+    MeterRollupRepository meterRollupRepository;
+
     @Autowired
     MeterReadingReportService meterReadingReportService;
 
+    @Autowired
+    MeterReportCache meterReportCache;
+
+    @BeforeEach
+    void clearCache() {
+        meterReportCache.invalidateAll();
+    }
+
     @Test
     void GivenMockRepoTaughtToReturnCertainCost_WhenTotalCostForMeterRequested_ThenCertainCostReturned() {
         // Arrange
-        Mockito.when(hourlyReadingRepository.getTotalCostOfMeter("dummy_id")).thenReturn(100.0);
+        Mockito.when(meterTotalsRepository.findById("dummy_id"))
+                .thenReturn(Optional.of(new MeterTotals("dummy_id", 1000L, new BigDecimal("100.00000"), 1L, 1555484400L, 1555484400L)));
         // Act
         Double totalCost = meterReadingReportService.getTotalCostForMeter("dummy_id");
         // Assert
-        Mockito.verify(hourlyReadingRepository, Mockito.times(1)).getTotalCostOfMeter("dummy_id");
+        Mockito.verify(meterTotalsRepository, Mockito.times(1)).findById("dummy_id");
+        Mockito.verify(hourlyReadingRepository, Mockito.never()).getTotalCostOfMeter("dummy_id");
         assertEquals(100.0, totalCost);
     }
 
     @Test
     void GivenMockRepoTaughtToReturnCertainTotal_WhenTotalReadingForMeterRequested_ThenCertainTotalReturned() {
         // Arrange
-        Mockito.when(hourlyReadingRepository.getTotalReadingAsWhOfMeter("dummy_id")).thenReturn(1000L);
+        Mockito.when(meterTotalsRepository.findById("dummy_id"))
+                .thenReturn(Optional.of(new MeterTotals("dummy_id", 1000L, new BigDecimal("100.00000"), 1L, 1555484400L, 1555484400L)));
         // Act
         Long totalReading = meterReadingReportService.getTotalReadingAsWhForMeter("dummy_id");
         // Assert
-        Mockito.verify(hourlyReadingRepository, Mockito.times(1)).getTotalReadingAsWhOfMeter("dummy_id");
+        Mockito.verify(meterTotalsRepository, Mockito.times(1)).findById("dummy_id");
+        Mockito.verify(hourlyReadingRepository, Mockito.never()).getTotalReadingAsWhOfMeter("dummy_id");
         assertEquals(1000, totalReading);
     }
 
     @Test
-    void GivenMockRepoTaughtToReturnCertainMeters_WhenMetersRequested_ThenCertainMetersReturned() {
+    void GivenNoTotalsForMeter_WhenTotalReadingForMeterRequested_ThenMeterNotFoundExceptionThrown() {
+        // Arrange
+        Mockito.when(meterTotalsRepository.findById("dummy_id")).thenReturn(Optional.empty());
+        // Act
+        assertThatCode(() -> meterReadingReportService.getTotalReadingAsWhForMeter("dummy_id"))
+        // Assert
+        .isInstanceOf(MeterNotFoundException.class);
+    }
+
+    @Test
+    void GivenMockRepoTaughtToReturnCertainMeters_WhenMetersRequestedTwice_ThenCertainMetersReturnedAndReadOnce() {
         // Arrange
-        Mockito.when(energyMeterRepository.findAll())
+        Mockito.when(energyMeterRepository.findAll(Sort.by("id")))
                 .thenReturn(Stream.of(new EnergyMeter("dummy_id_1", "dummy title 1"),
                                 new EnergyMeter("dummy_id_2", "dummy title 2"))
                         .toList());
         // Act
+        meterReadingReportService.getEnergyMeters();
         List<EnergyMeterDto> meters = meterReadingReportService.getEnergyMeters();
         // Assert
-        Mockito.verify(energyMeterRepository, Mockito.times(1)).findAll();
+        Mockito.verify(energyMeterRepository, Mockito.times(1)).findAll(Sort.by("id"));
         List<EnergyMeterDto> expectedMeters = Stream.of(new EnergyMeterDto("dummy_id_1", "dummy title 1"),
                         new EnergyMeterDto("dummy_id_2", "dummy title 2"))
                 .toList();
@@ -71,22 +133,249 @@ class MeterReadingReportServiceTests {
     }
 
     @Test
-    void GivenMockRepoTaughtToReturnCertainHourlyReports_WhenHourlyReportsRequested_ThenCertainHourlyReportsReturned() {
+    void GivenMockRepoTaughtToReturnCertainHourlyReports_WhenHourlyReportsRequestedWithoutPaging_ThenAllHourlyReportsReturned() {
         // Arrange
-        Mockito.when(hourlyReadingRepository.findByIdMeterId("dummy_id_1"))
-                .thenReturn(Stream.of(new HourlyReading("dummy_id_1", 1555484400L, new BigDecimal("0.07"), 100L),
-                                new HourlyReading("dummy_id_1", 1555488000L, new BigDecimal("0.08"), 200L),
-                                new HourlyReading("dummy_id_1", 1555477200L, new BigDecimal("0.09"), 300L))
+        Mockito.when(hourlyReadingRepository.findReportsOfMeterBetween("dummy_id_1", Long.MIN_VALUE, Long.MAX_VALUE, Pageable.unpaged()))
+                .thenReturn(Stream.of(new HourlyReportValue(1555477200L, 300L, new BigDecimal("0.02700")),
+                                new HourlyReportValue(1555484400L, 100L, new BigDecimal("0.00700")),
+                                new HourlyReportValue(1555488000L, 200L, new BigDecimal("0.01600")))
                         .toList());
         // Act
-        List<HourlyReportDto> hourlyReports = meterReadingReportService.getHourlyReportsForMeter("dummy_id_1");
+        HourlyReportPageDto hourlyReports = meterReadingReportService.getHourlyReportsForMeter("dummy_id_1", null, null, null, null);
         // Assert
-        Mockito.verify(hourlyReadingRepository, Mockito.times(1)).findByIdMeterId("dummy_id_1");
+        Mockito.verify(hourlyReadingRepository, Mockito.times(1))
+                .findReportsOfMeterBetween("dummy_id_1", Long.MIN_VALUE, Long.MAX_VALUE, Pageable.unpaged());
         List<HourlyReportDto> expectedHourlyReports =
-                Stream.of(new HourlyReportDto(1555484400L, 100L, new BigDecimal("0.007")),
-                                new HourlyReportDto(1555488000L, 200L, new BigDecimal("0.016")),
-                                new HourlyReportDto(1555477200L, 300L, new BigDecimal("0.027")))
+                Stream.of(new HourlyReportDto(1555477200L, 300L, new BigDecimal("0.02700")),
+                                new HourlyReportDto(1555484400L, 100L, new BigDecimal("0.00700")),
+                                new HourlyReportDto(1555488000L, 200L, new BigDecimal("0.01600")))
                 .toList();
-        Assertions.assertThat(hourlyReports).containsAll(expectedHourlyReports).hasSize(expectedHourlyReports.size());
+        assertEquals(expectedHourlyReports, hourlyReports.getHourlyReports());
+        assertNull(hourlyReports.getContinuationToken());
+    }
+
+    @Test
+    void GivenMockRepoTaughtToReturnCertainHourlyReports_WhenHourlyReportsRequestedWithPageSize_ThenPageOfHourlyReportsReturned() {
+        // Arrange
+        Mockito.when(hourlyReadingRepository.findReportsOfMeterBetween("dummy_id_1", Long.MIN_VALUE, Long.MAX_VALUE, PageRequest.of(0, 1001)))
+                .thenReturn(Stream.of(new HourlyReportValue(1555477200L, 300L, new BigDecimal("0.02700")),
+                                new HourlyReportValue(1555484400L, 100L, new BigDecimal("0.00700")),
+                                new HourlyReportValue(1555488000L, 200L, new BigDecimal("0.01600")))
+                        .toList());
+        // Act
+        HourlyReportPageDto hourlyReports = meterReadingReportService.getHourlyReportsForMeter("dummy_id_1", null, null, null, 1000);
+        // Assert
+        Mockito.verify(hourlyReadingRepository, Mockito.times(1))
+                .findReportsOfMeterBetween("dummy_id_1", Long.MIN_VALUE, Long.MAX_VALUE, PageRequest.of(0, 1001));
+        List<HourlyReportDto> expectedHourlyReports =
+                Stream.of(new HourlyReportDto(1555477200L, 300L, new BigDecimal("0.02700")),
+                                new HourlyReportDto(1555484400L, 100L, new BigDecimal("0.00700")),
+                                new HourlyReportDto(1555488000L, 200L, new BigDecimal("0.01600")))
+                .toList();
+        assertEquals(expectedHourlyReports, hourlyReports.getHourlyReports());
+        assertNull(hourlyReports.getContinuationToken());
+    }
+
+    @Test
+    void GivenMoreHourlyReportsThanPageSize_WhenPagesRequested_ThenNextPageStartsAfterLastHourOfPreviousPage() {
+        // Arrange
+        Mockito.when(hourlyReadingRepository.findReportsOfMeterBetween("dummy_id_1", 1555477200L, 1555495200L, PageRequest.of(0, 3)))
+                .thenReturn(Stream.of(new HourlyReportValue(1555477200L, 300L, new BigDecimal("0.02700")),
+                                new HourlyReportValue(1555484400L, 100L, new BigDecimal("0.00700")),
+                                new HourlyReportValue(1555488000L, 200L, new BigDecimal("0.01600")))
+                        .toList());
+        Mockito.when(hourlyReadingRepository.findReportsOfMeterBetween("dummy_id_1", 1555484401L, 1555495200L, PageRequest.of(0, 3)))
+                .thenReturn(Stream.of(new HourlyReportValue(1555488000L, 200L, new BigDecimal("0.01600")))
+                        .toList());
+        // Act
+        HourlyReportPageDto firstPage = meterReadingReportService.getHourlyReportsForMeter("dummy_id_1", 1555477200L, 1555495200L, null, 2);
+        HourlyReportPageDto secondPage = meterReadingReportService.getHourlyReportsForMeter("dummy_id_1", 1555477200L, 1555495200L, firstPage.getContinuationToken(), 2);
+        // Assert
+        assertEquals(List.of(1555477200L, 1555484400L),
+                firstPage.getHourlyReports().stream().map(HourlyReportDto::getHourStartEpochAsSec).toList());
+        assertNotNull(firstPage.getContinuationToken());
+        assertEquals(List.of(new HourlyReportDto(1555488000L, 200L, new BigDecimal("0.01600"))), secondPage.getHourlyReports());
+        assertNull(secondPage.getContinuationToken());
+    }
+
+    @Test
+    void GivenInvalidContinuationToken_WhenHourlyReportsRequested_ThenIllegalReportRequestExceptionThrown() {
+        // Arrange
+        // None
+        // Act
+        assertThatCode(() -> meterReadingReportService.getHourlyReportsForMeter("dummy_id_1", null, null, "dummy token", null))
+        // Assert
+        .isInstanceOf(IllegalReportRequestException.class);
+    }
+
+    @Test
+    void GivenPageSizeAboveMaximum_WhenHourlyReportsRequested_ThenIllegalReportRequestExceptionThrown() {
+        // Arrange
+        // None
+        // Act
+        assertThatCode(() -> meterReadingReportService.getHourlyReportsForMeter("dummy_id_1", null, null, null, 10001))
+        // Assert
+        .isInstanceOf(IllegalReportRequestException.class);
+    }
+
+    @Test
+    void GivenMockRepoTaughtToStreamCertainReports_WhenHourlyReportsStreamed_ThenCertainHourlyReportsConsumedAndStreamClosed() {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean();
+        Mockito.when(hourlyReadingRepository.streamReportsOfMeterBetween("dummy_id_1", 1555477200L, Long.MAX_VALUE))
+                .thenReturn(Stream.of(new HourlyReportValue(1555477200L, 300L, new BigDecimal("0.02700")),
+                                new HourlyReportValue(1555484400L, 100L, new BigDecimal("0.00700")))
+                        .onClose(() -> closed.set(true)));
+        List<HourlyReportDto> consumedReports = new ArrayList<>();
+        // Act
+        meterReadingReportService.streamHourlyReportsForMeter("dummy_id_1", 1555477200L, null, consumedReports::add);
+        // Assert
+        assertEquals(List.of(new HourlyReportDto(1555477200L, 300L, new BigDecimal("0.02700")),
+                        new HourlyReportDto(1555484400L, 100L, new BigDecimal("0.00700"))),
+                consumedReports);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void GivenTotalReadingRequestedBefore_WhenTotalReadingRequestedAgain_ThenCachedTotalReturnedUntilMeterReadingsSaved() {
+        // Arrange
+        Mockito.when(meterTotalsRepository.findById("dummy_id"))
+                .thenReturn(Optional.of(new MeterTotals("dummy_id", 1000L, new BigDecimal("100.00000"), 1L, 1555484400L, 1555484400L)))
+                .thenReturn(Optional.of(new MeterTotals("dummy_id", 2000L, new BigDecimal("200.00000"), 2L, 1555484400L, 1555488000L)));
+        meterReadingReportService.getTotalReadingAsWhForMeter("dummy_id");
+        // Act
+        Long cachedTotalReading = meterReadingReportService.getTotalReadingAsWhForMeter("dummy_id");
+        meterReportCache.onMeterReadingsSaved(new MeterReadingsSavedEvent(Set.of("dummy_id")));
+        Long savedTotalReading = meterReadingReportService.getTotalReadingAsWhForMeter("dummy_id");
+        // Assert
+        Mockito.verify(meterTotalsRepository, Mockito.times(2)).findById("dummy_id");
+        assertEquals(1000L, cachedTotalReading);
+        assertEquals(2000L, savedTotalReading);
+    }
+
+    @Test
+    void GivenMockRepoTaughtToReturnCertainMeter_WhenDataVersionOfMeterRequested_ThenDataVersionOfMeterReturned() {
+        // Arrange
+        Mockito.when(energyMeterRepository.findById("dummy_id_1"))
+                .thenReturn(Optional.of(new EnergyMeter("dummy_id_1", "dummy title 1", 3L, 1555484400000L)));
+        Mockito.when(energyMeterRepository.findById("dummy_id_2")).thenReturn(Optional.empty());
+        // Act
+        Optional<MeterDataVersionDto> dataVersion = meterReadingReportService.getDataVersionOfMeter("dummy_id_1");
+        Optional<MeterDataVersionDto> missingDataVersion = meterReadingReportService.getDataVersionOfMeter("dummy_id_2");
+        // Assert
+        assertEquals(Optional.of(new MeterDataVersionDto(3L, 1555484400000L)), dataVersion);
+        assertEquals(Optional.empty(), missingDataVersion);
+    }
+
+    @Test
+    void GivenMonthRollupsOfMeter_WhenMonthlyReportRequestedWithoutRange_ThenRollupsOfAllMonthsReturned() {
+        // Arrange
+        Mockito.when(meterRollupRepository.findReportsOfMeterBetween("dummy_id", RollupGranularity.MONTH, Long.MIN_VALUE, Long.MAX_VALUE))
+                .thenReturn(List.of(new BucketedReportValue(1554076800L, 200L, new BigDecimal("0.02000"))));
+        // Act
+        List<BucketedReportDto> foundReports = meterReadingReportService.getBucketedReportsForMeter("dummy_id", "month", null, null);
+        // Assert
+        assertEquals(List.of(new BucketedReportDto(1554076800L, 200L, new BigDecimal("0.02000"))), foundReports);
+    }
+
+    @Test
+    void GivenUnknownGranularity_WhenBucketedReportRequested_ThenIllegalReportRequestExceptionThrown() {
+        // Act
+        // Assert
+        Assertions.assertThatThrownBy(() -> meterReadingReportService.getBucketedReportsForMeter("dummy_id", "week", null, null))
+                .isInstanceOf(IllegalReportRequestException.class);
+        Mockito.verifyNoInteractions(meterRollupRepository);
+    }
+
+    @Test
+    void GivenMoreMetersThanChunkSize_WhenBatchReportsStreamedWithoutRange_ThenTotalsOfMetersWithReadingsConsumedInRequestOrder() {
+        // Arrange
+        List<String> meterIds = IntStream.range(0, 1200).mapToObj(i -> "dummy_id_" + i).toList();
+        Mockito.when(meterTotalsRepository.findAllById(Mockito.anyIterable())).thenAnswer(invocation -> {
+            Iterable<String> ids = invocation.getArgument(0);
+            return StreamSupport.stream(ids.spliterator(), false)
+                    .filter(id -> !id.equals("dummy_id_7"))
+                    .map(id -> new MeterTotals(id, 1000L, new BigDecimal("100.00000"), 1L, 1555484400L, 1555484400L))
+                    .toList();
+        });
+        List<String> requestedIds = new ArrayList<>(meterIds);
+        requestedIds.add("dummy_id_0");
+        List<MeterBatchReportDto> consumedReports = new ArrayList<>();
+        // Act
+        meterReadingReportService.streamBatchReports(new MeterBatchReportRequestDto(requestedIds, null, null, false), consumedReports::add);
+        // Assert
+        Mockito.verify(meterTotalsRepository, Mockito.times(3)).findAllById(Mockito.anyIterable());
+        assertEquals(meterIds.stream().filter(id -> !id.equals("dummy_id_7")).toList(),
+                consumedReports.stream().map(MeterBatchReportDto::getMeterId).toList());
+        assertEquals(new MeterBatchReportDto("dummy_id_0", 1000L, new BigDecimal("100.00000"), null), consumedReports.get(0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void GivenMockRepoTaughtToReturnCertainReadings_WhenHourlyBatchReportsStreamedForRange_ThenTotalsAndHourlyReportsOfRangeConsumed() {
+        // Arrange
+        Mockito.when(hourlyReadingRepository.aggregateTotalsOfMetersBetween(Mockito.any(Collection.class), Mockito.eq(1555484400L), Mockito.eq(Long.MAX_VALUE)))
+                .thenReturn(List.of(new MeterRangeTotalsValue("dummy_id_2", 200L, new BigDecimal("16.00000")),
+                        new MeterRangeTotalsValue("dummy_id_1", 300L, new BigDecimal("23.00000"))));
+        Mockito.when(hourlyReadingRepository.findReportsOfMetersBetween(Mockito.any(Collection.class), Mockito.eq(1555484400L), Mockito.eq(Long.MAX_VALUE)))
+                .thenReturn(List.of(new MeterHourlyReportValue("dummy_id_1", 1555484400L, 100L, new BigDecimal("0.00700")),
+                        new MeterHourlyReportValue("dummy_id_1", 1555488000L, 200L, new BigDecimal("0.01600")),
+                        new MeterHourlyReportValue("dummy_id_2", 1555484400L, 200L, new BigDecimal("0.01600"))));
+        List<MeterBatchReportDto> consumedReports = new ArrayList<>();
+        // Act
+        meterReadingReportService.streamBatchReports(new MeterBatchReportRequestDto(List.of("dummy_id_1", "dummy_id_2", "dummy_id_3"),
+                1555484400L, null, true), consumedReports::add);
+        // Assert
+        assertEquals(List.of(new MeterBatchReportDto("dummy_id_1", 300L, new BigDecimal("0.02300000"),
+                                List.of(new HourlyReportDto(1555484400L, 100L, new BigDecimal("0.00700")),
+                                        new HourlyReportDto(1555488000L, 200L, new BigDecimal("0.01600")))),
+                        new MeterBatchReportDto("dummy_id_2", 200L, new BigDecimal("0.01600000"),
+                                List.of(new HourlyReportDto(1555484400L, 200L, new BigDecimal("0.01600"))))),
+                consumedReports);
+        Mockito.verifyNoInteractions(meterTotalsRepository);
+    }
+
+    @Test
+    void GivenNoMeterIds_WhenBatchReportRequestChecked_ThenIllegalReportRequestExceptionThrown() {
+        // Act
+        // Assert
+        Assertions.assertThatThrownBy(() -> meterReadingReportService.checkBatchReportRequest(new MeterBatchReportRequestDto(List.of(), null, null, false)))
+                .isInstanceOf(IllegalReportRequestException.class);
+    }
+
+    @Test
+    void GivenMockRepoTaughtToReturnCertainSummary_WhenSummaryForMeterRequested_ThenSummaryWithExactCostReturned() {
+        // Arrange
+        Mockito.when(hourlyReadingRepository.findSummaryOfMeterBetween("dummy_id", 1555484400L, Long.MAX_VALUE))
+                .thenReturn(new MeterSummaryValue(700L, new BigDecimal("58.00000"), 3L, 1555484400L, 1555491600L, 1555488000L, 300L));
+        // Act
+        MeterSummaryDto summary = meterReadingReportService.getSummaryForMeter("dummy_id", 1555484400L, null);
+        // Assert
+        assertEquals(new MeterSummaryDto(700L, new BigDecimal("0.05800000"), 3L, 1555484400L, 1555491600L, 1555488000L, 300L), summary);
+        Mockito.verify(hourlyReadingRepository, Mockito.never()).getTotalReadingAsWhOfMeter("dummy_id");
+        Mockito.verify(hourlyReadingRepository, Mockito.never()).getTotalCostOfMeter("dummy_id");
+    }
+
+    @Test
+    void GivenNoReadingsInRange_WhenSummaryForMeterRequested_ThenEmptySummaryReturnedForKnownMeterOnly() {
+        // Arrange
+        Mockito.when(energyMeterRepository.existsById("dummy_id_1")).thenReturn(true);
+        // Act
+        MeterSummaryDto summary = meterReadingReportService.getSummaryForMeter("dummy_id_1", null, 1555484400L);
+        // Assert
+        assertEquals(new MeterSummaryDto(0L, BigDecimal.ZERO, 0L, null, null, null, null), summary);
+        Assertions.assertThatThrownBy(() -> meterReadingReportService.getSummaryForMeter("dummy_id_2", null, 1555484400L))
+                .isInstanceOf(MeterNotFoundException.class);
+    }
+
+    @Test
+    void GivenUnknownRankingOrCountAboveMaximum_WhenTopMetersRequested_ThenIllegalReportRequestExceptionThrown() {
+        // Act
+        // Assert
+        Assertions.assertThatThrownBy(() -> meterReadingReportService.getTopMeters(1555459200L, 1555545600L, "hours", null))
+                .isInstanceOf(IllegalReportRequestException.class);
+        Assertions.assertThatThrownBy(() -> meterReadingReportService.getTopMeters(1555459200L, 1555545600L, "cost", 1001))
+                .isInstanceOf(IllegalReportRequestException.class);
+        Mockito.verifyNoInteractions(hourlyReadingRepository, meterRollupRepository);
     }
 }
@@ -0,0 +1,74 @@
+package energy.leap.meterhub.service.impl;
+
+import energy.leap.meterhub.config.MeterhubProperties;
+import energy.leap.meterhub.data.repository.HourlyReadingRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+class HourlyReadingMaintainerTests {
+
+    private final HourlyReadingRepository hourlyReadingRepository = Mockito.mock(HourlyReadingRepository.class);
+
+    private final MeterBatchReadingWriter meterBatchReadingWriter = Mockito.mock(MeterBatchReadingWriter.class);
+
+    private final MeterhubProperties meterhubProperties = new MeterhubProperties();
+
+    private final HourlyReadingMaintainer hourlyReadingMaintainer = new HourlyReadingMaintainer(hourlyReadingRepository,
+            meterBatchReadingWriter, new MeterWriteLocks(meterhubProperties), meterhubProperties);
+
+    @Test
+    void GivenPartitionedTable_WhenMaintained_ThenMissingMonthsUpToMonthsAheadAndOfDefaultPartitionCreated() {
+        // Arrange
+        meterhubProperties.getPersistence().getPartitioning().setEnabled(true);
+        meterhubProperties.getPersistence().getPartitioning().setMonthsAhead(2);
+        Mockito.when(hourlyReadingRepository.isPartitioned()).thenReturn(true);
+        Mockito.when(hourlyReadingRepository.findMonthlyPartitions()).thenReturn(Set.of(YearMonth.of(2023, 4)));
+        Mockito.when(hourlyReadingRepository.findMonthsOfDefaultPartition()).thenReturn(List.of(YearMonth.of(2022, 12)));
+        // Act
+        hourlyReadingMaintainer.maintain(YearMonth.of(2023, 4));
+        // Assert
+        Mockito.verify(hourlyReadingRepository, Mockito.times(1)).createMonthlyPartition(YearMonth.of(2022, 12));
+        Mockito.verify(hourlyReadingRepository, Mockito.times(1)).createMonthlyPartition(YearMonth.of(2023, 5));
+        Mockito.verify(hourlyReadingRepository, Mockito.times(1)).createMonthlyPartition(YearMonth.of(2023, 6));
+        Mockito.verify(hourlyReadingRepository, Mockito.never()).createMonthlyPartition(YearMonth.of(2023, 4));
+        Mockito.verify(hourlyReadingRepository, Mockito.never()).createMonthlyPartition(YearMonth.of(2023, 7));
+        Mockito.verify(meterBatchReadingWriter, Mockito.never()).deleteReadingsBefore(Mockito.any());
+    }
+
+    @Test
+    void GivenRetention_WhenMaintained_ThenReadingsPastRetentionDeletedBeforePartitionsCreatedForRetainedMonthsOnly() {
+        // Arrange
+        meterhubProperties.getPersistence().getPartitioning().setEnabled(true);
+        meterhubProperties.getPersistence().getPartitioning().setMonthsAhead(0);
+        meterhubProperties.getPersistence().getPartitioning().setRetentionMonths(3);
+        Mockito.when(hourlyReadingRepository.isPartitioned()).thenReturn(true);
+        Mockito.when(hourlyReadingRepository.findMonthsOfDefaultPartition())
+                .thenReturn(List.of(YearMonth.of(2022, 12), YearMonth.of(2023, 1), YearMonth.of(2023, 2)));
+        // Act
+        hourlyReadingMaintainer.maintain(YearMonth.of(2023, 4));
+        // Assert
+        InOrder inOrder = Mockito.inOrder(meterBatchReadingWriter, hourlyReadingRepository);
+        inOrder.verify(meterBatchReadingWriter).deleteReadingsBefore(YearMonth.of(2023, 1));
+        inOrder.verify(hourlyReadingRepository).createMonthlyPartition(YearMonth.of(2023, 1));
+        inOrder.verify(hourlyReadingRepository).createMonthlyPartition(YearMonth.of(2023, 2));
+        inOrder.verify(hourlyReadingRepository).createMonthlyPartition(YearMonth.of(2023, 4));
+        Mockito.verify(hourlyReadingRepository, Mockito.never()).createMonthlyPartition(YearMonth.of(2022, 12));
+    }
+
+    @Test
+    void GivenRetentionWithoutPartitioning_WhenMaintained_ThenReadingsPastRetentionDeletedAndNoPartitionCreated() {
+        // Arrange
+        meterhubProperties.getPersistence().getPartitioning().setRetentionMonths(12);
+        // Act
+        hourlyReadingMaintainer.maintain(YearMonth.of(2023, 4));
+        // Assert
+        Mockito.verify(meterBatchReadingWriter, Mockito.times(1)).deleteReadingsBefore(YearMonth.of(2022, 4));
+        Mockito.verify(hourlyReadingRepository, Mockito.never()).isPartitioned();
+        Mockito.verify(hourlyReadingRepository, Mockito.never()).createMonthlyPartition(Mockito.any());
+    }
+}
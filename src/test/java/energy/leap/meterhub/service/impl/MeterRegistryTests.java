@@ -0,0 +1,113 @@
+package energy.leap.meterhub.service.impl;
+
+import energy.leap.meterhub.config.MeterhubProperties;
+import energy.leap.meterhub.data.entity.EnergyMeter;
+import energy.leap.meterhub.data.repository.EnergyMeterRepository;
+import energy.leap.meterhub.service.dto.EnergyMeterDto;
+import energy.leap.meterhub.service.impl.mapper.EnergyMeterMapper;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MeterRegistryTests {
+
+    private final EnergyMeterRepository energyMeterRepository = Mockito.mock(EnergyMeterRepository.class);
+
+    private final MeterRegistry meterRegistry = new MeterRegistry(energyMeterRepository, Mappers.getMapper(EnergyMeterMapper.class),
+            new MeterhubProperties());
+
+    @Test
+    void GivenMetersLoaded_WhenKnownMeterRegisteredWithSameTitle_ThenNothingWritten() {
+        // Arrange
+        Mockito.when(energyMeterRepository.findAll()).thenReturn(List.of(new EnergyMeter("dummy_id_2", "dummy title 2"),
+                new EnergyMeter("dummy_id_1", "dummy title 1")));
+        meterRegistry.load();
+        // Act
+        meterRegistry.register("dummy_id_1", "dummy title 1");
+        // Assert
+        Mockito.verify(energyMeterRepository, Mockito.never()).insertIfAbsent(Mockito.any(), Mockito.any());
+        Mockito.verify(energyMeterRepository, Mockito.never()).updateTitle(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void GivenMetersLoaded_WhenKnownMeterRegistered_ThenLoadedKeyReturnedWithoutLookup() {
+        // Arrange
+        Mockito.when(energyMeterRepository.findAll()).thenReturn(List.of(new EnergyMeter("dummy_id_1", "dummy title 1", 0L, null, 5)));
+        meterRegistry.load();
+        // Act
+        Integer meterKey = meterRegistry.register("dummy_id_1", "dummy title 2");
+        // Assert
+        assertEquals(5, meterKey);
+        Mockito.verify(energyMeterRepository, Mockito.times(1)).updateTitle("dummy_id_1", "dummy title 2");
+        Mockito.verify(energyMeterRepository, Mockito.never()).findMeterKey(Mockito.any());
+    }
+
+    @Test
+    void GivenMeterSavedByOtherInstance_WhenRegisteredTwice_ThenInsertSkippedAndTitleUpdatedOnlyOnce() {
+        // Arrange
+        Mockito.when(energyMeterRepository.insertIfAbsent("dummy_id_1", "dummy title 1")).thenReturn(0);
+        Mockito.when(energyMeterRepository.findMeterKey("dummy_id_1")).thenReturn(3);
+        // Act
+        Integer meterKey = meterRegistry.register("dummy_id_1", "dummy title 1");
+        Integer knownMeterKey = meterRegistry.register("dummy_id_1", "dummy title 1");
+        // Assert
+        assertEquals(3, meterKey);
+        assertEquals(3, knownMeterKey);
+        Mockito.verify(energyMeterRepository, Mockito.times(1)).insertIfAbsent("dummy_id_1", "dummy title 1");
+        Mockito.verify(energyMeterRepository, Mockito.times(1)).updateTitle("dummy_id_1", "dummy title 1");
+        Mockito.verify(energyMeterRepository, Mockito.times(1)).findMeterKey("dummy_id_1");
+    }
+
+    @Test
+    void GivenNewMeterRegisteredInTransaction_WhenTransactionCommitted_ThenMeterKnownOnlyAfterCommit() {
+        // Arrange
+        Mockito.when(energyMeterRepository.insertIfAbsent("dummy_id_1", "dummy title 1")).thenReturn(1);
+        Mockito.when(energyMeterRepository.findMeterKey("dummy_id_1")).thenReturn(3);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            meterRegistry.register("dummy_id_1", "dummy title 1");
+            meterRegistry.register("dummy_id_1", "dummy title 1");
+            // Act
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            Integer meterKey = meterRegistry.register("dummy_id_1", "dummy title 1");
+            // Assert
+            assertEquals(3, meterKey);
+            Mockito.verify(energyMeterRepository, Mockito.times(2)).insertIfAbsent("dummy_id_1", "dummy title 1");
+            Mockito.verify(energyMeterRepository, Mockito.never()).updateTitle(Mockito.any(), Mockito.any());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void GivenMetersListed_WhenNewMeterRegisteredInTransaction_ThenListReadAgainOnlyAfterCommit() {
+        // Arrange
+        Mockito.when(energyMeterRepository.findAll(Sort.by("id"))).thenReturn(List.of(new EnergyMeter("dummy_id_1", "dummy title 1")))
+                .thenReturn(List.of(new EnergyMeter("dummy_id_1", "dummy title 1"), new EnergyMeter("dummy_id_2", "dummy title 2")));
+        Mockito.when(energyMeterRepository.insertIfAbsent("dummy_id_2", "dummy title 2")).thenReturn(1);
+        Mockito.when(energyMeterRepository.findMeterKey("dummy_id_2")).thenReturn(4);
+        meterRegistry.getEnergyMeters();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            meterRegistry.register("dummy_id_2", "dummy title 2");
+            List<EnergyMeterDto> metersBeforeCommit = meterRegistry.getEnergyMeters();
+            // Act
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            List<EnergyMeterDto> metersAfterCommit = meterRegistry.getEnergyMeters();
+            // Assert
+            assertEquals(List.of(new EnergyMeterDto("dummy_id_1", "dummy title 1")), metersBeforeCommit);
+            assertEquals(List.of(new EnergyMeterDto("dummy_id_1", "dummy title 1"), new EnergyMeterDto("dummy_id_2", "dummy title 2")),
+                    metersAfterCommit);
+            Mockito.verify(energyMeterRepository, Mockito.times(2)).findAll(Sort.by("id"));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package energy.leap.meterhub.service.impl;
+
+import energy.leap.meterhub.config.MeterhubProperties;
+import energy.leap.meterhub.service.dto.CacheStatisticsDto;
+import energy.leap.meterhub.service.dto.HourlyReportDto;
+import energy.leap.meterhub.service.dto.HourlyReportPageDto;
+import energy.leap.meterhub.service.dto.MeterSummaryDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MeterReportCacheTests {
+
+    @Test
+    void GivenResultsCachedForTwoMeters_WhenReadingsOfOneMeterSaved_ThenOnlyResultsOfThatMeterLoadedAgain() {
+        // Arrange
+        MeterReportCache cache = new MeterReportCache(new MeterhubProperties());
+        AtomicInteger loads = new AtomicInteger();
+        HourlyReportPageDto page = new HourlyReportPageDto(List.of(new HourlyReportDto(1555484400L, 100L, new BigDecimal("0.00700"))), null);
+        for (String meterId : List.of("dummy_id_1", "dummy_id_2")) {
+            cache.getTotalReading(meterId, id -> (long) loads.incrementAndGet());
+            cache.getHourlyReports(meterId, null, null, null, null, () -> { loads.incrementAndGet(); return page; });
+        }
+        // Act
+        cache.onMeterReadingsSaved(new MeterReadingsSavedEvent(Set.of("dummy_id_1")));
+        for (String meterId : List.of("dummy_id_1", "dummy_id_2")) {
+            cache.getTotalReading(meterId, id -> (long) loads.incrementAndGet());
+            cache.getHourlyReports(meterId, null, null, null, null, () -> { loads.incrementAndGet(); return page; });
+        }
+        // Assert
+        assertEquals(6, loads.get());
+    }
+
+    @Test
+    void GivenMaximumSizeOfOne_WhenTotalCostsOfTwoMetersRequested_ThenHitsMissesAndEvictionsReported() {
+        // Arrange
+        MeterhubProperties properties = new MeterhubProperties();
+        properties.getCache().setMaximumSize(1);
+        MeterReportCache cache = new MeterReportCache(properties);
+        // Act
+        cache.getTotalCost("dummy_id_1", id -> 1.0);
+        cache.getTotalCost("dummy_id_1", id -> 1.0);
+        cache.getTotalCost("dummy_id_2", id -> 2.0);
+        // Assert
+        CacheStatisticsDto statistics = cache.getStatistics().stream()
+                .filter(cacheStatistics -> cacheStatistics.getName().equals("total_costs"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(1, statistics.getHitCount());
+        assertEquals(2, statistics.getMissCount());
+        assertEquals(1, statistics.getEvictionCount());
+        assertEquals(1, statistics.getSize());
+    }
+
+    @Test
+    void GivenSummariesCachedForTwoMeters_WhenReadingsOfOneMeterSaved_ThenOnlySummaryOfThatMeterLoadedAgain() {
+        // Arrange
+        MeterReportCache cache = new MeterReportCache(new MeterhubProperties());
+        AtomicInteger loads = new AtomicInteger();
+        MeterSummaryDto summary = new MeterSummaryDto(100L, new BigDecimal("0.00700"), 1L, 1555484400L, 1555484400L, 1555484400L, 100L);
+        for (String meterId : List.of("dummy_id_1", "dummy_id_2")) {
+            cache.getSummary(meterId, 1555484400L, null, () -> { loads.incrementAndGet(); return summary; });
+        }
+        // Act
+        cache.onMeterReadingsSaved(new MeterReadingsSavedEvent(Set.of("dummy_id_1")));
+        for (String meterId : List.of("dummy_id_1", "dummy_id_2")) {
+            cache.getSummary(meterId, 1555484400L, null, () -> { loads.incrementAndGet(); return summary; });
+        }
+        // Assert
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void GivenPageLoadRunningWhenReadingsOfMeterSaved_WhenPageRequestedAgain_ThenPageLoadedAgainInsteadOfStalePageServed() {
+        // Arrange
+        MeterReportCache cache = new MeterReportCache(new MeterhubProperties());
+        HourlyReportPageDto stalePage = new HourlyReportPageDto(List.of(new HourlyReportDto(1555484400L, 100L, new BigDecimal("0.00700"))), null);
+        HourlyReportPageDto savedPage = new HourlyReportPageDto(List.of(new HourlyReportDto(1555484400L, 200L, new BigDecimal("0.01400"))), null);
+        cache.getHourlyReports("dummy_id_1", null, null, null, null, () -> {
+            // Ingest commits after the page was read but before it is cached
+            cache.onMeterReadingsSaved(new MeterReadingsSavedEvent(Set.of("dummy_id_1")));
+            return stalePage;
+        });
+        // Act
+        HourlyReportPageDto page = cache.getHourlyReports("dummy_id_1", null, null, null, null, () -> savedPage);
+        // Assert
+        assertEquals(savedPage, page);
+    }
+}
@@ -0,0 +1,97 @@
+package energy.leap.meterhub.service.impl;
+
+import energy.leap.meterhub.config.MeterhubProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatCode;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MeterWriteLocksTests {
+
+    private final MeterWriteLocks meterWriteLocks = new MeterWriteLocks(new MeterhubProperties());
+
+    // Holds the lock of the meter on another thread until released
+    private CompletableFuture<Void> holdMeterLock(String meterId, CountDownLatch locked, CountDownLatch release) {
+        return CompletableFuture.runAsync(() -> meterWriteLocks.runWithMeterLock(meterId, () -> {
+            locked.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+    }
+
+    @Test
+    void GivenMeterLocked_WhenSameMeterWritten_ThenWriteWaitsUntilLockReleased() throws Exception {
+        // Arrange
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> firstWrite = holdMeterLock("dummy_id_1", locked, release);
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+        AtomicInteger writes = new AtomicInteger();
+        // Act
+        CompletableFuture<Void> secondWrite = CompletableFuture.runAsync(
+                () -> meterWriteLocks.runWithMeterLock("dummy_id_1", writes::incrementAndGet));
+        Thread.sleep(100);
+        // Assert
+        assertEquals(0, writes.get());
+        release.countDown();
+        firstWrite.get(10, TimeUnit.SECONDS);
+        secondWrite.get(10, TimeUnit.SECONDS);
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    void GivenMeterLocked_WhenOtherMeterWritten_ThenWriteDoesNotWait() throws Exception {
+        // Arrange
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> firstWrite = holdMeterLock("a", locked, release);
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+        AtomicInteger writes = new AtomicInteger();
+        // Act
+        CompletableFuture.runAsync(() -> meterWriteLocks.runWithMeterLock("b", writes::incrementAndGet))
+                .get(10, TimeUnit.SECONDS);
+        // Assert
+        assertEquals(1, writes.get());
+        release.countDown();
+        firstWrite.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void GivenMeterLockedInTransaction_WhenTransactionCompleted_ThenLockReleased() throws Exception {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            meterWriteLocks.lockMeterUntilCompletion("dummy_id_1");
+            CompletableFuture<Void> otherWrite = CompletableFuture.runAsync(() -> meterWriteLocks.runWithMeterLock("dummy_id_1", () -> { }));
+            Thread.sleep(100);
+            assertFalse(otherWrite.isDone());
+            // Act
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            // Assert
+            otherWrite.get(10, TimeUnit.SECONDS);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void GivenNoTransaction_WhenMeterLockedUntilCompletion_ThenIllegalStateExceptionThrown() {
+        // Act
+        assertThatCode(() -> meterWriteLocks.lockMeterUntilCompletion("dummy_id_1"))
+        // Assert
+        .isInstanceOf(IllegalStateException.class);
+    }
+}
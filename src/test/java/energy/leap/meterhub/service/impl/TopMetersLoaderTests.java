@@ -0,0 +1,85 @@
+package energy.leap.meterhub.service.impl;
+
+import energy.leap.meterhub.data.entity.EnergyMeter;
+import energy.leap.meterhub.data.entity.RollupGranularity;
+import energy.leap.meterhub.data.projection.MeterKeyTotalsValue;
+import energy.leap.meterhub.data.repository.EnergyMeterRepository;
+import energy.leap.meterhub.data.repository.HourlyReadingRepository;
+import energy.leap.meterhub.data.repository.MeterRollupRepository;
+import energy.leap.meterhub.service.dto.TopMeterDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TopMetersLoaderTests {
+
+    // 431652 is noon of March 30 2019, 431664 the start of March 31, 431688 of April, 432408 of May,
+    // 432432 of May 2 and 432438 is 6 AM of May 2
+    private static final int FROM_HOUR_INDEX = 431652;
+
+    private static final int TO_HOUR_INDEX = 432438;
+
+    private final HourlyReadingRepository hourlyReadingRepository = Mockito.mock(HourlyReadingRepository.class);
+
+    private final MeterRollupRepository meterRollupRepository = Mockito.mock(MeterRollupRepository.class);
+
+    private final EnergyMeterRepository energyMeterRepository = Mockito.mock(EnergyMeterRepository.class);
+
+    private final TopMetersLoader topMetersLoader = new TopMetersLoader(hourlyReadingRepository, meterRollupRepository, energyMeterRepository);
+
+    @BeforeEach
+    void teachRepositories() {
+        Mockito.when(hourlyReadingRepository.aggregateTotalsOfAllMetersBetweenHourIndexes(431652, 431664))
+                .thenReturn(List.of(new MeterKeyTotalsValue(1, 100L, new BigDecimal("0.01000")),
+                        new MeterKeyTotalsValue(2, 50L, new BigDecimal("0.00500"))));
+        Mockito.when(meterRollupRepository.aggregateTotalsOfAllMetersBetweenHourIndexes(RollupGranularity.DAY, 431664, 431688))
+                .thenReturn(List.of(new MeterKeyTotalsValue(2, 100L, new BigDecimal("0.01000"))));
+        Mockito.when(meterRollupRepository.aggregateTotalsOfAllMetersBetweenHourIndexes(RollupGranularity.MONTH, 431688, 432408))
+                .thenReturn(List.of(new MeterKeyTotalsValue(1, 1000L, new BigDecimal("0.10000")),
+                        new MeterKeyTotalsValue(3, 1010L, new BigDecimal("0.50000"))));
+        Mockito.when(hourlyReadingRepository.aggregateTotalsOfAllMetersBetweenHourIndexes(432432, 432438))
+                .thenReturn(List.of(new MeterKeyTotalsValue(2, 860L, new BigDecimal("0.08600"))));
+        Mockito.when(energyMeterRepository.findByMeterKeyIn(Mockito.anyCollection()))
+                .thenReturn(List.of(new EnergyMeter("dummy_id_3", "dummy title 3", 0L, null, 3),
+                        new EnergyMeter("dummy_id_1", "dummy title 1", 0L, null, 1),
+                        new EnergyMeter("dummy_id_2", "dummy title 2", 0L, null, 2)));
+    }
+
+    @Test
+    void GivenRangeOverMonthWithPartialDays_WhenTopMetersByReadingLoaded_ThenRollupsAndEdgeHoursSummedAndTiesRankedByKey() {
+        // Act
+        List<TopMeterDto> topMeters = topMetersLoader.load(FROM_HOUR_INDEX, TO_HOUR_INDEX, 3, false);
+        // Assert
+        assertEquals(List.of(new TopMeterDto("dummy_id_1", 1100L, new BigDecimal("0.11000")),
+                        new TopMeterDto("dummy_id_2", 1010L, new BigDecimal("0.10100")),
+                        new TopMeterDto("dummy_id_3", 1010L, new BigDecimal("0.50000"))),
+                topMeters);
+        Mockito.verify(meterRollupRepository, Mockito.times(1))
+                .aggregateTotalsOfAllMetersBetweenHourIndexes(RollupGranularity.DAY, 432408, 432432);
+        Mockito.verify(hourlyReadingRepository, Mockito.times(2)).aggregateTotalsOfAllMetersBetweenHourIndexes(Mockito.any(), Mockito.any());
+        Mockito.verify(meterRollupRepository, Mockito.times(3)).aggregateTotalsOfAllMetersBetweenHourIndexes(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void GivenMoreMetersThanCount_WhenTopMetersByCostLoaded_ThenOnlyMetersWithHighestCostReturned() {
+        // Act
+        List<TopMeterDto> topMeters = topMetersLoader.load(FROM_HOUR_INDEX, TO_HOUR_INDEX, 2, true);
+        // Assert
+        assertEquals(List.of("dummy_id_3", "dummy_id_1"), topMeters.stream().map(TopMeterDto::getMeterId).toList());
+    }
+
+    @Test
+    void GivenRangeWithinDay_WhenTopMetersLoaded_ThenOnlyHourlyReadingsQueried() {
+        // Act
+        List<TopMeterDto> topMeters = topMetersLoader.load(431652, 431660, 10, false);
+        // Assert
+        assertEquals(List.of(), topMeters);
+        Mockito.verify(hourlyReadingRepository, Mockito.times(1)).aggregateTotalsOfAllMetersBetweenHourIndexes(431652, 431660);
+        Mockito.verifyNoInteractions(meterRollupRepository, energyMeterRepository);
+    }
+}
@@ -0,0 +1,116 @@
+package energy.leap.meterhub.service.impl;
+
+import energy.leap.meterhub.config.MeterhubProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteBehindBufferTests {
+
+    // Items are their own row counts
+    private final List<List<Integer>> flushedBatches = new CopyOnWriteArrayList<>();
+
+    private volatile Duration flushTime = Duration.ZERO;
+
+    private WriteBehindBuffer<Integer> buffer;
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        buffer.shutdown(Duration.ofSeconds(10));
+    }
+
+    private WriteBehindBuffer<Integer> createBuffer(Duration maxDelay, int minBatchSize, int maxBatchSize) {
+        MeterhubProperties.WriteBehind properties = new MeterhubProperties.WriteBehind();
+        properties.setMaxDelay(maxDelay);
+        properties.setMinBatchSize(minBatchSize);
+        properties.setMaxBatchSize(maxBatchSize);
+        properties.setTargetFlushTime(Duration.ofMillis(50));
+        return new WriteBehindBuffer<>(properties, Integer::intValue, batch -> {
+            try {
+                Thread.sleep(flushTime.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            flushedBatches.add(batch);
+        });
+    }
+
+    private void awaitFlushCount(int flushCount) throws InterruptedException {
+        for (int attempt = 0; attempt < 500; attempt++) {
+            if (buffer.getStatistics().getFlushCount() >= flushCount) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Buffer was not flushed " + flushCount + " times");
+    }
+
+    @Test
+    void GivenItemsBelowBatchSize_WhenMaxDelayPassed_ThenItemsFlushedTogether() throws InterruptedException {
+        // Arrange
+        buffer = createBuffer(Duration.ofMillis(300), 100, 1000);
+        // Act
+        buffer.put(10);
+        buffer.put(20);
+        buffer.put(30);
+        awaitFlushCount(1);
+        // Assert
+        assertEquals(List.of(List.of(10, 20, 30)), flushedBatches);
+        assertEquals(0, buffer.getStatistics().getBufferedRowCount());
+        assertEquals(60, buffer.getStatistics().getFlushedRowCount());
+    }
+
+    @Test
+    void GivenItemsReachingBatchSize_WhenBuffered_ThenFlushedBeforeMaxDelay() throws InterruptedException {
+        // Arrange
+        buffer = createBuffer(Duration.ofMinutes(1), 100, 1000);
+        long startMillis = System.currentTimeMillis();
+        // Act
+        buffer.put(60);
+        buffer.put(40);
+        awaitFlushCount(1);
+        // Assert
+        assertTrue(System.currentTimeMillis() - startMillis < 10000);
+        assertEquals(List.of(List.of(60, 40)), flushedBatches);
+    }
+
+    @Test
+    void GivenFullBatchesFlushedFast_WhenFlushesGetSlow_ThenBatchSizeDoubledUpToMaximumAndHalvedAgain() throws InterruptedException {
+        // Arrange
+        buffer = createBuffer(Duration.ofMinutes(1), 10, 40);
+        // Act
+        buffer.put(10);
+        awaitFlushCount(1);
+        int batchSizeAfterFirstFlush = buffer.getStatistics().getBatchSize();
+        buffer.put(20);
+        awaitFlushCount(2);
+        buffer.put(40);
+        awaitFlushCount(3);
+        int batchSizeAfterFastFlushes = buffer.getStatistics().getBatchSize();
+        flushTime = Duration.ofMillis(100);
+        buffer.put(40);
+        awaitFlushCount(4);
+        // Assert
+        assertEquals(20, batchSizeAfterFirstFlush);
+        assertEquals(40, batchSizeAfterFastFlushes);
+        assertEquals(20, buffer.getStatistics().getBatchSize());
+    }
+
+    @Test
+    void GivenItemsBuffered_WhenShutDown_ThenItemsFlushed() throws InterruptedException {
+        // Arrange
+        buffer = createBuffer(Duration.ofMinutes(1), 100, 1000);
+        buffer.put(5);
+        // Act
+        boolean finished = buffer.shutdown(Duration.ofSeconds(10));
+        // Assert
+        assertTrue(finished);
+        assertEquals(List.of(List.of(5)), flushedBatches);
+    }
+}
@@ -0,0 +1,157 @@
+package energy.leap.meterhub.service.impl.parser;
+
+import energy.leap.meterhub.service.exception.IllegalMeterBatchReadingContentException;
+import energy.leap.meterhub.service.exception.IllegalMeterBatchReadingXmlException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatCode;
+import static org.junit.jupiter.api.Assertions.*;
+
+class XmlHourlyReadingAggregatorTests {
+
+    private static final XmlMeterBatchReading HEADER =
+            new XmlMeterBatchReading("dummy_id", "dummy title", new BigDecimal("0.07"), XmlReadingUnit.KWH, List.of());
+
+    @Test
+    void GivenPartedHours_WhenAggregated_ThenEachHourEmittedWhenComplete() {
+        // Arrange
+        List<XmlIntervalReading> emittedHours = new ArrayList<>();
+        XmlHourlyReadingAggregator aggregator = new XmlHourlyReadingAggregator((header, hour) -> emittedHours.add(hour));
+        // Act & Assert
+        aggregator.onIntervalReading(HEADER, new XmlIntervalReading(1555491600L, 1800L, 150L));
+        aggregator.onIntervalReading(HEADER, new XmlIntervalReading(1555495200L, 1800L, 10L));
+        assertTrue(emittedHours.isEmpty());
+        assertEquals(2, aggregator.getOpenHourCount());
+        aggregator.onIntervalReading(HEADER, new XmlIntervalReading(1555493400L, 1800L, 250L));
+        assertEquals(List.of(new XmlIntervalReading(1555491600L, 3600L, 400L)), emittedHours);
+        assertEquals(1, aggregator.getOpenHourCount());
+        aggregator.onIntervalReading(HEADER, new XmlIntervalReading(1555497000L, 1800L, 20L));
+        aggregator.finish();
+        assertEquals(List.of(new XmlIntervalReading(1555491600L, 3600L, 400L),
+                new XmlIntervalReading(1555495200L, 3600L, 30L)), emittedHours);
+        assertEquals(0, aggregator.getOpenHourCount());
+    }
+
+    @Test
+    void GivenOneSecondResolutionReadingsForADay_WhenAggregated_ThenAtMostOneHourIsOpen() {
+        // Arrange
+        List<XmlIntervalReading> emittedHours = new ArrayList<>();
+        XmlHourlyReadingAggregator aggregator = new XmlHourlyReadingAggregator((header, hour) -> emittedHours.add(hour));
+        int maxOpenHours = 0;
+        // Act
+        for (long second = 0; second < 24 * 3600; second++) {
+            aggregator.onIntervalReading(HEADER, new XmlIntervalReading(1555459200L + second, 1L, 2L));
+            maxOpenHours = Math.max(maxOpenHours, aggregator.getOpenHourCount());
+        }
+        aggregator.finish();
+        // Assert
+        assertEquals(1, maxOpenHours);
+        assertEquals(24, emittedHours.size());
+        assertEquals(new XmlIntervalReading(1555459200L + 23 * 3600L, 3600L, 7200L), emittedHours.get(23));
+    }
+
+    @Test
+    void GivenIncompleteHour_WhenFinished_ThenExceptionThrown() {
+        // Arrange
+        XmlHourlyReadingAggregator aggregator = new XmlHourlyReadingAggregator((header, hour) -> { });
+        aggregator.onIntervalReading(HEADER, new XmlIntervalReading(1555484400L, 3600L, 1000L));
+        aggregator.onIntervalReading(HEADER, new XmlIntervalReading(1555491600L, 900L, 150L));
+        aggregator.onIntervalReading(HEADER, new XmlIntervalReading(1555493400L, 900L, 250L));
+        // Act
+        assertThatCode(aggregator::finish)
+        // Assert
+        .isInstanceOf(IllegalMeterBatchReadingContentException.class)
+        .hasMessage("Disconnected interval exists for start 1555491600");
+    }
+
+    @Test
+    void GivenOverlappingReadings_WhenHourCovered_ThenExceptionThrownOnFinish() {
+        // Arrange
+        List<XmlIntervalReading> emittedHours = new ArrayList<>();
+        XmlHourlyReadingAggregator aggregator = new XmlHourlyReadingAggregator((header, hour) -> emittedHours.add(hour));
+        aggregator.onIntervalReading(HEADER, new XmlIntervalReading(1555491600L, 1800L, 150L));
+        // Act
+        aggregator.onIntervalReading(HEADER, new XmlIntervalReading(1555492500L, 1800L, 200L));
+        aggregator.onIntervalReading(HEADER, new XmlIntervalReading(1555484400L, 3600L, 1000L));
+        // Assert
+        assertTrue(emittedHours.isEmpty());
+        assertThatCode(aggregator::finish)
+        .isInstanceOf(IllegalMeterBatchReadingContentException.class)
+        .hasMessage(new XmlIntervalReading(1555492500L, 1800L, 200L) + " overlaps with " + new XmlIntervalReading(1555491600L, 1800L, 150L));
+    }
+
+    @Test
+    void GivenReadingForCompletedHour_WhenAggregated_ThenExceptionThrownOnFinish() {
+        // Arrange
+        XmlHourlyReadingAggregator aggregator = new XmlHourlyReadingAggregator((header, hour) -> { });
+        aggregator.onIntervalReading(HEADER, new XmlIntervalReading(1555491600L, 3600L, 150L));
+        // Act
+        aggregator.onIntervalReading(HEADER, new XmlIntervalReading(1555492500L, 900L, 200L));
+        // Assert
+        assertThatCode(aggregator::finish)
+        .isInstanceOf(IllegalMeterBatchReadingContentException.class)
+        .hasMessage(new XmlIntervalReading(1555492500L, 900L, 200L) + " overlaps with completed hour 1555491600");
+    }
+
+    @Test
+    void GivenReadingOverflowingHour_WhenAggregated_ThenExceptionThrownOnFinish() {
+        // Arrange
+        XmlHourlyReadingAggregator aggregator = new XmlHourlyReadingAggregator((header, hour) -> { });
+        // Act
+        aggregator.onIntervalReading(HEADER, new XmlIntervalReading(1555494300L, 1800L, 100L));
+        // Assert
+        assertThatCode(aggregator::finish)
+        .isInstanceOf(IllegalMeterBatchReadingContentException.class)
+        .hasMessageContaining("overflows hour");
+    }
+
+    @Test
+    void GivenContentAndXmlErrors_WhenStreamParsed_ThenXmlErrorTakesPrecedence() {
+        // Arrange
+        String xml = """
+                <feed>
+                    <id>dummy_id</id>
+                    <title>dummy title</title>
+                    <entry><content><ReadingType><kWhPrice>0.07</kWhPrice><readingUnit>kWh</readingUnit></ReadingType></content></entry>
+                    <entry><content><IntervalBlock>
+                        <IntervalReading><timePeriod><duration>1800</duration><start>1555494300</start></timePeriod><value>1</value></IntervalReading>
+                        <IntervalReading><timePeriod><duration>dummy</duration><start>1555484400</start></timePeriod><value>1</value></IntervalReading>
+                    </IntervalBlock></content></entry>
+                </feed>""";
+        XmlHourlyReadingAggregator aggregator = new XmlHourlyReadingAggregator((header, hour) -> { });
+        // Act
+        assertThatCode(() -> {
+            new XmlMeterBatchReadingStreamParser().parseReadingFile(xml, aggregator);
+            aggregator.finish();
+        })
+        // Assert
+        .isInstanceOf(IllegalMeterBatchReadingXmlException.class)
+        .hasMessageContaining("Invalid duration node value");
+    }
+
+    @Test
+    void GivenMeterFiles_WhenStreamParsedAndAggregated_ThenResultSameAsNormalizer() throws IOException {
+        for (String file : List.of("src/test/resources/meter1.xml", "src/test/resources/meter1_2.xml", "src/test/resources/meter2.xml")) {
+            // Arrange
+            String xml = Files.readString(Path.of(file));
+            List<XmlIntervalReading> emittedHours = new ArrayList<>();
+            XmlHourlyReadingAggregator aggregator = new XmlHourlyReadingAggregator((header, hour) -> emittedHours.add(hour));
+            // Act
+            new XmlMeterBatchReadingStreamParser().parseReadingFile(xml, aggregator);
+            aggregator.finish();
+            // Assert
+            emittedHours.sort(Comparator.comparingLong(XmlIntervalReading::getStartEpochAsSec));
+            XmlMeterBatchReading expectedReading = new XmlMeterBatchReadingSweepNormalizer()
+                    .normalize(new XmlMeterBatchReadingStreamParser().parseReadingFile(xml));
+            assertEquals(expectedReading.getIntervalReadings(), emittedHours);
+        }
+    }
+}
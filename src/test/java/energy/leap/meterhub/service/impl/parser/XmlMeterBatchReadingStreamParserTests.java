@@ -0,0 +1,211 @@
+package energy.leap.meterhub.service.impl.parser;
+
+import energy.leap.meterhub.service.exception.IllegalMeterBatchReadingXmlException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatCode;
+import static org.junit.jupiter.api.Assertions.*;
+
+class XmlMeterBatchReadingStreamParserTests {
+
+    private static final String VALID_XML = """
+                <feed>
+                    <id>9346bfb3-20aa-3412-ffab-44f88b917999</id>
+                    <title type="text">Green Button Usage Feed</title>
+                    <entry>
+                        <content>
+                            <ReadingType>
+                                <flowDirection>1</flowDirection>
+                                <kWhPrice>0.07</kWhPrice>
+                                <readingUnit>kWh</readingUnit>
+                            </ReadingType>
+                        </content>
+                    </entry>
+                    <entry>
+                        <content>
+                            <IntervalBlock>
+                                <IntervalReading>
+                                    <timePeriod>
+                                        <duration>3600</duration>
+                                        <start>1555484400</start>
+                                    </timePeriod>
+                                    <value>200</value>
+                                </IntervalReading>
+                                <IntervalReading>
+                                    <timePeriod>
+                                        <duration>900</duration>
+                                        <start>1555488000</start>
+                                    </timePeriod>
+                                    <value>260</value>
+                                </IntervalReading>
+                            </IntervalBlock>
+                        </content>
+                    </entry>
+                </feed>""";
+
+    @Test
+    void GivenValidXml_WhenParsed_ThenParseResultSameAsFile() {
+        // Arrange
+        XmlMeterBatchReadingStreamParser parser = new XmlMeterBatchReadingStreamParser();
+        // Act
+        XmlMeterBatchReading reading = parser.parseReadingFile(VALID_XML);
+        // Assert
+        assertEquals(new XmlMeterBatchReading("9346bfb3-20aa-3412-ffab-44f88b917999",
+                "Green Button Usage Feed",
+                new BigDecimal("0.07"),
+                XmlReadingUnit.KWH,
+                List.of(new XmlIntervalReading(1555484400L, 3600L, 200L),
+                        new XmlIntervalReading(1555488000L, 900L, 260L)
+                )), reading);
+    }
+
+    @Test
+    void GivenValidXml_WhenStreamParsedWithListener_ThenReadingsPassedToListenerInDocumentOrder() {
+        // Arrange
+        XmlMeterBatchReadingStreamParser parser = new XmlMeterBatchReadingStreamParser();
+        List<XmlIntervalReading> emittedReadings = new ArrayList<>();
+        List<String> meterIdsSeenByListener = new ArrayList<>();
+        // Act
+        XmlMeterBatchReading reading = parser.parseReadingStream(
+                new ByteArrayInputStream(VALID_XML.getBytes(StandardCharsets.UTF_8)),
+                (batchReading, intervalReading) -> {
+                    meterIdsSeenByListener.add(batchReading.getId());
+                    emittedReadings.add(intervalReading);
+                });
+        // Assert
+        assertEquals(List.of(new XmlIntervalReading(1555484400L, 3600L, 200L),
+                new XmlIntervalReading(1555488000L, 900L, 260L)), emittedReadings);
+        assertEquals(List.of("9346bfb3-20aa-3412-ffab-44f88b917999", "9346bfb3-20aa-3412-ffab-44f88b917999"), meterIdsSeenByListener);
+        assertEquals(new BigDecimal("0.07"), reading.getPricePerKwh());
+        assertEquals(XmlReadingUnit.KWH, reading.getReadingUnit());
+        assertTrue(reading.getIntervalReadings().isEmpty());
+    }
+
+    @Test
+    void GivenXmlWithDeclaredEncoding_WhenStreamParsed_ThenDeclaredEncodingIsUsed() {
+        // Arrange
+        String xml = VALID_XML.replace("Green Button Usage Feed", "Compteur électrique");
+        byte[] content = ("<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>\n" + xml).getBytes(StandardCharsets.ISO_8859_1);
+        XmlMeterBatchReadingStreamParser parser = new XmlMeterBatchReadingStreamParser();
+        // Act
+        XmlMeterBatchReading reading = parser.parseReadingStream(new ByteArrayInputStream(content));
+        // Assert
+        assertEquals("Compteur électrique", reading.getTitle());
+        assertEquals(2, reading.getIntervalReadings().size());
+    }
+
+    @Test
+    void GivenMeterFiles_WhenParsed_ThenParseResultSameAsDomParser() throws IOException {
+        for (String file : List.of("src/test/resources/meter1.xml", "src/test/resources/meter1_2.xml", "src/test/resources/meter2.xml")) {
+            // Arrange
+            String xml = Files.readString(Path.of(file));
+            // Act
+            XmlMeterBatchReading reading = new XmlMeterBatchReadingStreamParser().parseReadingFile(xml);
+            // Assert
+            assertEquals(new XmlMeterBatchReadingParser().parseReadingFile(xml), reading);
+        }
+    }
+
+    private static final String XML_WITH_EXTERNAL_ENTITY = """
+                <?xml version="1.0"?>
+                <!DOCTYPE feed [<!ENTITY xxe SYSTEM "file:///etc/passwd">]>
+                <feed>
+                    <id>&xxe;</id>
+                </feed>""";
+
+    @Test
+    void GivenXmlWithDoctype_WhenParsed_ThenIllegalFormattedReadingExceptionThrown() {
+        // Arrange
+        XmlMeterBatchReadingStreamParser parser = new XmlMeterBatchReadingStreamParser();
+        // Act
+        assertThatCode(() -> parser.parseReadingFile(XML_WITH_EXTERNAL_ENTITY))
+        // Assert
+        .isInstanceOf(IllegalMeterBatchReadingXmlException.class)
+        .hasMessageContaining("Parsing error");
+    }
+
+    @Test
+    void GivenIllegalXml_WhenParsed_ThenIllegalFormattedReadingExceptionThrown() {
+        // Arrange
+        XmlMeterBatchReadingStreamParser parser = new XmlMeterBatchReadingStreamParser();
+        // Act
+        assertThatCode(() -> parser.parseReadingFile("<dummy><dummy>"))
+        // Assert
+        .isInstanceOf(IllegalMeterBatchReadingXmlException.class)
+        .hasMessageContaining("Parsing error");
+    }
+
+    @Test
+    void GivenXmlWithWrongRoot_WhenParsed_ThenIllegalFormattedReadingExceptionThrown() {
+        // Arrange
+        XmlMeterBatchReadingStreamParser parser = new XmlMeterBatchReadingStreamParser();
+        // Act
+        assertThatCode(() -> parser.parseReadingFile("<dummy></dummy>"))
+        // Assert
+        .isInstanceOf(IllegalMeterBatchReadingXmlException.class)
+        .hasMessageContaining("Invalid root node");
+    }
+
+    private static Stream<String> invalidXmls() {
+        return Stream.of(
+                VALID_XML.replace("<title", "<id>1</id><title"),
+                VALID_XML.replace("<title type=\"text\">Green Button Usage Feed</title>", ""),
+                VALID_XML.replace("</feed>", "<entry><content/></entry></feed>"),
+                VALID_XML.replace("</ReadingType>", "</ReadingType></content><content>"),
+                VALID_XML.replace("<ReadingType>", "<Dummy>").replace("</ReadingType>", "</Dummy>"),
+                VALID_XML.replace("</ReadingType>", "</ReadingType><IntervalBlock/>"),
+                VALID_XML.replace("</ReadingType>", "</ReadingType><ReadingType/>"),
+                VALID_XML.replace("</IntervalBlock>", "</IntervalBlock><IntervalBlock/>"),
+                VALID_XML.replace("<kWhPrice>0.07</kWhPrice>", "<kWhPrice>0.07</kWhPrice><kWhPrice>0.07</kWhPrice>"),
+                VALID_XML.replace("<kWhPrice>0.07</kWhPrice>", "<kWhPrice>dummy</kWhPrice>"),
+                VALID_XML.replace("<readingUnit>kWh</readingUnit>", ""),
+                VALID_XML.replace("<readingUnit>kWh</readingUnit>", "<readingUnit>dummy</readingUnit>"),
+                VALID_XML.replace("<value>200</value>", "<value>200</value><value>200</value>"),
+                VALID_XML.replace("<value>200</value>", "<value>dummy</value>"),
+                VALID_XML.replace("<value>260</value>", ""),
+                VALID_XML.replace("<value>200</value>", "<timePeriod/><value>200</value>"),
+                VALID_XML.replace("<duration>3600</duration>", "<duration>3600</duration><duration>3600</duration>"),
+                VALID_XML.replace("<duration>900</duration>", "<duration>dummy</duration>"),
+                VALID_XML.replace("<start>1555484400</start>", ""),
+                VALID_XML.replace("<start>1555488000</start>", "<start>dummy</start>"),
+                VALID_XML.replaceAll("(?s)<IntervalReading>.*</IntervalReading>", ""),
+                // First error in document order is reported, like DOM based parser does
+                VALID_XML.replace("<kWhPrice>0.07</kWhPrice>", "<kWhPrice>dummy</kWhPrice>")
+                        .replace("<value>200</value>", "<value>dummy</value>"),
+                // Structural errors of an entry take precedence over errors of its nodes
+                VALID_XML.replace("<kWhPrice>0.07</kWhPrice>", "<kWhPrice>dummy</kWhPrice>")
+                        .replace("</ReadingType>", "</ReadingType><ReadingType/>"),
+                // Feed level errors take precedence over entry errors
+                VALID_XML.replace("<value>200</value>", "<value>dummy</value>")
+                        .replace("</feed>", "<entry><content/></entry></feed>"),
+                // Malformed documents are reported as parsing errors whatever comes before
+                VALID_XML.replace("<value>200</value>", "<value>dummy</value>").replace("</feed>", "</feeds>")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("invalidXmls")
+    void GivenInvalidXml_WhenParsed_ThenSameErrorAsDomParserThrown(String xml) {
+        // Arrange
+        XmlMeterBatchReadingStreamParser parser = new XmlMeterBatchReadingStreamParser();
+        IllegalMeterBatchReadingXmlException domParserError = assertThrows(IllegalMeterBatchReadingXmlException.class,
+                () -> new XmlMeterBatchReadingParser().parseReadingFile(xml));
+        // Act
+        assertThatCode(() -> parser.parseReadingFile(xml))
+        // Assert
+        .isInstanceOf(IllegalMeterBatchReadingXmlException.class)
+        .hasMessage(domParserError.getMessage());
+    }
+}
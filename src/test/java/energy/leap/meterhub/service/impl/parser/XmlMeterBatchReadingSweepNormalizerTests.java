@@ -0,0 +1,203 @@
+package energy.leap.meterhub.service.impl.parser;
+
+import energy.leap.meterhub.service.exception.IllegalMeterBatchReadingContentException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatCode;
+import static org.junit.jupiter.api.Assertions.*;
+
+class XmlMeterBatchReadingSweepNormalizerTests {
+
+    private XmlMeterBatchReading createTestReadingWithIntervals(List<XmlIntervalReading> readings) {
+        return new XmlMeterBatchReading("dummy_id", "dummy title", new BigDecimal("0.07"), XmlReadingUnit.KWH, readings);
+    }
+
+    @Test
+    void GivenReadingWithHourlyIntervalsOnly_WhenNormalized_ThenNormalizedIsSameOrderedByHour() {
+        // Arrange
+        XmlMeterBatchReading reading = createTestReadingWithIntervals(
+                List.of(new XmlIntervalReading(1555484400L, 3600L, 100L),
+                        new XmlIntervalReading(1555488000L, 3600L, 100L),
+                        new XmlIntervalReading(1555477200L, 3600L, 100L)));
+        XmlMeterBatchReadingSweepNormalizer normalizer = new XmlMeterBatchReadingSweepNormalizer();
+        // Act
+        XmlMeterBatchReading normalizedReading = normalizer.normalize(reading);
+        // Assert
+        XmlMeterBatchReading expectedReading = createTestReadingWithIntervals(
+                List.of(new XmlIntervalReading(1555477200L, 3600L, 100L),
+                        new XmlIntervalReading(1555484400L, 3600L, 100L),
+                        new XmlIntervalReading(1555488000L, 3600L, 100L)));
+        assertEquals(expectedReading, normalizedReading);
+    }
+
+    @Test
+    void GivenReadingWithPartedButCompleteIntervals_WhenNormalized_ThenPartsAreCombined() {
+        // Arrange
+        XmlMeterBatchReading reading = createTestReadingWithIntervals(
+                List.of(new XmlIntervalReading(1555484400L, 3600L, 1000L),
+                        new XmlIntervalReading(1555488000L, 3600L, 2000L),
+                        new XmlIntervalReading(1555494300L, 900L, 100L),
+                        new XmlIntervalReading(1555491600L, 900L, 150L),
+                        new XmlIntervalReading(1555492500L, 900L, 200L),
+                        new XmlIntervalReading(1555493400L, 900L, 250L)));
+        XmlMeterBatchReadingSweepNormalizer normalizer = new XmlMeterBatchReadingSweepNormalizer();
+        // Act
+        XmlMeterBatchReading normalizedReading = normalizer.normalize(reading);
+        // Assert
+        XmlMeterBatchReading expectedReading = createTestReadingWithIntervals(
+                List.of(new XmlIntervalReading(1555484400L, 3600L, 1000L),
+                        new XmlIntervalReading(1555488000L, 3600L, 2000L),
+                        new XmlIntervalReading(1555491600L, 3600L, 700L)));
+        assertEquals(expectedReading, normalizedReading);
+    }
+
+    @Test
+    void GivenReadingWithIncompleteIntervals_WhenNormalized_ThenExceptionThrown() {
+        // Arrange
+        XmlMeterBatchReading reading = createTestReadingWithIntervals(
+                List.of(new XmlIntervalReading(1555484400L, 3600L, 1000L),
+                        new XmlIntervalReading(1555488000L, 3600L, 2000L),
+                        new XmlIntervalReading(1555491600L, 900L, 150L),
+                        new XmlIntervalReading(1555492500L, 900L, 200L),
+                        new XmlIntervalReading(1555493400L, 900L, 250L)));
+        XmlMeterBatchReadingSweepNormalizer normalizer = new XmlMeterBatchReadingSweepNormalizer();
+        // Act
+        assertThatCode(() -> normalizer.normalize(reading))
+        // Assert
+        .isInstanceOf(IllegalMeterBatchReadingContentException.class)
+        .hasMessage("Partial hour for 1555491600");
+    }
+
+    @Test
+    void GivenReadingWithOverlappingIntervals_WhenNormalized_ThenExceptionThrown() {
+        // Arrange
+        XmlMeterBatchReading reading = createTestReadingWithIntervals(
+                List.of(new XmlIntervalReading(1555484400L, 3600L, 1000L),
+                        new XmlIntervalReading(1555488000L, 3600L, 2000L),
+                        new XmlIntervalReading(1555494300L, 900L, 100L),
+                        new XmlIntervalReading(1555491600L, 1800L, 150L),
+                        new XmlIntervalReading(1555492500L, 900L, 200L),
+                        new XmlIntervalReading(1555493400L, 900L, 250L)));
+        XmlMeterBatchReadingSweepNormalizer normalizer = new XmlMeterBatchReadingSweepNormalizer();
+        // Act
+        assertThatCode(() -> normalizer.normalize(reading))
+        // Assert
+        .isInstanceOf(IllegalMeterBatchReadingContentException.class)
+        .hasMessage(new XmlIntervalReading(1555492500L, 900L, 200L) + " overlaps with " + new XmlIntervalReading(1555491600L, 1800L, 150L));
+    }
+
+    @Test
+    void GivenReadingWithOverflowsToNextHour_WhenNormalized_ThenExceptionThrown() {
+        // Arrange
+        XmlMeterBatchReading reading = createTestReadingWithIntervals(
+                List.of(new XmlIntervalReading(1555484400L, 3600L, 1000L),
+                        new XmlIntervalReading(1555488000L, 3600L, 2000L),
+                        new XmlIntervalReading(1555494300L, 1800L, 100L),
+                        new XmlIntervalReading(1555491600L, 900L, 150L),
+                        new XmlIntervalReading(1555492500L, 900L, 200L),
+                        new XmlIntervalReading(1555493400L, 900L, 250L)));
+        XmlMeterBatchReadingSweepNormalizer normalizer = new XmlMeterBatchReadingSweepNormalizer();
+        // Act
+        assertThatCode(() -> normalizer.normalize(reading))
+        // Assert
+        .isInstanceOf(IllegalMeterBatchReadingContentException.class)
+        .hasMessageContaining("overflows hour");
+    }
+
+    @Test
+    void GivenReadingWithDisconnectedParts_WhenNormalized_ThenExceptionThrown() {
+        // Arrange
+        XmlMeterBatchReading reading = createTestReadingWithIntervals(
+                List.of(new XmlIntervalReading(1555484400L, 3600L, 1000L),
+                        new XmlIntervalReading(1555488000L, 3600L, 2000L),
+                        new XmlIntervalReading(1555494300L, 900L, 100L),
+                        new XmlIntervalReading(1555491600L, 900L, 150L),
+                        new XmlIntervalReading(1555492500L, 450L, 200L),
+                        new XmlIntervalReading(1555493400L, 900L, 250L)));
+        XmlMeterBatchReadingSweepNormalizer normalizer = new XmlMeterBatchReadingSweepNormalizer();
+        // Act
+        assertThatCode(() -> normalizer.normalize(reading))
+        // Assert
+        .isInstanceOf(IllegalMeterBatchReadingContentException.class)
+        .hasMessage("Disconnected interval exists for start 1555491600");
+    }
+
+    @Test
+    void GivenOneSecondResolutionReadingsForADay_WhenNormalized_ThenHourlyTotalsAreCombined() {
+        // Arrange
+        List<XmlIntervalReading> intervalReadings = new ArrayList<>();
+        for (long second = 0; second < 24 * 3600; second++) {
+            intervalReadings.add(new XmlIntervalReading(1555459200L + second, 1L, second % 3600 == 0 ? 10L : 1L));
+        }
+        XmlMeterBatchReadingSweepNormalizer normalizer = new XmlMeterBatchReadingSweepNormalizer();
+        // Act
+        XmlMeterBatchReading normalizedReading = normalizer.normalize(createTestReadingWithIntervals(intervalReadings));
+        // Assert
+        assertEquals(24, normalizedReading.getIntervalReadings().size());
+        for (int hour = 0; hour < 24; hour++) {
+            assertEquals(new XmlIntervalReading(1555459200L + hour * 3600L, 3600L, 3609L), normalizedReading.getIntervalReadings().get(hour));
+        }
+    }
+
+    private static List<XmlIntervalReading> randomReadingsOfOneHour(Random random) {
+        // Mostly back to back readings with a few random mistakes, empty readings included
+        List<XmlIntervalReading> readings = new ArrayList<>();
+        long hourStart = 1555491600L;
+        long start = hourStart;
+        while (start < hourStart + 3600) {
+            long duration = Math.min(1 + random.nextInt(900), hourStart + 3600 - start);
+            switch (random.nextInt(40)) {
+                case 0 -> duration += 60;
+                case 1 -> start -= 30;
+                case 2 -> start += 30;
+                case 3 -> duration = 0;
+                default -> { }
+            }
+            readings.add(new XmlIntervalReading(start, duration, (long) random.nextInt(1000)));
+            start += duration;
+        }
+        if (random.nextInt(10) == 0) {
+            readings.add(new XmlIntervalReading(hourStart + random.nextInt(3600), 0L, 1L));
+        }
+        // Readings from a neighbour hour which is always complete
+        readings.add(new XmlIntervalReading(hourStart - 3600, 3600L, 5L));
+        List<XmlIntervalReading> shuffled = new ArrayList<>(readings);
+        for (int i = shuffled.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            shuffled.set(i, shuffled.set(j, shuffled.get(i)));
+        }
+        return shuffled;
+    }
+
+    @Test
+    void GivenRandomReadings_WhenNormalized_ThenResultSameAsSimpleNormalizer() {
+        Random random = new Random(20230301L);
+        for (int run = 0; run < 2000; run++) {
+            // Arrange
+            XmlMeterBatchReading reading = createTestReadingWithIntervals(randomReadingsOfOneHour(random));
+            String expectedError = null;
+            List<XmlIntervalReading> expectedReadings = null;
+            try {
+                expectedReadings = new ArrayList<>(new XmlMeterBatchReadingNormalizer().normalize(reading).getIntervalReadings());
+                expectedReadings.sort(Comparator.comparingLong(XmlIntervalReading::getStartEpochAsSec));
+            } catch (IllegalMeterBatchReadingContentException e) {
+                expectedError = e.getMessage();
+            }
+            XmlMeterBatchReadingSweepNormalizer normalizer = new XmlMeterBatchReadingSweepNormalizer();
+            // Act & Assert
+            if (expectedError == null) {
+                assertEquals(expectedReadings, normalizer.normalize(reading).getIntervalReadings(), reading.toString());
+            } else {
+                IllegalMeterBatchReadingContentException e =
+                        assertThrows(IllegalMeterBatchReadingContentException.class, () -> normalizer.normalize(reading), reading.toString());
+                assertEquals(expectedError, e.getMessage(), reading.toString());
+            }
+        }
+    }
+}
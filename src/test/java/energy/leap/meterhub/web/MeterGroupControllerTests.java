@@ -0,0 +1,84 @@
+package energy.leap.meterhub.web;
+
+import energy.leap.meterhub.service.MeterGroupService;
+import energy.leap.meterhub.service.dto.GroupHourlyReportDto;
+import energy.leap.meterhub.service.dto.MeterGroupDto;
+import energy.leap.meterhub.service.exception.MeterGroupNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(MeterGroupController.class)
+public class MeterGroupControllerTests {
+
+    @MockBean
+    MeterGroupService meterGroupService;
+
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    void GivenGroupServiceTaughtToCreateGroup_WhenGroupCreated_ThenCreatedGroupAndLocationReturned() throws Exception {
+        // Arrange
+        Mockito.when(meterGroupService.createGroup("site", "Site", null)).thenReturn(new MeterGroupDto("site", "Site", "fleet"));
+        // Act
+        mvc.perform(post("/group?id=site&title=Site"))
+        // Assert
+        .andExpect(status().isCreated())
+        .andExpect(header().string("Location", "/group/site"))
+        .andExpect(jsonPath("$.id", is("site")))
+        .andExpect(jsonPath("$.parentId", is("fleet")));
+    }
+
+    @Test
+    void GivenMeter_WhenAssignedToGroup_ThenAssignmentPassedToService() throws Exception {
+        // Act
+        mvc.perform(put("/group/site/meters/dummy_id_1"))
+        // Assert
+        .andExpect(status().isNoContent());
+        Mockito.verify(meterGroupService, Mockito.times(1)).assignMeter("site", "dummy_id_1");
+    }
+
+    @Test
+    void GivenGroupServiceTaughtToReturnCertainHours_WhenGroupHourlyReportRequested_ThenHoursReturned() throws Exception {
+        // Arrange
+        Mockito.when(meterGroupService.getHourlyReportsForGroup("site", 1555484400L, 1555488000L))
+                .thenReturn(List.of(new GroupHourlyReportDto(1555484400L, 540000L, new BigDecimal("37.80000"), 2)));
+        // Act
+        mvc.perform(get("/group/site/hourly_report?from=1555484400&to=1555488000").contentType(MediaType.APPLICATION_JSON))
+        // Assert
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].hourStartEpochAsSec", is(1555484400)))
+        .andExpect(jsonPath("$[0].readingAsWh", is(540000)))
+        .andExpect(jsonPath("$[0].cost", is(37.8)))
+        .andExpect(jsonPath("$[0].meterCount", is(2)));
+    }
+
+    @Test
+    void GivenGroupServiceTaughtToThrowGroupNotFound_WhenGroupHourlyReportRequested_ThenNotFoundReturned() throws Exception {
+        // Arrange
+        Mockito.when(meterGroupService.getHourlyReportsForGroup("unknown", null, null))
+                .thenThrow(new MeterGroupNotFoundException("Group not found : unknown"));
+        // Act
+        mvc.perform(get("/group/unknown/hourly_report").contentType(MediaType.APPLICATION_JSON))
+        // Assert
+        .andExpect(status().isNotFound());
+    }
+}
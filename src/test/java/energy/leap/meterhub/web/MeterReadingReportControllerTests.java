@@ -1,8 +1,17 @@
 package energy.leap.meterhub.web;
 
 import energy.leap.meterhub.service.MeterReadingReportService;
+import energy.leap.meterhub.service.dto.CacheStatisticsDto;
+import energy.leap.meterhub.service.dto.BucketedReportDto;
 import energy.leap.meterhub.service.dto.EnergyMeterDto;
 import energy.leap.meterhub.service.dto.HourlyReportDto;
+import energy.leap.meterhub.service.dto.HourlyReportPageDto;
+import energy.leap.meterhub.service.dto.MeterBatchReportDto;
+import energy.leap.meterhub.service.dto.MeterBatchReportRequestDto;
+import energy.leap.meterhub.service.dto.MeterDataVersionDto;
+import energy.leap.meterhub.service.dto.MeterSummaryDto;
+import energy.leap.meterhub.service.dto.TopMeterDto;
+import energy.leap.meterhub.service.exception.IllegalReportRequestException;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,14 +19,23 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(MeterReadingReportController.class)
@@ -48,6 +66,21 @@ public class MeterReadingReportControllerTests {
         Mockito.verify(meterReadingReportService, Mockito.times(1)).getEnergyMeters();
     }
 
+    @Test
+    void GivenReportServiceTaughtToReturnCertainMonths_WhenMonthlyReportRequested_ThenMonthsReturned() throws Exception {
+        // Arrange
+        Mockito.when(meterReadingReportService.getBucketedReportsForMeter("dummy_id_1", "month", 1554076800L, null))
+                .thenReturn(List.of(new BucketedReportDto(1554076800L, 200L, new BigDecimal("0.02000"))));
+        // Act
+        mvc.perform(get("/report/bucketed/dummy_id_1?granularity=month&from=1554076800").contentType(MediaType.APPLICATION_JSON))
+        // Assert
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].bucketStartEpochAsSec", is(1554076800)))
+        .andExpect(jsonPath("$[0].readingAsWh", is(200)))
+        .andExpect(jsonPath("$[0].cost", is(0.02)));
+    }
+
     @Test
     void GivenReportServiceTaughtToReturnCertainTotalReading_WhenTotalReadingForMeterRequested_ThenTotalReadinForMeterReturned() throws Exception {
         // Arrange
@@ -77,10 +110,10 @@ public class MeterReadingReportControllerTests {
     @Test
     void GivenReportServiceTaughtToReturnCertainReadings_WhenReadingsForMeterRequested_ThenReadingsForMeterReturned() throws Exception {
         // Arrange
-        Mockito.when(meterReadingReportService.getHourlyReportsForMeter("dummy_id_1"))
-                .thenReturn(Stream.of(new HourlyReportDto(1555484400L, 100L, new BigDecimal("0.007")),
+        Mockito.when(meterReadingReportService.getHourlyReportsForMeter("dummy_id_1", null, null, null, null))
+                .thenReturn(new HourlyReportPageDto(Stream.of(new HourlyReportDto(1555484400L, 100L, new BigDecimal("0.007")),
                                 new HourlyReportDto(1555488000L, 200L, new BigDecimal("0.016")))
-                        .toList());
+                        .toList(), null));
         // Act
         mvc.perform(get("/report/hourly_report/dummy_id_1").contentType(MediaType.APPLICATION_JSON))
         // Assert
@@ -91,7 +124,196 @@ public class MeterReadingReportControllerTests {
         .andExpect(jsonPath("$[0].cost", is(0.007)))
         .andExpect(jsonPath("$[1].hourStartEpochAsSec", is(1555488000)))
         .andExpect(jsonPath("$[1].readingAsWh", is(200)))
-        .andExpect(jsonPath("$[1].cost", is(0.016)));
-        Mockito.verify(meterReadingReportService, Mockito.times(1)).getHourlyReportsForMeter("dummy_id_1");
+        .andExpect(jsonPath("$[1].cost", is(0.016)))
+        .andExpect(header().doesNotExist(MeterReadingReportController.CONTINUATION_TOKEN_HEADER));
+        Mockito.verify(meterReadingReportService, Mockito.times(1)).getHourlyReportsForMeter("dummy_id_1", null, null, null, null);
+    }
+
+    @Test
+    void GivenReportServiceTaughtToReturnPageWithToken_WhenReadingsForMeterRequestedInRange_ThenContinuationTokenReturnedInHeader() throws Exception {
+        // Arrange
+        Mockito.when(meterReadingReportService.getHourlyReportsForMeter("dummy_id_1", 1555484400L, 1555495200L, "dummy_token", 1))
+                .thenReturn(new HourlyReportPageDto(List.of(new HourlyReportDto(1555488000L, 200L, new BigDecimal("0.016"))), "next_token"));
+        // Act
+        mvc.perform(get("/report/hourly_report/dummy_id_1")
+                        .param("from", "1555484400")
+                        .param("to", "1555495200")
+                        .param("continuation_token", "dummy_token")
+                        .param("limit", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+        // Assert
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].hourStartEpochAsSec", is(1555488000)))
+        .andExpect(header().string(MeterReadingReportController.CONTINUATION_TOKEN_HEADER, "next_token"));
+    }
+
+    @Test
+    void GivenReportServiceTaughtToRejectRequest_WhenReadingsForMeterRequested_ThenBadRequestReturned() throws Exception {
+        // Arrange
+        Mockito.when(meterReadingReportService.getHourlyReportsForMeter("dummy_id_1", null, null, "dummy_token", null))
+                .thenThrow(new IllegalReportRequestException("Invalid continuation token : dummy_token"));
+        // Act
+        mvc.perform(get("/report/hourly_report/dummy_id_1").param("continuation_token", "dummy_token"))
+        // Assert
+        .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void GivenReportServiceTaughtToStreamCertainReadings_WhenReadingsForMeterStreamed_ThenReadingsWrittenAsJsonArray() throws Exception {
+        // Arrange
+        Mockito.doAnswer(invocation -> {
+            Consumer<HourlyReportDto> consumer = invocation.getArgument(3);
+            consumer.accept(new HourlyReportDto(1555484400L, 100L, new BigDecimal("0.007")));
+            consumer.accept(new HourlyReportDto(1555488000L, 200L, new BigDecimal("0.016")));
+            return null;
+        }).when(meterReadingReportService).streamHourlyReportsForMeter(Mockito.eq("dummy_id_1"), Mockito.eq(1555484400L), Mockito.isNull(), Mockito.any(Consumer.class));
+        // Act
+        MvcResult result = mvc.perform(get("/report/hourly_report/dummy_id_1/stream").param("from", "1555484400"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+        // Assert
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[0].hourStartEpochAsSec", is(1555484400)))
+        .andExpect(jsonPath("$[0].cost", is(0.007)))
+        .andExpect(jsonPath("$[1].hourStartEpochAsSec", is(1555488000)))
+        .andExpect(jsonPath("$[1].readingAsWh", is(200)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void GivenReportServiceTaughtToStreamCertainBatchReports_WhenBatchReportRequested_ThenReportsWrittenAsJsonArray() throws Exception {
+        // Arrange
+        MeterBatchReportRequestDto request = new MeterBatchReportRequestDto(List.of("dummy_id_1", "dummy_id_2"), 1555484400L, null, true);
+        Mockito.doAnswer(invocation -> {
+            Consumer<MeterBatchReportDto> consumer = invocation.getArgument(1);
+            consumer.accept(new MeterBatchReportDto("dummy_id_1", 100L, new BigDecimal("0.007"),
+                    List.of(new HourlyReportDto(1555484400L, 100L, new BigDecimal("0.007")))));
+            consumer.accept(new MeterBatchReportDto("dummy_id_2", 200L, new BigDecimal("0.016"), List.of()));
+            return null;
+        }).when(meterReadingReportService).streamBatchReports(Mockito.eq(request), Mockito.any(Consumer.class));
+        // Act
+        MvcResult result = mvc.perform(post("/report/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"meterIds\":[\"dummy_id_1\",\"dummy_id_2\"],\"from\":1555484400,\"hourly\":true}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+        // Assert
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[0].meterId", is("dummy_id_1")))
+        .andExpect(jsonPath("$[0].hourlyReports[0].readingAsWh", is(100)))
+        .andExpect(jsonPath("$[1].totalCost", is(0.016)))
+        .andExpect(jsonPath("$[1].hourlyReports", hasSize(0)));
+    }
+
+    @Test
+    void GivenTooManyMeters_WhenBatchReportRequested_ThenBadRequestReturned() throws Exception {
+        // Arrange
+        Mockito.doThrow(new IllegalReportRequestException("Batch report should be requested for 1 to 100000 meters"))
+                .when(meterReadingReportService).checkBatchReportRequest(Mockito.any());
+        // Act
+        mvc.perform(post("/report/batch").contentType(MediaType.APPLICATION_JSON).content("{\"meterIds\":[]}"))
+        // Assert
+        .andExpect(status().isBadRequest());
+        Mockito.verify(meterReadingReportService, Mockito.never()).streamBatchReports(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void GivenReportServiceTaughtToReturnCertainCacheStatistics_WhenCacheStatisticsRequested_ThenCertainCacheStatisticsReturned() throws Exception {
+        // Arrange
+        Mockito.when(meterReadingReportService.getCacheStatistics())
+                .thenReturn(List.of(new CacheStatisticsDto("total_readings", 1L, 5L, 2L, 0L)));
+        // Act
+        mvc.perform(get("/report/cache_statistics").contentType(MediaType.APPLICATION_JSON))
+        // Assert
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].name", is("total_readings")))
+        .andExpect(jsonPath("$[0].size", is(1)))
+        .andExpect(jsonPath("$[0].hitCount", is(5)))
+        .andExpect(jsonPath("$[0].missCount", is(2)))
+        .andExpect(jsonPath("$[0].evictionCount", is(0)));
+    }
+
+    @Test
+    void GivenMeterWithDataVersion_WhenTotalReadingRequested_ThenDataVersionReturnedAsETagAndLastModified() throws Exception {
+        // Arrange
+        Mockito.when(meterReadingReportService.getDataVersionOfMeter("dummy_id_1"))
+                .thenReturn(Optional.of(new MeterDataVersionDto(3L, 1555484400000L)));
+        Mockito.when(meterReadingReportService.getTotalReadingAsWhForMeter("dummy_id_1"))
+                .thenReturn(1000L);
+        // Act
+        mvc.perform(get("/report/total_reading/dummy_id_1"))
+        // Assert
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", "\"3\""))
+        .andExpect(header().dateValue("Last-Modified", 1555484400000L))
+        .andExpect(jsonPath("$", is(1000)));
+    }
+
+    @Test
+    void GivenClientHasCurrentDataVersion_WhenHourlyReportRequested_ThenNotModifiedReturnedWithoutReport() throws Exception {
+        // Arrange
+        Mockito.when(meterReadingReportService.getDataVersionOfMeter("dummy_id_1"))
+                .thenReturn(Optional.of(new MeterDataVersionDto(3L, 1555484400000L)));
+        // Act
+        mvc.perform(get("/report/hourly_report/dummy_id_1").header("If-None-Match", "\"3\""))
+        // Assert
+        .andExpect(status().isNotModified())
+        .andExpect(header().string("ETag", "\"3\""))
+        .andExpect(content().string(""));
+        Mockito.verify(meterReadingReportService, Mockito.never()).getHourlyReportsForMeter("dummy_id_1", null, null, null, null);
+    }
+
+    @Test
+    void GivenClientHasOlderDataVersion_WhenTotalCostRequested_ThenTotalCostReturned() throws Exception {
+        // Arrange
+        Mockito.when(meterReadingReportService.getDataVersionOfMeter("dummy_id_1"))
+                .thenReturn(Optional.of(new MeterDataVersionDto(4L, 1555488000000L)));
+        Mockito.when(meterReadingReportService.getTotalCostForMeter("dummy_id_1"))
+                .thenReturn(1000.0);
+        // Act
+        mvc.perform(get("/report/total_cost/dummy_id_1").header("If-None-Match", "\"3\""))
+        // Assert
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", "\"4\""))
+        .andExpect(jsonPath("$", is(1000.0)));
+    }
+
+    @Test
+    void GivenReportServiceTaughtToReturnCertainSummary_WhenSummaryRequestedInRange_ThenCertainSummaryReturned() throws Exception {
+        // Arrange
+        Mockito.when(meterReadingReportService.getDataVersionOfMeter("dummy_id_1")).thenReturn(Optional.empty());
+        Mockito.when(meterReadingReportService.getSummaryForMeter("dummy_id_1", 1555484400L, 1555495200L))
+                .thenReturn(new MeterSummaryDto(700L, new BigDecimal("0.058"), 3L, 1555484400L, 1555491600L, 1555488000L, 300L));
+        // Act
+        mvc.perform(get("/report/summary/dummy_id_1").param("from", "1555484400").param("to", "1555495200"))
+        // Assert
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.totalReadingAsWh", is(700)))
+        .andExpect(jsonPath("$.totalCost", is(0.058)))
+        .andExpect(jsonPath("$.hourCount", is(3)))
+        .andExpect(jsonPath("$.peakHourStartEpochAsSec", is(1555488000)))
+        .andExpect(jsonPath("$.peakReadingAsWh", is(300)));
+    }
+
+    @Test
+    void GivenReportServiceTaughtToReturnCertainTopMeters_WhenTopMetersRequestedWithoutRanking_ThenTopMetersByReadingReturned() throws Exception {
+        // Arrange
+        Mockito.when(meterReadingReportService.getTopMeters(1555459200L, 1555545600L, "reading", 2))
+                .thenReturn(List.of(new TopMeterDto("dummy_id_1", 800L, new BigDecimal("0.056")),
+                        new TopMeterDto("dummy_id_2", 660L, new BigDecimal("0.046"))));
+        // Act
+        mvc.perform(get("/report/top_meters").param("from", "1555459200").param("to", "1555545600").param("count", "2"))
+        // Assert
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(2)))
+        .andExpect(jsonPath("$[0].meterId", is("dummy_id_1")))
+        .andExpect(jsonPath("$[0].totalReadingAsWh", is(800)))
+        .andExpect(jsonPath("$[1].totalCost", is(0.046)));
     }
 }
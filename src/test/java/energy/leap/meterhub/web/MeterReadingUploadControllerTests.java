@@ -1,8 +1,17 @@
 package energy.leap.meterhub.web;
 
+import energy.leap.meterhub.service.IngestJobService;
 import energy.leap.meterhub.service.MeterBatchReadingProcessorService;
+import energy.leap.meterhub.service.dto.BulkLoadReportDto;
+import energy.leap.meterhub.service.dto.IngestJobDto;
+import energy.leap.meterhub.service.dto.IngestJobStatus;
+import energy.leap.meterhub.service.dto.IngestPartitionStatisticsDto;
+import energy.leap.meterhub.service.dto.IngestStageStatisticsDto;
+import energy.leap.meterhub.service.dto.WriteBehindStatisticsDto;
 import energy.leap.meterhub.service.exception.IllegalMeterBatchReadingContentException;
 import energy.leap.meterhub.service.exception.IllegalMeterBatchReadingXmlException;
+import energy.leap.meterhub.service.exception.IngestJobNotFoundException;
+import energy.leap.meterhub.service.exception.IngestQueueFullException;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,7 +21,20 @@ import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(MeterReadingUploadController.class)
@@ -20,6 +42,9 @@ class MeterReadingUploadControllerTests {
     @MockBean
     MeterBatchReadingProcessorService meterBatchReadingProcessorService;
 
+    @MockBean
+    IngestJobService ingestJobService;
+
     @Autowired
     MockMvc mvc;
 
@@ -51,17 +76,39 @@ class MeterReadingUploadControllerTests {
                     </entry>
                 </feed>""";
 
+    private List<String> recordProcessedStreams() {
+        List<String> processedContents = new ArrayList<>();
+        Mockito.doAnswer(invocation -> {
+            processedContents.add(new String(invocation.<InputStream>getArgument(0).readAllBytes(), StandardCharsets.UTF_8));
+            return null;
+        }).when(meterBatchReadingProcessorService).processBatchReading(any(InputStream.class));
+        return processedContents;
+    }
+
     @Test
     void GivenConfigurationIsOk_WhenMeterBatchReadingReportPosted_ThenReadingsProcessed() throws Exception {
         // Arrange
-        // None
+        List<String> processedContents = recordProcessedStreams();
         // Act
         MockMultipartFile file =
                 new MockMultipartFile("file","meter.xml", MediaType.TEXT_PLAIN_VALUE, METER_BATCH_READING_XML.getBytes());
         mvc.perform(multipart("/upload").file(file))
         // Assert
         .andExpect(status().isOk());
-        Mockito.verify(meterBatchReadingProcessorService, Mockito.times(1)).processBatchReading(METER_BATCH_READING_XML);
+        Mockito.verify(meterBatchReadingProcessorService, Mockito.times(1)).processBatchReading(any(InputStream.class));
+        assertEquals(List.of(METER_BATCH_READING_XML), processedContents);
+    }
+
+    @Test
+    void GivenConfigurationIsOk_WhenMeterBatchReadingReportPostedAsXmlBody_ThenReadingsProcessed() throws Exception {
+        // Arrange
+        List<String> processedContents = recordProcessedStreams();
+        // Act
+        mvc.perform(post("/upload").contentType(MediaType.APPLICATION_XML).content(METER_BATCH_READING_XML))
+        // Assert
+        .andExpect(status().isOk());
+        Mockito.verify(meterBatchReadingProcessorService, Mockito.times(1)).processBatchReading(any(InputStream.class));
+        assertEquals(List.of(METER_BATCH_READING_XML), processedContents);
     }
 
     private static final String DUMMY_XML = "<dummy><dummy>";
@@ -69,42 +116,157 @@ class MeterReadingUploadControllerTests {
     void GivenServiceIsConfiguredToThrowIllegalXmlError_WhenXmlPosted_ThenErrorReturned() throws Exception {
         // Arrange
         Mockito.doThrow(new IllegalMeterBatchReadingXmlException("Invalid xml"))
-                .when(meterBatchReadingProcessorService).processBatchReading(DUMMY_XML);
+                .when(meterBatchReadingProcessorService).processBatchReading(any(InputStream.class));
         // Act
         MockMultipartFile file =
                 new MockMultipartFile("file","meter.xml", MediaType.TEXT_PLAIN_VALUE, DUMMY_XML.getBytes());
         mvc.perform(multipart("/upload").file(file))
         // Assert
         .andExpect(status().isInternalServerError());
-        Mockito.verify(meterBatchReadingProcessorService, Mockito.times(1)).processBatchReading(DUMMY_XML);
+        Mockito.verify(meterBatchReadingProcessorService, Mockito.times(1)).processBatchReading(any(InputStream.class));
     }
 
     @Test
     void GivenServiceIsConfiguredToThrowIllegalContentError_WhenXmlPosted_ThenErrorReturned() throws Exception {
         // Arrange
         Mockito.doThrow(new IllegalMeterBatchReadingContentException("Some message"))
-                .when(meterBatchReadingProcessorService).processBatchReading(DUMMY_XML);
+                .when(meterBatchReadingProcessorService).processBatchReading(any(InputStream.class));
         // Act
         MockMultipartFile file =
                 new MockMultipartFile("file","meter.xml", MediaType.TEXT_PLAIN_VALUE, DUMMY_XML.getBytes());
         mvc.perform(multipart("/upload").file(file))
         // Assert
         .andExpect(status().isInternalServerError());
-        Mockito.verify(meterBatchReadingProcessorService, Mockito.times(1)).processBatchReading(DUMMY_XML);
+        Mockito.verify(meterBatchReadingProcessorService, Mockito.times(1)).processBatchReading(any(InputStream.class));
     }
 
     @Test
     void GivenServiceIsConfiguredToThrowRuntimeError_WhenXmlPosted_ThenErrorReturned() throws Exception {
         // Arrange
         Mockito.doThrow(new RuntimeException("Some message"))
-                .when(meterBatchReadingProcessorService).processBatchReading(DUMMY_XML);
+                .when(meterBatchReadingProcessorService).processBatchReading(any(InputStream.class));
         // Act
         MockMultipartFile file =
                 new MockMultipartFile("file","meter.xml", MediaType.TEXT_PLAIN_VALUE, DUMMY_XML.getBytes());
         mvc.perform(multipart("/upload").file(file))
         // Assert
         .andExpect(status().isInternalServerError());
-        Mockito.verify(meterBatchReadingProcessorService, Mockito.times(1)).processBatchReading(DUMMY_XML);
+        Mockito.verify(meterBatchReadingProcessorService, Mockito.times(1)).processBatchReading(any(InputStream.class));
+    }
+
+    @Test
+    void GivenConfigurationIsOk_WhenMeterBatchReadingReportsBulkPosted_ThenAllReadingsProcessedTogether() throws Exception {
+        // Arrange
+        Mockito.when(meterBatchReadingProcessorService.processBatchReadings(any()))
+                .thenReturn(new BulkLoadReportDto(2, 2L, 10L, 200L));
+        // Act
+        MockMultipartFile file1 =
+                new MockMultipartFile("files","meter1.xml", MediaType.TEXT_PLAIN_VALUE, METER_BATCH_READING_XML.getBytes());
+        MockMultipartFile file2 =
+                new MockMultipartFile("files","meter2.xml", MediaType.TEXT_PLAIN_VALUE, METER_BATCH_READING_XML.getBytes());
+        mvc.perform(multipart("/upload/bulk").file(file1).file(file2))
+        // Assert
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.hourlyReadingCount").value(2))
+        .andExpect(jsonPath("$.hourlyReadingsPerSecond").value(200));
+        Mockito.verify(meterBatchReadingProcessorService, Mockito.times(1))
+                .processBatchReadings(Mockito.argThat(files -> files.size() == 2));
+    }
+
+    @Test
+    void GivenQueueHasRoom_WhenMeterBatchReadingReportPostedAsync_ThenAcceptedWithJobLocation() throws Exception {
+        // Arrange
+        Mockito.when(ingestJobService.submitBatchReading(any(InputStream.class)))
+                .thenReturn(new IngestJobDto("dummy_job_id", IngestJobStatus.QUEUED, 1555484400000L, null, null, null));
+        // Act
+        MockMultipartFile file =
+                new MockMultipartFile("file","meter.xml", MediaType.TEXT_PLAIN_VALUE, METER_BATCH_READING_XML.getBytes());
+        mvc.perform(multipart("/upload/async").file(file))
+        // Assert
+        .andExpect(status().isAccepted())
+        .andExpect(header().string("Location", "/upload/jobs/dummy_job_id"))
+        .andExpect(jsonPath("$.id").value("dummy_job_id"))
+        .andExpect(jsonPath("$.status").value("QUEUED"));
+        Mockito.verify(meterBatchReadingProcessorService, Mockito.never()).processBatchReading(any(InputStream.class));
     }
 
+    @Test
+    void GivenQueueIsFull_WhenMeterBatchReadingReportPostedAsyncAsXmlBody_ThenTooManyRequestsWithRetryAfterReturned() throws Exception {
+        // Arrange
+        Mockito.when(ingestJobService.submitBatchReading(any(InputStream.class)))
+                .thenThrow(new IngestQueueFullException("Ingest queue is full, 100 feeds are waiting", Duration.ofSeconds(5)));
+        // Act
+        mvc.perform(post("/upload/async").contentType(MediaType.APPLICATION_XML).content(METER_BATCH_READING_XML))
+        // Assert
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().string("Retry-After", "5"));
+    }
+
+    @Test
+    void GivenJobFailed_WhenJobRequested_ThenStatusAndErrorReturned() throws Exception {
+        // Arrange
+        Mockito.when(ingestJobService.getJob("dummy_job_id"))
+                .thenReturn(new IngestJobDto("dummy_job_id", IngestJobStatus.FAILED, 1555484400000L, 1555484400010L, 1555484400020L, "Some message"));
+        Mockito.when(ingestJobService.getJob("unknown_job_id"))
+                .thenThrow(new IngestJobNotFoundException("Ingest job not found : unknown_job_id"));
+        // Act
+        mvc.perform(get("/upload/jobs/dummy_job_id"))
+        // Assert
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.status").value("FAILED"))
+        .andExpect(jsonPath("$.finishedEpochAsMilli").value(1555484400020L))
+        .andExpect(jsonPath("$.error").value("Some message"));
+        mvc.perform(get("/upload/jobs/unknown_job_id"))
+        .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void GivenPipelineStages_WhenStagesRequested_ThenStatisticsOfEachStageReturned() throws Exception {
+        // Arrange
+        Mockito.when(ingestJobService.getStageStatistics()).thenReturn(List.of(
+                new IngestStageStatisticsDto("parse", 2, 1, 3, 100, 10L, 400L, 0.5),
+                new IngestStageStatisticsDto("normalize", 1, 0, 0, 8, 10L, 20L, 0.05),
+                new IngestStageStatisticsDto("persist", 2, 2, 8, 8, 9L, 800L, 1.0)));
+        // Act
+        mvc.perform(get("/upload/stages"))
+        // Assert
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(3))
+        .andExpect(jsonPath("$[0].name").value("parse"))
+        .andExpect(jsonPath("$[0].queueDepth").value(3))
+        .andExpect(jsonPath("$[2].name").value("persist"))
+        .andExpect(jsonPath("$[2].utilization").value(1.0));
+    }
+
+    @Test
+    void GivenPersistPartitions_WhenPartitionsRequested_ThenLagAndThroughputOfEachPartitionReturned() throws Exception {
+        // Arrange
+        Mockito.when(ingestJobService.getPartitionStatistics()).thenReturn(List.of(
+                new IngestPartitionStatisticsDto(0, 2, 150L, 90L, 40L, 25L, 4.0),
+                new IngestPartitionStatisticsDto(1, 0, 0L, 10L, 12L, 12L, 1.2)));
+        // Act
+        mvc.perform(get("/upload/partitions"))
+        // Assert
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(2))
+        .andExpect(jsonPath("$[0].queueDepth").value(2))
+        .andExpect(jsonPath("$[0].oldestQueuedMillis").value(150))
+        .andExpect(jsonPath("$[1].writeCount").value(12));
+    }
+
+    @Test
+    void GivenWriteBehindMode_WhenWriteBehindRequested_ThenStatisticsReturnedAndNotFoundOtherwise() throws Exception {
+        // Arrange
+        Mockito.when(ingestJobService.getWriteBehindStatistics())
+                .thenReturn(Optional.of(new WriteBehindStatisticsDto(3, 96L, 120L, 4000, 10L, 250L, 24000L, 80L)))
+                .thenReturn(Optional.empty());
+        // Act
+        mvc.perform(get("/upload/write_behind"))
+        // Assert
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.bufferedRowCount").value(96))
+        .andExpect(jsonPath("$.batchSize").value(4000));
+        mvc.perform(get("/upload/write_behind"))
+        .andExpect(status().isNotFound());
+    }
 }